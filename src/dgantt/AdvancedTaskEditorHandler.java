@@ -38,6 +38,11 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 	 * The collection of states for the tasks currently being edited.
 	 */
 	protected List<State> states;
+	
+	/**
+	 * The tasks currently being edited, in the same order as {@code states}.
+	 */
+	protected List<Object> editedTasks;
 
 	/**
 	 * The {@link UndoableEdit} if an edit is currently in progress; otherwise
@@ -61,6 +66,24 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 	 */
 	protected long minimumDuration = 1000 * 60 * 60 * 24;
 	
+	/**
+	 * The scheduler shifting tasks linked to the edited tasks; or 
+	 * {@code null} if tasks are not automatically scheduled.
+	 */
+	protected Scheduler scheduler;
+	
+	/**
+	 * {@code true} if tasks are scheduled after each drag step; 
+	 * {@code false} if tasks are scheduled only when the mouse is released.
+	 */
+	protected boolean scheduleDuringEdit = true;
+	
+	/**
+	 * {@code true} if the scheduler shifted any tasks during the current 
+	 * edit; {@code false} otherwise.
+	 */
+	protected boolean tasksShifted;
+	
 	/**
 	 * Class constructor for an advanced task editor handler.
 	 * 
@@ -74,6 +97,7 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 		this.undoManager = undoManager;
 
 		states = new ArrayList<State>();
+		editedTasks = new ArrayList<Object>();
 	}
 
 	/**
@@ -98,6 +122,78 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 	public void setFireChangeDuringEdit(boolean fireChangeDuringEdit) {
 		this.fireChangeDuringEdit = fireChangeDuringEdit;
 	}
+	
+	/**
+	 * Returns the scheduler shifting tasks linked to the edited tasks; or 
+	 * {@code null} if tasks are not automatically scheduled.
+	 * 
+	 * @return the scheduler shifting tasks linked to the edited tasks; or 
+	 *         {@code null} if tasks are not automatically scheduled
+	 */
+	public Scheduler getScheduler() {
+		return scheduler;
+	}
+	
+	/**
+	 * Sets the scheduler shifting tasks linked to the edited tasks, or 
+	 * {@code null} to disable automatic scheduling.  The shifted tasks are 
+	 * recorded in the same undoable edit as the edited tasks.
+	 * 
+	 * @param scheduler the scheduler shifting tasks linked to the edited 
+	 *        tasks; or {@code null} to disable automatic scheduling
+	 */
+	public void setScheduler(Scheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+	
+	/**
+	 * Returns {@code true} if tasks are scheduled after each drag step; 
+	 * {@code false} if tasks are scheduled only when the mouse is released.
+	 * 
+	 * @return {@code true} if tasks are scheduled after each drag step; 
+	 *         {@code false} if tasks are scheduled only when the mouse is 
+	 *         released
+	 */
+	public boolean isScheduleDuringEdit() {
+		return scheduleDuringEdit;
+	}
+	
+	/**
+	 * If {@code true}, tasks are scheduled after each drag step; otherwise, 
+	 * tasks are scheduled only when the mouse is released.  Scheduling only
+	 * on release avoids shifting large parts of the schedule while dragging.
+	 * 
+	 * @param scheduleDuringEdit {@code true} if tasks are scheduled after 
+	 *        each drag step; {@code false} if tasks are scheduled only when 
+	 *        the mouse is released
+	 */
+	public void setScheduleDuringEdit(boolean scheduleDuringEdit) {
+		this.scheduleDuringEdit = scheduleDuringEdit;
+	}
+	
+	/**
+	 * Schedules the tasks linked to the edited tasks, returning the edited
+	 * tasks together with the shifted tasks.
+	 * 
+	 * @return the edited tasks together with the shifted tasks
+	 */
+	protected List<Object> schedule() {
+		List<Object> shiftedTasks = scheduler.schedule(editedTasks, edit);
+		
+		//the scheduler updated the critical path, so the chart does not see
+		//which tasks changed criticality when resized
+		chart.repaintCriticalTasks(scheduler.getChangedCriticalTasks());
+		
+		if (shiftedTasks.isEmpty()) {
+			return editedTasks;
+		}
+		
+		tasksShifted = true;
+		
+		List<Object> changedTasks = new ArrayList<Object>(editedTasks);
+		changedTasks.addAll(shiftedTasks);
+		return changedTasks;
+	}
 
 	@Override
 	public void mousePressed(MouseEvent e) {
@@ -132,11 +228,19 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 
 		lastPoint = e.getPoint();
 		
-		for (Object task : chart.getSelectedTasks()) {
-			states.add(new State(task, 
-					chart.getTranslator().getStart(task), 
-					chart.getTranslator().getEnd(task), 
-					chart.getTranslator().getRow(task)));
+		editedTasks.addAll(chart.getSelectedTasks());
+		
+		int[] rows = new int[editedTasks.size()];
+		long[] starts = new long[editedTasks.size()];
+		long[] ends = new long[editedTasks.size()];
+		
+		chart.getTranslator().getRows(editedTasks, rows);
+		chart.getTranslator().getStarts(editedTasks, starts);
+		chart.getTranslator().getEnds(editedTasks, ends);
+		
+		for (int i = 0; i < editedTasks.size(); i++) {
+			states.add(new State(editedTasks.get(i), starts[i], ends[i], 
+					rows[i]));
 		}
 
 		mode = getMode(e);
@@ -162,16 +266,29 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 			return;
 		}
 
-		if (!e.getPoint().equals(lastPoint) && (edit != null)) {
+		boolean moved = !e.getPoint().equals(lastPoint);
+		List<Object> changedTasks = editedTasks;
+		
+		if ((scheduler != null) && !isScheduleDuringEdit() && moved && 
+				(edit != null)) {
+			changedTasks = schedule();
+		}
+
+		//tasks shifted while dragging remain shifted even if the mouse is
+		//released where it was pressed
+		if ((moved || tasksShifted) && (edit != null)) {
 			edit.grabAfterSnapshot();
 			edit.commit();
 		}
 		
+		chart.resize(changedTasks);
+
 		edit = null;
+		tasksShifted = false;
 		lastPoint = null;
 		states.clear();
+		editedTasks.clear();
 
-		chart.resize();
 		chart.repaint();
 		chart.fireChangeEvent();
 
@@ -197,6 +314,17 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 		Point point = e.getPoint();
 		long dx = chart.screenToCanonical(point.getX()) 
 				- chart.screenToCanonical(lastPoint.getX());
+		Integer destinationRow = (mode == MOVE) ? 
+				chart.getRow(point.getY()) : null;
+		
+		//collect the new values so they are applied in one batch
+		long[] newStarts = (mode != RESIZE_END) ? 
+				new long[states.size()] : null;
+		long[] newEnds = (mode != RESIZE_START) ? 
+				new long[states.size()] : null;
+		int[] newRows = (destinationRow != null) ? 
+				new int[states.size()] : null;
+		Calendar cal = Calendar.getInstance();
 
 		for (int i = 0; i < states.size(); i++) {
 			State state = states.get(i);
@@ -233,41 +361,40 @@ public class AdvancedTaskEditorHandler extends BasicTaskEditorHandler {
 			}
 
 			// snap dimension to days
-			Calendar cal = Calendar.getInstance();
-			
-			if (mode != RESIZE_END) {
+			if (newStarts != null) {
 				cal.setTimeInMillis(start);
 				cal.set(Calendar.HOUR_OF_DAY, 0);
 				cal.set(Calendar.MINUTE, 0);
 				cal.set(Calendar.SECOND, 0);
 				cal.set(Calendar.MILLISECOND, 0);
-				chart.getTranslator().setStart(task, cal.getTimeInMillis());
+				newStarts[i] = cal.getTimeInMillis();
 			}
 			
-			if (mode != RESIZE_START) {
+			if (newEnds != null) {
 				cal.setTimeInMillis(end);
 				cal.set(Calendar.HOUR_OF_DAY, 0);
 				cal.set(Calendar.MINUTE, 0);
 				cal.set(Calendar.SECOND, 0);
 				cal.set(Calendar.MILLISECOND, 0);
-				chart.getTranslator().setEnd(task, cal.getTimeInMillis());
+				newEnds[i] = cal.getTimeInMillis();
 			}
 
-			if (mode == MOVE) {
-				Integer destinationRow = chart.getRow(point.getY());
-				
-				if (destinationRow != null) {
-					int row = chart.getRow(lastPoint.getY())
-							+ (destinationRow - state.getRow());
-					
-					if (row != chart.getTranslator().getRow(task)) {
-						chart.getTranslator().setRow(task, row);
-					}
-				}
+			if (newRows != null) {
+				newRows[i] = chart.getRow(lastPoint.getY())
+						+ (destinationRow - state.getRow());
 			}
 		}
+		
+		chart.getTranslator().applyUpdates(editedTasks, newRows, newStarts, 
+				newEnds);
+		
+		List<Object> changedTasks = editedTasks;
+		
+		if ((scheduler != null) && isScheduleDuringEdit()) {
+			changedTasks = schedule();
+		}
 
-		chart.resize();
+		chart.resize(changedTasks);
 		chart.repaint();
 		
 		if (isFireChangeDuringEdit()) {
@@ -0,0 +1,136 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * A basic implementation of a {@link CoverageRenderer}.  Runs are filled with
+ * the task background color, optionally darkened in proportion to the number
+ * of tasks per pixel.
+ */
+public class BasicCoverageRenderer implements CoverageRenderer {
+	
+	/**
+	 * The color of runs containing at most one task per pixel.
+	 */
+	public static final Color SPARSE_COLOR = BasicTaskRenderer.BACKGROUND;
+	
+	/**
+	 * The color of runs containing many tasks per pixel.
+	 */
+	public static final Color DENSE_COLOR = new Color(0, 0, 127);
+	
+	/**
+	 * The number of shades between the sparse and dense colors.
+	 */
+	private static final int SHADES = 16;
+	
+	/**
+	 * The precomputed shades between the sparse and dense colors.
+	 */
+	private final Color[] shades;
+	
+	/**
+	 * {@code true} if runs are shaded by the number of tasks per pixel;
+	 * {@code false} if all runs use the sparse color.
+	 */
+	private boolean densityShading;
+	
+	/**
+	 * Class constructor for a basic coverage renderer with density shading.
+	 */
+	public BasicCoverageRenderer() {
+		this(true);
+	}
+	
+	/**
+	 * Class constructor for a basic coverage renderer.
+	 * 
+	 * @param densityShading {@code true} if runs are shaded by the number of
+	 *        tasks per pixel; {@code false} if all runs use the sparse color
+	 */
+	public BasicCoverageRenderer(boolean densityShading) {
+		super();
+		this.densityShading = densityShading;
+		
+		shades = new Color[SHADES];
+		
+		for (int i = 0; i < SHADES; i++) {
+			double t = i / (double)(SHADES - 1);
+			shades[i] = new Color(
+					interpolate(SPARSE_COLOR.getRed(), DENSE_COLOR.getRed(), t),
+					interpolate(SPARSE_COLOR.getGreen(), DENSE_COLOR.getGreen(), t),
+					interpolate(SPARSE_COLOR.getBlue(), DENSE_COLOR.getBlue(), t));
+		}
+	}
+	
+	/**
+	 * Returns the value linearly interpolated between the two values.
+	 * 
+	 * @param from the value when {@code t} is 0
+	 * @param to the value when {@code t} is 1
+	 * @param t the interpolation parameter
+	 * @return the value linearly interpolated between the two values
+	 */
+	private static int interpolate(int from, int to, double t) {
+		return (int)Math.round(from + t*(to - from));
+	}
+	
+	/**
+	 * Returns {@code true} if runs are shaded by the number of tasks per 
+	 * pixel; {@code false} if all runs use the sparse color.
+	 * 
+	 * @return {@code true} if runs are shaded by the number of tasks per 
+	 *         pixel; {@code false} if all runs use the sparse color
+	 */
+	public boolean isDensityShading() {
+		return densityShading;
+	}
+	
+	/**
+	 * Sets whether runs are shaded by the number of tasks per pixel.
+	 * 
+	 * @param densityShading {@code true} if runs are shaded by the number of
+	 *        tasks per pixel; {@code false} if all runs use the sparse color
+	 */
+	public void setDensityShading(boolean densityShading) {
+		this.densityShading = densityShading;
+	}
+
+	@Override
+	public void paintCoverage(Graphics g, GanttChart chart, int row,
+			Rectangle2D bounds, int count) {
+		Graphics2D g2 = (Graphics2D)g;
+		Color color = SPARSE_COLOR;
+		
+		if (densityShading) {
+			//each doubling of the density darkens the run by one shade
+			double density = count / Math.max(bounds.getWidth(), 1.0);
+			int shade = (int)(Math.log(Math.max(density, 1.0)) / Math.log(2.0));
+			color = shades[Math.min(shade, SHADES - 1)];
+		}
+		
+		g2.setColor(color);
+		g2.fill(bounds);
+	}
+
+}
@@ -27,6 +27,7 @@ import java.awt.event.FocusListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Rectangle2D;
+import java.util.Collections;
 
 import javax.swing.JTextField;
 
@@ -94,6 +95,10 @@ implements ActionListener, FocusListener, ComponentListener {
 	public void stopEdit() {
 		chart.remove(editor);
 		chart.getTranslator().setText(task, editor.getText());
+		
+		int row = chart.getTranslator().getRow(task);
+		chart.getModel().fireTasksUpdated(Collections.singleton(task), 
+				GanttModelEvent.TEXT, row, row);
 		chart.repaint(editor.getBounds());
 		chart.removeComponentListener(this);
 		
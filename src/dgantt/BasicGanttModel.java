@@ -17,11 +17,13 @@
  */
 package dgantt;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Basic {@link GanttModel} implementation where each task is placed on a
- * separate row.
+ * separate row.  Tasks may be added or removed if the underlying list is
+ * modifiable.
  */
 public class BasicGanttModel extends GanttModel {
 	
@@ -54,6 +56,39 @@ public class BasicGanttModel extends GanttModel {
 	public int getTaskCount() {
 		return tasks.size();
 	}
+	
+	/**
+	 * {@inheritDoc}  The task is appended to the underlying list, and 
+	 * therefore placed on the last row.
+	 * 
+	 * @throws UnsupportedOperationException if the underlying list is not
+	 *         modifiable
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void addTask(Object task) {
+		((List<Object>)tasks).add(task);
+		
+		int row = tasks.size() - 1;
+		fireTasksInserted(Collections.singleton(task), row, row);
+	}
+
+	/**
+	 * {@inheritDoc}  The tasks on all following rows are shifted up by one
+	 * row.
+	 * 
+	 * @throws UnsupportedOperationException if the underlying list is not
+	 *         modifiable
+	 */
+	@Override
+	public void removeTask(Object task) {
+		int row = tasks.indexOf(task);
+		
+		if (row >= 0) {
+			tasks.remove(row);
+			fireTasksRemoved(Collections.singleton(task), row, tasks.size());
+		}
+	}
 
 }
 
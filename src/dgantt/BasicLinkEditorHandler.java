@@ -26,9 +26,16 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Line2D;
 import java.awt.geom.Rectangle2D;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.undo.UndoManager;
 
 /**
  * Basic {@link MouseAdapter} for adding links using the right-mouse button.
+ * If a {@link Scheduler} is set, the tasks constrained by each added link 
+ * are shifted to their early starts, and the shifted tasks are recorded in
+ * a {@link GanttChartUndoableEdit} of their own.
  */
 public class BasicLinkEditorHandler extends MouseAdapter {
 	
@@ -62,6 +69,18 @@ public class BasicLinkEditorHandler extends MouseAdapter {
 	 * The {@code GanttChart} connected to this listener.
 	 */
 	private final GanttChart chart;
+	
+	/**
+	 * The {@code UndoManager} where the edits shifting tasks are committed; 
+	 * or {@code null} if the edits are not recorded.
+	 */
+	private final UndoManager undoManager;
+	
+	/**
+	 * The scheduler shifting the tasks constrained by added links; or 
+	 * {@code null} if tasks are not automatically scheduled.
+	 */
+	private Scheduler scheduler;
 
 	/**
 	 * Class constructor for adding tasks using the right-mouse button.
@@ -69,8 +88,82 @@ public class BasicLinkEditorHandler extends MouseAdapter {
 	 * @param chart the {@code GanttChart} connected to this listener
 	 */
 	public BasicLinkEditorHandler(GanttChart chart) {
+		this(chart, null);
+	}
+	
+	/**
+	 * Class constructor for adding tasks using the right-mouse button, 
+	 * committing the edits shifting tasks to the specified 
+	 * {@code UndoManager}.
+	 * 
+	 * @param chart the {@code GanttChart} connected to this listener
+	 * @param undoManager the {@code UndoManager} where the edits shifting 
+	 *        tasks are committed; or {@code null} if the edits are not 
+	 *        recorded
+	 */
+	public BasicLinkEditorHandler(GanttChart chart, UndoManager undoManager) {
 		super();
 		this.chart = chart;
+		this.undoManager = undoManager;
+	}
+	
+	/**
+	 * Returns the scheduler shifting the tasks constrained by added links; or
+	 * {@code null} if tasks are not automatically scheduled.
+	 * 
+	 * @return the scheduler shifting the tasks constrained by added links; or
+	 *         {@code null} if tasks are not automatically scheduled
+	 */
+	public Scheduler getScheduler() {
+		return scheduler;
+	}
+	
+	/**
+	 * Sets the scheduler shifting the tasks constrained by added links, or 
+	 * {@code null} to disable automatic scheduling.
+	 * 
+	 * @param scheduler the scheduler shifting the tasks constrained by added
+	 *        links; or {@code null} to disable automatic scheduling
+	 */
+	public void setScheduler(Scheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+	
+	/**
+	 * Shifts the tasks constrained by the specified added link, recording the
+	 * shifted tasks in a new undoable edit if an {@code UndoManager} was 
+	 * specified.
+	 * 
+	 * @param link the added link
+	 */
+	protected void schedule(Link link) {
+		GanttChartUndoableEdit edit = null;
+		
+		if (undoManager != null) {
+			edit = new GanttChartUndoableEdit(GanttChartUndoableEdit.MOUSE, 
+					chart, undoManager);
+			edit.grabBeforeSnapshot();
+		}
+		
+		List<Object> shiftedTasks = scheduler.scheduleLinks(
+				Collections.singletonList(link), edit);
+		
+		//the scheduler updated the critical path, so the chart does not see
+		//which tasks changed criticality when resized
+		chart.repaintCriticalTasks(scheduler.getChangedCriticalTasks());
+		
+		if (shiftedTasks.isEmpty()) {
+			return;
+		}
+		
+		if (edit != null) {
+			edit.grabAfterSnapshot();
+			edit.commit();
+		}
+		
+		chart.resize(shiftedTasks);
+		chart.repaint();
+		chart.fireChangeEvent();
 	}
 	
 	@Override
@@ -127,9 +220,13 @@ public class BasicLinkEditorHandler extends MouseAdapter {
 		Object hoverTask = chart.getTaskAtPoint(lastPoint);
 		
 		if (hoverTask != null) {
-			chart.getLinkModel().addLink(new Link(selectedTask, hoverTask, 
-					LinkType.FINISH_TO_START));
-			chart.repaint(chart.getVisibleRect());
+			Link link = new Link(selectedTask, hoverTask, 
+					LinkType.FINISH_TO_START);
+			chart.getLinkModel().addLink(link);
+			
+			if (scheduler != null) {
+				schedule(link);
+			}
 		}
 		
 		selectedPoint = null;
@@ -50,11 +50,16 @@ public class BasicLinkModel extends LinkModel {
 	@Override
 	public void addLink(Link link) {
 		links.add(link);
+		fireLinkAdded(link);
 	}
 	
 	@Override
 	public void removeLink(Link link) {
-		links.remove(link);
+		int index = links.indexOf(link);
+		
+		if (index >= 0) {
+			fireLinkRemoved(links.remove(index));
+		}
 	}
 	
 	/**
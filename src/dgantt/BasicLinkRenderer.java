@@ -21,7 +21,6 @@ import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Polygon;
-import java.awt.Shape;
 import java.awt.geom.Rectangle2D;
 
 /**
@@ -34,19 +33,38 @@ public class BasicLinkRenderer implements LinkRenderer {
 	 */
 	public static final Color BACKGROUND = Color.RED;
 	
+	/**
+	 * Reusable storage for the bounds of the source task.
+	 */
+	private final Rectangle2D bounds1;
+	
+	/**
+	 * Reusable storage for the bounds of the target task.
+	 */
+	private final Rectangle2D bounds2;
+	
+	/**
+	 * Reusable storage for the arrow polygon.
+	 */
+	private final Polygon polygon;
+	
 	/**
 	 * Class constructor for a basic link renderer.
 	 */
 	public BasicLinkRenderer() {
 		super();
+		
+		bounds1 = new Rectangle2D.Double();
+		bounds2 = new Rectangle2D.Double();
+		polygon = new Polygon();
 	}
 
 	@Override
 	public void paintLink(Graphics g, GanttChart chart, Link link) {
 		Graphics2D g2 = (Graphics2D)g;
-		Rectangle2D bounds1 = chart.getTaskBounds(link.getFirst());
-		Rectangle2D bounds2 = chart.getTaskBounds(link.getSecond());
-		Shape arrow = null;
+		chart.getTaskBounds(link.getFirst(), bounds1);
+		chart.getTaskBounds(link.getSecond(), bounds2);
+		Polygon arrow = null;
 		
 		switch (link.getType()) {
 		case START_TO_START:
@@ -66,13 +84,15 @@ public class BasicLinkRenderer implements LinkRenderer {
 		}
 		
 		g2.setColor(BACKGROUND);
-		g2.fill(arrow);
+		//the primitive polygon methods avoid allocating a path iterator
+		g2.fillPolygon(arrow.xpoints, arrow.ypoints, arrow.npoints);
 		g2.setColor(Color.BLACK);
-		g2.draw(arrow);
+		g2.drawPolygon(arrow.xpoints, arrow.ypoints, arrow.npoints);
 	}
 
 	// The following is modified from 
 	// http://forum.java.sun.com/thread.jsp?forum=57&thread=374342
+	// The returned polygon is reused by subsequent calls.
 	private Polygon getArrow(int xCenter, int yCenter, int x, int y) {
 		double aDir=Math.atan2(xCenter-x,yCenter-y);
 		
@@ -81,7 +101,8 @@ public class BasicLinkRenderer implements LinkRenderer {
 			aDir = -1.5707963267948966; 
 		}
 		
-		Polygon tmpPoly=new Polygon();
+		Polygon tmpPoly=polygon;
+		tmpPoly.reset();
 		tmpPoly.addPoint(xCenter, yCenter);
 		int i1=9;
 		int i2=6; // make the arrow head the same size regardless of the length
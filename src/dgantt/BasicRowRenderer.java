@@ -38,17 +38,29 @@ public class BasicRowRenderer implements RowRenderer {
 	 */
 	public static final Color EVEN_COLOR = Color.WHITE;
 	
+	/**
+	 * The color of the placeholder drawn in rows still being loaded.
+	 */
+	public static final Color PLACEHOLDER_COLOR = new Color(220, 220, 228);
+	
+	/**
+	 * Reusable storage for the clip bounds.
+	 */
+	private final Rectangle clip;
+	
 	/**
 	 * Class constructor for a basic row renderer.
 	 */
 	public BasicRowRenderer() {
 		super();
+		
+		clip = new Rectangle();
 	}
 
 	@Override
 	public void paintBackground(Graphics g, GanttChart chart) {
 		Graphics2D g2 = (Graphics2D)g;
-		Rectangle clip = g2.getClipBounds();
+		g2.getClipBounds(clip);
 		
 		g2.setColor(chart.getBackground());
 		g2.fill(clip);
@@ -66,6 +78,15 @@ public class BasicRowRenderer implements RowRenderer {
 		}
 		
 		g2.fill(bounds);
+		
+		if (!isTable && !chart.getModel().isRowLoaded(row)) {
+			g2.setColor(PLACEHOLDER_COLOR);
+			g2.getClipBounds(clip);
+			
+			int height = (int)bounds.getHeight();
+			g2.fillRect(clip.x, (int)bounds.getY() + height/4, clip.width, 
+					Math.max(height/2, 1));
+		}
 	}
 
 }
@@ -22,6 +22,9 @@ import java.awt.Point;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Basic {@link MouseAdapter} for selecting, moving and resizing tasks.  One
@@ -222,17 +225,22 @@ public class BasicTaskEditorHandler extends MouseAdapter {
 
 		Point point = e.getPoint();
 		double dx = point.getX() - lastPoint.getX();
+		Integer destinationRow = (mode == MOVE) ? 
+				chart.getRow(point.getY()) : null;
 		
-		for (Object task : chart.getSelectedTasks()) {
-			Rectangle2D bounds = chart.getTaskBounds(task);
-			
-			if (mode == MOVE) {
-				Integer destinationRow = chart.getRow(point.getY());
-				
-				if (destinationRow != null) {
-					chart.getTranslator().setRow(task, destinationRow);
-				}
-			}
+		//collect the new values so they are applied in one batch
+		List<Object> tasks = new ArrayList<Object>(chart.getSelectedTasks());
+		long[] starts = new long[tasks.size()];
+		long[] ends = new long[tasks.size()];
+		int[] rows = null;
+		
+		if (destinationRow != null) {
+			rows = new int[tasks.size()];
+			Arrays.fill(rows, destinationRow);
+		}
+		
+		for (int i = 0; i < tasks.size(); i++) {
+			Rectangle2D bounds = chart.getTaskBounds(tasks.get(i));
 			
 			if (mode == RESIZE_START) {
 				if (bounds.getWidth() - dx <= 0) {
@@ -259,12 +267,13 @@ public class BasicTaskEditorHandler extends MouseAdapter {
 				chart.scrollRectToVisible(bounds.getBounds());
 			}
 			
-			chart.getTranslator().setStart(task, 
-					chart.screenToCanonical(bounds.getMinX()));
-			chart.getTranslator().setEnd(task, 
-					chart.screenToCanonical(bounds.getMaxX()));
+			starts[i] = chart.screenToCanonical(bounds.getMinX());
+			ends[i] = chart.screenToCanonical(bounds.getMaxX());
 		}
+		
+		chart.getTranslator().applyUpdates(tasks, rows, starts, ends);
 
+		chart.resize(chart.getSelectedTasks());
 		chart.repaint();
 		chart.fireChangeEvent();
 		
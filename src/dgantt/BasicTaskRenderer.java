@@ -20,6 +20,7 @@ package dgantt;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.geom.Rectangle2D;
 
 /**
@@ -37,19 +38,38 @@ public class BasicTaskRenderer implements TaskRenderer {
 	 */
 	public static final Color BACKGROUND = new Color(127, 127, 255);
 	
+	/**
+	 * The background color of critical tasks, used when the chart computes
+	 * its critical path.
+	 */
+	public static final Color CRITICAL_BACKGROUND = new Color(255, 127, 127);
+	
+	/**
+	 * Reusable storage for the integer bounds of the task text.
+	 */
+	private final Rectangle textBounds;
+	
 	/**
 	 * Class constructor for a basic task renderer.
 	 */
 	public BasicTaskRenderer() {
 		super();
+		
+		textBounds = new Rectangle();
 	}
 
 	@Override
 	public void paintTask(Graphics g, GanttChart chart, Object task,
 			Rectangle2D bounds, boolean selected) {
 		Graphics2D g2 = (Graphics2D)g;
-
-		g2.setColor(BACKGROUND);
+		CriticalPath criticalPath = chart.getCriticalPath();
+		
+		if ((criticalPath != null) && criticalPath.isCritical(task)) {
+			g2.setColor(CRITICAL_BACKGROUND);
+		} else {
+			g2.setColor(BACKGROUND);
+		}
+		
 		g2.fill(bounds);
 		
 		g2.setColor(Color.BLACK);
@@ -61,8 +81,10 @@ public class BasicTaskRenderer implements TaskRenderer {
 		}
 		
 		g2.setColor(FOREGROUND);
+		textBounds.setRect(bounds.getX(), bounds.getY(), bounds.getWidth(), 
+				bounds.getHeight());
 		TextUtilities.paintString(g2, chart.getTranslator().getText(task), 
-				bounds.getBounds(), TextUtilities.CENTER, TextUtilities.CENTER);
+				textBounds, TextUtilities.CENTER, TextUtilities.CENTER);
 	}
 
 }
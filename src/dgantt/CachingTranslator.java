@@ -0,0 +1,480 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link Translator} decorator which caches the row, start, end and text 
+ * values of each task, for translators deriving these values from expensive 
+ * domain objects.  A {@link GanttChart} reads these values many times per 
+ * task while painting, hit-testing and drawing links; this translator invokes
+ * the underlying translator only once per task until the cached value is 
+ * invalidated.
+ * <p>
+ * Cached values are stored in primitive arrays, indexed by a slot assigned
+ * to each task on first use.  Tasks are identified by identity, as in 
+ * {@link IndexedGanttModel}.  Values are invalidated when the task is 
+ * modified through this translator, when a {@link GanttModelEvent} reports
+ * the task as updated or removed, or when {@link #invalidate(Object)} is 
+ * invoked.  Inserting or removing tasks invalidates the cached rows of all
+ * tasks on or after the first changed row, since models such as 
+ * {@link IndexedGanttModel} shift the rows of the following tasks; tasks 
+ * appended after the last cached row invalidate nothing.  Events which do 
+ * not identify the changed tasks invalidate all cached values.  Tasks modified by other means must be invalidated 
+ * explicitly.  Since listeners are notified in the order they were 
+ * registered, this translator should be created before the chart so its 
+ * cache is invalidated before the chart reads the changed values.
+ */
+public class CachingTranslator extends Translator 
+implements GanttModelListener {
+	
+	/**
+	 * The initial number of slots.
+	 */
+	private static final int INITIAL_CAPACITY = 256;
+	
+	/**
+	 * Flag indicating the cached row is valid.
+	 */
+	private static final byte ROW = 1;
+	
+	/**
+	 * Flag indicating the cached start value is valid.
+	 */
+	private static final byte START = 2;
+	
+	/**
+	 * Flag indicating the cached end value is valid.
+	 */
+	private static final byte END = 4;
+	
+	/**
+	 * Flag indicating the cached text is valid.
+	 */
+	private static final byte TEXT = 8;
+	
+	/**
+	 * The underlying translator.
+	 */
+	private final Translator translator;
+	
+	/**
+	 * The slot assigned to each task with cached values.
+	 */
+	private final Map<Object, Integer> slots;
+	
+	/**
+	 * The slots released by removed tasks, available for reuse.
+	 */
+	private int[] freeSlots;
+	
+	/**
+	 * The number of released slots.
+	 */
+	private int freeCount;
+	
+	/**
+	 * The number of slots assigned, including released slots.
+	 */
+	private int slotCount;
+	
+	/**
+	 * An upper bound on the cached rows, or {@code -1} if no rows are 
+	 * cached.
+	 */
+	private int maxRow;
+	
+	/**
+	 * The flags indicating which cached values are valid in each slot.
+	 */
+	private byte[] flags;
+	
+	/**
+	 * The cached rows.
+	 */
+	private int[] rows;
+	
+	/**
+	 * The cached start values.
+	 */
+	private long[] starts;
+	
+	/**
+	 * The cached end values.
+	 */
+	private long[] ends;
+	
+	/**
+	 * The cached display text.
+	 */
+	private String[] texts;
+	
+	/**
+	 * The number of values read from the cache.
+	 */
+	private long hitCount;
+	
+	/**
+	 * The number of values read from the underlying translator.
+	 */
+	private long missCount;
+	
+	/**
+	 * Class constructor for a translator caching the values returned by the
+	 * specified translator for the tasks in the specified model.  This 
+	 * translator registers itself as a listener of the model.
+	 * 
+	 * @param translator the underlying translator
+	 * @param model the Gantt model containing the tasks
+	 */
+	public CachingTranslator(Translator translator, GanttModel model) {
+		super();
+		this.translator = translator;
+		
+		slots = new IdentityHashMap<Object, Integer>();
+		freeSlots = new int[INITIAL_CAPACITY];
+		flags = new byte[INITIAL_CAPACITY];
+		rows = new int[INITIAL_CAPACITY];
+		starts = new long[INITIAL_CAPACITY];
+		ends = new long[INITIAL_CAPACITY];
+		texts = new String[INITIAL_CAPACITY];
+		maxRow = -1;
+		
+		model.addGanttModelListener(this);
+	}
+	
+	/**
+	 * Returns the underlying translator.
+	 * 
+	 * @return the underlying translator
+	 */
+	public Translator getTranslator() {
+		return translator;
+	}
+	
+	/**
+	 * Returns the slot assigned to the specified task, assigning a new slot 
+	 * if necessary.
+	 * 
+	 * @param task the task
+	 * @return the slot assigned to the specified task
+	 */
+	private int getSlot(Object task) {
+		Integer slot = slots.get(task);
+		
+		if (slot != null) {
+			return slot;
+		}
+		
+		int newSlot;
+		
+		if (freeCount > 0) {
+			newSlot = freeSlots[--freeCount];
+		} else {
+			if (slotCount == flags.length) {
+				int capacity = 2*flags.length;
+				flags = Arrays.copyOf(flags, capacity);
+				rows = Arrays.copyOf(rows, capacity);
+				starts = Arrays.copyOf(starts, capacity);
+				ends = Arrays.copyOf(ends, capacity);
+				texts = Arrays.copyOf(texts, capacity);
+			}
+			
+			newSlot = slotCount++;
+		}
+		
+		flags[newSlot] = 0;
+		slots.put(task, newSlot);
+		return newSlot;
+	}
+
+	@Override
+	public int getRow(Object task) {
+		int slot = getSlot(task);
+		
+		if ((flags[slot] & ROW) != 0) {
+			hitCount++;
+		} else {
+			missCount++;
+			rows[slot] = translator.getRow(task);
+			flags[slot] |= ROW;
+			maxRow = Math.max(maxRow, rows[slot]);
+		}
+		
+		return rows[slot];
+	}
+
+	@Override
+	public long getStart(Object task) {
+		int slot = getSlot(task);
+		
+		if ((flags[slot] & START) != 0) {
+			hitCount++;
+		} else {
+			missCount++;
+			starts[slot] = translator.getStart(task);
+			flags[slot] |= START;
+		}
+		
+		return starts[slot];
+	}
+
+	@Override
+	public long getEnd(Object task) {
+		int slot = getSlot(task);
+		
+		if ((flags[slot] & END) != 0) {
+			hitCount++;
+		} else {
+			missCount++;
+			ends[slot] = translator.getEnd(task);
+			flags[slot] |= END;
+		}
+		
+		return ends[slot];
+	}
+
+	@Override
+	public String getText(Object task) {
+		int slot = getSlot(task);
+		
+		if ((flags[slot] & TEXT) != 0) {
+			hitCount++;
+		} else {
+			missCount++;
+			texts[slot] = translator.getText(task);
+			flags[slot] |= TEXT;
+		}
+		
+		return texts[slot];
+	}
+
+	@Override
+	public String getToolTipText(Object task) {
+		return translator.getToolTipText(task);
+	}
+
+	@Override
+	public void setRow(Object task, int row) {
+		translator.setRow(task, row);
+		invalidate(task, ROW);
+	}
+
+	@Override
+	public void setStart(Object task, long start) {
+		translator.setStart(task, start);
+		invalidate(task, START);
+	}
+
+	@Override
+	public void setEnd(Object task, long end) {
+		translator.setEnd(task, end);
+		invalidate(task, END);
+	}
+
+	@Override
+	public void setText(Object task, String text) {
+		translator.setText(task, text);
+		invalidate(task, TEXT);
+	}
+	
+	@Override
+	public void applyUpdates(List<?> tasks, int[] rows, long[] starts,
+			long[] ends) {
+		translator.applyUpdates(tasks, rows, starts, ends);
+		
+		for (Object task : tasks) {
+			invalidate(task, ROW | START | END);
+		}
+	}
+	
+	/**
+	 * Discards the cached values of the specified task.
+	 * 
+	 * @param task the task
+	 */
+	public void invalidate(Object task) {
+		invalidate(task, ROW | START | END | TEXT);
+	}
+	
+	/**
+	 * Discards the specified cached values of the specified task.
+	 * 
+	 * @param task the task
+	 * @param fields the {@code ROW}, {@code START}, {@code END} and 
+	 *        {@code TEXT} flags of the values to discard
+	 */
+	private void invalidate(Object task, int fields) {
+		Integer slot = slots.get(task);
+		
+		if (slot != null) {
+			flags[slot] &= ~fields;
+		}
+	}
+	
+	/**
+	 * Discards the cached values of all tasks.
+	 */
+	public void invalidateAll() {
+		slots.clear();
+		freeCount = 0;
+		Arrays.fill(texts, 0, slotCount, null);
+		slotCount = 0;
+		maxRow = -1;
+	}
+	
+	/**
+	 * Releases the slot of the specified task, so it can be reused by 
+	 * another task.
+	 * 
+	 * @param task the task
+	 */
+	private void release(Object task) {
+		Integer slot = slots.remove(task);
+		
+		if (slot != null) {
+			texts[slot] = null;
+			
+			if (freeCount == freeSlots.length) {
+				freeSlots = Arrays.copyOf(freeSlots, 2*freeSlots.length);
+			}
+			
+			freeSlots[freeCount++] = slot;
+		}
+	}
+
+	@Override
+	public void ganttModelChanged(GanttModelEvent event) {
+		if (event.getTasks() == null) {
+			invalidateAll();
+		} else if (event.getType() == GanttModelEvent.DELETE) {
+			for (Object task : event.getTasks()) {
+				release(task);
+			}
+			
+			invalidateRows(event.getFirstRow());
+		} else if (event.getType() == GanttModelEvent.UPDATE) {
+			int fields = 0;
+			
+			if ((event.getFields() & GanttModelEvent.ROW) != 0) {
+				fields |= ROW;
+			}
+			
+			if ((event.getFields() & GanttModelEvent.START) != 0) {
+				fields |= START;
+			}
+			
+			if ((event.getFields() & GanttModelEvent.END) != 0) {
+				fields |= END;
+			}
+			
+			if ((event.getFields() & GanttModelEvent.TEXT) != 0) {
+				fields |= TEXT;
+			}
+			
+			for (Object task : event.getTasks()) {
+				invalidate(task, fields);
+			}
+		} else {
+			//inserted tasks may reuse objects with stale cached values
+			for (Object task : event.getTasks()) {
+				invalidate(task);
+			}
+			
+			invalidateRows(event.getFirstRow());
+		}
+	}
+	
+	/**
+	 * Discards the cached rows of all tasks on or after the specified row, 
+	 * since inserting or removing tasks may shift the rows of the following
+	 * tasks.  No slots are scanned if the row follows the largest cached 
+	 * row, as when tasks are appended.
+	 * 
+	 * @param firstRow the first row containing inserted or removed tasks; or
+	 *        a negative value if unknown
+	 */
+	private void invalidateRows(int firstRow) {
+		if (firstRow > maxRow) {
+			return;
+		}
+		
+		maxRow = -1;
+		
+		for (int i = 0; i < slotCount; i++) {
+			if ((flags[i] & ROW) != 0) {
+				if (rows[i] >= firstRow) {
+					flags[i] &= ~ROW;
+				} else {
+					maxRow = Math.max(maxRow, rows[i]);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the number of tasks with cached values.
+	 * 
+	 * @return the number of tasks with cached values
+	 */
+	public int getCachedTaskCount() {
+		return slots.size();
+	}
+	
+	/**
+	 * Returns the number of values read from the cache.
+	 * 
+	 * @return the number of values read from the cache
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+	
+	/**
+	 * Returns the number of values read from the underlying translator.
+	 * 
+	 * @return the number of values read from the underlying translator
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+	
+	/**
+	 * Returns the fraction of values read from the cache; or {@code 0} if no
+	 * values have been read.
+	 * 
+	 * @return the fraction of values read from the cache
+	 */
+	public double getHitRatio() {
+		long total = hitCount + missCount;
+		return (total == 0) ? 0.0 : (double)hitCount / total;
+	}
+	
+	/**
+	 * Resets the hit and miss counts to zero.
+	 */
+	public void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+	}
+
+}
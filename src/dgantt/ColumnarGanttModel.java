@@ -0,0 +1,421 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link GanttModel} storing tasks in primitive arrays rather than as 
+ * user-defined objects.  Each task is identified by an integer id, which is
+ * also its index in the model; the task objects returned by 
+ * {@link #getTaskAt(int)} are the boxed ids.  The start and end values are
+ * stored in {@code long} arrays, the rows in an {@code int} array and the 
+ * text as an index into a table of distinct strings, requiring 24 bytes per
+ * task.
+ * <p>
+ * Tasks are read and written using the {@link Translator} returned by 
+ * {@link #getTranslator()}.  When a {@link GanttChart} uses this model with
+ * that translator, the chart's indices and range are computed directly from
+ * the primitive arrays.
+ * <p>
+ * As with other models, the {@code set} methods do not fire events; the
+ * caller is responsible for notifying the chart of changes.
+ */
+public class ColumnarGanttModel extends GanttModel {
+	
+	/**
+	 * The default number of tasks for which storage is initially allocated.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+	
+	/**
+	 * The start value of each task.
+	 */
+	private long[] starts;
+	
+	/**
+	 * The end value of each task.
+	 */
+	private long[] ends;
+	
+	/**
+	 * The row of each task.
+	 */
+	private int[] rows;
+	
+	/**
+	 * The index of the text of each task in {@code texts}.
+	 */
+	private int[] textIds;
+	
+	/**
+	 * The number of tasks stored in this model.
+	 */
+	private int taskCount;
+	
+	/**
+	 * The number of rows in this model.
+	 */
+	private int rowCount;
+	
+	/**
+	 * The table of distinct task text.
+	 */
+	private final List<String> texts;
+	
+	/**
+	 * The index of each distinct text in {@code texts}.
+	 */
+	private final Map<String, Integer> textTable;
+	
+	/**
+	 * The translator for reading and writing the tasks in this model.
+	 */
+	private final ColumnarTranslator translator;
+	
+	/**
+	 * Class constructor for an empty columnar Gantt model.
+	 */
+	public ColumnarGanttModel() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Class constructor for an empty columnar Gantt model with storage 
+	 * initially allocated for the specified number of tasks.
+	 * 
+	 * @param initialCapacity the number of tasks for which storage is 
+	 *        initially allocated
+	 */
+	public ColumnarGanttModel(int initialCapacity) {
+		super();
+		
+		starts = new long[initialCapacity];
+		ends = new long[initialCapacity];
+		rows = new int[initialCapacity];
+		textIds = new int[initialCapacity];
+		texts = new ArrayList<String>();
+		textTable = new HashMap<String, Integer>();
+		translator = new ColumnarTranslator(this);
+	}
+	
+	/**
+	 * Returns the translator for reading and writing the tasks in this model.
+	 * 
+	 * @return the translator for reading and writing the tasks in this model
+	 */
+	public ColumnarTranslator getTranslator() {
+		return translator;
+	}
+
+	@Override
+	public int getRowCount() {
+		return rowCount;
+	}
+	
+	/**
+	 * Sets the number of rows in this model.  The number of rows is also 
+	 * increased automatically when a task is added to or moved to a row 
+	 * beyond the last row.
+	 * 
+	 * @param rowCount the number of rows in this model
+	 */
+	public void setRowCount(int rowCount) {
+		this.rowCount = rowCount;
+		fireGanttModelChanged();
+	}
+
+	@Override
+	public int getTaskCount() {
+		return taskCount;
+	}
+
+	@Override
+	public Object getTaskAt(int index) {
+		return Integer.valueOf(index);
+	}
+	
+	/**
+	 * Adds a new task to this model, returning its id.
+	 * 
+	 * @param start the start value of the task
+	 * @param end the end value of the task
+	 * @param row the row of the task
+	 * @param text the display text of the task
+	 * @return the id of the new task
+	 */
+	public int addTask(long start, long end, int row, String text) {
+		if (taskCount == starts.length) {
+			ensureCapacity(taskCount + 1);
+		}
+		
+		int id = taskCount++;
+		starts[id] = start;
+		ends[id] = end;
+		rows[id] = row;
+		textIds[id] = intern(text);
+		rowCount = Math.max(rowCount, row + 1);
+		
+		fireTasksInserted(Collections.singleton(Integer.valueOf(id)), row, 
+				row);
+		return id;
+	}
+	
+	/**
+	 * {@inheritDoc}  Since each task object is its boxed id, the index is 
+	 * found in constant time.
+	 */
+	@Override
+	public int indexOf(Object task) {
+		if (task instanceof Integer) {
+			int id = ((Integer)task).intValue();
+			
+			if ((id >= 0) && (id < taskCount)) {
+				return id;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Returns {@code true}, since {@code indexOf} and {@code contains} run 
+	 * in constant time.
+	 * 
+	 * @return {@code true}
+	 */
+	@Override
+	public boolean isIndexed() {
+		return true;
+	}
+	
+	/**
+	 * Returns the id of the specified task object.
+	 * 
+	 * @param task the task object
+	 * @return the id of the specified task object
+	 */
+	public int getId(Object task) {
+		return ((Integer)task).intValue();
+	}
+	
+	/**
+	 * Returns the start value of the specified task.
+	 * 
+	 * @param id the id of the task
+	 * @return the start value of the specified task
+	 */
+	public long getStart(int id) {
+		return starts[id];
+	}
+	
+	/**
+	 * Sets the start value of the specified task.
+	 * 
+	 * @param id the id of the task
+	 * @param start the new start value
+	 */
+	public void setStart(int id, long start) {
+		starts[id] = start;
+	}
+	
+	/**
+	 * Returns the end value of the specified task.
+	 * 
+	 * @param id the id of the task
+	 * @return the end value of the specified task
+	 */
+	public long getEnd(int id) {
+		return ends[id];
+	}
+	
+	/**
+	 * Sets the end value of the specified task.
+	 * 
+	 * @param id the id of the task
+	 * @param end the new end value
+	 */
+	public void setEnd(int id, long end) {
+		ends[id] = end;
+	}
+	
+	/**
+	 * Returns the row of the specified task.
+	 * 
+	 * @param id the id of the task
+	 * @return the row of the specified task
+	 */
+	public int getRow(int id) {
+		return rows[id];
+	}
+	
+	/**
+	 * Sets the row of the specified task, increasing the number of rows if
+	 * necessary.
+	 * 
+	 * @param id the id of the task
+	 * @param row the new row
+	 */
+	public void setRow(int id, int row) {
+		rows[id] = row;
+		rowCount = Math.max(rowCount, row + 1);
+	}
+	
+	/**
+	 * Copies the rows of the tasks with ids {@code from} (inclusive) through 
+	 * {@code to} (exclusive) into the specified array, starting at position
+	 * {@code 0}.
+	 * 
+	 * @param from the id of the first task
+	 * @param to the id following the last task
+	 * @param result the array receiving the rows
+	 * @throws IndexOutOfBoundsException if the range of ids is invalid
+	 */
+	public void getRows(int from, int to, int[] result) {
+		checkRange(from, to);
+		System.arraycopy(rows, from, result, 0, to - from);
+	}
+	
+	/**
+	 * Copies the start values of the tasks with ids {@code from} (inclusive)
+	 * through {@code to} (exclusive) into the specified array, starting at 
+	 * position {@code 0}.
+	 * 
+	 * @param from the id of the first task
+	 * @param to the id following the last task
+	 * @param result the array receiving the start values
+	 * @throws IndexOutOfBoundsException if the range of ids is invalid
+	 */
+	public void getStarts(int from, int to, long[] result) {
+		checkRange(from, to);
+		System.arraycopy(starts, from, result, 0, to - from);
+	}
+	
+	/**
+	 * Copies the end values of the tasks with ids {@code from} (inclusive)
+	 * through {@code to} (exclusive) into the specified array, starting at 
+	 * position {@code 0}.
+	 * 
+	 * @param from the id of the first task
+	 * @param to the id following the last task
+	 * @param result the array receiving the end values
+	 * @throws IndexOutOfBoundsException if the range of ids is invalid
+	 */
+	public void getEnds(int from, int to, long[] result) {
+		checkRange(from, to);
+		System.arraycopy(ends, from, result, 0, to - from);
+	}
+	
+	/**
+	 * Throws an exception if the specified range of ids does not lie within
+	 * the stored tasks.
+	 * 
+	 * @param from the id of the first task
+	 * @param to the id following the last task
+	 * @throws IndexOutOfBoundsException if the range of ids is invalid
+	 */
+	private void checkRange(int from, int to) {
+		if ((from < 0) || (to > taskCount) || (from > to)) {
+			throw new IndexOutOfBoundsException("from: " + from + ", to: " + 
+					to + ", size: " + taskCount);
+		}
+	}
+	
+	/**
+	 * Returns the display text of the specified task.
+	 * 
+	 * @param id the id of the task
+	 * @return the display text of the specified task
+	 */
+	public String getText(int id) {
+		return texts.get(textIds[id]);
+	}
+	
+	/**
+	 * Sets the display text of the specified task.
+	 * 
+	 * @param id the id of the task
+	 * @param text the new display text
+	 */
+	public void setText(int id, String text) {
+		textIds[id] = intern(text);
+	}
+	
+	/**
+	 * Ensures storage is allocated for at least the specified number of 
+	 * tasks.
+	 * 
+	 * @param capacity the number of tasks
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity > starts.length) {
+			resize(Math.max(capacity, 2*starts.length));
+		}
+	}
+	
+	/**
+	 * Releases any storage allocated beyond the current number of tasks.
+	 */
+	public void trimToSize() {
+		if (taskCount < starts.length) {
+			resize(taskCount);
+		}
+	}
+	
+	/**
+	 * Resizes the arrays storing the tasks to the specified capacity.
+	 * 
+	 * @param capacity the new capacity
+	 */
+	private void resize(int capacity) {
+		starts = Arrays.copyOf(starts, capacity);
+		ends = Arrays.copyOf(ends, capacity);
+		rows = Arrays.copyOf(rows, capacity);
+		textIds = Arrays.copyOf(textIds, capacity);
+	}
+	
+	/**
+	 * Returns the index of the specified text in the table of distinct text,
+	 * adding the text to the table if necessary.  {@code null} text is 
+	 * stored as the empty string.
+	 * 
+	 * @param text the text
+	 * @return the index of the specified text in the table of distinct text
+	 */
+	private int intern(String text) {
+		if (text == null) {
+			text = "";
+		}
+		
+		Integer textId = textTable.get(text);
+		
+		if (textId == null) {
+			textId = texts.size();
+			texts.add(text);
+			textTable.put(text, textId);
+		}
+		
+		return textId;
+	}
+
+}
@@ -0,0 +1,132 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+/**
+ * {@link Translator} for the tasks stored in a {@link ColumnarGanttModel}, 
+ * where each task object is the boxed id of the task.
+ */
+public class ColumnarTranslator extends Translator {
+	
+	/**
+	 * The model storing the tasks.
+	 */
+	private final ColumnarGanttModel model;
+	
+	/**
+	 * Class constructor for a translator for the tasks stored in the 
+	 * specified columnar Gantt model.
+	 * 
+	 * @param model the model storing the tasks
+	 */
+	public ColumnarTranslator(ColumnarGanttModel model) {
+		super();
+		this.model = model;
+	}
+	
+	/**
+	 * Returns the model storing the tasks.
+	 * 
+	 * @return the model storing the tasks
+	 */
+	public ColumnarGanttModel getModel() {
+		return model;
+	}
+
+	@Override
+	public int getRow(Object task) {
+		return model.getRow(model.getId(task));
+	}
+
+	@Override
+	public long getStart(Object task) {
+		return model.getStart(model.getId(task));
+	}
+
+	@Override
+	public long getEnd(Object task) {
+		return model.getEnd(model.getId(task));
+	}
+
+	@Override
+	public String getText(Object task) {
+		return model.getText(model.getId(task));
+	}
+
+	@Override
+	public void setRow(Object task, int row) {
+		model.setRow(model.getId(task), row);
+	}
+
+	@Override
+	public void setStart(Object task, long start) {
+		model.setStart(model.getId(task), start);
+	}
+
+	@Override
+	public void setEnd(Object task, long end) {
+		model.setEnd(model.getId(task), end);
+	}
+
+	@Override
+	public void setText(Object task, String text) {
+		model.setText(model.getId(task), text);
+	}
+	
+	/**
+	 * Returns {@code true} if the values of the tasks in the specified model
+	 * may be copied directly from the model storing the tasks; {@code false}
+	 * otherwise.  Subclasses may override how individual values are read, so
+	 * values are only copied directly by this class.
+	 * 
+	 * @param model the Gantt model containing the tasks
+	 * @return {@code true} if the values of the tasks in the specified model
+	 *         may be copied directly; {@code false} otherwise
+	 */
+	private boolean isDirect(GanttModel model) {
+		return (model == this.model) && (getClass() == ColumnarTranslator.class);
+	}
+	
+	@Override
+	public void getRows(GanttModel model, int from, int to, int[] rows) {
+		if (isDirect(model)) {
+			this.model.getRows(from, to, rows);
+		} else {
+			super.getRows(model, from, to, rows);
+		}
+	}
+	
+	@Override
+	public void getStarts(GanttModel model, int from, int to, long[] starts) {
+		if (isDirect(model)) {
+			this.model.getStarts(from, to, starts);
+		} else {
+			super.getStarts(model, from, to, starts);
+		}
+	}
+	
+	@Override
+	public void getEnds(GanttModel model, int from, int to, long[] ends) {
+		if (isDirect(model)) {
+			this.model.getEnds(from, to, ends);
+		} else {
+			super.getEnds(model, from, to, ends);
+		}
+	}
+
+}
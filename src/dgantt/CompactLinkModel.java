@@ -0,0 +1,558 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.Arrays;
+
+/**
+ * {@link LinkModel} storing links in primitive arrays rather than as 
+ * {@link Link} objects.  Each link is stored as the indices of its two tasks
+ * in a {@link GanttModel} and its type, requiring 9 bytes per link, plus 8 
+ * bytes per link and per task for the adjacency index.  The {@code Link} 
+ * objects returned by {@link #getLinkAt(int)} are created on demand from the
+ * task objects in the Gantt model.
+ * <p>
+ * Since tasks are identified by their index, this model is intended for 
+ * Gantt models whose tasks are not reordered or removed, such as 
+ * {@link ColumnarGanttModel}, where the index of a task is its id.  Links 
+ * added or removed as {@code Link} objects use 
+ * {@link GanttModel#indexOf(Object)} to locate the tasks, which runs in 
+ * constant time for indexed models.
+ * <p>
+ * The outgoing and incoming links of each task are found using an index in
+ * compressed sparse row format, built when first queried after links are
+ * added.  Removing a link updates the index in place, marking the position
+ * of the removed link as dead; the index is rebuilt once the dead positions
+ * outnumber the links.  As with {@code ColumnarGanttModel}, the methods 
+ * identifying links by task index do not fire events; the caller is 
+ * responsible for notifying listeners of changes, for example by invoking
+ * {@link #fireLinkModelChanged()} after adding many links.
+ */
+public class CompactLinkModel extends LinkModel {
+	
+	/**
+	 * The default number of links for which storage is initially allocated.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+	
+	/**
+	 * The link types, indexed by their ordinal.
+	 */
+	private static final LinkType[] TYPES = LinkType.values();
+	
+	/**
+	 * The Gantt model containing the linked tasks.
+	 */
+	private final GanttModel model;
+	
+	/**
+	 * The index of the first task of each link.
+	 */
+	private int[] firsts;
+	
+	/**
+	 * The index of the second task of each link.
+	 */
+	private int[] seconds;
+	
+	/**
+	 * The ordinal of the type of each link.
+	 */
+	private byte[] types;
+	
+	/**
+	 * The number of links stored in this model.
+	 */
+	private int linkCount;
+	
+	/**
+	 * The position in {@code outgoingLinks} of the first outgoing link of 
+	 * each task, followed by the number of links; or {@code null} if the 
+	 * adjacency index must be rebuilt.
+	 */
+	private int[] outgoingOffsets;
+	
+	/**
+	 * The indices of the links, ordered by their first task.
+	 */
+	private int[] outgoingLinks;
+	
+	/**
+	 * The position in {@code incomingLinks} of the first incoming link of 
+	 * each task, followed by the number of links.
+	 */
+	private int[] incomingOffsets;
+	
+	/**
+	 * The indices of the links, ordered by their second task.
+	 */
+	private int[] incomingLinks;
+	
+	/**
+	 * The number of links removed since the adjacency index was built, whose
+	 * positions in the index are marked as dead.
+	 */
+	private int deadLinks;
+	
+	/**
+	 * Class constructor for an empty compact link model connecting tasks in
+	 * the specified Gantt model.
+	 * 
+	 * @param model the Gantt model containing the linked tasks
+	 */
+	public CompactLinkModel(GanttModel model) {
+		this(model, DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Class constructor for an empty compact link model connecting tasks in
+	 * the specified Gantt model, with storage initially allocated for the 
+	 * specified number of links.
+	 * 
+	 * @param model the Gantt model containing the linked tasks
+	 * @param initialCapacity the number of links for which storage is 
+	 *        initially allocated
+	 */
+	public CompactLinkModel(GanttModel model, int initialCapacity) {
+		super();
+		this.model = model;
+		
+		firsts = new int[initialCapacity];
+		seconds = new int[initialCapacity];
+		types = new byte[initialCapacity];
+	}
+	
+	/**
+	 * Returns the Gantt model containing the linked tasks.
+	 * 
+	 * @return the Gantt model containing the linked tasks
+	 */
+	public GanttModel getGanttModel() {
+		return model;
+	}
+
+	@Override
+	public int getLinkCount() {
+		return linkCount;
+	}
+
+	@Override
+	public Link getLinkAt(int index) {
+		checkIndex(index);
+		
+		return new Link(model.getTaskAt(firsts[index]), 
+				model.getTaskAt(seconds[index]), TYPES[types[index]]);
+	}
+	
+	/**
+	 * Returns the index of the first task of the specified link.
+	 * 
+	 * @param index the index of the link
+	 * @return the index of the first task of the specified link
+	 */
+	public int getFirst(int index) {
+		checkIndex(index);
+		return firsts[index];
+	}
+	
+	/**
+	 * Returns the index of the second task of the specified link.
+	 * 
+	 * @param index the index of the link
+	 * @return the index of the second task of the specified link
+	 */
+	public int getSecond(int index) {
+		checkIndex(index);
+		return seconds[index];
+	}
+	
+	/**
+	 * Returns the type of the specified link.
+	 * 
+	 * @param index the index of the link
+	 * @return the type of the specified link
+	 */
+	public LinkType getType(int index) {
+		checkIndex(index);
+		return TYPES[types[index]];
+	}
+	
+	/**
+	 * Adds a new link between the tasks at the specified indices, returning
+	 * the index of the link.  Listeners are not notified.
+	 * 
+	 * @param first the index of the first task
+	 * @param second the index of the second task
+	 * @param type the link type
+	 * @return the index of the new link
+	 * @throws IllegalArgumentException if either task index does not 
+	 *         identify a task in the Gantt model
+	 */
+	public int addLink(int first, int second, LinkType type) {
+		int taskCount = model.getTaskCount();
+		
+		if ((first < 0) || (second < 0) || (first >= taskCount) || 
+				(second >= taskCount)) {
+			throw new IllegalArgumentException("task index out of range");
+		}
+		
+		if (linkCount == firsts.length) {
+			ensureCapacity(linkCount + 1);
+		}
+		
+		int index = linkCount++;
+		firsts[index] = first;
+		seconds[index] = second;
+		types[index] = (byte)type.ordinal();
+		outgoingOffsets = null;
+		
+		return index;
+	}
+	
+	/**
+	 * Removes the link at the specified index by moving the last link into 
+	 * its position.  If the adjacency index is built, the position of the 
+	 * removed link is marked as dead and the position of the moved link is
+	 * updated, which runs in time proportional to the number of links of the
+	 * tasks involved.  Listeners are not notified.
+	 * 
+	 * @param index the index of the link
+	 */
+	public void removeLinkAt(int index) {
+		checkIndex(index);
+		
+		int last = --linkCount;
+		
+		if (outgoingOffsets != null) {
+			replace(outgoingOffsets, outgoingLinks, firsts[index], index, -1);
+			replace(incomingOffsets, incomingLinks, seconds[index], index, -1);
+			
+			if (last != index) {
+				replace(outgoingOffsets, outgoingLinks, firsts[last], last, 
+						index);
+				replace(incomingOffsets, incomingLinks, seconds[last], last, 
+						index);
+			}
+			
+			if (++deadLinks > linkCount) {
+				outgoingOffsets = null;
+			}
+		}
+		
+		firsts[index] = firsts[last];
+		seconds[index] = seconds[last];
+		types[index] = types[last];
+	}
+	
+	/**
+	 * Replaces the specified link among the links of the specified task in 
+	 * an adjacency index.
+	 * 
+	 * @param offsets the offsets of the adjacency index
+	 * @param links the links of the adjacency index
+	 * @param task the index of the task
+	 * @param link the index of the link being replaced
+	 * @param replacement the new index of the link; or {@code -1} to mark 
+	 *        its position as dead
+	 */
+	private static void replace(int[] offsets, int[] links, int task, 
+			int link, int replacement) {
+		for (int i = offsets[task]; i < offsets[task+1]; i++) {
+			if (links[i] == link) {
+				links[i] = replacement;
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}  The tasks are located using 
+	 * {@link GanttModel#indexOf(Object)}.
+	 * 
+	 * @throws IllegalArgumentException if either task is not contained in 
+	 *         the Gantt model
+	 */
+	@Override
+	public void addLink(Link link) {
+		int first = model.indexOf(link.getFirst());
+		int second = model.indexOf(link.getSecond());
+		
+		if ((first < 0) || (second < 0)) {
+			throw new IllegalArgumentException("task not contained in model");
+		}
+		
+		addLink(first, second, link.getType());
+		fireLinkAdded(link);
+	}
+	
+	/**
+	 * {@inheritDoc}  The tasks are located using 
+	 * {@link GanttModel#indexOf(Object)}, and the link is found among the 
+	 * outgoing links of the first task.
+	 */
+	@Override
+	public void removeLink(Link link) {
+		int first = model.indexOf(link.getFirst());
+		int second = model.indexOf(link.getSecond());
+		
+		if ((first < 0) || (second < 0)) {
+			return;
+		}
+		
+		int index = indexOfLink(first, second, link.getType());
+		
+		if (index >= 0) {
+			removeLinkAt(index);
+			fireLinkRemoved(link);
+		}
+	}
+	
+	/**
+	 * Returns the index of a link of the specified type between the tasks at
+	 * the specified indices; or {@code -1} if no such link exists.  Removing
+	 * the link found does not require the adjacency index to be rebuilt.
+	 * 
+	 * @param first the index of the first task
+	 * @param second the index of the second task
+	 * @param type the link type
+	 * @return the index of a link of the specified type between the tasks; 
+	 *         or {@code -1} if no such link exists
+	 */
+	public int indexOfLink(int first, int second, LinkType type) {
+		buildIndex();
+		
+		if ((first < 0) || (first >= outgoingOffsets.length - 1)) {
+			return -1;
+		}
+		
+		for (int i = outgoingOffsets[first]; i < outgoingOffsets[first+1]; 
+				i++) {
+			int index = outgoingLinks[i];
+			
+			if ((index >= 0) && (seconds[index] == second) && 
+					(types[index] == type.ordinal())) {
+				return index;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Appends to {@code result} the indices of the links whose first task is
+	 * the task at the specified index.
+	 * 
+	 * @param task the index of the task
+	 * @param result the list receiving the indices of the links
+	 */
+	public void getOutgoingLinks(int task, IntList result) {
+		buildIndex();
+		collect(outgoingOffsets, outgoingLinks, task, result);
+	}
+	
+	/**
+	 * Appends to {@code result} the indices of the links whose second task 
+	 * is the task at the specified index.
+	 * 
+	 * @param task the index of the task
+	 * @param result the list receiving the indices of the links
+	 */
+	public void getIncomingLinks(int task, IntList result) {
+		buildIndex();
+		collect(incomingOffsets, incomingLinks, task, result);
+	}
+	
+	/**
+	 * Appends to {@code result} the links of the specified task in the 
+	 * specified adjacency index.
+	 * 
+	 * @param offsets the offsets of the adjacency index
+	 * @param links the links of the adjacency index
+	 * @param task the index of the task
+	 * @param result the list receiving the indices of the links
+	 */
+	private static void collect(int[] offsets, int[] links, int task, 
+			IntList result) {
+		if ((task >= 0) && (task < offsets.length - 1)) {
+			for (int i = offsets[task]; i < offsets[task+1]; i++) {
+				if (links[i] >= 0) {
+					result.add(links[i]);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Builds the adjacency index if links were added since it was last 
+	 * built, or if the dead positions of removed links outnumber the links.
+	 */
+	private void buildIndex() {
+		if (outgoingOffsets != null) {
+			return;
+		}
+		
+		int taskCount = model.getTaskCount();
+		
+		for (int i = 0; i < linkCount; i++) {
+			taskCount = Math.max(taskCount, 
+					Math.max(firsts[i], seconds[i]) + 1);
+		}
+		
+		incomingOffsets = new int[taskCount + 1];
+		incomingLinks = new int[linkCount];
+		buildIndex(seconds, incomingOffsets, incomingLinks);
+		
+		int[] offsets = new int[taskCount + 1];
+		outgoingLinks = new int[linkCount];
+		buildIndex(firsts, offsets, outgoingLinks);
+		outgoingOffsets = offsets;
+		deadLinks = 0;
+	}
+	
+	/**
+	 * Builds an adjacency index in compressed sparse row format using a 
+	 * counting sort of the links by the specified task indices.
+	 * 
+	 * @param tasks the task index of each link
+	 * @param offsets the array receiving the offsets of each task
+	 * @param links the array receiving the indices of the links
+	 */
+	private void buildIndex(int[] tasks, int[] offsets, int[] links) {
+		for (int i = 0; i < linkCount; i++) {
+			offsets[tasks[i]+1]++;
+		}
+		
+		for (int i = 1; i < offsets.length; i++) {
+			offsets[i] += offsets[i-1];
+		}
+		
+		int[] positions = Arrays.copyOf(offsets, offsets.length - 1);
+		
+		for (int i = 0; i < linkCount; i++) {
+			links[positions[tasks[i]]++] = i;
+		}
+	}
+	
+	/**
+	 * Computes the envelope of each link, as used by {@link LinkIndex}.  The
+	 * rows, start and end values of all tasks are read in bulk from the 
+	 * translator, so no {@code Link} or task objects are created.
+	 * 
+	 * @param translator the translator used to read the tasks
+	 * @param minRows the array receiving the first row of each envelope
+	 * @param maxRows the array receiving the last row of each envelope
+	 * @param minTimes the array receiving the start of each envelope
+	 * @param maxTimes the array receiving the end of each envelope
+	 */
+	void getEnvelopes(Translator translator, int[] minRows, int[] maxRows,
+			long[] minTimes, long[] maxTimes) {
+		int taskCount = model.getTaskCount();
+		int[] rows = new int[taskCount];
+		long[] starts = new long[taskCount];
+		long[] ends = new long[taskCount];
+		
+		translator.getRows(model, 0, taskCount, rows);
+		translator.getStarts(model, 0, taskCount, starts);
+		translator.getEnds(model, 0, taskCount, ends);
+		
+		for (int i = 0; i < linkCount; i++) {
+			int first = firsts[i];
+			int second = seconds[i];
+			int row1 = Math.max(rows[first], 0);
+			int row2 = Math.max(rows[second], 0);
+			long time1;
+			long time2;
+			
+			switch (TYPES[types[i]]) {
+			case START_TO_START:
+				time1 = starts[first];
+				time2 = starts[second];
+				break;
+			case FINISH_TO_START:
+				time1 = ends[first];
+				time2 = starts[second];
+				break;
+			case FINISH_TO_FINISH:
+				time1 = ends[first];
+				time2 = ends[second];
+				break;
+			default:
+				throw new IllegalStateException();
+			}
+			
+			minRows[i] = Math.min(row1, row2);
+			maxRows[i] = Math.max(row1, row2);
+			minTimes[i] = Math.min(time1, time2);
+			maxTimes[i] = Math.max(time1, time2);
+		}
+	}
+	
+	/**
+	 * Ensures storage is allocated for at least the specified number of 
+	 * links.
+	 * 
+	 * @param capacity the number of links
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity > firsts.length) {
+			resize(Math.max(capacity, 2*firsts.length));
+		}
+	}
+	
+	/**
+	 * Releases any storage allocated beyond the current number of links.
+	 */
+	public void trimToSize() {
+		if (linkCount < firsts.length) {
+			resize(linkCount);
+		}
+	}
+	
+	/**
+	 * Resizes the arrays storing the links to the specified capacity.
+	 * 
+	 * @param capacity the new capacity
+	 */
+	private void resize(int capacity) {
+		firsts = Arrays.copyOf(firsts, capacity);
+		seconds = Arrays.copyOf(seconds, capacity);
+		types = Arrays.copyOf(types, capacity);
+	}
+	
+	/**
+	 * Removes all links.  Listeners are not notified.
+	 */
+	public void clear() {
+		linkCount = 0;
+		outgoingOffsets = null;
+	}
+	
+	/**
+	 * Throws an exception if the specified index does not identify a link.
+	 * 
+	 * @param index the index of the link
+	 * @throws IndexOutOfBoundsException if the index does not identify a link
+	 */
+	private void checkIndex(int index) {
+		if ((index < 0) || (index >= linkCount)) {
+			throw new IndexOutOfBoundsException("index: " + index + 
+					", size: " + linkCount);
+		}
+	}
+
+}
@@ -0,0 +1,516 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Thread-safe {@link GanttModel} where each task is placed on a separate row.
+ * Tasks may be added, removed and replaced from any thread.  Every change
+ * publishes a new immutable snapshot of the tasks, sharing all unchanged
+ * segments with the previous snapshot, so appending or replacing a task 
+ * copies only a single segment.
+ * <p>
+ * The methods inherited from {@code GanttModel}, which are used by the 
+ * {@link GanttChart} when painting, read the snapshot most recently delivered
+ * to the event dispatch thread.  Changes are delivered to the event dispatch
+ * thread together, announcing all changes published since the previous 
+ * delivery with at most one {@link GanttModelEvent} of each type.  The chart
+ * therefore always reads a consistent snapshot without locking, and never 
+ * observes a change before it is announced.  Threads other than the event 
+ * dispatch thread should read the tasks using {@link #getSnapshot()}.
+ * <p>
+ * Tasks should be immutable, since changes to the start, end or text values
+ * of a task cannot be published safely.  Use 
+ * {@link #replaceTask(Object, Object)} to change a task.
+ */
+public class ConcurrentGanttModel extends GanttModel {
+	
+	/**
+	 * The base two logarithm of the number of tasks in each segment.
+	 */
+	private static final int SEGMENT_SHIFT = 10;
+	
+	/**
+	 * The number of tasks in each segment.
+	 */
+	private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+	
+	/**
+	 * The mask extracting the position of a task within its segment.
+	 */
+	private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+	
+	/**
+	 * The lock guarding the published snapshot and the pending changes.
+	 */
+	private final Object lock;
+	
+	/**
+	 * The most recently published snapshot.
+	 */
+	private volatile Snapshot latest;
+	
+	/**
+	 * The snapshot most recently delivered to the event dispatch thread.  This
+	 * field is only accessed from the event dispatch thread.
+	 */
+	private Snapshot visible;
+	
+	/**
+	 * The tasks added since the last delivery.
+	 */
+	private List<Object> pendingInserted;
+	
+	/**
+	 * The tasks removed since the last delivery.
+	 */
+	private List<Object> pendingRemoved;
+	
+	/**
+	 * The first row changed since the last delivery; or 
+	 * {@code Integer.MAX_VALUE} if no rows changed.
+	 */
+	private int pendingFirstRow;
+	
+	/**
+	 * {@code true} if a delivery has been scheduled; {@code false} otherwise.
+	 */
+	private boolean deliveryScheduled;
+	
+	/**
+	 * Class constructor for an empty concurrent Gantt model.
+	 */
+	public ConcurrentGanttModel() {
+		this(Collections.emptyList());
+	}
+	
+	/**
+	 * Class constructor for a concurrent Gantt model initially containing the
+	 * specified tasks.
+	 * 
+	 * @param tasks the tasks initially contained within this Gantt model
+	 */
+	public ConcurrentGanttModel(Collection<?> tasks) {
+		super();
+		
+		lock = new Object();
+		latest = new Snapshot(new Object[0][], 0, 0).append(tasks);
+		visible = latest;
+		pendingInserted = new ArrayList<Object>();
+		pendingRemoved = new ArrayList<Object>();
+		pendingFirstRow = Integer.MAX_VALUE;
+	}
+
+	@Override
+	public int getRowCount() {
+		return visible.size();
+	}
+
+	@Override
+	public int getTaskCount() {
+		return visible.size();
+	}
+
+	@Override
+	public Object getTaskAt(int index) {
+		return visible.get(index);
+	}
+	
+	/**
+	 * Returns the version of the snapshot read by the {@code GanttModel} 
+	 * methods.  This method must only be invoked from the event dispatch 
+	 * thread.
+	 * 
+	 * @return the version of the snapshot read by the {@code GanttModel}
+	 *         methods
+	 */
+	public long getVersion() {
+		return visible.version;
+	}
+	
+	/**
+	 * Returns the most recently published snapshot of the tasks.  The 
+	 * returned list is immutable and may be read from any thread.  Its 
+	 * contents may be newer than those read by the {@code GanttModel} 
+	 * methods, which are only updated when changes are delivered to the 
+	 * event dispatch thread.
+	 * 
+	 * @return the most recently published snapshot of the tasks
+	 */
+	public List<Object> getSnapshot() {
+		return latest;
+	}
+	
+	/**
+	 * Returns the version of the most recently published snapshot, which
+	 * increases with each change.
+	 * 
+	 * @return the version of the most recently published snapshot
+	 */
+	public long getLatestVersion() {
+		return latest.version;
+	}
+	
+	/**
+	 * {@inheritDoc}  The task is appended to the last row.  This method may 
+	 * be invoked from any thread.
+	 */
+	@Override
+	public void addTask(Object task) {
+		addTasks(Collections.singleton(task));
+	}
+	
+	/**
+	 * Appends the specified tasks to the last rows, publishing a single 
+	 * snapshot.  This method may be invoked from any thread.
+	 * 
+	 * @param tasks the new tasks
+	 */
+	public void addTasks(Collection<?> tasks) {
+		if (tasks.isEmpty()) {
+			return;
+		}
+		
+		synchronized (lock) {
+			Snapshot snapshot = latest;
+			
+			latest = snapshot.append(tasks);
+			pendingInserted.addAll(tasks);
+			changed(snapshot.size());
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}  The tasks on all following rows are shifted up by one
+	 * row.  This method may be invoked from any thread.
+	 */
+	@Override
+	public void removeTask(Object task) {
+		synchronized (lock) {
+			Snapshot snapshot = latest;
+			int index = snapshot.indexOf(task);
+			
+			if (index < 0) {
+				return;
+			}
+			
+			latest = snapshot.remove(index);
+			pendingRemoved.add(snapshot.get(index));
+			changed(index);
+		}
+	}
+	
+	/**
+	 * Replaces the specified task with a new task on the same row.  This
+	 * method may be invoked from any thread.
+	 * 
+	 * @param oldTask the task to replace
+	 * @param newTask the new task
+	 * @return {@code true} if the task was replaced; {@code false} if the 
+	 *         task was not contained in this model
+	 */
+	public boolean replaceTask(Object oldTask, Object newTask) {
+		synchronized (lock) {
+			Snapshot snapshot = latest;
+			int index = snapshot.indexOf(oldTask);
+			
+			if (index < 0) {
+				return false;
+			}
+			
+			latest = snapshot.set(index, newTask);
+			pendingRemoved.add(snapshot.get(index));
+			pendingInserted.add(newTask);
+			changed(index);
+			
+			return true;
+		}
+	}
+	
+	/**
+	 * Records that the rows starting at the specified row changed, and 
+	 * schedules a delivery to the event dispatch thread unless one is already
+	 * scheduled.  This method must be invoked while holding the lock.
+	 * 
+	 * @param firstRow the first changed row
+	 */
+	private void changed(int firstRow) {
+		pendingFirstRow = Math.min(pendingFirstRow, firstRow);
+		
+		if (deliveryScheduled) {
+			return;
+		}
+		
+		deliveryScheduled = true;
+		
+		SwingUtilities.invokeLater(new Runnable() {
+
+			@Override
+			public void run() {
+				deliver();
+			}
+			
+		});
+	}
+	
+	/**
+	 * Delivers the most recently published snapshot to the event dispatch 
+	 * thread and announces the changes since the previous delivery.  Tasks
+	 * both added and removed since the previous delivery are not announced.
+	 */
+	private void deliver() {
+		Snapshot snapshot;
+		List<Object> inserted;
+		List<Object> removed;
+		int firstRow;
+		
+		synchronized (lock) {
+			snapshot = latest;
+			inserted = pendingInserted;
+			removed = pendingRemoved;
+			firstRow = pendingFirstRow;
+			
+			pendingInserted = new ArrayList<Object>();
+			pendingRemoved = new ArrayList<Object>();
+			pendingFirstRow = Integer.MAX_VALUE;
+			deliveryScheduled = false;
+		}
+		
+		if (firstRow == Integer.MAX_VALUE) {
+			return;
+		}
+		
+		int lastRow = Math.max(visible.size(), snapshot.size()) - 1;
+		visible = snapshot;
+		
+		if (!inserted.isEmpty() && !removed.isEmpty()) {
+			cancel(inserted, removed);
+		}
+		
+		if (inserted.isEmpty() && removed.isEmpty()) {
+			//tasks were added and removed again, but may have moved rows
+			fireGanttModelChanged(firstRow, lastRow);
+			return;
+		}
+		
+		if (!removed.isEmpty()) {
+			fireTasksRemoved(removed, firstRow, lastRow);
+		}
+		
+		if (!inserted.isEmpty()) {
+			fireTasksInserted(inserted, firstRow, lastRow);
+		}
+	}
+	
+	/**
+	 * Removes one occurrence of each task appearing in both lists from both
+	 * lists.
+	 * 
+	 * @param inserted the tasks added since the previous delivery
+	 * @param removed the tasks removed since the previous delivery
+	 */
+	private static void cancel(List<Object> inserted, List<Object> removed) {
+		Map<Object, Integer> counts = new HashMap<Object, Integer>();
+		
+		for (Object task : inserted) {
+			Integer count = counts.get(task);
+			counts.put(task, (count == null) ? 1 : count + 1);
+		}
+		
+		Iterator<Object> iterator = removed.iterator();
+		
+		while (iterator.hasNext()) {
+			Object task = iterator.next();
+			Integer count = counts.get(task);
+			
+			if ((count != null) && (count > 0)) {
+				counts.put(task, count - 1);
+				iterator.remove();
+			}
+		}
+		
+		iterator = inserted.iterator();
+		
+		while (iterator.hasNext()) {
+			Object task = iterator.next();
+			Integer count = counts.get(task);
+			
+			if (count > 0) {
+				counts.put(task, count - 1);
+			} else {
+				iterator.remove();
+			}
+		}
+	}
+	
+	/**
+	 * Immutable snapshot of the tasks, stored in fixed-size segments which 
+	 * are shared between snapshots when unchanged.
+	 */
+	private static class Snapshot extends AbstractList<Object> 
+	implements RandomAccess {
+		
+		/**
+		 * The segments storing the tasks.  The segments are never modified
+		 * once the snapshot is published.
+		 */
+		private final Object[][] segments;
+		
+		/**
+		 * The number of tasks in this snapshot.
+		 */
+		private final int size;
+		
+		/**
+		 * The version of this snapshot.
+		 */
+		private final long version;
+		
+		/**
+		 * Class constructor for a snapshot of the tasks stored in the 
+		 * specified segments.
+		 * 
+		 * @param segments the segments storing the tasks
+		 * @param size the number of tasks in this snapshot
+		 * @param version the version of this snapshot
+		 */
+		public Snapshot(Object[][] segments, int size, long version) {
+			super();
+			this.segments = segments;
+			this.size = size;
+			this.version = version;
+		}
+
+		@Override
+		public Object get(int index) {
+			if ((index < 0) || (index >= size)) {
+				throw new IndexOutOfBoundsException("index: " + index + 
+						", size: " + size);
+			}
+			
+			return segments[index >>> SEGMENT_SHIFT][index & SEGMENT_MASK];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+		
+		/**
+		 * Returns a copy of the segments of this snapshot with room for the
+		 * specified number of tasks, sharing all segments.
+		 * 
+		 * @param newSize the number of tasks
+		 * @return a copy of the segments of this snapshot
+		 */
+		private Object[][] copySegments(int newSize) {
+			Object[][] result = new Object[(newSize + SEGMENT_MASK) >>> 
+					SEGMENT_SHIFT][];
+			System.arraycopy(segments, 0, result, 0, 
+					Math.min(segments.length, result.length));
+			return result;
+		}
+		
+		/**
+		 * Returns a new snapshot with the specified tasks appended.  Only the
+		 * last segment of this snapshot is copied.
+		 * 
+		 * @param tasks the tasks to append
+		 * @return a new snapshot with the specified tasks appended
+		 */
+		public Snapshot append(Collection<?> tasks) {
+			int newSize = size + tasks.size();
+			Object[][] result = copySegments(newSize);
+			int index = size;
+			
+			if ((index & SEGMENT_MASK) != 0) {
+				int segment = index >>> SEGMENT_SHIFT;
+				result[segment] = result[segment].clone();
+			}
+			
+			for (Object task : tasks) {
+				int segment = index >>> SEGMENT_SHIFT;
+				
+				if (result[segment] == null) {
+					result[segment] = new Object[SEGMENT_SIZE];
+				}
+				
+				result[segment][index & SEGMENT_MASK] = task;
+				index++;
+			}
+			
+			return new Snapshot(result, newSize, version + 1);
+		}
+		
+		/**
+		 * Returns a new snapshot with the task at the specified index 
+		 * replaced.  Only the segment containing the task is copied.
+		 * 
+		 * @param index the index of the task
+		 * @param task the new task
+		 * @return a new snapshot with the task at the specified index 
+		 *         replaced
+		 */
+		public Snapshot set(int index, Object task) {
+			Object[][] result = copySegments(size);
+			int segment = index >>> SEGMENT_SHIFT;
+			
+			result[segment] = result[segment].clone();
+			result[segment][index & SEGMENT_MASK] = task;
+			
+			return new Snapshot(result, size, version + 1);
+		}
+		
+		/**
+		 * Returns a new snapshot with the task at the specified index removed.
+		 * The segments preceding the segment containing the task are shared.
+		 * 
+		 * @param index the index of the task
+		 * @return a new snapshot with the task at the specified index removed
+		 */
+		public Snapshot remove(int index) {
+			Object[][] result = copySegments(size - 1);
+			int firstSegment = index >>> SEGMENT_SHIFT;
+			
+			for (int segment = firstSegment; segment < result.length; 
+					segment++) {
+				result[segment] = new Object[SEGMENT_SIZE];
+			}
+			
+			for (int i = firstSegment << SEGMENT_SHIFT; i < size - 1; i++) {
+				result[i >>> SEGMENT_SHIFT][i & SEGMENT_MASK] = 
+						get((i < index) ? i : i + 1);
+			}
+			
+			return new Snapshot(result, size - 1, version + 1);
+		}
+		
+	}
+
+}
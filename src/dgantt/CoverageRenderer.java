@@ -0,0 +1,43 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.awt.Graphics;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * Renderer for drawing the time covered by tasks too narrow to be rendered
+ * individually on a Gantt chart.
+ */
+public interface CoverageRenderer {
+	
+	/**
+	 * Renders a run of time within a row covered by one or more tasks.  The
+	 * bounds are reused by the chart once this method returns, so they must
+	 * not be retained.
+	 * 
+	 * @param g the graphics object used for rendering
+	 * @param chart the Gantt chart containing the tasks
+	 * @param row the row containing the tasks
+	 * @param bounds the rectangular bounds of the run on the Gantt chart
+	 * @param count the number of tasks in the run
+	 */
+	public void paintCoverage(Graphics g, GanttChart chart, int row,
+			Rectangle2D bounds, int count);
+
+}
@@ -0,0 +1,532 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Multi-resolution summary of the time covered by the tasks in each row,
+ * used to render rows containing many tasks narrower than a pixel.  The
+ * finest level stores, for each row, the union of the task intervals as a 
+ * sorted sequence of disjoint runs along with the number of tasks in each 
+ * run.  Each coarser level additionally merges runs separated by gaps up to 
+ * a larger threshold, so that at any zoom a level can be chosen whose gaps are
+ * smaller than a pixel.  A coarser level is only retained if it at least 
+ * halves the number of runs, bounding the total size of the summary to twice
+ * the size of the finest level.
+ * <p>
+ * The summary is built lazily from a {@link TaskIndex} on the first query
+ * following a call to {@link #invalidate()}.  After the tasks of a row are
+ * updated in the task index, {@link #updateRow(int)} recomputes the runs of
+ * that row alone.  Updated rows keep the levels chosen at build time, so the
+ * size bound holds again after the next rebuild.
+ */
+public class CoverageSummary {
+	
+	/**
+	 * The factor by which the gap threshold grows between candidate levels.
+	 */
+	private static final int GAP_FACTOR = 4;
+	
+	/**
+	 * The task index providing the tasks in each row ordered by start value.
+	 */
+	private final TaskIndex taskIndex;
+	
+	/**
+	 * {@code true} if this summary reflects the current contents of the task
+	 * index; {@code false} if the summary must be rebuilt prior to the next
+	 * query.
+	 */
+	private boolean valid;
+	
+	/**
+	 * The levels of this summary, from finest to coarsest.
+	 */
+	private List<Level> levels;
+	
+	/**
+	 * The average duration of the tasks in each row.
+	 */
+	private double[] averageDurations;
+	
+	/**
+	 * A single level of the summary, storing the runs of each row.  The runs
+	 * of a row are stored at consecutive positions; when a row is updated,
+	 * its new runs are appended and its previous positions abandoned.
+	 */
+	private static class Level {
+		
+		/**
+		 * The largest gap between tasks merged into a single run.
+		 */
+		private final long gap;
+		
+		/**
+		 * The position of the first run of each row.
+		 */
+		private int[] rowStarts;
+		
+		/**
+		 * The position following the last run of each row.
+		 */
+		private int[] rowEnds;
+		
+		/**
+		 * The start value of each run.
+		 */
+		private long[] starts;
+		
+		/**
+		 * The end value of each run.
+		 */
+		private long[] ends;
+		
+		/**
+		 * The number of tasks in each run.
+		 */
+		private int[] counts;
+		
+		/**
+		 * The number of positions in use, including abandoned positions.
+		 */
+		private int length;
+		
+		/**
+		 * The number of positions abandoned by updated rows.
+		 */
+		private int abandoned;
+
+		/**
+		 * Class constructor for a level of the summary.
+		 * 
+		 * @param gap the largest gap between tasks merged into a single run
+		 * @param rowOffsets the offset of each row into the run arrays, 
+		 *        followed by the total number of runs
+		 * @param starts the start value of each run
+		 * @param ends the end value of each run
+		 * @param counts the number of tasks in each run
+		 */
+		public Level(long gap, int[] rowOffsets, long[] starts, long[] ends,
+				int[] counts) {
+			super();
+			this.gap = gap;
+			this.rowStarts = Arrays.copyOf(rowOffsets, rowOffsets.length-1);
+			this.rowEnds = Arrays.copyOfRange(rowOffsets, 1, 
+					rowOffsets.length);
+			this.starts = starts;
+			this.ends = ends;
+			this.counts = counts;
+			this.length = starts.length;
+		}
+		
+		/**
+		 * Returns the number of runs in this level.
+		 * 
+		 * @return the number of runs in this level
+		 */
+		public int size() {
+			return length - abandoned;
+		}
+		
+		/**
+		 * Increases the number of rows to the specified count.  The new rows
+		 * contain no runs.
+		 * 
+		 * @param rowCount the new number of rows
+		 */
+		public void setRowCount(int rowCount) {
+			rowStarts = Arrays.copyOf(rowStarts, rowCount);
+			rowEnds = Arrays.copyOf(rowEnds, rowCount);
+		}
+		
+		/**
+		 * Replaces the runs of the specified row.
+		 * 
+		 * @param row the row
+		 * @param runStarts the start value of each new run
+		 * @param runEnds the end value of each new run
+		 * @param runCounts the number of tasks in each new run
+		 * @param runCount the number of new runs
+		 */
+		public void setRow(int row, long[] runStarts, long[] runEnds, 
+				int[] runCounts, int runCount) {
+			abandoned += rowEnds[row] - rowStarts[row];
+			
+			if (length + runCount > starts.length) {
+				int capacity = Math.max(length + runCount, 
+						starts.length + starts.length/2);
+				
+				starts = Arrays.copyOf(starts, capacity);
+				ends = Arrays.copyOf(ends, capacity);
+				counts = Arrays.copyOf(counts, capacity);
+			}
+			
+			System.arraycopy(runStarts, 0, starts, length, runCount);
+			System.arraycopy(runEnds, 0, ends, length, runCount);
+			System.arraycopy(runCounts, 0, counts, length, runCount);
+			rowStarts[row] = length;
+			length += runCount;
+			rowEnds[row] = length;
+		}
+		
+	}
+	
+	/**
+	 * Class constructor for a summary of the tasks in the specified task 
+	 * index.
+	 * 
+	 * @param taskIndex the task index providing the tasks in each row ordered
+	 *        by start value
+	 */
+	public CoverageSummary(TaskIndex taskIndex) {
+		super();
+		this.taskIndex = taskIndex;
+	}
+	
+	/**
+	 * Marks this summary as invalid, causing it to be rebuilt prior to the 
+	 * next query.
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+	
+	/**
+	 * Returns the average duration of the tasks in the specified row; or 
+	 * {@code Double.POSITIVE_INFINITY} if the row contains no tasks.
+	 * 
+	 * @param row the row
+	 * @return the average duration of the tasks in the specified row
+	 */
+	public double getAverageDuration(int row) {
+		if (!valid) {
+			build();
+		}
+		
+		if ((row < 0) || (row >= averageDurations.length)) {
+			return Double.POSITIVE_INFINITY;
+		}
+		
+		return averageDurations[row];
+	}
+	
+	/**
+	 * Returns the coarsest level whose runs only merge gaps no larger than the
+	 * specified resolution.
+	 * 
+	 * @param resolution the resolution in canonical units, typically the 
+	 *        width of a pixel
+	 * @return the coarsest level whose runs only merge gaps no larger than the
+	 *         specified resolution
+	 */
+	public int getLevel(double resolution) {
+		if (!valid) {
+			build();
+		}
+		
+		int level = 0;
+		
+		while ((level+1 < levels.size()) && 
+				(levels.get(level+1).gap <= resolution)) {
+			level++;
+		}
+		
+		return level;
+	}
+	
+	/**
+	 * Returns the first run in the specified level and row ending at or after
+	 * the specified value.  The runs of a row are stored at consecutive 
+	 * positions, so subsequent runs are found by incrementing the position
+	 * until it reaches {@link #getLastRun(int, int)} or a run starts after 
+	 * the region of interest.
+	 * 
+	 * @param level the level
+	 * @param row the row
+	 * @param start the value in canonical coordinates
+	 * @return the first run in the specified level and row ending at or after
+	 *         the specified value
+	 */
+	public int getFirstRun(int level, int row, long start) {
+		if (!valid) {
+			build();
+		}
+		
+		Level data = levels.get(level);
+		
+		return IndexUtilities.lowerBound(data.ends, data.rowStarts[row], 
+				data.rowEnds[row], start);
+	}
+	
+	/**
+	 * Returns the position following the last run in the specified level and
+	 * row.
+	 * 
+	 * @param level the level
+	 * @param row the row
+	 * @return the position following the last run in the specified level and
+	 *         row
+	 */
+	public int getLastRun(int level, int row) {
+		if (!valid) {
+			build();
+		}
+		
+		return levels.get(level).rowEnds[row];
+	}
+	
+	/**
+	 * Returns the start value of the specified run.
+	 * 
+	 * @param level the level
+	 * @param run the position of the run
+	 * @return the start value of the specified run
+	 */
+	public long getRunStart(int level, int run) {
+		return levels.get(level).starts[run];
+	}
+	
+	/**
+	 * Returns the end value of the specified run.
+	 * 
+	 * @param level the level
+	 * @param run the position of the run
+	 * @return the end value of the specified run
+	 */
+	public long getRunEnd(int level, int run) {
+		return levels.get(level).ends[run];
+	}
+	
+	/**
+	 * Returns the number of tasks in the specified run.
+	 * 
+	 * @param level the level
+	 * @param run the position of the run
+	 * @return the number of tasks in the specified run
+	 */
+	public int getRunCount(int level, int run) {
+		return levels.get(level).counts[run];
+	}
+	
+	/**
+	 * Recomputes the runs of the specified row after its tasks were updated
+	 * in the task index, adding rows if the task index has grown.  Once more
+	 * runs are discarded than are in use, the summary is instead invalidated
+	 * and rebuilt prior to the next query.  This method has no effect if the
+	 * summary is invalid.
+	 * 
+	 * @param row the row
+	 */
+	public void updateRow(int row) {
+		if (!valid || (row < 0)) {
+			return;
+		}
+		
+		if (row >= averageDurations.length) {
+			int previousCount = averageDurations.length;
+			int rowCount = Math.max(row + 1, taskIndex.getRowCount());
+			
+			averageDurations = Arrays.copyOf(averageDurations, rowCount);
+			Arrays.fill(averageDurations, previousCount, rowCount, 
+					Double.POSITIVE_INFINITY);
+			
+			for (Level level : levels) {
+				level.setRowCount(rowCount);
+			}
+		}
+		
+		int size = taskIndex.getLastPosition(row) - 
+				taskIndex.getFirstPosition(row);
+		long[] starts = new long[size];
+		long[] ends = new long[size];
+		int[] counts = new int[size];
+		int runs = summarize(row, starts, ends, counts, 0);
+		int abandoned = 0;
+		int total = 0;
+		
+		levels.get(0).setRow(row, starts, ends, counts, runs);
+		
+		for (int i = 1; i < levels.size(); i++) {
+			Level level = levels.get(i);
+			
+			runs = merge(levels.get(i-1), row, level.gap, starts, ends, 
+					counts, 0);
+			level.setRow(row, starts, ends, counts, runs);
+			abandoned += level.abandoned;
+			total += level.length;
+		}
+		
+		abandoned += levels.get(0).abandoned;
+		total += levels.get(0).length;
+		
+		if (2*abandoned > total) {
+			invalidate();
+		}
+	}
+	
+	/**
+	 * Rebuilds this summary from the current contents of the task index.
+	 */
+	private void build() {
+		int rowCount = taskIndex.getRowCount();
+		int size = taskIndex.getTaskCount();
+		long[] starts = new long[size];
+		long[] ends = new long[size];
+		int[] counts = new int[size];
+		int[] rowOffsets = new int[rowCount + 1];
+		int runs = 0;
+		
+		averageDurations = new double[rowCount];
+		
+		//the finest level merges overlapping and adjacent tasks
+		for (int row = 0; row < rowCount; row++) {
+			rowOffsets[row] = runs;
+			runs = summarize(row, starts, ends, counts, runs);
+		}
+		
+		rowOffsets[rowCount] = runs;
+		levels = new ArrayList<Level>();
+		levels.add(new Level(0, rowOffsets, Arrays.copyOf(starts, runs), 
+				Arrays.copyOf(ends, runs), Arrays.copyOf(counts, runs)));
+		
+		//coarser levels merge progressively larger gaps
+		for (long gap = 1; (gap > 0) && (gap < Long.MAX_VALUE / GAP_FACTOR); 
+				gap *= GAP_FACTOR) {
+			Level previous = levels.get(levels.size()-1);
+			
+			if (previous.size() <= rowCount) {
+				break;
+			}
+			
+			Level candidate = merge(previous, gap, rowCount);
+			
+			if (2*candidate.size() <= previous.size()) {
+				levels.add(candidate);
+			}
+		}
+		
+		valid = true;
+	}
+	
+	/**
+	 * Stores the finest runs of the specified row, merging its overlapping 
+	 * and adjacent tasks, starting at the specified offset into the run 
+	 * arrays, and records the average duration of its tasks.
+	 * 
+	 * @param row the row
+	 * @param starts the array receiving the start value of each run
+	 * @param ends the array receiving the end value of each run
+	 * @param counts the array receiving the number of tasks in each run
+	 * @param offset the position of the first run of the row
+	 * @return the position following the last run of the row
+	 */
+	private int summarize(int row, long[] starts, long[] ends, int[] counts,
+			int offset) {
+		int from = taskIndex.getFirstPosition(row);
+		int to = taskIndex.getLastPosition(row);
+		double totalDuration = 0.0;
+		int runs = offset;
+		
+		for (int i = from; i < to; i++) {
+			long start = taskIndex.getStartAt(i);
+			long end = Math.max(start, taskIndex.getEndAt(i));
+			
+			totalDuration += end - start;
+			
+			if ((runs > offset) && (start <= ends[runs-1])) {
+				ends[runs-1] = Math.max(ends[runs-1], end);
+				counts[runs-1]++;
+			} else {
+				starts[runs] = start;
+				ends[runs] = end;
+				counts[runs] = 1;
+				runs++;
+			}
+		}
+		
+		averageDurations[row] = (to == from) ? Double.POSITIVE_INFINITY :
+				totalDuration / (to - from);
+		
+		return runs;
+	}
+	
+	/**
+	 * Returns a new level formed by merging the runs of the specified level 
+	 * separated by gaps no larger than the specified threshold.
+	 * 
+	 * @param level the level to merge
+	 * @param gap the largest gap merged into a single run
+	 * @param rowCount the number of rows
+	 * @return a new level formed by merging the runs of the specified level
+	 */
+	private static Level merge(Level level, long gap, int rowCount) {
+		int size = level.size();
+		long[] starts = new long[size];
+		long[] ends = new long[size];
+		int[] counts = new int[size];
+		int[] rowOffsets = new int[rowCount + 1];
+		int runs = 0;
+		
+		for (int row = 0; row < rowCount; row++) {
+			rowOffsets[row] = runs;
+			runs = merge(level, row, gap, starts, ends, counts, runs);
+		}
+		
+		rowOffsets[rowCount] = runs;
+		
+		return new Level(gap, rowOffsets, Arrays.copyOf(starts, runs), 
+				Arrays.copyOf(ends, runs), Arrays.copyOf(counts, runs));
+	}
+	
+	/**
+	 * Stores the runs of the specified row and level, merging runs separated
+	 * by gaps no larger than the specified threshold, starting at the 
+	 * specified offset into the run arrays.
+	 * 
+	 * @param level the level to merge
+	 * @param row the row
+	 * @param gap the largest gap merged into a single run
+	 * @param starts the array receiving the start value of each run
+	 * @param ends the array receiving the end value of each run
+	 * @param counts the array receiving the number of tasks in each run
+	 * @param offset the position of the first run of the row
+	 * @return the position following the last run of the row
+	 */
+	private static int merge(Level level, int row, long gap, long[] starts,
+			long[] ends, int[] counts, int offset) {
+		int runs = offset;
+		
+		for (int i = level.rowStarts[row]; i < level.rowEnds[row]; i++) {
+			if ((runs > offset) && (level.starts[i] - ends[runs-1] <= gap)) {
+				ends[runs-1] = Math.max(ends[runs-1], level.ends[i]);
+				counts[runs-1] += level.counts[i];
+			} else {
+				starts[runs] = level.starts[i];
+				ends[runs] = level.ends[i];
+				counts[runs] = level.counts[i];
+				runs++;
+			}
+		}
+		
+		return runs;
+	}
+
+}
@@ -0,0 +1,1859 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes the early start, late start and slack of each task from the 
+ * links between tasks, identifying the critical tasks whose delay would
+ * delay the finish of the project.  Each link constrains its second task
+ * according to its {@link LinkType}: {@code FINISH_TO_START} links require
+ * the second task to start after the first task finishes, 
+ * {@code START_TO_START} links require it to start after the first task 
+ * starts, and {@code FINISH_TO_FINISH} links require it to finish after the 
+ * first task finishes.  The start value of each task, as returned by the 
+ * {@link Translator}, is the earliest time the task may start, and its 
+ * duration is the difference between its end and start values.  A task is
+ * critical if its slack, the difference between its late and early start, 
+ * is zero.
+ * <p>
+ * The schedule is computed by a forward and backward pass over the tasks in
+ * topological order when first queried.  After the start or end values of 
+ * some tasks change, {@link #update(Collection)} recomputes only the tasks
+ * whose early start or late start may change: the early starts of tasks 
+ * downstream of the changed tasks, and the late starts of tasks upstream of
+ * tasks whose duration changed.  Propagation stops at tasks whose values do
+ * not change.  Late values are stored relative to the project finish, so a 
+ * change to the project finish does not require recomputing them, and the
+ * tasks are kept in a heap ordered by how close they are to being critical,
+ * so the project finish and the tasks whose criticality it changes are 
+ * found without scanning all tasks.  Links 
+ * added or removed through {@link #addLinks(Collection)} and 
+ * {@link #removeLinks(Collection)}, and tasks appended through
+ * {@link #addTasks(Collection)}, are likewise propagated from the tasks 
+ * they connect, reordering only the tasks between the two ends of a link 
+ * added against the topological order.  Other changes to the tasks require
+ * invoking {@link #rebuild()}, or {@link #invalidate()} to recompute the 
+ * schedule on the next query.  Links forming a cycle are ignored, such that
+ * the link closing the cycle has no effect.
+ * <p>
+ * A {@link GanttChart} keeps its critical path up to date when set through
+ * {@link GanttChart#setCriticalPath(CriticalPath)}, and 
+ * {@link BasicTaskRenderer} draws critical tasks distinctly.  A 
+ * {@link Scheduler} shifts tasks to their early starts as they are edited.
+ */
+public class CriticalPath {
+	
+	/**
+	 * The link types, indexed by their ordinal.
+	 */
+	private static final LinkType[] TYPES = LinkType.values();
+	
+	/**
+	 * The Gantt model containing the tasks.
+	 */
+	private final GanttModel model;
+	
+	/**
+	 * The link model containing the links between tasks.
+	 */
+	private final LinkModel linkModel;
+	
+	/**
+	 * The translator used to read the start and end values of tasks.
+	 */
+	private final Translator translator;
+	
+	/**
+	 * {@code true} if the schedule reflects the current tasks and links;
+	 * {@code false} if it must be recomputed.
+	 */
+	private boolean valid;
+	
+	/**
+	 * The number of tasks in the schedule.
+	 */
+	private int taskCount;
+	
+	/**
+	 * The index of each task; or {@code null} if the Gantt model is indexed.
+	 */
+	private Map<Object, Integer> indices;
+	
+	/**
+	 * The start value of each task, used as its earliest possible start.
+	 */
+	private long[] starts;
+	
+	/**
+	 * The duration of each task.
+	 */
+	private long[] durations;
+	
+	/**
+	 * The early start of each task.
+	 */
+	private long[] earlyStarts;
+	
+	/**
+	 * The late start of each task, relative to the project finish.
+	 */
+	private long[] lateStarts;
+	
+	/**
+	 * The project finish, which is the latest early finish of any task.
+	 */
+	private long finish;
+	
+	/**
+	 * The position of each task in topological order.
+	 */
+	private int[] ranks;
+	
+	/**
+	 * The successors of each task, with the type of the link to each 
+	 * successor.
+	 */
+	private Adjacency successors;
+	
+	/**
+	 * The predecessors of each task, with the type of the link from each
+	 * predecessor.
+	 */
+	private Adjacency predecessors;
+	
+	/**
+	 * The number of links ignored because they close a cycle.
+	 */
+	private int ignoredLinks;
+	
+	/**
+	 * The critical tasks; or {@code null} if the schedule was never 
+	 * computed.
+	 */
+	private Set<Object> criticalTasks;
+	
+	/**
+	 * The queue of tasks awaiting recomputation, as a binary heap ordered by
+	 * rank.
+	 */
+	private int[] queue;
+	
+	/**
+	 * The number of tasks in the queue.
+	 */
+	private int queueSize;
+	
+	/**
+	 * {@code true} if the queue yields the task with the highest rank first;
+	 * {@code false} if it yields the task with the lowest rank first.
+	 */
+	private boolean descending;
+	
+	/**
+	 * The pass in which each task was last queued, used to avoid queuing a
+	 * task twice.
+	 */
+	private int[] queuedPasses;
+	
+	/**
+	 * The current pass.
+	 */
+	private int pass;
+	
+	/**
+	 * The update in which each task was last modified.
+	 */
+	private int[] touchedUpdates;
+	
+	/**
+	 * The current update.
+	 */
+	private int update;
+	
+	/**
+	 * The tasks modified in the current update.
+	 */
+	private final IntList touched;
+	
+	/**
+	 * Whether each task modified in the current update was critical before
+	 * the update, with {@code 1} indicating a critical task.
+	 */
+	private final IntList touchedCritical;
+	
+	/**
+	 * The tasks as a binary max-heap ordered by their finish key, the 
+	 * difference between their early start and relative late start.  The 
+	 * finish key of a task is at least its early finish and at most the 
+	 * project finish, which it equals only if the task is critical.  The root
+	 * therefore gives the project finish, and the critical tasks are found at
+	 * the top of the heap without scanning all tasks.
+	 */
+	private int[] finishHeap;
+	
+	/**
+	 * The position of each task in the finish heap.
+	 */
+	private int[] heapPositions;
+	
+	/**
+	 * {@code true} if the schedule was recomputed since the last update, in 
+	 * which case {@code touched} does not identify the modified tasks.
+	 */
+	private boolean rebuilt;
+	
+	/**
+	 * The adjacency lists of the tasks.  The adjacent tasks of each task are
+	 * stored at consecutive positions, followed by spare capacity.  When a 
+	 * list without spare capacity grows, it is relocated to the end of the 
+	 * arrays with twice its capacity, and the arrays are compacted once more
+	 * positions are abandoned than are in use.
+	 */
+	private static class Adjacency {
+		
+		/**
+		 * The position of the first adjacent task of each task.
+		 */
+		private int[] offsets;
+		
+		/**
+		 * The position following the last adjacent task of each task.
+		 */
+		private int[] ends;
+		
+		/**
+		 * The position following the capacity reserved for each task.
+		 */
+		private int[] limits;
+		
+		/**
+		 * The adjacent tasks.
+		 */
+		private int[] tasks;
+		
+		/**
+		 * The ordinal of the type of the link to each adjacent task.
+		 */
+		private byte[] types;
+		
+		/**
+		 * The number of positions reserved, including abandoned positions.
+		 */
+		private int length;
+		
+		/**
+		 * The number of stored adjacent tasks.
+		 */
+		private int size;
+		
+		/**
+		 * Builds adjacency lists using a counting sort of the links by their
+		 * source task.
+		 * 
+		 * @param taskCount the number of tasks
+		 * @param sources the source task of each link
+		 * @param targets the target task of each link
+		 * @param types the type ordinal of each link
+		 * @param size the number of links
+		 */
+		public Adjacency(int taskCount, int[] sources, int[] targets, 
+				byte[] types, int size) {
+			super();
+			this.size = size;
+			length = size;
+			offsets = new int[taskCount];
+			ends = new int[taskCount];
+			limits = new int[taskCount];
+			tasks = new int[size];
+			this.types = new byte[size];
+			
+			for (int i = 0; i < size; i++) {
+				limits[sources[i]]++;
+			}
+			
+			for (int i = 1; i < taskCount; i++) {
+				limits[i] += limits[i-1];
+			}
+			
+			for (int i = 0; i < taskCount; i++) {
+				offsets[i] = (i == 0) ? 0 : limits[i-1];
+				ends[i] = offsets[i];
+			}
+			
+			for (int i = 0; i < size; i++) {
+				int position = ends[sources[i]]++;
+				tasks[position] = targets[i];
+				this.types[position] = types[i];
+			}
+		}
+		
+		/**
+		 * Increases the number of tasks to the specified count.  The new 
+		 * tasks have no adjacent tasks.
+		 * 
+		 * @param taskCount the new number of tasks
+		 */
+		public void setTaskCount(int taskCount) {
+			int previousCount = offsets.length;
+			
+			if (taskCount > previousCount) {
+				offsets = Arrays.copyOf(offsets, taskCount);
+				ends = Arrays.copyOf(ends, taskCount);
+				limits = Arrays.copyOf(limits, taskCount);
+				Arrays.fill(offsets, previousCount, taskCount, length);
+				Arrays.fill(ends, previousCount, taskCount, length);
+				Arrays.fill(limits, previousCount, taskCount, length);
+			}
+		}
+		
+		/**
+		 * Adds the specified adjacent task to the list of the source task.
+		 * 
+		 * @param source the source task
+		 * @param target the adjacent task
+		 * @param type the ordinal of the type of the link
+		 */
+		public void add(int source, int target, byte type) {
+			if (ends[source] == limits[source]) {
+				relocate(source);
+			}
+			
+			tasks[ends[source]] = target;
+			types[ends[source]] = type;
+			ends[source]++;
+			size++;
+		}
+		
+		/**
+		 * Removes one occurrence of the specified adjacent task from the list
+		 * of the source task.
+		 * 
+		 * @param source the source task
+		 * @param target the adjacent task
+		 * @param type the ordinal of the type of the link
+		 * @return {@code true} if the adjacent task was removed; 
+		 *         {@code false} if the list did not contain it
+		 */
+		public boolean remove(int source, int target, byte type) {
+			for (int i = offsets[source]; i < ends[source]; i++) {
+				if ((tasks[i] == target) && (types[i] == type)) {
+					ends[source]--;
+					tasks[i] = tasks[ends[source]];
+					types[i] = types[ends[source]];
+					size--;
+					return true;
+				}
+			}
+			
+			return false;
+		}
+		
+		/**
+		 * Moves the list of the specified task to the end of the arrays with
+		 * twice its capacity, compacting the arrays first if more positions
+		 * are abandoned than are in use.
+		 * 
+		 * @param source the task
+		 */
+		private void relocate(int source) {
+			if (length - size > size) {
+				compact();
+			}
+			
+			int count = ends[source] - offsets[source];
+			int capacity = Math.max(4, 2*(limits[source] - offsets[source]));
+			
+			if (length + capacity > tasks.length) {
+				int newLength = Math.max(length + capacity, 
+						tasks.length + tasks.length/2);
+				
+				tasks = Arrays.copyOf(tasks, newLength);
+				types = Arrays.copyOf(types, newLength);
+			}
+			
+			System.arraycopy(tasks, offsets[source], tasks, length, count);
+			System.arraycopy(types, offsets[source], types, length, count);
+			offsets[source] = length;
+			ends[source] = length + count;
+			limits[source] = length + capacity;
+			length += capacity;
+		}
+		
+		/**
+		 * Moves all lists to consecutive positions without spare capacity.
+		 */
+		private void compact() {
+			int[] newTasks = new int[size];
+			byte[] newTypes = new byte[size];
+			int offset = 0;
+			
+			for (int i = 0; i < offsets.length; i++) {
+				int count = ends[i] - offsets[i];
+				
+				System.arraycopy(tasks, offsets[i], newTasks, offset, count);
+				System.arraycopy(types, offsets[i], newTypes, offset, count);
+				offsets[i] = offset;
+				offset += count;
+				ends[i] = offset;
+				limits[i] = offset;
+			}
+			
+			tasks = newTasks;
+			types = newTypes;
+			length = size;
+		}
+		
+	}
+	
+	/**
+	 * Class constructor for the critical path of the tasks in the specified
+	 * models.
+	 * 
+	 * @param model the Gantt model containing the tasks
+	 * @param linkModel the link model containing the links between tasks
+	 * @param translator the translator used to read the start and end values
+	 *        of tasks
+	 */
+	public CriticalPath(GanttModel model, LinkModel linkModel, 
+			Translator translator) {
+		super();
+		this.model = model;
+		this.linkModel = linkModel;
+		this.translator = translator;
+		
+		touched = new IntList();
+		touchedCritical = new IntList();
+	}
+	
+	/**
+	 * Returns the Gantt model containing the tasks.
+	 * 
+	 * @return the Gantt model containing the tasks
+	 */
+	public GanttModel getGanttModel() {
+		return model;
+	}
+	
+	/**
+	 * Returns the link model containing the links between tasks.
+	 * 
+	 * @return the link model containing the links between tasks
+	 */
+	public LinkModel getLinkModel() {
+		return linkModel;
+	}
+	
+	/**
+	 * Returns the translator used to read the start and end values of tasks.
+	 * 
+	 * @return the translator used to read the start and end values of tasks
+	 */
+	public Translator getTranslator() {
+		return translator;
+	}
+	
+	/**
+	 * Marks the schedule as invalid, causing it to be recomputed prior to the
+	 * next query.  This method must be invoked after tasks or links are added
+	 * or removed.
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+	
+	/**
+	 * Returns {@code true} if the schedule reflects the current tasks and 
+	 * links; {@code false} if it will be recomputed prior to the next query.
+	 * 
+	 * @return {@code true} if the schedule reflects the current tasks and 
+	 *         links; {@code false} otherwise
+	 */
+	public boolean isValid() {
+		return valid;
+	}
+	
+	/**
+	 * Returns the project finish, which is the latest early finish of any 
+	 * task.
+	 * 
+	 * @return the project finish
+	 */
+	public long getProjectFinish() {
+		validate();
+		return finish;
+	}
+	
+	/**
+	 * Returns the early start of the specified task.
+	 * 
+	 * @param task the task
+	 * @return the early start of the specified task
+	 * @throws IllegalArgumentException if the task is not contained in the 
+	 *         Gantt model
+	 */
+	public long getEarlyStart(Object task) {
+		int index = checkTask(task);
+		return earlyStarts[index];
+	}
+	
+	/**
+	 * Returns the early finish of the specified task.
+	 * 
+	 * @param task the task
+	 * @return the early finish of the specified task
+	 * @throws IllegalArgumentException if the task is not contained in the 
+	 *         Gantt model
+	 */
+	public long getEarlyFinish(Object task) {
+		int index = checkTask(task);
+		return earlyStarts[index] + durations[index];
+	}
+	
+	/**
+	 * Returns the late start of the specified task.
+	 * 
+	 * @param task the task
+	 * @return the late start of the specified task
+	 * @throws IllegalArgumentException if the task is not contained in the 
+	 *         Gantt model
+	 */
+	public long getLateStart(Object task) {
+		int index = checkTask(task);
+		return finish + lateStarts[index];
+	}
+	
+	/**
+	 * Returns the late finish of the specified task.
+	 * 
+	 * @param task the task
+	 * @return the late finish of the specified task
+	 * @throws IllegalArgumentException if the task is not contained in the 
+	 *         Gantt model
+	 */
+	public long getLateFinish(Object task) {
+		int index = checkTask(task);
+		return finish + lateStarts[index] + durations[index];
+	}
+	
+	/**
+	 * Returns the slack of the specified task, which is the amount the task 
+	 * can be delayed without delaying the project finish.
+	 * 
+	 * @param task the task
+	 * @return the slack of the specified task
+	 * @throws IllegalArgumentException if the task is not contained in the 
+	 *         Gantt model
+	 */
+	public long getSlack(Object task) {
+		int index = checkTask(task);
+		return getSlack(index);
+	}
+	
+	/**
+	 * Returns {@code true} if the specified task is critical; {@code false} 
+	 * if the task has slack or is not contained in the Gantt model.
+	 * 
+	 * @param task the task
+	 * @return {@code true} if the specified task is critical; {@code false} 
+	 *         otherwise
+	 */
+	public boolean isCritical(Object task) {
+		validate();
+		
+		int index = indexOf(task);
+		return (index >= 0) && isCritical(index);
+	}
+	
+	/**
+	 * Returns the slack of the task at the specified index.
+	 * 
+	 * @param index the index of the task
+	 * @return the slack of the task
+	 */
+	private long getSlack(int index) {
+		return finish + lateStarts[index] - earlyStarts[index];
+	}
+	
+	/**
+	 * Returns {@code true} if the task at the specified index is critical; 
+	 * {@code false} otherwise.
+	 * 
+	 * @param index the index of the task
+	 * @return {@code true} if the task is critical; {@code false} otherwise
+	 */
+	private boolean isCritical(int index) {
+		return getSlack(index) <= 0;
+	}
+	
+	/**
+	 * Returns the index of the specified task, recomputing the schedule if 
+	 * necessary.
+	 * 
+	 * @param task the task
+	 * @return the index of the specified task
+	 * @throws IllegalArgumentException if the task is not contained in the 
+	 *         Gantt model
+	 */
+	private int checkTask(Object task) {
+		validate();
+		
+		int index = indexOf(task);
+		
+		if (index < 0) {
+			throw new IllegalArgumentException("task not contained in model");
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * Returns the index of the specified task in the schedule; or {@code -1}
+	 * if the task is not contained in the Gantt model.
+	 * 
+	 * @param task the task
+	 * @return the index of the specified task in the schedule; or {@code -1}
+	 *         if the task is not contained in the Gantt model
+	 */
+	private int indexOf(Object task) {
+		int index;
+		
+		if (indices == null) {
+			index = model.indexOf(task);
+		} else {
+			Integer value = indices.get(task);
+			index = (value == null) ? -1 : value;
+		}
+		
+		return (index < taskCount) ? index : -1;
+	}
+	
+	/**
+	 * Recomputes the schedule if it is invalid.
+	 */
+	private void validate() {
+		if (!valid) {
+			build();
+		}
+	}
+	
+	/**
+	 * Recomputes the schedule of all tasks.
+	 */
+	private void build() {
+		taskCount = model.getTaskCount();
+		starts = new long[taskCount];
+		durations = new long[taskCount];
+		earlyStarts = new long[taskCount];
+		lateStarts = new long[taskCount];
+		ranks = new int[taskCount];
+		queue = new int[taskCount];
+		queuedPasses = new int[taskCount];
+		touchedUpdates = new int[taskCount];
+		finishHeap = new int[taskCount];
+		heapPositions = new int[taskCount];
+		pass = 0;
+		update = 0;
+		
+		translator.getStarts(model, 0, taskCount, starts);
+		translator.getEnds(model, 0, taskCount, durations);
+		
+		for (int i = 0; i < taskCount; i++) {
+			durations[i] -= starts[i];
+		}
+		
+		if (model.isIndexed()) {
+			indices = null;
+		} else {
+			indices = new HashMap<Object, Integer>(2*taskCount);
+			
+			for (int i = taskCount - 1; i >= 0; i--) {
+				indices.put(model.getTaskAt(i), i);
+			}
+		}
+		
+		buildLinks();
+		buildOrder();
+		
+		//forward pass computing the early starts
+		for (int i = 0; i < taskCount; i++) {
+			int task = queue[i];
+			earlyStarts[task] = computeEarlyStart(task);
+		}
+		
+		//backward pass computing the late starts
+		for (int i = taskCount - 1; i >= 0; i--) {
+			int task = queue[i];
+			lateStarts[task] = computeLateStart(task);
+		}
+		
+		buildFinishHeap();
+		finish = computeFinish();
+		
+		criticalTasks = new HashSet<Object>();
+		
+		for (int i = 0; i < taskCount; i++) {
+			if (isCritical(i)) {
+				criticalTasks.add(model.getTaskAt(i));
+			}
+		}
+		
+		valid = true;
+		rebuilt = true;
+	}
+	
+	/**
+	 * Builds the successor and predecessor lists of each task from the links
+	 * between tasks contained in the Gantt model.
+	 */
+	private void buildLinks() {
+		int linkCount = linkModel.getLinkCount();
+		int[] firsts = new int[linkCount];
+		int[] seconds = new int[linkCount];
+		byte[] types = new byte[linkCount];
+		int size = 0;
+		
+		if ((linkModel instanceof CompactLinkModel) && 
+				(((CompactLinkModel)linkModel).getGanttModel() == model)) {
+			CompactLinkModel compactModel = (CompactLinkModel)linkModel;
+			
+			for (int i = 0; i < linkCount; i++) {
+				firsts[size] = compactModel.getFirst(i);
+				seconds[size] = compactModel.getSecond(i);
+				types[size] = (byte)compactModel.getType(i).ordinal();
+				
+				if ((firsts[size] < taskCount) && (seconds[size] < taskCount)) {
+					size++;
+				}
+			}
+		} else {
+			for (int i = 0; i < linkCount; i++) {
+				Link link = linkModel.getLinkAt(i);
+				firsts[size] = indexOf(link.getFirst());
+				seconds[size] = indexOf(link.getSecond());
+				types[size] = (byte)link.getType().ordinal();
+				
+				if ((firsts[size] >= 0) && (seconds[size] >= 0)) {
+					size++;
+				}
+			}
+		}
+		
+		successors = new Adjacency(taskCount, firsts, seconds, types, size);
+		predecessors = new Adjacency(taskCount, seconds, firsts, types, size);
+	}
+	
+	/**
+	 * Computes the rank of each task in topological order, storing the tasks
+	 * in topological order in {@code queue}.  Tasks on a cycle are ranked 
+	 * after all other tasks, in index order.
+	 */
+	private void buildOrder() {
+		int[] order = queue;
+		int[] inDegrees = new int[taskCount];
+		int head = 0;
+		int tail = 0;
+		
+		Arrays.fill(ranks, -1);
+		
+		for (int i = 0; i < taskCount; i++) {
+			inDegrees[i] = predecessors.ends[i] - predecessors.offsets[i];
+			
+			if (inDegrees[i] == 0) {
+				ranks[i] = tail;
+				order[tail++] = i;
+			}
+		}
+		
+		while (head < tail) {
+			int task = order[head++];
+			
+			for (int i = successors.offsets[task]; i < successors.ends[task]; 
+					i++) {
+				int successor = successors.tasks[i];
+				
+				if (--inDegrees[successor] == 0) {
+					ranks[successor] = tail;
+					order[tail++] = successor;
+				}
+			}
+		}
+		
+		for (int i = 0; (i < taskCount) && (tail < taskCount); i++) {
+			if (ranks[i] < 0) {
+				ranks[i] = tail;
+				order[tail++] = i;
+			}
+		}
+		
+		//count the links closing a cycle, which run against the order
+		ignoredLinks = 0;
+		
+		for (int task = 0; task < taskCount; task++) {
+			for (int i = successors.offsets[task]; i < successors.ends[task]; 
+					i++) {
+				if (ranks[successors.tasks[i]] <= ranks[task]) {
+					ignoredLinks++;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Computes the early start of the specified task from the early starts 
+	 * of its predecessors.
+	 * 
+	 * @param task the index of the task
+	 * @return the early start of the task
+	 */
+	private long computeEarlyStart(int task) {
+		long earlyStart = starts[task];
+		
+		for (int i = predecessors.offsets[task]; i < predecessors.ends[task];
+				i++) {
+			int predecessor = predecessors.tasks[i];
+			
+			if (ranks[predecessor] >= ranks[task]) {
+				continue;
+			}
+			
+			long bound;
+			
+			switch (TYPES[predecessors.types[i]]) {
+			case START_TO_START:
+				bound = earlyStarts[predecessor];
+				break;
+			case FINISH_TO_START:
+				bound = earlyStarts[predecessor] + durations[predecessor];
+				break;
+			case FINISH_TO_FINISH:
+				bound = earlyStarts[predecessor] + durations[predecessor] - 
+						durations[task];
+				break;
+			default:
+				throw new IllegalStateException();
+			}
+			
+			earlyStart = Math.max(earlyStart, bound);
+		}
+		
+		return earlyStart;
+	}
+	
+	/**
+	 * Computes the late start of the specified task, relative to the project
+	 * finish, from the late starts of its successors.
+	 * 
+	 * @param task the index of the task
+	 * @return the late start of the task relative to the project finish
+	 */
+	private long computeLateStart(int task) {
+		long lateStart = -durations[task];
+		
+		for (int i = successors.offsets[task]; i < successors.ends[task]; 
+				i++) {
+			int successor = successors.tasks[i];
+			
+			if (ranks[successor] <= ranks[task]) {
+				continue;
+			}
+			
+			long bound;
+			
+			switch (TYPES[successors.types[i]]) {
+			case START_TO_START:
+				bound = lateStarts[successor];
+				break;
+			case FINISH_TO_START:
+				bound = lateStarts[successor] - durations[task];
+				break;
+			case FINISH_TO_FINISH:
+				bound = lateStarts[successor] + durations[successor] - 
+						durations[task];
+				break;
+			default:
+				throw new IllegalStateException();
+			}
+			
+			lateStart = Math.min(lateStart, bound);
+		}
+		
+		return lateStart;
+	}
+	
+	/**
+	 * Returns the latest early finish of any task, read from the root of the
+	 * finish heap; or {@code 0} if there are no tasks.
+	 * 
+	 * @return the latest early finish of any task
+	 */
+	private long computeFinish() {
+		return (taskCount == 0) ? 0 : getFinishKey(finishHeap[0]);
+	}
+	
+	/**
+	 * Returns the finish key of the specified task, the difference between 
+	 * its early start and its late start relative to the project finish.  
+	 * Since the late finish of a task never exceeds the project finish, the
+	 * key is at least the early finish of the task; since its slack is never
+	 * negative, the key is at most the project finish.
+	 * 
+	 * @param task the index of the task
+	 * @return the finish key of the task
+	 */
+	private long getFinishKey(int task) {
+		return earlyStarts[task] - lateStarts[task];
+	}
+	
+	/**
+	 * Arranges all tasks into the finish heap.
+	 */
+	private void buildFinishHeap() {
+		for (int i = 0; i < taskCount; i++) {
+			finishHeap[i] = i;
+			heapPositions[i] = i;
+		}
+		
+		for (int i = taskCount/2 - 1; i >= 0; i--) {
+			siftFinishHeap(i);
+		}
+	}
+	
+	/**
+	 * Restores the order of the finish heap after the finish key of the 
+	 * specified task changed, or after the task was placed at the end of the
+	 * heap.
+	 * 
+	 * @param task the index of the task
+	 */
+	private void updateFinishHeap(int task) {
+		long key = getFinishKey(task);
+		int position = heapPositions[task];
+		
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+			
+			if (getFinishKey(finishHeap[parent]) >= key) {
+				break;
+			}
+			
+			finishHeap[position] = finishHeap[parent];
+			heapPositions[finishHeap[position]] = position;
+			position = parent;
+		}
+		
+		finishHeap[position] = task;
+		heapPositions[task] = position;
+		siftFinishHeap(position);
+	}
+	
+	/**
+	 * Moves the task at the specified position of the finish heap down until
+	 * no child has a larger finish key.
+	 * 
+	 * @param position the position in the finish heap
+	 */
+	private void siftFinishHeap(int position) {
+		int task = finishHeap[position];
+		long key = getFinishKey(task);
+		
+		while (true) {
+			int child = 2*position + 1;
+			
+			if (child >= taskCount) {
+				break;
+			}
+			
+			if ((child + 1 < taskCount) && (getFinishKey(finishHeap[child+1]) >
+					getFinishKey(finishHeap[child]))) {
+				child++;
+			}
+			
+			if (getFinishKey(finishHeap[child]) <= key) {
+				break;
+			}
+			
+			finishHeap[position] = finishHeap[child];
+			heapPositions[finishHeap[position]] = position;
+			position = child;
+		}
+		
+		finishHeap[position] = task;
+		heapPositions[task] = position;
+	}
+	
+	/**
+	 * Appends to {@code result} every task whose finish key is at least the 
+	 * specified bound, visiting only the top of the finish heap.  The cost is
+	 * proportional to the number of such tasks.
+	 * 
+	 * @param bound the smallest finish key of the returned tasks
+	 * @param result the list receiving the index of each task
+	 */
+	private void findFinishTasks(long bound, IntList result) {
+		if ((taskCount == 0) || (getFinishKey(finishHeap[0]) < bound)) {
+			return;
+		}
+		
+		int first = result.size();
+		result.add(finishHeap[0]);
+		
+		for (int i = first; i < result.size(); i++) {
+			int child = 2*heapPositions[result.get(i)] + 1;
+			
+			for (int j = child; (j <= child + 1) && (j < taskCount); j++) {
+				if (getFinishKey(finishHeap[j]) >= bound) {
+					result.add(finishHeap[j]);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Updates the schedule after the start or end values of the specified 
+	 * tasks changed, returning the tasks which became critical or ceased to
+	 * be critical.  Only the tasks whose early or late start may change are
+	 * recomputed.  If the project finish changed, the slack of every task 
+	 * changed, so the tasks whose finish key lies between the old and new 
+	 * project finish are also checked.  If the schedule is 
+	 * invalid, it is recomputed on the next query and {@code null} is 
+	 * returned.
+	 * 
+	 * @param tasks the changed tasks
+	 * @return the tasks which became critical or ceased to be critical; or
+	 *         {@code null} if any task may have done so
+	 */
+	public List<Object> update(Collection<?> tasks) {
+		if (!valid) {
+			return null;
+		}
+		
+		long oldFinish = finish;
+		IntList forward = new IntList();
+		IntList backward = new IntList();
+		
+		beginUpdate();
+		
+		for (Object task : tasks) {
+			int index = indexOf(task);
+			
+			if (index < 0) {
+				continue;
+			}
+			
+			long start = translator.getStart(task);
+			long duration = translator.getEnd(task) - start;
+			
+			if ((start == starts[index]) && (duration == durations[index])) {
+				continue;
+			}
+			
+			touch(index);
+			
+			//the late starts of the predecessors depend on the duration
+			if (duration != durations[index]) {
+				backward.add(index);
+				
+				for (int i = predecessors.offsets[index]; 
+						i < predecessors.ends[index]; i++) {
+					backward.add(predecessors.tasks[i]);
+				}
+			}
+			
+			starts[index] = start;
+			durations[index] = duration;
+			forward.add(index);
+		}
+		
+		return propagate(forward, backward, oldFinish);
+	}
+	
+	/**
+	 * Updates the schedule after the specified links were added to the link
+	 * model, returning the tasks which became critical or ceased to be 
+	 * critical.  Each link only changes the early starts downstream of its 
+	 * second task and the late starts upstream of its first task.  A link 
+	 * against the topological order reorders the tasks between its two ends,
+	 * unless it closes a cycle, in which case it is ignored.  If the schedule
+	 * is invalid, or a link cannot be added in place, the schedule is 
+	 * recomputed as by {@link #rebuild()}.
+	 * 
+	 * @param links the added links
+	 * @return the tasks which became critical or ceased to be critical
+	 */
+	public List<Object> addLinks(Collection<Link> links) {
+		if (!valid) {
+			return rebuild();
+		}
+		
+		long oldFinish = finish;
+		IntList forward = new IntList();
+		IntList backward = new IntList();
+		
+		beginUpdate();
+		
+		for (Link link : links) {
+			int first = indexOf(link.getFirst());
+			int second = indexOf(link.getSecond());
+			
+			if ((first < 0) || (second < 0)) {
+				continue;
+			}
+			
+			if (!addLink(first, second, (byte)link.getType().ordinal(), 
+					forward, backward)) {
+				return rebuild();
+			}
+		}
+		
+		return propagate(forward, backward, oldFinish);
+	}
+	
+	/**
+	 * Updates the schedule after the specified links were removed from the 
+	 * link model, returning the tasks which became critical or ceased to be
+	 * critical.  Each link only changes the early starts downstream of its 
+	 * second task and the late starts upstream of its first task.  If the 
+	 * schedule is invalid, or a removed link may allow a link previously 
+	 * ignored for closing a cycle to take effect, the schedule is recomputed
+	 * as by {@link #rebuild()}.
+	 * 
+	 * @param links the removed links
+	 * @return the tasks which became critical or ceased to be critical
+	 */
+	public List<Object> removeLinks(Collection<Link> links) {
+		if (!valid) {
+			return rebuild();
+		}
+		
+		long oldFinish = finish;
+		IntList forward = new IntList();
+		IntList backward = new IntList();
+		
+		beginUpdate();
+		
+		for (Link link : links) {
+			int first = indexOf(link.getFirst());
+			int second = indexOf(link.getSecond());
+			byte type = (byte)link.getType().ordinal();
+			
+			if ((first < 0) || (second < 0) || 
+					!successors.remove(first, second, type)) {
+				continue;
+			}
+			
+			predecessors.remove(second, first, type);
+			
+			if (ranks[first] >= ranks[second]) {
+				ignoredLinks--;
+			} else if (ignoredLinks > 0) {
+				return rebuild();
+			} else {
+				forward.add(second);
+				backward.add(first);
+			}
+		}
+		
+		return propagate(forward, backward, oldFinish);
+	}
+	
+	/**
+	 * Updates the schedule after the specified tasks were appended to the 
+	 * end of the Gantt model, returning the tasks which became critical or 
+	 * ceased to be critical.  The links connecting the new tasks are added
+	 * as by {@link #addLinks(Collection)}.  If the schedule is invalid, the 
+	 * tasks were not appended to the end of the model, or the links of the 
+	 * new tasks cannot be found without scanning all links, the schedule is
+	 * recomputed as by {@link #rebuild()}.
+	 * 
+	 * @param tasks the appended tasks
+	 * @return the tasks which became critical or ceased to be critical
+	 */
+	public List<Object> addTasks(Collection<?> tasks) {
+		int oldCount = taskCount;
+		int newCount = model.getTaskCount();
+		
+		if (!valid || (newCount != oldCount + tasks.size())) {
+			return rebuild();
+		}
+		
+		for (int i = oldCount; i < newCount; i++) {
+			if (!tasks.contains(model.getTaskAt(i))) {
+				return rebuild();
+			}
+		}
+		
+		List<Link> links = findLinks(oldCount, newCount);
+		
+		if (links == null) {
+			return rebuild();
+		}
+		
+		long oldFinish = finish;
+		IntList forward = new IntList();
+		IntList backward = new IntList();
+		
+		ensureCapacity(newCount);
+		successors.setTaskCount(newCount);
+		predecessors.setTaskCount(newCount);
+		taskCount = newCount;
+		beginUpdate();
+		
+		for (int i = oldCount; i < newCount; i++) {
+			Object task = model.getTaskAt(i);
+			
+			if (indices != null) {
+				indices.put(task, i);
+			}
+			
+			starts[i] = translator.getStart(task);
+			durations[i] = translator.getEnd(task) - starts[i];
+			earlyStarts[i] = starts[i];
+			lateStarts[i] = -durations[i];
+			ranks[i] = i;
+			heapPositions[i] = i;
+			updateFinishHeap(i);
+			
+			//the new task was not critical before the update
+			touchedUpdates[i] = update;
+			touched.add(i);
+			touchedCritical.add(0);
+			forward.add(i);
+			backward.add(i);
+		}
+		
+		for (Link link : links) {
+			if (!addLink(indexOf(link.getFirst()), indexOf(link.getSecond()),
+					(byte)link.getType().ordinal(), forward, backward)) {
+				return rebuild();
+			}
+		}
+		
+		return propagate(forward, backward, oldFinish);
+	}
+	
+	/**
+	 * Recomputes the schedule of all tasks, such as after tasks were removed
+	 * or inserted other than at the end of the Gantt model, returning the 
+	 * tasks which became critical or ceased to be critical.  The returned 
+	 * tasks may include removed tasks.  If the schedule was never computed,
+	 * it is instead computed on the next query and an empty list is 
+	 * returned.
+	 * 
+	 * @return the tasks which became critical or ceased to be critical
+	 */
+	public List<Object> rebuild() {
+		List<Object> result = new ArrayList<Object>();
+		Set<Object> oldCriticalTasks = criticalTasks;
+		
+		if (oldCriticalTasks == null) {
+			invalidate();
+			return result;
+		}
+		
+		build();
+		
+		for (Object task : oldCriticalTasks) {
+			if (!criticalTasks.contains(task)) {
+				result.add(task);
+			}
+		}
+		
+		for (Object task : criticalTasks) {
+			if (!oldCriticalTasks.contains(task)) {
+				result.add(task);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the links connecting the tasks with the specified indices to 
+	 * any task, each returned once; or {@code null} if the link model cannot
+	 * find the links of a task without scanning all links.
+	 * 
+	 * @param from the index of the first task
+	 * @param to the index following the last task
+	 * @return the links connecting the tasks to any task; or {@code null} if
+	 *         the links cannot be found without scanning all links
+	 */
+	private List<Link> findLinks(int from, int to) {
+		List<Link> result = new ArrayList<Link>();
+		
+		if (linkModel.getLinkCount() == 0) {
+			return result;
+		} else if ((linkModel instanceof CompactLinkModel) && 
+				(((CompactLinkModel)linkModel).getGanttModel() == model)) {
+			CompactLinkModel compactModel = (CompactLinkModel)linkModel;
+			IntList links = new IntList();
+			
+			for (int i = from; i < to; i++) {
+				links.clear();
+				compactModel.getOutgoingLinks(i, links);
+				
+				for (int j = 0; j < links.size(); j++) {
+					result.add(compactModel.getLinkAt(links.get(j)));
+				}
+				
+				links.clear();
+				compactModel.getIncomingLinks(i, links);
+				
+				//links between two new tasks were found as outgoing links
+				for (int j = 0; j < links.size(); j++) {
+					if (compactModel.getFirst(links.get(j)) < from) {
+						result.add(compactModel.getLinkAt(links.get(j)));
+					}
+				}
+			}
+			
+			return result;
+		} else if (linkModel instanceof IndexedLinkModel) {
+			IndexedLinkModel indexedModel = (IndexedLinkModel)linkModel;
+			
+			for (int i = from; i < to; i++) {
+				Object task = model.getTaskAt(i);
+				result.addAll(indexedModel.getOutgoingLinks(task));
+				
+				//links between two new tasks were found as outgoing links
+				for (Link link : indexedModel.getIncomingLinks(task)) {
+					int first = indexOf(link.getFirst());
+					
+					if ((first >= 0) && (first < from)) {
+						result.add(link);
+					}
+				}
+			}
+			
+			return result;
+		} else {
+			return null;
+		}
+	}
+	
+	/**
+	 * Adds a link between the specified tasks to the adjacency lists, 
+	 * reordering the tasks if the link runs against the topological order, 
+	 * and records the tasks from which the change propagates.  Returns 
+	 * {@code false} if the tasks cannot be reordered in place because a link
+	 * is ignored for closing a cycle, which the new order may change.
+	 * 
+	 * @param first the index of the first task
+	 * @param second the index of the second task
+	 * @param type the ordinal of the type of the link
+	 * @param forward the tasks whose early starts must be recomputed
+	 * @param backward the tasks whose late starts must be recomputed
+	 * @return {@code true} if the link was added; {@code false} if the 
+	 *         schedule must be recomputed
+	 */
+	private boolean addLink(int first, int second, byte type, IntList forward,
+			IntList backward) {
+		if ((ranks[first] >= ranks[second]) && (ignoredLinks > 0)) {
+			return false;
+		}
+		
+		successors.add(first, second, type);
+		predecessors.add(second, first, type);
+		
+		if ((ranks[first] >= ranks[second]) && !reorder(first, second)) {
+			ignoredLinks++;
+		} else {
+			forward.add(second);
+			backward.add(first);
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Reorders the tasks after a link from {@code first} to {@code second} 
+	 * was added against the topological order, such that {@code first} 
+	 * precedes {@code second}.  Only the tasks reachable from {@code second}
+	 * and ranked before {@code first}, and the tasks reaching {@code first} 
+	 * and ranked after {@code second}, are reordered, reusing their ranks.
+	 * Returns {@code false} without reordering any task if the link closes a
+	 * cycle.
+	 * 
+	 * @param first the index of the first task
+	 * @param second the index of the second task
+	 * @return {@code true} if the tasks were reordered; {@code false} if the
+	 *         link closes a cycle
+	 */
+	private boolean reorder(int first, int second) {
+		int lower = ranks[second];
+		int upper = ranks[first];
+		IntList forward = new IntList();
+		IntList backward = new IntList();
+		
+		//the tasks reachable from the second task which must move after the
+		//first task
+		pass++;
+		queuedPasses[second] = pass;
+		forward.add(second);
+		
+		for (int k = 0; k < forward.size(); k++) {
+			int task = forward.get(k);
+			
+			for (int i = successors.offsets[task]; i < successors.ends[task];
+					i++) {
+				int successor = successors.tasks[i];
+				
+				if (successor == first) {
+					return false;
+				}
+				
+				if ((ranks[successor] > ranks[task]) && 
+						(ranks[successor] < upper) && 
+						(queuedPasses[successor] != pass)) {
+					queuedPasses[successor] = pass;
+					forward.add(successor);
+				}
+			}
+		}
+		
+		//the tasks reaching the first task which must move before the second
+		//task
+		queuedPasses[first] = pass;
+		backward.add(first);
+		
+		for (int k = 0; k < backward.size(); k++) {
+			int task = backward.get(k);
+			
+			for (int i = predecessors.offsets[task]; 
+					i < predecessors.ends[task]; i++) {
+				int predecessor = predecessors.tasks[i];
+				
+				if ((ranks[predecessor] < ranks[task]) && 
+						(ranks[predecessor] > lower) &&
+						(queuedPasses[predecessor] != pass)) {
+					queuedPasses[predecessor] = pass;
+					backward.add(predecessor);
+				}
+			}
+		}
+		
+		//assign the ranks of both sets, in order, to the tasks reaching the
+		//first task followed by the tasks reachable from the second task
+		long[] backwardKeys = sortByRank(backward);
+		long[] forwardKeys = sortByRank(forward);
+		int[] pooledRanks = new int[backwardKeys.length + forwardKeys.length];
+		
+		for (int i = 0; i < backwardKeys.length; i++) {
+			pooledRanks[i] = (int)(backwardKeys[i] >>> 32);
+		}
+		
+		for (int i = 0; i < forwardKeys.length; i++) {
+			pooledRanks[backwardKeys.length + i] = 
+					(int)(forwardKeys[i] >>> 32);
+		}
+		
+		Arrays.sort(pooledRanks);
+		
+		for (int i = 0; i < backwardKeys.length; i++) {
+			ranks[(int)backwardKeys[i]] = pooledRanks[i];
+		}
+		
+		for (int i = 0; i < forwardKeys.length; i++) {
+			ranks[(int)forwardKeys[i]] = pooledRanks[backwardKeys.length + i];
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Returns the specified tasks sorted by rank, each encoded with its rank
+	 * in the upper 32 bits and its index in the lower 32 bits.
+	 * 
+	 * @param tasks the indices of the tasks
+	 * @return the tasks sorted by rank
+	 */
+	private long[] sortByRank(IntList tasks) {
+		long[] keys = new long[tasks.size()];
+		
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = ((long)ranks[tasks.get(i)] << 32) | tasks.get(i);
+		}
+		
+		Arrays.sort(keys);
+		return keys;
+	}
+	
+	/**
+	 * Grows the arrays storing the schedule to hold at least the specified 
+	 * number of tasks.
+	 * 
+	 * @param capacity the number of tasks
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity <= starts.length) {
+			return;
+		}
+		
+		capacity = Math.max(capacity, starts.length + starts.length/2);
+		starts = Arrays.copyOf(starts, capacity);
+		durations = Arrays.copyOf(durations, capacity);
+		earlyStarts = Arrays.copyOf(earlyStarts, capacity);
+		lateStarts = Arrays.copyOf(lateStarts, capacity);
+		ranks = Arrays.copyOf(ranks, capacity);
+		queue = Arrays.copyOf(queue, capacity);
+		queuedPasses = Arrays.copyOf(queuedPasses, capacity);
+		touchedUpdates = Arrays.copyOf(touchedUpdates, capacity);
+		finishHeap = Arrays.copyOf(finishHeap, capacity);
+		heapPositions = Arrays.copyOf(heapPositions, capacity);
+	}
+	
+	/**
+	 * Begins an update, clearing the record of modified tasks.
+	 */
+	private void beginUpdate() {
+		update++;
+		rebuilt = false;
+		touched.clear();
+		touchedCritical.clear();
+	}
+	
+	/**
+	 * Recomputes the early starts downstream of the specified tasks and the
+	 * late starts upstream of the specified tasks, in topological order, 
+	 * then updates the project finish and returns the tasks which became
+	 * critical or ceased to be critical.  Propagation stops at tasks whose
+	 * values do not change.
+	 * 
+	 * @param forward the tasks whose early starts must be recomputed, 
+	 *        including any tasks whose start or duration changed
+	 * @param backward the tasks whose late starts must be recomputed
+	 * @param oldFinish the project finish before the update
+	 * @return the tasks which became critical or ceased to be critical
+	 */
+	private List<Object> propagate(IntList forward, IntList backward, 
+			long oldFinish) {
+		//forward pass in topological order
+		beginPass(false);
+		
+		for (int i = 0; i < forward.size(); i++) {
+			enqueue(forward.get(i));
+		}
+		
+		while (queueSize > 0) {
+			int task = dequeue();
+			long earlyStart = computeEarlyStart(task);
+			
+			if (earlyStart != earlyStarts[task]) {
+				touch(task);
+				earlyStarts[task] = earlyStart;
+				updateFinishHeap(task);
+			}
+			
+			if (touchedUpdates[task] == update) {
+				for (int i = successors.offsets[task]; 
+						i < successors.ends[task]; i++) {
+					if (ranks[successors.tasks[i]] > ranks[task]) {
+						enqueue(successors.tasks[i]);
+					}
+				}
+			}
+		}
+		
+		//backward pass in reverse topological order
+		beginPass(true);
+		
+		for (int i = 0; i < backward.size(); i++) {
+			enqueue(backward.get(i));
+		}
+		
+		while (queueSize > 0) {
+			int task = dequeue();
+			long lateStart = computeLateStart(task);
+			
+			if (lateStart != lateStarts[task]) {
+				touch(task);
+				lateStarts[task] = lateStart;
+				updateFinishHeap(task);
+				enqueuePredecessors(task);
+			}
+		}
+		
+		finish = computeFinish();
+		
+		List<Object> result = new ArrayList<Object>();
+		
+		for (int i = 0; i < touched.size(); i++) {
+			int task = touched.get(i);
+			
+			if (isCritical(task) != (touchedCritical.get(i) == 1)) {
+				result.add(model.getTaskAt(task));
+			}
+		}
+		
+		//the slack of every other task changed by the change in finish, but
+		//only tasks with a finish key between the old and new finish flip
+		if (finish != oldFinish) {
+			IntList candidates = new IntList();
+			findFinishTasks(Math.min(finish, oldFinish), candidates);
+			
+			for (int i = 0; i < candidates.size(); i++) {
+				int task = candidates.get(i);
+				
+				if ((touchedUpdates[task] != update) && (isCritical(task) != 
+						(oldFinish <= getFinishKey(task)))) {
+					result.add(model.getTaskAt(task));
+				}
+			}
+		}
+		
+		for (Object task : result) {
+			if (!criticalTasks.remove(task)) {
+				criticalTasks.add(task);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the tasks whose start value differs from their early start, 
+	 * considering only the specified tasks and the tasks modified by the last
+	 * update.  If the schedule was recomputed since the last update, the 
+	 * tasks downstream of the specified tasks are considered instead, as by
+	 * {@link #getDownstreamDisplacedTasks(Collection)}, so tasks displaced 
+	 * elsewhere in the schedule are not reported.  The schedule is 
+	 * recomputed if it is invalid.
+	 * 
+	 * @param tasks the tasks changed by the last update
+	 * @return the tasks whose start value differs from their early start
+	 */
+	List<Object> getDisplacedTasks(Collection<?> tasks) {
+		validate();
+		
+		if (rebuilt) {
+			return getDownstreamDisplacedTasks(tasks);
+		}
+		
+		List<Object> result = new ArrayList<Object>();
+		
+		//stamp the reported tasks so each is reported once
+		pass++;
+		
+		for (Object task : tasks) {
+			int index = indexOf(task);
+			
+			if ((index >= 0) && (queuedPasses[index] != pass) && 
+					(earlyStarts[index] != starts[index])) {
+				queuedPasses[index] = pass;
+				result.add(task);
+			}
+		}
+		
+		for (int i = 0; i < touched.size(); i++) {
+			int index = touched.get(i);
+			
+			if ((queuedPasses[index] != pass) && 
+					(earlyStarts[index] != starts[index])) {
+				queuedPasses[index] = pass;
+				result.add(model.getTaskAt(index));
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns the tasks whose start value differs from their early start 
+	 * among the specified tasks and the tasks downstream of them.  The 
+	 * successors of a task are visited only if it is one of the specified
+	 * tasks or is itself displaced, since shifting the displaced tasks leaves
+	 * every other task unchanged.  The cost is therefore proportional to the
+	 * downstream cone of the specified tasks rather than the number of 
+	 * tasks.  The schedule is recomputed if it is invalid.
+	 * 
+	 * @param tasks the tasks whose values or constraints changed
+	 * @return the tasks whose start value differs from their early start
+	 */
+	List<Object> getDownstreamDisplacedTasks(Collection<?> tasks) {
+		validate();
+		
+		List<Object> result = new ArrayList<Object>();
+		IntList cone = new IntList();
+		
+		//stamp the visited tasks so each is visited once
+		pass++;
+		
+		for (Object task : tasks) {
+			int index = indexOf(task);
+			
+			if ((index >= 0) && (queuedPasses[index] != pass)) {
+				queuedPasses[index] = pass;
+				cone.add(index);
+			}
+		}
+		
+		int seedCount = cone.size();
+		
+		for (int i = 0; i < cone.size(); i++) {
+			int task = cone.get(i);
+			boolean displaced = (earlyStarts[task] != starts[task]);
+			
+			if (displaced) {
+				result.add(model.getTaskAt(task));
+			} else if (i >= seedCount) {
+				continue;
+			}
+			
+			//links closing a cycle are ignored by the schedule
+			for (int j = successors.offsets[task]; j < successors.ends[task];
+					j++) {
+				int successor = successors.tasks[j];
+				
+				if ((ranks[successor] > ranks[task]) && 
+						(queuedPasses[successor] != pass)) {
+					queuedPasses[successor] = pass;
+					cone.add(successor);
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Records the state of the specified task before it is modified in the
+	 * current update.
+	 * 
+	 * @param task the index of the task
+	 */
+	private void touch(int task) {
+		if (touchedUpdates[task] != update) {
+			touchedUpdates[task] = update;
+			touched.add(task);
+			touchedCritical.add(isCritical(task) ? 1 : 0);
+		}
+	}
+	
+	/**
+	 * Queues the predecessors of the specified task for recomputation.
+	 * 
+	 * @param task the index of the task
+	 */
+	private void enqueuePredecessors(int task) {
+		for (int i = predecessors.offsets[task]; i < predecessors.ends[task];
+				i++) {
+			if (ranks[predecessors.tasks[i]] < ranks[task]) {
+				enqueue(predecessors.tasks[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Begins a pass over the tasks, emptying the queue.
+	 * 
+	 * @param descending {@code true} if the queue yields the task with the 
+	 *        highest rank first; {@code false} if it yields the task with the
+	 *        lowest rank first
+	 */
+	private void beginPass(boolean descending) {
+		this.descending = descending;
+		queueSize = 0;
+		pass++;
+	}
+	
+	/**
+	 * Returns {@code true} if the first task is yielded by the queue before
+	 * the second task; {@code false} otherwise.
+	 * 
+	 * @param task1 the index of the first task
+	 * @param task2 the index of the second task
+	 * @return {@code true} if the first task is yielded before the second 
+	 *         task; {@code false} otherwise
+	 */
+	private boolean precedes(int task1, int task2) {
+		return descending ? (ranks[task1] > ranks[task2]) : 
+				(ranks[task1] < ranks[task2]);
+	}
+	
+	/**
+	 * Adds the specified task to the queue, unless it was already queued in
+	 * the current pass.
+	 * 
+	 * @param task the index of the task
+	 */
+	private void enqueue(int task) {
+		if (queuedPasses[task] == pass) {
+			return;
+		}
+		
+		queuedPasses[task] = pass;
+		
+		int position = queueSize++;
+		
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+			
+			if (!precedes(task, queue[parent])) {
+				break;
+			}
+			
+			queue[position] = queue[parent];
+			position = parent;
+		}
+		
+		queue[position] = task;
+	}
+	
+	/**
+	 * Removes and returns the first task in the queue.
+	 * 
+	 * @return the index of the first task in the queue
+	 */
+	private int dequeue() {
+		int result = queue[0];
+		int task = queue[--queueSize];
+		int position = 0;
+		
+		while (true) {
+			int child = 2*position + 1;
+			
+			if (child >= queueSize) {
+				break;
+			}
+			
+			if ((child + 1 < queueSize) && 
+					precedes(queue[child+1], queue[child])) {
+				child++;
+			}
+			
+			if (!precedes(queue[child], task)) {
+				break;
+			}
+			
+			queue[position] = queue[child];
+			position = child;
+		}
+		
+		queue[position] = task;
+		return result;
+	}
+
+}
@@ -62,11 +62,11 @@ public class Example {
 	 */
 	private static class TaskTranslator extends Translator {
 
-		private List<Task> modules;
+		private GanttModel model;
 
-		public TaskTranslator(List<Task> modules) {
+		public TaskTranslator(GanttModel model) {
 			super();
-			this.modules = modules;
+			this.model = model;
 		}
 
 		@Override
@@ -108,7 +108,7 @@ public class Example {
 
 		@Override
 		public int getRow(Object task) {
-			return modules.indexOf(task);
+			return model.indexOf(task);
 		}
 
 	}
@@ -142,16 +142,18 @@ public class Example {
 			tasks.add(new Task("Task " + (i + 1), start, end));
 		}
 
+		// create the gantt model, which allows the dgantt software access to
+		// all the modules being displayed; the indexed model finds the row of
+		// a module without searching the list
+		GanttModel dataModel = new IndexedGanttModel(tasks);
+
 		// create translator allowing the dgantt software to grab the necessary
 		// display information from individual modules
-		TaskTranslator translator = new TaskTranslator(tasks);
-
-		// create the gantt model, which allows the dgantt software access to
-		// all the modules being displayed
-		GanttModel dataModel = new BasicGanttModel(tasks);
+		TaskTranslator translator = new TaskTranslator(dataModel);
 
-		// create links
-		BasicLinkModel linkModel = new BasicLinkModel();
+		// create links; the indexed link model removes the links of modules
+		// removed from the data model
+		IndexedLinkModel linkModel = new IndexedLinkModel(dataModel);
 		linkModel.addLink(tasks.get(0), tasks.get(1), LinkType.FINISH_TO_START);
 		linkModel.addLink(tasks.get(2), tasks.get(3), LinkType.START_TO_START);
 		linkModel
@@ -167,13 +169,27 @@ public class Example {
 		// create the actual dgantt chart
 		final GanttChart chart = new GanttChart(dataModel, translator, linkModel);
 
+		// cache rendered tiles so scrolling and exposes copy images rather than
+		// repainting every row, task and link
+		chart.setTileCache(new TileCache());
+
+		// highlight the tasks on the critical path
+		chart.setCriticalPath(new CriticalPath(dataModel, linkModel, translator));
+
 		// create a handler for box selection using the left-mouse button
 		BasicSelectionHandler boxSelectionHandler = new BasicSelectionHandler(chart);
 		chart.addMouseListener(boxSelectionHandler);
 		chart.addMouseMotionListener(boxSelectionHandler);
 
-		// create handler for manipulating links
-		BasicLinkEditorHandler linkHandler = new BasicLinkEditorHandler(chart);
+		// create a scheduler shifting linked tasks, sharing one undo manager
+		// between the link and task editors
+		UndoManager undoManager = new UndoManager();
+		Scheduler scheduler = new Scheduler(chart.getCriticalPath());
+
+		// create handler for manipulating links, which shifts the tasks 
+		// constrained by each added link
+		BasicLinkEditorHandler linkHandler = new BasicLinkEditorHandler(chart, undoManager);
+		linkHandler.setScheduler(scheduler);
 		chart.addMouseListener(linkHandler);
 		chart.addMouseMotionListener(linkHandler);
 
@@ -187,8 +203,10 @@ public class Example {
 		chart.addMouseListener(doubleClickHandler);
 		chart.addMouseMotionListener(doubleClickHandler);
 
-		// create a handler for moving, resizing and selecting tasks
-		BasicTaskEditorHandler taskEditorHandler = new AdvancedTaskEditorHandler(chart, new UndoManager());
+		// create a handler for moving, resizing and selecting tasks, which
+		// shifts linked tasks to keep the link constraints
+		AdvancedTaskEditorHandler taskEditorHandler = new AdvancedTaskEditorHandler(chart, undoManager);
+		taskEditorHandler.setScheduler(scheduler);
 		chart.addMouseListener(taskEditorHandler);
 		chart.addMouseMotionListener(taskEditorHandler);
 
@@ -0,0 +1,238 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.awt.Point;
+
+import javax.swing.JViewport;
+
+/**
+ * Keeps the right edge of a {@link GanttChart} pinned to the current time,
+ * for charts displaying live data such as a {@link StreamingGanttModel}.
+ * <p>
+ * Rather than sliding the range of the chart, which would require repainting
+ * the entire chart whenever the time advances, the chart is given a fixed 
+ * range several times longer than the visible span and scrolled within its
+ * {@link JViewport}.  The viewport copies the pixels still visible, so only
+ * the newly exposed strip is painted.  Once the current time passes the end
+ * of the fixed range, a new range starting at the visible span is set and
+ * the chart is repainted once.
+ */
+public class FollowNowHandler {
+	
+	/**
+	 * The default number of visible spans in the fixed range of the chart.
+	 */
+	public static final int DEFAULT_SPANS = 8;
+	
+	/**
+	 * The {@code GanttChart} following the current time.
+	 */
+	private final GanttChart chart;
+	
+	/**
+	 * The duration, in canonical units, visible in the chart.
+	 */
+	private long span;
+	
+	/**
+	 * The number of visible spans in the fixed range of the chart.
+	 */
+	private int spans;
+	
+	/**
+	 * {@code true} if the chart follows the current time; {@code false} 
+	 * otherwise.
+	 */
+	private boolean following;
+	
+	/**
+	 * {@code true} if the fixed range of the chart was set by this handler 
+	 * and may be scrolled; {@code false} if a new range must be set.
+	 */
+	private boolean based;
+	
+	/**
+	 * The start of the fixed range of the chart, in canonical units.
+	 */
+	private long rangeStart;
+	
+	/**
+	 * The end of the fixed range of the chart, in canonical units.
+	 */
+	private long rangeEnd;
+	
+	/**
+	 * The current time, in canonical units.
+	 */
+	private long time;
+	
+	/**
+	 * Class constructor for a handler keeping the right edge of the specified
+	 * chart pinned to the current time.  The chart initially follows the 
+	 * current time.
+	 * 
+	 * @param chart the {@code GanttChart} following the current time
+	 * @param span the duration, in canonical units, visible in the chart
+	 * @throws IllegalArgumentException if {@code span} is not positive
+	 */
+	public FollowNowHandler(GanttChart chart, long span) {
+		super();
+		this.chart = chart;
+		
+		spans = DEFAULT_SPANS;
+		following = true;
+		
+		setSpan(span);
+	}
+	
+	/**
+	 * Returns the duration, in canonical units, visible in the chart.
+	 * 
+	 * @return the duration, in canonical units, visible in the chart
+	 */
+	public long getSpan() {
+		return span;
+	}
+	
+	/**
+	 * Sets the duration, in canonical units, visible in the chart.
+	 * 
+	 * @param span the duration, in canonical units, visible in the chart
+	 * @throws IllegalArgumentException if {@code span} is not positive
+	 */
+	public void setSpan(long span) {
+		if (span <= 0) {
+			throw new IllegalArgumentException("span must be positive");
+		}
+		
+		this.span = span;
+		based = false;
+	}
+	
+	/**
+	 * Returns the number of visible spans in the fixed range of the chart.
+	 * 
+	 * @return the number of visible spans in the fixed range of the chart
+	 */
+	public int getSpans() {
+		return spans;
+	}
+	
+	/**
+	 * Sets the number of visible spans in the fixed range of the chart.  
+	 * Larger values repaint the entire chart less often, at the cost of a 
+	 * wider chart.
+	 * 
+	 * @param spans the number of visible spans in the fixed range of the 
+	 *        chart
+	 * @throws IllegalArgumentException if {@code spans < 2}
+	 */
+	public void setSpans(int spans) {
+		if (spans < 2) {
+			throw new IllegalArgumentException("spans must be at least 2");
+		}
+		
+		this.spans = spans;
+		based = false;
+	}
+	
+	/**
+	 * Returns {@code true} if the chart follows the current time; 
+	 * {@code false} otherwise.
+	 * 
+	 * @return {@code true} if the chart follows the current time; 
+	 *         {@code false} otherwise
+	 */
+	public boolean isFollowing() {
+		return following;
+	}
+	
+	/**
+	 * Sets whether the chart follows the current time.  When following 
+	 * stops, the chart retains its fixed range so it may be scrolled freely;
+	 * use {@link GanttChart#clearFixedRange()} to display all tasks.
+	 * 
+	 * @param following {@code true} if the chart follows the current time;
+	 *        {@code false} otherwise
+	 */
+	public void setFollowing(boolean following) {
+		this.following = following;
+		
+		if (following) {
+			based = false;
+			setTime(time);
+		}
+	}
+	
+	/**
+	 * Returns the current time, in canonical units.
+	 * 
+	 * @return the current time, in canonical units
+	 */
+	public long getTime() {
+		return time;
+	}
+	
+	/**
+	 * Sets the current time, in canonical units, scrolling the chart so its
+	 * right edge displays this time if following.  This method is typically
+	 * invoked by a {@link javax.swing.Timer}.
+	 * 
+	 * @param time the current time, in canonical units
+	 */
+	public void setTime(long time) {
+		this.time = time;
+		
+		if (!following) {
+			return;
+		}
+		
+		if (!(chart.getParent() instanceof JViewport)) {
+			//without a viewport, the chart can only slide its range
+			chart.setFixedRange(time - span, time);
+			return;
+		}
+		
+		JViewport viewport = (JViewport)chart.getParent();
+		
+		if (viewport.getWidth() <= 0) {
+			return;
+		}
+		
+		if (!based || !chart.isFixedRange() || (chart.getZoom() != spans) || 
+				(time - span < rangeStart) || (time > rangeEnd)) {
+			rangeStart = time - span;
+			rangeEnd = rangeStart + spans*span;
+			based = true;
+			
+			chart.setFixedRange(rangeStart, rangeEnd);
+			chart.setZoom(spans);
+		}
+		
+		Point position = viewport.getViewPosition();
+		int x = (int)Math.ceil(chart.canonicalToScreen(time)) - 
+				viewport.getWidth();
+		x = Math.max(0, Math.min(x, chart.getWidth() - viewport.getWidth()));
+		
+		if (x != position.x) {
+			viewport.setViewPosition(new Point(x, position.y));
+		}
+	}
+
+}
@@ -25,6 +25,8 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -51,7 +53,8 @@ import javax.swing.event.ChangeListener;
  * to be extended with custom renderers and listeners to provide more complex 
  * behavior.
  */
-public class GanttChart extends JComponent implements GanttModelListener {
+public class GanttChart extends JComponent implements GanttModelListener,
+LinkModelListener {
 	
 	private static final long serialVersionUID = 1745970251668888420L;
 	
@@ -121,6 +124,20 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 * coordinates.
 	 */
 	protected long rangeMaximum;
+	
+	/**
+	 * Tracks the minimum and maximum values of the tasks in the model, 
+	 * allowing the range to be updated without scanning the entire model 
+	 * when individual tasks are changed.
+	 */
+	private final RangeTracker rangeTracker;
+	
+	/**
+	 * {@code true} if the range of this Gantt chart was specified by 
+	 * {@link #setFixedRange(long, long)} and is not computed from the tasks;
+	 * {@code false} otherwise.
+	 */
+	private boolean fixedRange;
 
 	/**
 	 * The height of each row.
@@ -132,6 +149,162 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 */
 	private Insets rowInsets;
 	
+	/**
+	 * The number of rows in the model when last notified of a change, used to
+	 * determine if this chart must be revalidated.
+	 */
+	private int rowCount;
+	
+	/**
+	 * The index of tasks by row and canonical value, used to find the tasks
+	 * intersecting a region without scanning the entire model.
+	 */
+	private final TaskIndex taskIndex;
+	
+	/**
+	 * Reusable storage for the model indices of tasks found by the task index
+	 * while painting.
+	 */
+	private final IntList paintedTasks;
+	
+	/**
+	 * Reusable storage for the model indices of tasks found by the task index
+	 * while hit-testing.
+	 */
+	private final IntList pickedTasks;
+	
+	/**
+	 * The spatial index of links, used to find the links intersecting a 
+	 * region without scanning the entire link model; or {@code null} if this
+	 * Gantt chart has no link model.
+	 */
+	private final LinkIndex linkIndex;
+	
+	/**
+	 * Reusable storage for the indices of links found by the link index while
+	 * painting.
+	 */
+	private final IntList paintedLinks;
+	
+	/**
+	 * Reusable storage for the indices of links whose envelopes are being 
+	 * repainted.
+	 */
+	private final IntList damagedLinks;
+	
+	/**
+	 * The first row whose links must be repainted once the link index is 
+	 * rebuilt.
+	 */
+	private int linkDamageFirstRow;
+	
+	/**
+	 * The last row whose links must be repainted once the link index is 
+	 * rebuilt; or less than {@code linkDamageFirstRow} if no links must be
+	 * repainted.
+	 */
+	private int linkDamageLastRow;
+	
+	/**
+	 * Reusable storage for the model indices of tasks whose entries in the
+	 * indices are being updated.
+	 */
+	private final IntList changedTasks;
+	
+	/**
+	 * Reusable storage for the indices of links whose entries in the link 
+	 * index are being updated.
+	 */
+	private final IntList changedLinks;
+	
+	/**
+	 * Reusable storage for the rows whose coverage is being updated.
+	 */
+	private final IntList changedRows;
+	
+	/**
+	 * The distance, in pixels, that a rendered link may extend beyond its
+	 * anchor points.
+	 */
+	private int linkMargin;
+	
+	/**
+	 * The renderer used for drawing the time covered by tasks too narrow to
+	 * be rendered individually.
+	 */
+	private CoverageRenderer coverageRenderer;
+	
+	/**
+	 * The multi-resolution summary of the time covered by the tasks in each
+	 * row, used when rendering rows as coverage runs.
+	 */
+	private final CoverageSummary coverageSummary;
+	
+	/**
+	 * The average task width, in pixels, below which the tasks in a row are
+	 * rendered as coverage runs; or {@code 0} if tasks are always rendered 
+	 * individually.
+	 */
+	private double levelOfDetailThreshold;
+	
+	/**
+	 * Reusable storage for the bounds of coverage runs.
+	 */
+	private final Rectangle2D coverageBounds;
+	
+	/**
+	 * Reusable storage for the clip bounds while painting.
+	 */
+	private final Rectangle paintClip;
+	
+	/**
+	 * Reusable storage for the clip bounds, grown to include task outlines,
+	 * while painting.
+	 */
+	private final Rectangle outlineClip;
+	
+	/**
+	 * Reusable storage for the clip bounds while painting cached tiles.
+	 */
+	private final Rectangle tileClip;
+	
+	/**
+	 * Reusable storage for the visible rectangle while painting.
+	 */
+	private final Rectangle visibleClip;
+	
+	/**
+	 * Reusable storage for the bounds of rows while painting.
+	 */
+	private final Rectangle2D paintedRowBounds;
+	
+	/**
+	 * Reusable storage for the bounds of tasks while painting.
+	 */
+	private final Rectangle2D paintedTaskBounds;
+	
+	/**
+	 * Reusable storage for the bounds of tasks while hit-testing.
+	 */
+	private final Rectangle2D pickedTaskBounds;
+	
+	/**
+	 * The cache of rendered tiles; or {@code null} if tiles are not cached.
+	 */
+	private TileCache tileCache;
+	
+	/**
+	 * The set of tasks selected when the cached tiles were last updated, used
+	 * to invalidate only the tiles affected by a change in selection.
+	 */
+	private Set<Object> cachedSelection;
+	
+	/**
+	 * The critical path of the tasks displayed in this Gantt chart; or 
+	 * {@code null} if the critical path is not computed.
+	 */
+	private CriticalPath criticalPath;
+	
 	/**
 	 * Class constructor for a new Gantt chart with the specified Gantt model
 	 * and translator.
@@ -166,8 +339,10 @@ public class GanttChart extends JComponent implements GanttModelListener {
 		rowRenderer = new BasicRowRenderer();
 		taskRenderer = new BasicTaskRenderer();
 		linkRenderer = new BasicLinkRenderer();
+		coverageRenderer = new BasicCoverageRenderer();
 		
 		selectedTasks = new HashSet<Object>();
+		cachedSelection = new HashSet<Object>();
 		selectionListeners = new Vector<GanttSelectionListener>();
 		changeListeners = new Vector<ChangeListener>();
 
@@ -175,10 +350,39 @@ public class GanttChart extends JComponent implements GanttModelListener {
 		rowInsets = new Insets(1, 1, 1, 1);
 		zoom = 1.0;
 		
+		taskIndex = model.createTaskIndex(translator);
+		paintedTasks = new IntList();
+		pickedTasks = new IntList();
+		linkIndex = (linkModel == null) ? null : 
+				new LinkIndex(linkModel, translator);
+		paintedLinks = new IntList();
+		damagedLinks = new IntList();
+		linkDamageFirstRow = 0;
+		linkDamageLastRow = -1;
+		changedTasks = new IntList();
+		changedLinks = new IntList();
+		changedRows = new IntList();
+		linkMargin = 10;
+		coverageSummary = new CoverageSummary(taskIndex);
+		coverageBounds = new Rectangle2D.Double();
+		paintClip = new Rectangle();
+		outlineClip = new Rectangle();
+		tileClip = new Rectangle();
+		visibleClip = new Rectangle();
+		paintedRowBounds = new Rectangle2D.Double();
+		paintedTaskBounds = new Rectangle2D.Double();
+		pickedTaskBounds = new Rectangle2D.Double();
+		
+		rangeTracker = new RangeTracker(model, translator);
+		rowCount = model.getRowCount();
 		computeRange();
 		setToolTipText("");
 		
 		model.addGanttModelListener(this);
+		
+		if (linkModel != null) {
+			linkModel.addLinkModelListener(this);
+		}
 	}
 
 	/**
@@ -230,6 +434,10 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	public void fireSelectionEvent() {
 		GanttSelectionEvent event = new GanttSelectionEvent(this);
 		
+		if (tileCache != null) {
+			invalidateSelection();
+		}
+		
 		for (GanttSelectionListener listener : selectionListeners) {
 			listener.valueChanged(event);
 		}
@@ -336,165 +544,653 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	
 	/**
 	 * Forces the Gantt chart to recompute its minimum and maximum values and,
-	 * if necessary, resize and repaint itself.
+	 * if necessary, resize and repaint itself.  This method must be invoked
+	 * whenever the row, start or end value of a task is changed without 
+	 * firing a {@link GanttModelEvent}, as it also invalidates the index used 
+	 * to locate tasks when painting.  This method scans all tasks to compute
+	 * the range; use {@link #resize(Collection)} when the changed tasks are
+	 * known.
 	 */
 	public void resize() {
+		rangeTracker.invalidate();
+		
+		if (criticalPath != null) {
+			criticalPath.invalidate();
+		}
+		
+		updateRange();
+	}
+	
+	/**
+	 * Forces the Gantt chart to update its minimum and maximum values after 
+	 * the row, start or end values of the specified tasks have changed and,
+	 * if necessary, resize and repaint itself.  Unlike {@link #resize()}, 
+	 * the range and indices are updated in time proportional to the number of
+	 * changed tasks, and only the rows the tasks moved from and to are 
+	 * repainted, which makes this method suitable for interactive edits.  
+	 * Tasks must not be added or removed from the model without invoking
+	 * {@link #resize()} or firing a {@link GanttModelEvent}.
+	 * 
+	 * @param tasks the changed tasks
+	 */
+	public void resize(Collection<?> tasks) {
 		long oldMinimum = rangeMinimum;
 		long oldMaximum = rangeMaximum;
 		
+		if (!fixedRange) {
+			rangeTracker.update(tasks);
+		}
+		
+		updateIndices(tasks);
 		computeRange();
-
+		
 		if ((oldMinimum != rangeMinimum) || (oldMaximum != rangeMaximum)) {
+			if (tileCache != null) {
+				tileCache.invalidateAll();
+			}
+			
 			forceRevalidateAndRepaint();
+		} else if (rowCount != model.getRowCount()) {
+			revalidate();
 		}
+		
+		rowCount = model.getRowCount();
+		updateCriticalPath(tasks);
 	}
 	
 	/**
-	 * Forces this Gantt chart to revalidate and repaint, but also forces any
-	 * parent {@link JScrollPane} or {@link GanttPanel} to revalidate and
-	 * repaint.
+	 * Updates the entries of the specified tasks and their links in the 
+	 * indices after the row, start or end values of the tasks changed, or 
+	 * after the tasks were appended to the model, repainting the rows and 
+	 * link envelopes the tasks occupied before and after the change.  If the
+	 * entries cannot be updated in place, or if updating them would cost more
+	 * than rebuilding the indices, the indices are invalidated and the entire
+	 * chart is repainted.  Rows may be added, but not removed.
+	 * 
+	 * @param tasks the changed tasks
 	 */
-	protected void forceRevalidateAndRepaint() {
-		revalidate();
-		repaint();
+	private void updateIndices(Collection<?> tasks) {
+		boolean updatable = model.isIndexed() && taskIndex.isValid() &&
+				(model.getRowCount() >= rowCount) && 
+				(tasks.size() <= taskIndex.getTaskCount()/16 + 16);
+		boolean hasLinks = (linkIndex != null) && 
+				(linkModel.getLinkCount() > 0);
 		
-		if (getParent() instanceof JViewport) {
-			JViewport viewport = (JViewport)getParent();
-			viewport.revalidate();
-			viewport.repaint();
+		changedTasks.clear();
+		changedLinks.clear();
+		changedRows.clear();
+		
+		if (updatable && hasLinks && !linkIndex.isValid()) {
+			updatable = false;
+		}
+		
+		if (updatable) {
+			for (Object task : tasks) {
+				int index = model.indexOf(task);
+				
+				if (index >= 0) {
+					changedTasks.add(index);
+					
+					if (hasLinks && !linkIndex.findLinks(task, changedLinks)) {
+						updatable = false;
+						break;
+					}
+				}
+			}
+		}
+		
+		if (!updatable) {
+			invalidateIndices();
 			
-			if (viewport.getParent() instanceof JScrollPane) {
-				JScrollPane scrollPane = (JScrollPane)viewport.getParent();
-				scrollPane.revalidate();
-				scrollPane.repaint();
+			if (tileCache != null) {
+				tileCache.invalidateAll();
+			}
+			
+			repaint();
+			return;
+		}
+		
+		//repaint the old state of the tasks and links
+		for (int i = 0; i < changedTasks.size(); i++) {
+			int row = taskIndex.getIndexedRow(changedTasks.get(i));
+			
+			if (row >= 0) {
+				changedRows.add(row);
+				repaintBand(row, row);
+			}
+		}
+		
+		for (int i = 0; i < changedLinks.size(); i++) {
+			repaintRegion(getLinkEnvelope(changedLinks.get(i)));
+		}
+		
+		//move the entries and repaint the new state
+		for (int i = 0; i < changedTasks.size(); i++) {
+			taskIndex.update(changedTasks.get(i));
+			
+			int row = taskIndex.getIndexedRow(changedTasks.get(i));
+			
+			if (row >= 0) {
+				changedRows.add(row);
+				repaintBand(row, row);
+			}
+		}
+		
+		changedRows.sort();
+		
+		for (int i = 0; i < changedRows.size(); i++) {
+			if ((i == 0) || (changedRows.get(i) != changedRows.get(i-1))) {
+				coverageSummary.updateRow(changedRows.get(i));
+			}
+		}
+		
+		for (int i = 0; i < changedLinks.size(); i++) {
+			int link = changedLinks.get(i);
+			
+			linkIndex.update(link);
+			
+			if (linkIndex.isValid()) {
+				repaintRegion(getLinkEnvelope(link));
+			} else {
+				repaintRegion(getLinkEnvelope(linkModel.getLinkAt(link)));
 			}
 		}
 	}
 	
 	/**
-	 * Computes the minimum and maximum values contained in this Gantt chart.
+	 * Updates the critical path after the start or end values of the 
+	 * specified tasks have changed, repainting the tasks which became 
+	 * critical or ceased to be critical.
+	 * 
+	 * @param tasks the changed tasks
 	 */
-	private void computeRange() {
-		rangeMinimum = Long.MAX_VALUE;
-		rangeMaximum = Long.MIN_VALUE;
+	private void updateCriticalPath(Collection<?> tasks) {
+		if (criticalPath == null) {
+			return;
+		}
 		
-		for (int i=0; i<model.getTaskCount(); i++) {
-			Object task = model.getTaskAt(i);
+		repaintCriticalTasks(criticalPath.update(tasks));
+	}
+	
+	/**
+	 * Repaints the specified tasks, which became critical or ceased to be 
+	 * critical, discarding any cached tiles covering them.  Tasks no longer
+	 * contained in an indexed model are skipped, since the rows they occupied
+	 * are repainted when they are removed.  If {@code changedTasks} is 
+	 * {@code null}, any task may have changed, so the entire chart is 
+	 * repainted.  The chart invokes this method whenever it updates its 
+	 * critical path; code updating the critical path directly, such as a
+	 * {@link Scheduler}, must invoke it with the tasks reported by the 
+	 * update.
+	 * 
+	 * @param changedTasks the tasks which became critical or ceased to be
+	 *        critical; or {@code null} if any task may have done so
+	 */
+	public void repaintCriticalTasks(Collection<?> changedTasks) {
+		if (changedTasks == null) {
+			if (tileCache != null) {
+				tileCache.invalidateAll();
+			}
 			
-			rangeMinimum = Math.min(rangeMinimum, translator.getStart(task));
-			rangeMaximum = Math.max(rangeMaximum, translator.getEnd(task));
+			repaint();
+			return;
 		}
 		
-		if ((rangeMinimum == Long.MAX_VALUE) || (rangeMaximum == Long.MIN_VALUE)) {
-			//model empty
-			rangeMinimum = 0;
-			rangeMaximum = 0;
+		for (Object task : changedTasks) {
+			if (model.isIndexed() && !model.contains(task)) {
+				continue;
+			}
+			
+			Rectangle2D bounds = getTaskBounds(task);
+			bounds.setRect(bounds.getX() - 1.0, bounds.getY() - 1.0, 
+					bounds.getWidth() + 2.0, bounds.getHeight() + 2.0);
+			repaintRegion(bounds);
 		}
 	}
 	
-	@Override
-	public Dimension getPreferredSize() {
-		int width;
+	/**
+	 * Invalidates the cached tiles and indices and recomputes the range, 
+	 * revalidating and repainting this Gantt chart if the range changed.
+	 */
+	private void updateRange() {
+		long oldMinimum = rangeMinimum;
+		long oldMaximum = rangeMaximum;
 		
-		if (getParent() instanceof JViewport) {
-			width = (int)(zoom * getParent().getWidth());
-		} else {
-			width = super.getPreferredSize().width;
+		if (tileCache != null) {
+			tileCache.invalidateAll();
 		}
 		
-		int height = model.getRowCount() * getRowHeight();
+		invalidateIndices();
+		computeRange();
 
-		return new Dimension(width, height);
+		if ((oldMinimum != rangeMinimum) || (oldMaximum != rangeMaximum)) {
+			forceRevalidateAndRepaint();
+		}
 	}
-
+	
 	/**
-	 * Returns the row at the specified vertical position in screen coordinates;
-	 * or {@code null} if the position is out of bounds.
+	 * Fixes the range of this Gantt chart to the specified minimum and 
+	 * maximum values.  While the range is fixed, the tasks are no longer
+	 * scanned to compute the range, which avoids the cost of doing so for
+	 * large models.  Tasks outside the fixed range are clipped.
 	 * 
-	 * @param y the vertical position in screen coordinates
-	 * @return the row at the specified vertical position in screen coordinates;
-	 *         or {@code null} if the position is out of bounds
+	 * @param minimum the minimum value displayed in this Gantt chart, in
+	 *        canonical coordinates
+	 * @param maximum the maximum value displayed in this Gantt chart, in
+	 *        canonical coordinates
+	 * @throws IllegalArgumentException if {@code minimum > maximum}
 	 */
-	public Integer getRow(double y) {
-		if (y < 0)
-			return null;
-		
-		if (y > getHeight())
-			return null;
+	public void setFixedRange(long minimum, long maximum) {
+		if (minimum > maximum) {
+			throw new IllegalArgumentException(
+					"minimum must not exceed maximum");
+		}
 		
-		int row = (int)(y / getRowHeight());
+		fixedRange = true;
+		rangeTracker.invalidate();
 		
-		if (row >= model.getRowCount())
-			return null;
-
-		return row;
+		if ((rangeMinimum != minimum) || (rangeMaximum != maximum)) {
+			rangeMinimum = minimum;
+			rangeMaximum = maximum;
+			
+			if (tileCache != null) {
+				tileCache.invalidateAll();
+			}
+			
+			forceRevalidateAndRepaint();
+		}
 	}
 	
 	/**
-	 * Returns the scaling factor used to convert between canonical and screen
-	 * coordinates.
-	 * 
-	 * @return the scaling factor used to convert between canonical and screen
-	 *         coordinates
+	 * Removes any fixed range set by {@link #setFixedRange(long, long)}, so
+	 * the range is again computed from the tasks.
 	 */
-	private double getScale() {
-		return (double)(getWidth() - rowInsets.left - rowInsets.right) /
-				(double)(rangeMaximum - rangeMinimum);
+	public void clearFixedRange() {
+		fixedRange = false;
+		resize();
 	}
 	
 	/**
-	 * Converts from canonical coordinates to screen coordinates.
+	 * Returns {@code true} if the range of this Gantt chart was specified by
+	 * {@link #setFixedRange(long, long)}; {@code false} if the range is 
+	 * computed from the tasks.
 	 * 
-	 * @param value the canonical coordinate value
-	 * @return the screen coordinate value
+	 * @return {@code true} if the range of this Gantt chart was specified by
+	 *         {@link #setFixedRange(long, long)}; {@code false} if the range
+	 *         is computed from the tasks
 	 */
-	public double canonicalToScreen(long value) {
-		return getScale()*(value - rangeMinimum) + rowInsets.left;
+	public boolean isFixedRange() {
+		return fixedRange;
 	}
 	
 	/**
-	 * Converts from screen coordinates to canonical coordinates.
-	 * 
-	 * @param x the screen coordinate value
-	 * @return the canonical coordinate value
+	 * Notifies this Gantt chart that links were added to or removed from its
+	 * {@code LinkModel}.  The index used to locate links when painting is
+	 * rebuilt and the chart is repainted.  This method is only required for
+	 * link models which do not notify their {@link LinkModelListener}s.
 	 */
-	public long screenToCanonical(double x) {
-		return (long)((x - rowInsets.left) / getScale()) + rangeMinimum;
+	public void linksChanged() {
+		if (linkIndex != null) {
+			linkIndex.invalidate();
+		}
+		
+		if (criticalPath != null) {
+			criticalPath.invalidate();
+		}
+		
+		if (tileCache != null) {
+			tileCache.invalidateAll();
+		}
+		
+		repaint();
 	}
 	
 	/**
-	 * Returns the rectangular bounds of the specified task in screen
-	 * coordinates.
-	 * 
-	 * @param task the task
-	 * @return the rectangular bounds of the specified task in screen
-	 *         coordinates
+	 * Invalidates the task and link indices after tasks have changed.
 	 */
-	public Rectangle2D getTaskBounds(Object task) {
-		int row = translator.getRow(task);
-		double start = canonicalToScreen(translator.getStart(task));
-		double end = canonicalToScreen(translator.getEnd(task));
-		double top = row*getRowHeight() + rowInsets.top;
+	private void invalidateIndices() {
+		taskIndex.invalidate();
+		coverageSummary.invalidate();
 		
-		return new Rectangle2D.Double(start, top, end - start, rowHeight);
+		if (linkIndex != null) {
+			linkIndex.invalidate();
+		}
 	}
 	
 	/**
-	 * Returns the rectangular bounds of the specified task in screen
-	 * coordinates, whose position and width are modified by the additional
-	 * parameters.
+	 * Repaints the specified rows, along with any links connected to tasks in
+	 * those rows, discarding any cached tiles covering these regions.  If the
+	 * link index is invalid, the links are instead repainted by the next 
+	 * paint, once the index has been rebuilt.
 	 * 
-	 * @param task the task
-	 * @param row the new row
-	 * @param dstart the change in position
-	 * @param dwidth the change in width
-	 * @return the rectangular bounds of the specified task in screen
-	 *         coordinates, whose position and width are modified by the 
-	 *         additional parameters
+	 * @param firstRow the first row
+	 * @param lastRow the last row
 	 */
-	public Rectangle2D getTaskBounds(Object task, int row, double dstart, 
-			double dwidth) {
-		double start = canonicalToScreen(translator.getStart(task));
+	private void repaintRows(int firstRow, int lastRow) {
+		repaintBand(firstRow, lastRow);
+		
+		if ((linkIndex == null) || (linkModel.getLinkCount() == 0)) {
+			return;
+		}
+		
+		if (linkIndex.isValid()) {
+			repaintLinks(firstRow, lastRow);
+		} else if (linkDamageLastRow < linkDamageFirstRow) {
+			linkDamageFirstRow = firstRow;
+			linkDamageLastRow = lastRow;
+		} else {
+			linkDamageFirstRow = Math.min(linkDamageFirstRow, firstRow);
+			linkDamageLastRow = Math.max(linkDamageLastRow, lastRow);
+		}
+	}
+	
+	/**
+	 * Repaints the links whose envelopes intersect the specified rows, 
+	 * discarding any cached tiles covering these regions.
+	 * 
+	 * @param firstRow the first row
+	 * @param lastRow the last row
+	 */
+	private void repaintLinks(int firstRow, int lastRow) {
+		damagedLinks.clear();
+		linkIndex.query(firstRow, lastRow, Long.MIN_VALUE, Long.MAX_VALUE,
+				damagedLinks);
+		
+		for (int i = 0; i < damagedLinks.size(); i++) {
+			repaintRegion(getLinkEnvelope(damagedLinks.get(i)));
+		}
+	}
+	
+	/**
+	 * Repaints the links connected to rows changed while the link index was
+	 * invalid, rebuilding the index if necessary.
+	 */
+	private void repaintDeferredLinks() {
+		if (linkDamageLastRow < linkDamageFirstRow) {
+			return;
+		}
+		
+		int firstRow = linkDamageFirstRow;
+		int lastRow = linkDamageLastRow;
+		
+		linkDamageFirstRow = 0;
+		linkDamageLastRow = -1;
+		
+		if ((linkIndex != null) && (linkModel.getLinkCount() > 0)) {
+			repaintLinks(firstRow, lastRow);
+		}
+	}
+	
+	/**
+	 * Repaints the specified rows, discarding any cached tiles covering these
+	 * rows.
+	 * 
+	 * @param firstRow the first row
+	 * @param lastRow the last row
+	 */
+	private void repaintBand(int firstRow, int lastRow) {
+		repaintRegion(new Rectangle2D.Double(0.0, firstRow*getRowHeight(),
+				getWidth(), (lastRow - firstRow + 1)*getRowHeight()));
+	}
+	
+	/**
+	 * Repaints the specified region, discarding any cached tiles covering the
+	 * region.
+	 * 
+	 * @param region the region in screen coordinates
+	 */
+	private void repaintRegion(Rectangle2D region) {
+		if (tileCache != null) {
+			tileCache.invalidate(region);
+		}
+		
+		Rectangle bounds = region.getBounds();
+		repaint(bounds.x, bounds.y, bounds.width, bounds.height);
+	}
+	
+	/**
+	 * Discards any cached tiles covering tasks whose selection state changed
+	 * since the cached tiles were last updated.
+	 */
+	private void invalidateSelection() {
+		for (Object task : cachedSelection) {
+			if (!selectedTasks.contains(task)) {
+				invalidateTask(task);
+			}
+		}
+		
+		for (Object task : selectedTasks) {
+			if (!cachedSelection.contains(task)) {
+				invalidateTask(task);
+			}
+		}
+		
+		cachedSelection.clear();
+		cachedSelection.addAll(selectedTasks);
+	}
+	
+	/**
+	 * Discards any cached tiles covering the specified task.
+	 * 
+	 * @param task the task
+	 */
+	private void invalidateTask(Object task) {
+		Rectangle2D bounds = getTaskBounds(task);
+		bounds.setRect(bounds.getX() - 1.0, bounds.getY() - 1.0, 
+				bounds.getWidth() + 2.0, bounds.getHeight() + 2.0);
+		tileCache.invalidate(bounds);
+	}
+	
+	/**
+	 * Returns the rectangular bounds, in screen coordinates, of the envelope 
+	 * of the specified link, padded by the link margin.
+	 * 
+	 * @param link the index of the link
+	 * @return the rectangular bounds of the envelope of the link
+	 */
+	private Rectangle2D getLinkEnvelope(int link) {
+		return getLinkEnvelope(linkIndex.getMinRow(link), 
+				linkIndex.getMaxRow(link), linkIndex.getMinTime(link), 
+				linkIndex.getMaxTime(link));
+	}
+	
+	/**
+	 * Returns the rectangular bounds, in screen coordinates, of the envelope 
+	 * of the specified link, padded by the link margin.  Unlike 
+	 * {@link #getLinkEnvelope(int)}, the envelope is computed from the 
+	 * current values of the linked tasks, so the link need not be contained 
+	 * in the {@code LinkModel}.
+	 * 
+	 * @param link the link
+	 * @return the rectangular bounds of the envelope of the link
+	 */
+	private Rectangle2D getLinkEnvelope(Link link) {
+		int row1 = Math.max(translator.getRow(link.getFirst()), 0);
+		int row2 = Math.max(translator.getRow(link.getSecond()), 0);
+		long time1 = linkIndex.getSourceAnchor(link);
+		long time2 = linkIndex.getTargetAnchor(link);
+		
+		return getLinkEnvelope(Math.min(row1, row2), Math.max(row1, row2),
+				Math.min(time1, time2), Math.max(time1, time2));
+	}
+	
+	/**
+	 * Returns the rectangular bounds, in screen coordinates, of a link 
+	 * envelope spanning the specified rows and canonical range, padded by the
+	 * link margin.
+	 * 
+	 * @param minRow the first row spanned by the envelope
+	 * @param maxRow the last row spanned by the envelope
+	 * @param minTime the start of the envelope in canonical coordinates
+	 * @param maxTime the end of the envelope in canonical coordinates
+	 * @return the rectangular bounds of the envelope
+	 */
+	private Rectangle2D getLinkEnvelope(int minRow, int maxRow, long minTime,
+			long maxTime) {
+		double left = canonicalToScreen(minTime);
+		double right = canonicalToScreen(maxTime);
+		double top = minRow*getRowHeight();
+		double bottom = (maxRow + 1)*getRowHeight();
+		
+		return new Rectangle2D.Double(left - linkMargin, top - linkMargin,
+				right - left + 2*linkMargin, bottom - top + 2*linkMargin);
+	}
+	
+	/**
+	 * Forces this Gantt chart to revalidate and repaint, but also forces any
+	 * parent {@link JScrollPane} or {@link GanttPanel} to revalidate and
+	 * repaint.
+	 */
+	protected void forceRevalidateAndRepaint() {
+		revalidate();
+		repaint();
+		
+		if (getParent() instanceof JViewport) {
+			JViewport viewport = (JViewport)getParent();
+			viewport.revalidate();
+			viewport.repaint();
+			
+			if (viewport.getParent() instanceof JScrollPane) {
+				JScrollPane scrollPane = (JScrollPane)viewport.getParent();
+				scrollPane.revalidate();
+				scrollPane.repaint();
+			}
+		}
+	}
+	
+	/**
+	 * Computes the minimum and maximum values contained in this Gantt chart,
+	 * unless the range is fixed.
+	 */
+	private void computeRange() {
+		if (fixedRange) {
+			return;
+		}
+		
+		rangeMinimum = rangeTracker.getMinimum();
+		rangeMaximum = rangeTracker.getMaximum();
+	}
+	
+	@Override
+	public Dimension getPreferredSize() {
+		int width;
+		
+		if (getParent() instanceof JViewport) {
+			width = (int)(zoom * getParent().getWidth());
+		} else {
+			width = super.getPreferredSize().width;
+		}
+		
+		int height = model.getRowCount() * getRowHeight();
+
+		return new Dimension(width, height);
+	}
+
+	/**
+	 * Returns the row at the specified vertical position in screen coordinates;
+	 * or {@code null} if the position is out of bounds.
+	 * 
+	 * @param y the vertical position in screen coordinates
+	 * @return the row at the specified vertical position in screen coordinates;
+	 *         or {@code null} if the position is out of bounds
+	 */
+	public Integer getRow(double y) {
+		if (y < 0)
+			return null;
+		
+		if (y > getHeight())
+			return null;
+		
+		int row = (int)(y / getRowHeight());
+		
+		if (row >= model.getRowCount())
+			return null;
+
+		return row;
+	}
+	
+	/**
+	 * Returns the scaling factor used to convert between canonical and screen
+	 * coordinates.
+	 * 
+	 * @return the scaling factor used to convert between canonical and screen
+	 *         coordinates
+	 */
+	private double getScale() {
+		return (double)(getWidth() - rowInsets.left - rowInsets.right) /
+				(double)(rangeMaximum - rangeMinimum);
+	}
+	
+	/**
+	 * Converts from canonical coordinates to screen coordinates.
+	 * 
+	 * @param value the canonical coordinate value
+	 * @return the screen coordinate value
+	 */
+	public double canonicalToScreen(long value) {
+		return getScale()*(value - rangeMinimum) + rowInsets.left;
+	}
+	
+	/**
+	 * Converts from screen coordinates to canonical coordinates.
+	 * 
+	 * @param x the screen coordinate value
+	 * @return the canonical coordinate value
+	 */
+	public long screenToCanonical(double x) {
+		return (long)((x - rowInsets.left) / getScale()) + rangeMinimum;
+	}
+	
+	/**
+	 * Returns the rectangular bounds of the specified task in screen
+	 * coordinates.
+	 * 
+	 * @param task the task
+	 * @return the rectangular bounds of the specified task in screen
+	 *         coordinates
+	 */
+	public Rectangle2D getTaskBounds(Object task) {
+		return getTaskBounds(task, new Rectangle2D.Double());
+	}
+	
+	/**
+	 * Stores the rectangular bounds of the specified task in screen 
+	 * coordinates in the specified rectangle.  Unlike 
+	 * {@link #getTaskBounds(Object)}, this method does not allocate, allowing
+	 * a single rectangle to be reused when computing the bounds of many 
+	 * tasks.
+	 * 
+	 * @param task the task
+	 * @param bounds the rectangle receiving the bounds of the task
+	 * @return {@code bounds}, containing the rectangular bounds of the
+	 *         specified task in screen coordinates
+	 */
+	public Rectangle2D getTaskBounds(Object task, Rectangle2D bounds) {
+		int row = translator.getRow(task);
+		double start = canonicalToScreen(translator.getStart(task));
+		double end = canonicalToScreen(translator.getEnd(task));
+		double top = row*getRowHeight() + rowInsets.top;
+		
+		bounds.setRect(start, top, end - start, rowHeight);
+		return bounds;
+	}
+	
+	/**
+	 * Returns the rectangular bounds of the specified task in screen
+	 * coordinates, whose position and width are modified by the additional
+	 * parameters.
+	 * 
+	 * @param task the task
+	 * @param row the new row
+	 * @param dstart the change in position
+	 * @param dwidth the change in width
+	 * @return the rectangular bounds of the specified task in screen
+	 *         coordinates, whose position and width are modified by the 
+	 *         additional parameters
+	 */
+	public Rectangle2D getTaskBounds(Object task, int row, double dstart, 
+			double dwidth) {
+		double start = canonicalToScreen(translator.getStart(task));
 		double end = canonicalToScreen(translator.getEnd(task));
 		double top = row*getRowHeight() + rowInsets.top;
 		
@@ -511,66 +1207,439 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 *         coordinates
 	 */
 	public Rectangle2D getRowBounds(int row) {		
-		return new Rectangle2D.Double(0.0, row*getRowHeight(), getWidth(),
+		return getRowBounds(row, new Rectangle2D.Double());
+	}
+	
+	/**
+	 * Stores the rectangular bounds of the specified row in screen coordinates
+	 * in the specified rectangle.  Unlike {@link #getRowBounds(int)}, this
+	 * method does not allocate.
+	 * 
+	 * @param row the row
+	 * @param bounds the rectangle receiving the bounds of the row
+	 * @return {@code bounds}, containing the rectangular bounds of the 
+	 *         specified row in screen coordinates
+	 */
+	public Rectangle2D getRowBounds(int row, Rectangle2D bounds) {
+		bounds.setRect(0.0, row*getRowHeight(), getWidth(), getRowHeight());
+		return bounds;
+	}
+	
+	/**
+	 * Returns {@code true} if the scaling factor can be used to convert from
+	 * screen to canonical coordinates; {@code false} if the chart has no width
+	 * or its range is empty.
+	 * 
+	 * @return {@code true} if the scaling factor can be used to convert from
+	 *         screen to canonical coordinates; {@code false} otherwise
+	 */
+	private boolean isScaleValid() {
+		double scale = getScale();
+		return (scale > 0.0) && !Double.isInfinite(scale);
+	}
+	
+	/**
+	 * Converts from screen coordinates to canonical coordinates, rounding 
+	 * down.  If the conversion is not possible, the smallest canonical value
+	 * is returned.
+	 * 
+	 * @param x the screen coordinate value
+	 * @return the canonical coordinate value, rounded down
+	 */
+	private long getLowerCanonical(double x) {
+		if (isScaleValid()) {
+			return (long)Math.floor((x - rowInsets.left) / getScale()) + 
+					rangeMinimum;
+		} else {
+			return Long.MIN_VALUE;
+		}
+	}
+	
+	/**
+	 * Converts from screen coordinates to canonical coordinates, rounding 
+	 * up.  If the conversion is not possible, the largest canonical value is
+	 * returned.
+	 * 
+	 * @param x the screen coordinate value
+	 * @return the canonical coordinate value, rounded up
+	 */
+	private long getUpperCanonical(double x) {
+		if (isScaleValid()) {
+			return (long)Math.ceil((x - rowInsets.left) / getScale()) + 
+					rangeMinimum;
+		} else {
+			return Long.MAX_VALUE;
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if the tasks in the specified row are, on average,
+	 * narrower than the level of detail threshold and are therefore rendered
+	 * as coverage runs rather than individually; {@code false} otherwise.
+	 * 
+	 * @param row the row
+	 * @return {@code true} if the tasks in the specified row are rendered as
+	 *         coverage runs; {@code false} otherwise
+	 */
+	public boolean isRowAggregated(int row) {
+		if ((levelOfDetailThreshold <= 0.0) || !isScaleValid()) {
+			return false;
+		}
+		
+		return coverageSummary.getAverageDuration(row) * getScale() < 
+				levelOfDetailThreshold;
+	}
+	
+	/**
+	 * Renders the rows intersecting the clip whose tasks are aggregated as 
+	 * coverage runs, and appends to {@code result} the model index of every
+	 * task in the remaining rows that may intersect the clip.
+	 * 
+	 * @param g the graphics object used for rendering
+	 * @param clip the clip
+	 * @param result the list receiving the model index of each task
+	 */
+	private void paintCoverage(Graphics g, Rectangle clip, IntList result) {
+		int firstRow = Math.max(0, clip.y / getRowHeight());
+		int lastRow = Math.min(getModel().getRowCount() - 1, 
+				(clip.y + clip.height) / getRowHeight());
+		long start = getLowerCanonical(clip.x - 1.0);
+		long end = getUpperCanonical(clip.x + clip.width + 1.0);
+		int level = coverageSummary.getLevel(1.0 / getScale());
+		int detailRow = -1;
+		
+		for (int row = firstRow; row <= lastRow + 1; row++) {
+			boolean aggregated = (row <= lastRow) && isRowAggregated(row);
+			
+			if (!aggregated && (row <= lastRow)) {
+				if (detailRow < 0) {
+					detailRow = row;
+				}
+				
+				continue;
+			}
+			
+			//query the index for the preceding span of detailed rows
+			if (detailRow >= 0) {
+				taskIndex.query(detailRow, row - 1, start, end, result);
+				detailRow = -1;
+			}
+			
+			if (!aggregated) {
+				continue;
+			}
+			
+			int lastRun = coverageSummary.getLastRun(level, row);
+			
+			for (int run = coverageSummary.getFirstRun(level, row, start); 
+					run < lastRun; run++) {
+				long runStart = coverageSummary.getRunStart(level, run);
+				
+				if (runStart > end) {
+					break;
+				}
+				
+				double left = canonicalToScreen(runStart);
+				double right = canonicalToScreen(
+						coverageSummary.getRunEnd(level, run));
+				
+				coverageBounds.setRect(left, row*getRowHeight() + rowInsets.top,
+						Math.max(right - left, 1.0), rowHeight);
+				coverageRenderer.paintCoverage(g, this, row, coverageBounds, 
+						coverageSummary.getRunCount(level, run));
+			}
+		}
+	}
+	
+	/**
+	 * Appends to {@code result} the model index of every task that may
+	 * intersect the specified rectangle in screen coordinates.  The tasks are
+	 * found using the task index, so the cost is proportional to the number of
+	 * tasks in the rectangle rather than the number of tasks in the model.  
+	 * Since the search is padded to account for rounding, callers should test
+	 * the actual task bounds before use.
+	 * 
+	 * @param x the left edge of the rectangle in screen coordinates
+	 * @param y the top edge of the rectangle in screen coordinates
+	 * @param width the width of the rectangle
+	 * @param height the height of the rectangle
+	 * @param result the list receiving the model index of each task
+	 */
+	public void findTasks(double x, double y, double width, double height,
+			IntList result) {
+		int firstRow = (int)Math.floor(y / getRowHeight());
+		int lastRow = (int)Math.floor((y + height) / getRowHeight());
+		
+		//pad by one pixel on each side to account for rounding
+		long start = getLowerCanonical(x - 1.0);
+		long end = getUpperCanonical(x + width + 1.0);
+		
+		taskIndex.query(firstRow, lastRow, start, end, result);
+	}
+	
+	/**
+	 * Appends to {@code result} the index of every link in the 
+	 * {@code LinkModel} that may intersect the specified rectangle in screen
+	 * coordinates.  The rectangle is padded by the link margin to account for
+	 * the arrow heads drawn at the anchor points.
+	 * 
+	 * @param x the left edge of the rectangle in screen coordinates
+	 * @param y the top edge of the rectangle in screen coordinates
+	 * @param width the width of the rectangle
+	 * @param height the height of the rectangle
+	 * @param result the list receiving the index of each link
+	 */
+	public void findLinks(double x, double y, double width, double height,
+			IntList result) {
+		if (linkIndex == null) {
+			return;
+		}
+		
+		int firstRow = (int)Math.floor((y - linkMargin) / getRowHeight());
+		int lastRow = (int)Math.floor((y + height + linkMargin) / 
 				getRowHeight());
+		long start = getLowerCanonical(x - linkMargin);
+		long end = getUpperCanonical(x + width + linkMargin);
+		
+		linkIndex.query(firstRow, lastRow, start, end, result);
+	}
+	
+	/**
+	 * Notifies the model of the rows and canonical range within the visible
+	 * rectangle of this Gantt chart, so models loading tasks lazily retain 
+	 * the tasks being viewed rather than those most recently queried.
+	 */
+	private void updateVisibleRange() {
+		computeVisibleRect(visibleClip);
+		
+		if (visibleClip.isEmpty() || !isScaleValid()) {
+			return;
+		}
+		
+		int firstRow = Math.max(0, visibleClip.y / getRowHeight());
+		int lastRow = Math.min(getModel().getRowCount() - 1, 
+				(visibleClip.y + visibleClip.height) / getRowHeight());
+		long start = getLowerCanonical(visibleClip.x - 1.0);
+		long end = getUpperCanonical(visibleClip.x + visibleClip.width + 1.0);
+		
+		getModel().setVisibleRange(firstRow, lastRow, start, end);
 	}
 	
 	@Override
 	public void paintComponent(Graphics g) {
+		repaintDeferredLinks();
+		updateVisibleRange();
+		
+		if (tileCache == null) {
+			paintChart(g);
+		} else {
+			paintTiles(g);
+		}
+	}
+	
+	/**
+	 * Paints the region of this Gantt chart intersecting the clip by copying
+	 * the cached tiles, rendering any tiles missing from the cache.
+	 * 
+	 * @param g the graphics object used for rendering
+	 */
+	private void paintTiles(Graphics g) {
 		Graphics2D g2 = (Graphics2D)g;
-		Rectangle clip = g2.getClipBounds();
+		Rectangle clip = g2.getClipBounds(tileClip);
+		int size = tileCache.getTileSize();
+		
+		tileCache.setGeometry(getWidth(), getRowHeight(), rangeMinimum, 
+				rangeMaximum);
+		
+		int firstColumn = Math.max(0, clip.x / size);
+		int lastColumn = (clip.x + clip.width - 1) / size;
+		int firstRow = Math.max(0, clip.y / size);
+		int lastRow = (clip.y + clip.height - 1) / size;
+		
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				BufferedImage tile = tileCache.getTile(column, row);
+				
+				if (tile == null) {
+					tile = tileCache.createTile();
+					
+					Graphics2D tileGraphics = tile.createGraphics();
+					tileGraphics.setRenderingHints(g2.getRenderingHints());
+					tileGraphics.setFont(g2.getFont());
+					tileGraphics.translate(-column*size, -row*size);
+					tileGraphics.setClip(column*size, row*size, size, size);
+					paintChart(tileGraphics);
+					tileGraphics.dispose();
+					
+					tileCache.putTile(column, row, tile);
+				}
+				
+				g2.drawImage(tile, column*size, row*size, null);
+			}
+		}
+	}
+	
+	/**
+	 * Renders the rows, tasks and links of this Gantt chart intersecting the
+	 * clip.
+	 * 
+	 * @param g the graphics object used for rendering
+	 */
+	protected void paintChart(Graphics g) {
+		Graphics2D g2 = (Graphics2D)g;
+		Rectangle clip = g2.getClipBounds(paintClip);
 		
 		rowRenderer.paintBackground(g, this);
 		
-		for (int i=0; i<getModel().getRowCount(); i++) {
-			Rectangle2D bounds = getRowBounds(i);
+		int firstRow = Math.max(0, clip.y / getRowHeight());
+		int lastRow = Math.min(getModel().getRowCount() - 1, 
+				(clip.y + clip.height) / getRowHeight());
+		
+		for (int i=firstRow; i<=lastRow; i++) {
+			Rectangle2D bounds = getRowBounds(i, paintedRowBounds);
 			
 			if (bounds.intersects(clip)) {
 				rowRenderer.paintRow(g, this, i, bounds, false);
 			}
 		}
+		
+		//paint in model order so overlapping tasks stack as before
+		paintedTasks.clear();
+		
+		if ((levelOfDetailThreshold > 0.0) && isScaleValid()) {
+			paintCoverage(g, clip, paintedTasks);
+		} else {
+			findTasks(clip.x, clip.y, clip.width, clip.height, paintedTasks);
+		}
+		
+		paintedTasks.sort();
+		
+		//include tasks whose outline, but not their bounds, touch the clip
+		outlineClip.setBounds(clip.x - 1, clip.y - 1, clip.width + 2, 
+				clip.height + 2);
 			
-		for (int i=0; i<model.getTaskCount(); i++) {
-			Object task = model.getTaskAt(i);
-			Rectangle2D bounds = getTaskBounds(task);
+		for (int i=0; i<paintedTasks.size(); i++) {
+			Object task = model.getTaskAt(paintedTasks.get(i));
+			Rectangle2D bounds = getTaskBounds(task, paintedTaskBounds);
 			
-			if (bounds.intersects(clip)) {
+			if (bounds.intersects(outlineClip)) {
 				taskRenderer.paintTask(g, this, task, bounds, isTaskSelected(task));
 			}
 		}
 		
+		//selected tasks remain visible in rows rendered as coverage runs
+		if ((levelOfDetailThreshold > 0.0) && !selectedTasks.isEmpty()) {
+			for (Object task : selectedTasks) {
+				if (isRowAggregated(translator.getRow(task))) {
+					Rectangle2D bounds = getTaskBounds(task, paintedTaskBounds);
+					
+					if (bounds.intersects(outlineClip)) {
+						taskRenderer.paintTask(g, this, task, bounds, true);
+					}
+				}
+			}
+		}
+		
 		if ((linkRenderer != null) && (linkModel != null)) {
-			for (int i=0; i<linkModel.getLinkCount(); i++) {
-				linkRenderer.paintLink(g, this, linkModel.getLinkAt(i));
+			paintedLinks.clear();
+			findLinks(clip.x, clip.y, clip.width, clip.height, paintedLinks);
+			paintedLinks.sort();
+			
+			for (int i=0; i<paintedLinks.size(); i++) {
+				linkRenderer.paintLink(g, this, 
+						linkModel.getLinkAt(paintedLinks.get(i)));
 			}
 		}
 	}
 
+	/**
+	 * Updates the range, indices and selection of this Gantt chart after the
+	 * model changed, repainting the affected rows.  Updates identifying the
+	 * changed tasks, and tasks appended to the end of an indexed model, are
+	 * patched into the indices in place.  Removals and insertions before the
+	 * end of the model shift the model indices of the following tasks, so 
+	 * the indices are instead rebuilt prior to the next paint.
+	 */
 	@Override
 	public void ganttModelChanged(GanttModelEvent event) {
-		//check to see if selected tasks still exist
-		Iterator<Object> iterator = selectedTasks.iterator();
+		int firstRow = Math.max(0, event.getFirstRow());
+		int lastRow = event.getLastRow();
+		int oldRowCount = rowCount;
+		long oldMinimum = rangeMinimum;
+		long oldMaximum = rangeMaximum;
+		Collection<Object> tasks = event.getTasks();
 		boolean selectionChanged = false;
 		
-		while (iterator.hasNext()) {
-			Object task = iterator.next();
-			boolean found = false;
+		//appended and moved tasks are repainted as their indices are updated
+		boolean incremental = (tasks != null) && 
+				(((event.getType() == GanttModelEvent.INSERT) && 
+						isAppended(tasks)) ||
+				((event.getType() == GanttModelEvent.UPDATE) && 
+						event.isGeometryChanged()));
+		
+		//repaint the old state of the rows, including links leaving the rows
+		if (!incremental) {
+			repaintRows(firstRow, lastRow);
+		}
+		
+		if (tasks == null) {
+			selectionChanged = removeMissingSelection();
+			invalidateIndices();
+			rangeTracker.invalidate();
+		} else if (event.getType() == GanttModelEvent.DELETE) {
+			for (Object task : tasks) {
+				selectionChanged |= selectedTasks.remove(task);
+			}
 			
-			for (int i=0; i<model.getTaskCount(); i++) {
-				if (model.getTaskAt(i).equals(task)) {
-					found = true;
-					break;
-				}
+			invalidateIndices();
+			rangeTracker.remove(tasks);
+		} else if (event.getType() == GanttModelEvent.INSERT) {
+			if (incremental) {
+				updateIndices(tasks);
+			} else {
+				invalidateIndices();
 			}
 			
-			if (!found) {
-				iterator.remove();
-				selectionChanged = true;
+			rangeTracker.insert(tasks);
+		} else if (event.isGeometryChanged()) {
+			if ((event.getFields() & 
+					(GanttModelEvent.START | GanttModelEvent.END)) != 0) {
+				rangeTracker.update(tasks);
 			}
+			
+			updateIndices(tasks);
 		}
 		
 		computeRange();
-		forceRevalidateAndRepaint();
+		rowCount = model.getRowCount();
+		
+		if ((oldMinimum != rangeMinimum) || (oldMaximum != rangeMaximum)) {
+			//the scale has changed, so the entire chart and header are stale
+			forceRevalidateAndRepaint();
+		} else {
+			if (oldRowCount != rowCount) {
+				//the rows following the first changed row may have shifted
+				revalidate();
+				lastRow = Math.max(lastRow, Math.max(oldRowCount, rowCount));
+			}
+			
+			if (!incremental) {
+				repaintRows(firstRow, lastRow);
+			}
+		}
+		
+		if (criticalPath != null) {
+			if ((tasks == null) || 
+					(event.getType() == GanttModelEvent.DELETE)) {
+				repaintCriticalTasks(criticalPath.rebuild());
+			} else if (event.getType() == GanttModelEvent.INSERT) {
+				repaintCriticalTasks(criticalPath.addTasks(tasks));
+			} else if ((event.getFields() & 
+					(GanttModelEvent.START | GanttModelEvent.END)) != 0) {
+				updateCriticalPath(tasks);
+			}
+		}
+		
 		fireChangeEvent();
 		
 		if (selectionChanged) {
@@ -578,6 +1647,105 @@ public class GanttChart extends JComponent implements GanttModelListener {
 		}
 	}
 	
+	/**
+	 * Returns {@code true} if the specified tasks were appended to the end of
+	 * an indexed model, so the model indices of all other tasks are 
+	 * unchanged; {@code false} otherwise.
+	 * 
+	 * @param tasks the inserted tasks
+	 * @return {@code true} if the specified tasks were appended to the end of
+	 *         an indexed model; {@code false} otherwise
+	 */
+	private boolean isAppended(Collection<?> tasks) {
+		if (!model.isIndexed()) {
+			return false;
+		}
+		
+		int firstIndex = model.getTaskCount() - tasks.size();
+		
+		for (Object task : tasks) {
+			if (model.indexOf(task) < firstIndex) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Repaints the envelopes of the added or removed links, discarding any 
+	 * cached tiles covering these regions, and updates the critical path 
+	 * from the linked tasks, repainting the tasks which became critical or 
+	 * ceased to be critical.  If the event does not identify the changed 
+	 * links, the entire chart is repainted.
+	 */
+	@Override
+	public void linkModelChanged(LinkModelEvent event) {
+		Collection<Link> links = event.getLinks();
+		
+		if (links == null) {
+			linksChanged();
+			return;
+		}
+		
+		for (Link link : links) {
+			repaintRegion(getLinkEnvelope(link));
+		}
+		
+		if (event.getType() == LinkModelEvent.INSERT) {
+			linkIndex.addLinks(links);
+		} else if (event.getType() == LinkModelEvent.DELETE) {
+			linkIndex.removeLinks(links);
+		} else {
+			linkIndex.invalidate();
+		}
+		
+		if (criticalPath != null) {
+			if (event.getType() == LinkModelEvent.INSERT) {
+				repaintCriticalTasks(criticalPath.addLinks(links));
+			} else if (event.getType() == LinkModelEvent.DELETE) {
+				repaintCriticalTasks(criticalPath.removeLinks(links));
+			} else {
+				repaintCriticalTasks(criticalPath.rebuild());
+			}
+		}
+	}
+	
+	/**
+	 * Removes any selected tasks no longer contained in the model.  This 
+	 * method is used when a {@link GanttModelEvent} does not identify the
+	 * removed tasks.
+	 * 
+	 * @return {@code true} if the selection changed; {@code false} otherwise
+	 */
+	private boolean removeMissingSelection() {
+		if (selectedTasks.isEmpty()) {
+			return false;
+		}
+		
+		if (model.isIndexed()) {
+			boolean changed = false;
+			Iterator<Object> iterator = selectedTasks.iterator();
+			
+			while (iterator.hasNext()) {
+				if (!model.contains(iterator.next())) {
+					iterator.remove();
+					changed = true;
+				}
+			}
+			
+			return changed;
+		}
+		
+		Set<Object> tasks = new HashSet<Object>();
+		
+		for (int i=0; i<model.getTaskCount(); i++) {
+			tasks.add(model.getTaskAt(i));
+		}
+		
+		return selectedTasks.retainAll(tasks);
+	}
+	
 	/**
 	 * Returns the task at the specified point; or {@code null} if no task
 	 * exists at that point.  Pick ordering is such that selected tasks are
@@ -590,17 +1758,23 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 */
 	public Object getTaskAtPoint(Point point) {
 		//see if mouse is over selected task first
-		for (Object task : selectedTasks) {
-			Rectangle2D bounds = getTaskBounds(task);
-			
-			if (bounds.contains(point)) {
-				return task;			
+		if (!selectedTasks.isEmpty()) {
+			for (Object task : selectedTasks) {
+				Rectangle2D bounds = getTaskBounds(task, pickedTaskBounds);
+				
+				if (bounds.contains(point)) {
+					return task;			
+				}
 			}
 		}
 		
-		for (int i=model.getTaskCount()-1; i>=0; i--) {
-			Object task = model.getTaskAt(i);
-			Rectangle2D bounds = getTaskBounds(task);
+		pickedTasks.clear();
+		findTasks(point.getX(), point.getY(), 0.0, 0.0, pickedTasks);
+		pickedTasks.sort();
+		
+		for (int i=pickedTasks.size()-1; i>=0; i--) {
+			Object task = model.getTaskAt(pickedTasks.get(i));
+			Rectangle2D bounds = getTaskBounds(task, pickedTaskBounds);
 			
 			if (bounds.contains(point)) {
 				return task;
@@ -691,6 +1865,10 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 */
 	public void setRowRenderer(RowRenderer rowRenderer) {
 		this.rowRenderer = rowRenderer;
+		
+		if (tileCache != null) {
+			tileCache.invalidateAll();
+		}
 	}
 
 	/**
@@ -709,6 +1887,10 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 */
 	public void setTaskRenderer(TaskRenderer taskRenderer) {
 		this.taskRenderer = taskRenderer;
+		
+		if (tileCache != null) {
+			tileCache.invalidateAll();
+		}
 	}
 
 	/**
@@ -727,6 +1909,170 @@ public class GanttChart extends JComponent implements GanttModelListener {
 	 */
 	public void setLinkRenderer(LinkRenderer linkRenderer) {
 		this.linkRenderer = linkRenderer;
+		
+		if (tileCache != null) {
+			tileCache.invalidateAll();
+		}
+	}
+
+	/**
+	 * Returns the renderer used for drawing the time covered by tasks too 
+	 * narrow to be rendered individually.
+	 * 
+	 * @return the renderer used for drawing the time covered by tasks too
+	 *         narrow to be rendered individually
+	 */
+	public CoverageRenderer getCoverageRenderer() {
+		return coverageRenderer;
+	}
+
+	/**
+	 * Sets the renderer used for drawing the time covered by tasks too narrow
+	 * to be rendered individually.
+	 * 
+	 * @param coverageRenderer the renderer used for drawing the time covered
+	 *        by tasks too narrow to be rendered individually
+	 */
+	public void setCoverageRenderer(CoverageRenderer coverageRenderer) {
+		this.coverageRenderer = coverageRenderer;
+		
+		if (tileCache != null) {
+			tileCache.invalidateAll();
+		}
+	}
+
+	/**
+	 * Returns the average task width, in pixels, below which the tasks in a
+	 * row are rendered as coverage runs; or {@code 0} if tasks are always
+	 * rendered individually.
+	 * 
+	 * @return the average task width, in pixels, below which the tasks in a
+	 *         row are rendered as coverage runs
+	 */
+	public double getLevelOfDetailThreshold() {
+		return levelOfDetailThreshold;
+	}
+
+	/**
+	 * Sets the average task width, in pixels, below which the tasks in a row
+	 * are rendered as coverage runs by the {@link CoverageRenderer} rather 
+	 * than individually by the {@link TaskRenderer}.  Coverage runs merge
+	 * overlapping tasks, and tasks separated by gaps smaller than a pixel, so
+	 * the cost of rendering a row is proportional to its width in pixels 
+	 * rather than the number of tasks.  Rows are rendered individually again
+	 * once zoomed in far enough that their tasks are wider than the 
+	 * threshold.  A threshold of {@code 0}, the default, disables this mode.
+	 * 
+	 * @param levelOfDetailThreshold the average task width, in pixels, below
+	 *        which the tasks in a row are rendered as coverage runs; or
+	 *        {@code 0} if tasks are always rendered individually
+	 */
+	public void setLevelOfDetailThreshold(double levelOfDetailThreshold) {
+		this.levelOfDetailThreshold = levelOfDetailThreshold;
+		
+		if (tileCache != null) {
+			tileCache.invalidateAll();
+		}
+		
+		repaint();
+	}
+
+	/**
+	 * Returns the cache of rendered tiles; or {@code null} if tiles are not
+	 * cached.
+	 * 
+	 * @return the cache of rendered tiles; or {@code null} if tiles are not
+	 *         cached
+	 */
+	public TileCache getTileCache() {
+		return tileCache;
+	}
+
+	/**
+	 * Sets the cache of rendered tiles, or {@code null} to render the chart 
+	 * directly on every repaint.  When tiles are cached, repaints copy the
+	 * cached tiles and only regions invalidated by model events, link changes,
+	 * selection changes or calls to {@link #resize()} are rendered again.
+	 * Any other change affecting the appearance of the chart, such as a 
+	 * renderer whose output depends on external state, must be followed by
+	 * invalidating the affected region of the cache.
+	 * 
+	 * @param tileCache the cache of rendered tiles, or {@code null} to render
+	 *        the chart directly on every repaint
+	 */
+	public void setTileCache(TileCache tileCache) {
+		this.tileCache = tileCache;
+		
+		if (tileCache != null) {
+			tileCache.invalidateAll();
+		}
+		
+		cachedSelection.clear();
+		cachedSelection.addAll(selectedTasks);
+		repaint();
+	}
+
+	/**
+	 * Returns the critical path of the tasks displayed in this Gantt chart; 
+	 * or {@code null} if the critical path is not computed.
+	 * 
+	 * @return the critical path of the tasks displayed in this Gantt chart;
+	 *         or {@code null} if the critical path is not computed
+	 */
+	public CriticalPath getCriticalPath() {
+		return criticalPath;
+	}
+	
+	/**
+	 * Sets the critical path of the tasks displayed in this Gantt chart, or
+	 * {@code null} to stop computing the critical path.  The critical path is
+	 * updated whenever tasks change, either through {@link GanttModelEvent}s
+	 * or calls to {@link #resize(Collection)}, and invalidated whenever tasks 
+	 * or links are added or removed.  Task renderers may query the critical 
+	 * path to draw critical tasks distinctly.
+	 * 
+	 * @param criticalPath the critical path of the tasks displayed in this 
+	 *        Gantt chart, or {@code null} to stop computing the critical path
+	 */
+	public void setCriticalPath(CriticalPath criticalPath) {
+		this.criticalPath = criticalPath;
+		
+		if (tileCache != null) {
+			tileCache.invalidateAll();
+		}
+		
+		repaint();
+	}
+	
+	/**
+	 * Returns the distance, in pixels, that a rendered link may extend beyond
+	 * its anchor points.  Links further than this distance from the clip are 
+	 * not painted.
+	 * 
+	 * @return the distance, in pixels, that a rendered link may extend beyond
+	 *         its anchor points
+	 */
+	public int getLinkMargin() {
+		return linkMargin;
+	}
+
+	/**
+	 * Sets the distance, in pixels, that a rendered link may extend beyond its
+	 * anchor points.  This should be increased if a custom 
+	 * {@link LinkRenderer} draws larger arrow heads than the 
+	 * {@link BasicLinkRenderer}.
+	 * 
+	 * @param linkMargin the distance, in pixels, that a rendered link may
+	 *        extend beyond its anchor points
+	 */
+	public void setLinkMargin(int linkMargin) {
+		this.linkMargin = linkMargin;
+		
+		if (tileCache != null) {
+			tileCache.invalidateAll();
+		}
+		
+		repaint();
 	}
 
 	/**
@@ -18,7 +18,12 @@
 package dgantt;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.UndoManager;
@@ -65,15 +70,21 @@ public class GanttChartUndoableEdit extends AbstractUndoableEdit {
 	 */
 	private List<Object> editedTasks;
 	
+	/**
+	 * The set of currently edited tasks, used to ignore tasks added more than
+	 * once.
+	 */
+	private Set<Object> editedTaskSet;
+	
 	/**
 	 * The before states of all the currently edited tasks.
 	 */
-	private List<State> beforeState;
+	private Snapshot beforeState;
 	
 	/**
 	 * The after states of all currently edited tasks.
 	 */
-	private List<State> afterState;
+	private Snapshot afterState;
 
 	/**
 	 * Class constructor for a new {@code UndoableEdit} to a {@code GanttChart}.
@@ -91,31 +102,17 @@ public class GanttChartUndoableEdit extends AbstractUndoableEdit {
 		this.undoManager = undoManager;
 
 		editedTasks = new ArrayList<Object>();
+		editedTaskSet = new HashSet<Object>();
 	}
 
 	@Override
 	public void undo() {
-		for (State state : beforeState) {
-			Translator translator = chart.getTranslator();
-			translator.setStart(state.getTask(), state.getStart());
-			translator.setEnd(state.getTask(), state.getEnd());
-			translator.setRow(state.getTask(), state.getRow());
-		}
-		
-		chart.fireChangeEvent();
-		chart.repaint();
+		beforeState.apply();
 	}
 
 	@Override
 	public void redo() {
-		for (State state : afterState) {
-			chart.getTranslator().setStart(state.getTask(), state.getStart());
-			chart.getTranslator().setEnd(state.getTask(), state.getEnd());
-			chart.getTranslator().setRow(state.getTask(), state.getRow());
-		}
-		
-		chart.fireChangeEvent();
-		chart.repaint();
+		afterState.apply();
 	}
 
 	@Override
@@ -125,40 +122,58 @@ public class GanttChartUndoableEdit extends AbstractUndoableEdit {
 
 	/**
 	 * Adds the specified task to this {@code UndoableEdit}.  Only tasks added 
-	 * to this {@code UndoableEdit} will be recorded.
+	 * to this {@code UndoableEdit} will be recorded.  If the before snapshot 
+	 * was already grabbed, the current state of the task is added to it, so
+	 * tasks changed as a side effect of the edit can be added before they 
+	 * are changed.  Tasks already added are ignored.
 	 * 
 	 * @param task the task being edited
 	 */
 	public void addEditedTask(Object task) {
-		editedTasks.add(task);
+		addEditedTasks(Collections.singletonList(task));
+	}
+	
+	/**
+	 * Adds the specified tasks to this {@code UndoableEdit}.  Only tasks 
+	 * added to this {@code UndoableEdit} will be recorded.  If the before 
+	 * snapshot was already grabbed, the current states of the tasks are added
+	 * to it, so tasks changed as a side effect of the edit can be added 
+	 * before they are changed.  Tasks already added are ignored.
+	 * 
+	 * @param tasks the tasks being edited
+	 */
+	public void addEditedTasks(Collection<?> tasks) {
+		List<Object> addedTasks = new ArrayList<Object>();
+		
+		for (Object task : tasks) {
+			if (editedTaskSet.add(task)) {
+				addedTasks.add(task);
+			}
+		}
+		
+		if (addedTasks.isEmpty()) {
+			return;
+		}
+		
+		editedTasks.addAll(addedTasks);
+		
+		if (beforeState != null) {
+			beforeState.append(addedTasks);
+		}
 	}
 
 	/**
 	 * Records the before state of all tasks.
 	 */
 	public void grabBeforeSnapshot() {
-		beforeState = new ArrayList<State>();
-		
-		for (Object task : editedTasks) {
-			beforeState.add(new State(task, 
-					chart.getTranslator().getStart(task), 
-					chart.getTranslator().getEnd(task), 
-					chart.getTranslator().getRow(task)));
-		}
+		beforeState = new Snapshot();
 	}
 
 	/**
 	 * Records the after state of all tasks.
 	 */
 	public void grabAfterSnapshot() {
-		afterState = new ArrayList<State>();
-		
-		for (Object task : editedTasks) {
-			afterState.add(new State(task,
-					chart.getTranslator().getStart(task), 
-					chart.getTranslator().getEnd(task), 
-					chart.getTranslator().getRow(task)));
-		}
+		afterState = new Snapshot();
 	}
 
 	@Override
@@ -190,9 +205,86 @@ public class GanttChartUndoableEdit extends AbstractUndoableEdit {
 		}
 
 		undoManager.addEdit(this);
+	}
+	
+	/**
+	 * The rows, start values and end values of the edited tasks at a point in 
+	 * time, stored in primitive arrays so they are read and restored in bulk
+	 * by the {@link Translator}.
+	 */
+	private class Snapshot {
+		
+		/**
+		 * The rows of the edited tasks.
+		 */
+		private int[] rows;
+		
+		/**
+		 * The start values of the edited tasks.
+		 */
+		private long[] starts;
+		
+		/**
+		 * The end values of the edited tasks.
+		 */
+		private long[] ends;
+		
+		/**
+		 * Class constructor recording the current state of the edited tasks.
+		 */
+		public Snapshot() {
+			super();
+			
+			Translator translator = chart.getTranslator();
+			rows = new int[editedTasks.size()];
+			starts = new long[editedTasks.size()];
+			ends = new long[editedTasks.size()];
+			
+			translator.getRows(editedTasks, rows);
+			translator.getStarts(editedTasks, starts);
+			translator.getEnds(editedTasks, ends);
+		}
+		
+		/**
+		 * Records the current state of the specified tasks, which were 
+		 * appended to the edited tasks after this state was recorded.
+		 * 
+		 * @param addedTasks the appended tasks
+		 */
+		public void append(List<Object> addedTasks) {
+			Translator translator = chart.getTranslator();
+			int size = editedTasks.size() - addedTasks.size();
+			int[] addedRows = new int[addedTasks.size()];
+			long[] addedStarts = new long[addedTasks.size()];
+			long[] addedEnds = new long[addedTasks.size()];
+			
+			translator.getRows(addedTasks, addedRows);
+			translator.getStarts(addedTasks, addedStarts);
+			translator.getEnds(addedTasks, addedEnds);
+			
+			//grow the arrays geometrically since tasks are appended in steps
+			if (rows.length < editedTasks.size()) {
+				int capacity = Math.max(editedTasks.size(), 2*rows.length);
+				rows = Arrays.copyOf(rows, capacity);
+				starts = Arrays.copyOf(starts, capacity);
+				ends = Arrays.copyOf(ends, capacity);
+			}
+			
+			System.arraycopy(addedRows, 0, rows, size, addedRows.length);
+			System.arraycopy(addedStarts, 0, starts, size, addedStarts.length);
+			System.arraycopy(addedEnds, 0, ends, size, addedEnds.length);
+		}
+		
+		/**
+		 * Restores the edited tasks to this state and updates the chart.
+		 */
+		public void apply() {
+			chart.getTranslator().applyUpdates(editedTasks, rows, starts, ends);
+			chart.resize(editedTasks);
+			chart.fireChangeEvent();
+			chart.repaint();
+		}
 		
-		beforeState = null;
-		afterState = null;
 	}
 
 }
@@ -34,6 +34,10 @@ import javax.swing.JPanel;
  * Header marking years, months, weeks, days and hours along the length of a 
  * {@link GanttChart}.  A {@link GanttPanel} should be used to synchronize the 
  * components.
+ * <p>
+ * The header depends only on the width and range of the chart, so it is only
+ * repainted when a {@link GanttModelEvent} changes the chart's range, not
+ * when individual rows change.
  */
 public class GanttHeader extends JPanel {
 	
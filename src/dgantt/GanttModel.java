@@ -17,11 +17,20 @@
  */
 package dgantt;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Vector;
 
 /**
  * Model storing the collection of tasks displayed in the Gantt chart.
+ * <p>
+ * Changes may be grouped into a batch using {@link #beginUpdate()} and 
+ * {@link #endUpdate()}, or {@link #runBatch(Runnable)}.  Events fired during
+ * a batch are not dispatched to listeners; instead, a single event covering
+ * the union of the changed rows and tasks is dispatched when the batch ends.
  */
 public abstract class GanttModel {
 	
@@ -31,6 +40,46 @@ public abstract class GanttModel {
 	 */
 	private final List<GanttModelListener> listeners;
 	
+	/**
+	 * The number of calls to {@link #beginUpdate()} not yet matched by a call
+	 * to {@link #endUpdate()}.
+	 */
+	private int updateDepth;
+	
+	/**
+	 * {@code true} if any events were fired during the current batch; 
+	 * {@code false} otherwise.
+	 */
+	private boolean pending;
+	
+	/**
+	 * The type of all events fired during the current batch; or {@code null}
+	 * if the events were of different types or did not identify the changed
+	 * tasks.
+	 */
+	private Integer pendingType;
+	
+	/**
+	 * The tasks identified by events fired during the current batch.
+	 */
+	private Set<Object> pendingTasks;
+	
+	/**
+	 * The union of the fields changed by events fired during the current 
+	 * batch.
+	 */
+	private int pendingFields;
+	
+	/**
+	 * The first row changed by events fired during the current batch.
+	 */
+	private int pendingFirstRow;
+	
+	/**
+	 * The last row changed by events fired during the current batch.
+	 */
+	private int pendingLastRow;
+	
 	/**
 	 * Default constructor for a Gantt model.
 	 */
@@ -113,6 +162,55 @@ public abstract class GanttModel {
 		fireGanttModelChanged(new GanttModelEvent(this, firstRow, lastRow));
 	}
 	
+	/**
+	 * Notifies all registered {@code GanttModelListener}s that the specified
+	 * tasks were inserted into this model.
+	 * 
+	 * @param tasks the inserted tasks
+	 * @param firstRow the index of the first changed row
+	 * @param lastRow the index of the last changed row, including any rows
+	 *        shifted by the insertion
+	 */
+	public void fireTasksInserted(Collection<?> tasks, int firstRow, 
+			int lastRow) {
+		fireGanttModelChanged(new GanttModelEvent(this, GanttModelEvent.INSERT,
+				tasks, GanttModelEvent.ALL_FIELDS, firstRow, lastRow));
+	}
+	
+	/**
+	 * Notifies all registered {@code GanttModelListener}s that the specified
+	 * tasks were removed from this model.
+	 * 
+	 * @param tasks the removed tasks
+	 * @param firstRow the index of the first changed row
+	 * @param lastRow the index of the last changed row, including any rows
+	 *        shifted by the removal
+	 */
+	public void fireTasksRemoved(Collection<?> tasks, int firstRow, 
+			int lastRow) {
+		fireGanttModelChanged(new GanttModelEvent(this, GanttModelEvent.DELETE,
+				tasks, GanttModelEvent.ALL_FIELDS, firstRow, lastRow));
+	}
+	
+	/**
+	 * Notifies all registered {@code GanttModelListener}s that values of the
+	 * specified tasks were updated.
+	 * 
+	 * @param tasks the updated tasks
+	 * @param fields the changed values, as a combination of the 
+	 *        {@link GanttModelEvent#START}, {@link GanttModelEvent#END}, 
+	 *        {@link GanttModelEvent#ROW} and {@link GanttModelEvent#TEXT}
+	 *        flags
+	 * @param firstRow the index of the first changed row
+	 * @param lastRow the index of the last changed row, including the rows
+	 *        containing the tasks both before and after the update
+	 */
+	public void fireTasksUpdated(Collection<?> tasks, int fields, 
+			int firstRow, int lastRow) {
+		fireGanttModelChanged(new GanttModelEvent(this, GanttModelEvent.UPDATE,
+				tasks, fields, firstRow, lastRow));
+	}
+	
 	/**
 	 * Invokes the {@link GanttModelListener#ganttModelChanged(GanttModelEvent)}
 	 * method on all registered {@code GanttModelListener}s.
@@ -120,11 +218,252 @@ public abstract class GanttModel {
 	 * @param event the event
 	 */
 	public void fireGanttModelChanged(GanttModelEvent event) {
+		if (updateDepth > 0) {
+			merge(event);
+			return;
+		}
+		
 		for (GanttModelListener listener : listeners) {
 			listener.ganttModelChanged(event);
 		}
 	}
 	
+	/**
+	 * Begins a batch of changes to this Gantt model.  Until the matching call
+	 * to {@link #endUpdate()}, events are not dispatched to listeners.  
+	 * Batches may be nested, in which case the merged event is dispatched 
+	 * when the outermost batch ends.
+	 */
+	public void beginUpdate() {
+		updateDepth++;
+	}
+	
+	/**
+	 * Ends a batch of changes to this Gantt model started by 
+	 * {@link #beginUpdate()}.  If this ends the outermost batch and any events
+	 * were fired during the batch, a single event covering the union of the 
+	 * changed rows is dispatched to listeners.  The merged event identifies
+	 * the changed tasks only if all events in the batch had the same type and
+	 * identified their tasks.
+	 * 
+	 * @throws IllegalStateException if no batch is in progress
+	 */
+	public void endUpdate() {
+		if (updateDepth == 0) {
+			throw new IllegalStateException("no batch in progress");
+		}
+		
+		updateDepth--;
+		
+		if ((updateDepth > 0) || !pending) {
+			return;
+		}
+		
+		GanttModelEvent event;
+		
+		if (pendingType == null) {
+			event = new GanttModelEvent(this, pendingFirstRow, pendingLastRow);
+		} else {
+			event = new GanttModelEvent(this, pendingType, 
+					new ArrayList<Object>(pendingTasks), pendingFields, 
+					pendingFirstRow, pendingLastRow);
+		}
+		
+		pending = false;
+		pendingType = null;
+		pendingTasks = null;
+		
+		fireGanttModelChanged(event);
+	}
+	
+	/**
+	 * Returns {@code true} if a batch of changes is in progress; 
+	 * {@code false} otherwise.
+	 * 
+	 * @return {@code true} if a batch of changes is in progress;
+	 *         {@code false} otherwise
+	 */
+	public boolean isUpdating() {
+		return updateDepth > 0;
+	}
+	
+	/**
+	 * Runs the specified changes as a single batch, dispatching at most one
+	 * event to listeners once the changes complete.  The batch ends even if 
+	 * the changes throw an exception.
+	 * 
+	 * @param changes the changes to this Gantt model
+	 */
+	public void runBatch(Runnable changes) {
+		beginUpdate();
+		
+		try {
+			changes.run();
+		} finally {
+			endUpdate();
+		}
+	}
+	
+	/**
+	 * Merges the specified event into the event dispatched at the end of the
+	 * current batch.
+	 * 
+	 * @param event the event fired during the batch
+	 */
+	private void merge(GanttModelEvent event) {
+		if (!pending) {
+			pending = true;
+			pendingType = event.getType();
+			pendingTasks = new HashSet<Object>();
+			pendingFields = 0;
+			pendingFirstRow = event.getFirstRow();
+			pendingLastRow = event.getLastRow();
+		} else {
+			pendingFirstRow = Math.min(pendingFirstRow, event.getFirstRow());
+			pendingLastRow = Math.max(pendingLastRow, event.getLastRow());
+		}
+		
+		if ((event.getTasks() == null) || (pendingType == null) || 
+				(pendingType != event.getType())) {
+			//the merged event can no longer identify the changed tasks
+			pendingType = null;
+			pendingTasks = null;
+		} else {
+			pendingTasks.addAll(event.getTasks());
+			pendingFields |= event.getFields();
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if this model knows the minimum start value and 
+	 * maximum end value of its tasks, in which case {@link #getMinimum()} and
+	 * {@link #getMaximum()} return these values and a {@link GanttChart} 
+	 * uses them as its range instead of scanning the tasks.  The values must
+	 * be in the same units as those returned by the chart's 
+	 * {@link Translator}.  The default implementation returns {@code false}.
+	 * 
+	 * @return {@code true} if this model knows the minimum start value and 
+	 *         maximum end value of its tasks; {@code false} otherwise
+	 */
+	public boolean isRangeKnown() {
+		return false;
+	}
+	
+	/**
+	 * Returns the minimum start value of the tasks in this model, if 
+	 * {@link #isRangeKnown()} returns {@code true}.  The default 
+	 * implementation returns {@code 0}.
+	 * 
+	 * @return the minimum start value of the tasks in this model
+	 */
+	public long getMinimum() {
+		return 0;
+	}
+	
+	/**
+	 * Returns the maximum end value of the tasks in this model, if 
+	 * {@link #isRangeKnown()} returns {@code true}.  The default 
+	 * implementation returns {@code 0}.
+	 * 
+	 * @return the maximum end value of the tasks in this model
+	 */
+	public long getMaximum() {
+		return 0;
+	}
+	
+	/**
+	 * Returns {@code true} if the tasks in the specified row are available;
+	 * {@code false} if they are still being loaded, in which case a 
+	 * placeholder may be rendered for the row.  The default implementation 
+	 * returns {@code true}.
+	 * 
+	 * @param row the row
+	 * @return {@code true} if the tasks in the specified row are available;
+	 *         {@code false} if they are still being loaded
+	 */
+	public boolean isRowLoaded(int row) {
+		return true;
+	}
+	
+	/**
+	 * Notifies this model of the rows and canonical range within the visible
+	 * rectangle of a {@link GanttChart}.  The chart invokes this method prior
+	 * to each paint.  Models loading their tasks lazily may use it to decide
+	 * which tasks to fetch and retain, since the queries made while hit 
+	 * testing or painting individual tiles cover only part of the view.  The
+	 * default implementation does nothing.
+	 * 
+	 * @param firstRow the first visible row
+	 * @param lastRow the last visible row
+	 * @param start the start of the visible range in canonical coordinates
+	 * @param end the end of the visible range in canonical coordinates
+	 */
+	public void setVisibleRange(int firstRow, int lastRow, long start, 
+			long end) {
+		//do nothing, default model holds all tasks
+	}
+	
+	/**
+	 * Returns the index of the specified task in this Gantt model; or
+	 * {@code -1} if the task is not contained in this model.  The default
+	 * implementation compares each task using {@code equals}, taking time
+	 * proportional to the number of tasks.
+	 * 
+	 * @param task the task
+	 * @return the index of the specified task in this Gantt model; or
+	 *         {@code -1} if the task is not contained in this model
+	 */
+	public int indexOf(Object task) {
+		for (int i = 0; i < getTaskCount(); i++) {
+			if (getTaskAt(i).equals(task)) {
+				return i;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Returns {@code true} if the specified task is contained in this Gantt
+	 * model; {@code false} otherwise.
+	 * 
+	 * @param task the task
+	 * @return {@code true} if the specified task is contained in this Gantt
+	 *         model; {@code false} otherwise
+	 */
+	public boolean contains(Object task) {
+		return indexOf(task) >= 0;
+	}
+	
+	/**
+	 * Returns {@code true} if {@link #indexOf(Object)} and
+	 * {@link #contains(Object)} run in constant time, in which case a
+	 * {@link GanttChart} uses them rather than scanning the tasks.  The
+	 * default implementation returns {@code false}.
+	 * 
+	 * @return {@code true} if {@link #indexOf(Object)} and
+	 *         {@link #contains(Object)} run in constant time; {@code false}
+	 *         otherwise
+	 */
+	public boolean isIndexed() {
+		return false;
+	}
+	
+	/**
+	 * Creates the {@link TaskIndex} used by a {@link GanttChart} to locate 
+	 * the tasks in this Gantt model.  The default implementation returns an
+	 * index built on the heap from the values returned by the translator.
+	 * Models already storing their tasks sorted by row and start value may 
+	 * return an index reading their storage directly.
+	 * 
+	 * @param translator the {@code Translator} used by the chart
+	 * @return the {@code TaskIndex} used by a {@code GanttChart} to locate
+	 *         the tasks in this Gantt model
+	 */
+	public TaskIndex createTaskIndex(Translator translator) {
+		return new TaskIndex(this, translator);
+	}
+	
 	/**
 	 * Adds a new task to this Gantt model.  The default implementation
 	 * is read-only.
@@ -17,14 +17,79 @@
  */
 package dgantt;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EventObject;
 
 /**
- * Event object representing changes to a {@link GanttModel}.
+ * Event object representing changes to a {@link GanttModel}.  An event 
+ * always identifies the range of changed rows.  Events may also identify 
+ * the type of change and the changed tasks, allowing listeners to update
+ * state which does not depend on the position of tasks in the model, such as
+ * the range of a {@link GanttChart}, in time proportional to the number of
+ * changed tasks; if {@link #getTasks()} returns {@code null}, any task in the
+ * changed rows may have been updated, inserted or removed.
  */
 public class GanttModelEvent extends EventObject {
 
 	private static final long serialVersionUID = -4746264910686760132L;
+	
+	/**
+	 * Identifies tasks that were inserted into the model.
+	 */
+	public static final int INSERT = 1;
+	
+	/**
+	 * Identifies tasks whose values were updated.
+	 */
+	public static final int UPDATE = 0;
+	
+	/**
+	 * Identifies tasks that were removed from the model.
+	 */
+	public static final int DELETE = -1;
+	
+	/**
+	 * Flag identifying changes to the start values of tasks.
+	 */
+	public static final int START = 1;
+	
+	/**
+	 * Flag identifying changes to the end values of tasks.
+	 */
+	public static final int END = 2;
+	
+	/**
+	 * Flag identifying changes to the rows of tasks.
+	 */
+	public static final int ROW = 4;
+	
+	/**
+	 * Flag identifying changes to the text of tasks.
+	 */
+	public static final int TEXT = 8;
+	
+	/**
+	 * Flags identifying changes to any value of tasks.
+	 */
+	public static final int ALL_FIELDS = START | END | ROW | TEXT;
+	
+	/**
+	 * The type of change; either {@code INSERT}, {@code UPDATE} or 
+	 * {@code DELETE}.
+	 */
+	private final int type;
+	
+	/**
+	 * The changed tasks; or {@code null} if the changed tasks are not known.
+	 */
+	private final Collection<Object> tasks;
+	
+	/**
+	 * The changed values of updated tasks, as a combination of the 
+	 * {@code START}, {@code END}, {@code ROW} and {@code TEXT} flags.
+	 */
+	private final int fields;
 
 	/**
 	 * The index of the first changed row.
@@ -66,7 +131,40 @@ public class GanttModelEvent extends EventObject {
 	 * @param lastRow the index of the last changed row
 	 */
 	public GanttModelEvent(GanttModel model, int firstRow, int lastRow) {
+		this(model, UPDATE, null, ALL_FIELDS, firstRow, lastRow);
+	}
+	
+	/**
+	 * Class constructor for a Gantt model event indicating the specified 
+	 * tasks were inserted, updated or removed.  The rows must include every
+	 * row containing the tasks both before and after the change, along with
+	 * any rows whose contents shifted as a result of the change.
+	 * 
+	 * @param model the changed Gantt model
+	 * @param type the type of change; either {@code INSERT}, {@code UPDATE}
+	 *        or {@code DELETE}
+	 * @param tasks the changed tasks; or {@code null} if the changed tasks 
+	 *        are not known
+	 * @param fields the changed values of updated tasks, as a combination of
+	 *        the {@code START}, {@code END}, {@code ROW} and {@code TEXT} 
+	 *        flags; ignored unless {@code type} is {@code UPDATE}
+	 * @param firstRow the index of the first changed row
+	 * @param lastRow the index of the last changed row
+	 * @throws IllegalArgumentException if {@code type} is not one of 
+	 *         {@code INSERT}, {@code UPDATE} or {@code DELETE}
+	 */
+	public GanttModelEvent(GanttModel model, int type, Collection<?> tasks,
+			int fields, int firstRow, int lastRow) {
 		super(model);
+		
+		if ((type != INSERT) && (type != UPDATE) && (type != DELETE)) {
+			throw new IllegalArgumentException("invalid type");
+		}
+		
+		this.type = type;
+		this.tasks = (tasks == null) ? null : 
+				Collections.unmodifiableCollection(tasks);
+		this.fields = (type == UPDATE) ? fields : ALL_FIELDS;
 		this.firstRow = firstRow;
 		this.lastRow = lastRow;
 	}
@@ -93,5 +191,49 @@ public class GanttModelEvent extends EventObject {
 	public int getLastRow() {
 		return lastRow;
 	}
+	
+	/**
+	 * Returns the type of change; either {@code INSERT}, {@code UPDATE} or
+	 * {@code DELETE}.
+	 * 
+	 * @return the type of change; either {@code INSERT}, {@code UPDATE} or
+	 *         {@code DELETE}
+	 */
+	public int getType() {
+		return type;
+	}
+	
+	/**
+	 * Returns the unmodifiable collection of changed tasks; or {@code null} 
+	 * if the changed tasks are not known.
+	 * 
+	 * @return the unmodifiable collection of changed tasks; or {@code null}
+	 *         if the changed tasks are not known
+	 */
+	public Collection<Object> getTasks() {
+		return tasks;
+	}
+	
+	/**
+	 * Returns the changed values of updated tasks, as a combination of the
+	 * {@code START}, {@code END}, {@code ROW} and {@code TEXT} flags.  
+	 * Inserted and removed tasks report all flags.
+	 * 
+	 * @return the changed values of updated tasks
+	 */
+	public int getFields() {
+		return fields;
+	}
+	
+	/**
+	 * Returns {@code true} if the start, end or row values of any task may 
+	 * have changed; {@code false} if only the text of tasks changed.
+	 * 
+	 * @return {@code true} if the start, end or row values of any task may
+	 *         have changed; {@code false} if only the text of tasks changed
+	 */
+	public boolean isGeometryChanged() {
+		return (fields & (START | END | ROW)) != 0;
+	}
 
 }
@@ -20,6 +20,7 @@ package dgantt;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 
 import javax.swing.BorderFactory;
 import javax.swing.JComponent;
@@ -33,8 +34,13 @@ import javax.swing.table.TableModel;
  * look-and-feel of the {@code JTable} is adjusted to conform with the 
  * look-and-feel of the {@code GanttChart}.  A {@link GanttPanel} should be used
  * to synchronize the components.
+ * <p>
+ * The table listens to the chart's {@link GanttModel} and repaints only the
+ * rows reported as changed.  Changes to the number of rows must still be 
+ * reported through the {@link TableModel}.
  */
-public class GanttTable extends JTable implements TableCellRenderer {
+public class GanttTable extends JTable implements TableCellRenderer,
+GanttModelListener {
 	
 	private static final long serialVersionUID = 2597593882834133527L;
 	
@@ -74,6 +80,22 @@ public class GanttTable extends JTable implements TableCellRenderer {
 		setIntercellSpacing(new Dimension(0, 0));
 		setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 0));
 		setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
+		
+		chart.getModel().addGanttModelListener(this);
+	}
+	
+	@Override
+	public void ganttModelChanged(GanttModelEvent event) {
+		int firstRow = Math.max(0, event.getFirstRow());
+		int lastRow = Math.min(getRowCount() - 1, event.getLastRow());
+		
+		if ((firstRow > lastRow) || (getColumnCount() == 0)) {
+			return;
+		}
+		
+		Rectangle bounds = getCellRect(firstRow, 0, true);
+		bounds.add(getCellRect(lastRow, getColumnCount() - 1, true));
+		repaint(bounds);
 	}
 	
 	@Override
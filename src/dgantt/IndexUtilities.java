@@ -0,0 +1,140 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+/**
+ * Static methods for building and searching the sorted primitive arrays used
+ * by {@link TaskIndex}, {@link LinkIndex} and {@link IntervalStore}.
+ */
+class IndexUtilities {
+	
+	/**
+	 * Private constructor to prevent instantiation.
+	 */
+	private IndexUtilities() {
+		super();
+	}
+	
+	/**
+	 * Sorts the specified range of indices by their associated keys.  The
+	 * sort is stable, so indices with identical keys retain their relative
+	 * order.
+	 * 
+	 * @param array the indices to sort
+	 * @param buffer temporary storage at least as long as {@code array}
+	 * @param from the first position to sort, inclusive
+	 * @param to the last position to sort, exclusive
+	 * @param keys the key associated with each index
+	 */
+	static void sort(int[] array, int[] buffer, int from, int to,
+			long[] keys) {
+		if (to - from < 2) {
+			return;
+		}
+		
+		if (to - from <= 16) {
+			for (int i = from + 1; i < to; i++) {
+				int value = array[i];
+				int j = i - 1;
+				
+				while ((j >= from) && (keys[array[j]] > keys[value])) {
+					array[j+1] = array[j];
+					j--;
+				}
+				
+				array[j+1] = value;
+			}
+			
+			return;
+		}
+		
+		int middle = (from + to) >>> 1;
+		sort(array, buffer, from, middle, keys);
+		sort(array, buffer, middle, to, keys);
+		
+		if (keys[array[middle-1]] <= keys[array[middle]]) {
+			return;
+		}
+		
+		System.arraycopy(array, from, buffer, from, to - from);
+		
+		int i = from;
+		int j = middle;
+		
+		for (int k = from; k < to; k++) {
+			if ((j >= to) || ((i < middle) && 
+					(keys[buffer[i]] <= keys[buffer[j]]))) {
+				array[k] = buffer[i++];
+			} else {
+				array[k] = buffer[j++];
+			}
+		}
+	}
+	
+	/**
+	 * Returns the first position in the sorted range whose value is greater
+	 * than the key; or {@code to} if no such position exists.
+	 * 
+	 * @param array the sorted array
+	 * @param from the first position to search, inclusive
+	 * @param to the last position to search, exclusive
+	 * @param key the key
+	 * @return the first position in the sorted range whose value is greater
+	 *         than the key; or {@code to} if no such position exists
+	 */
+	static int upperBound(long[] array, int from, int to, long key) {
+		while (from < to) {
+			int middle = (from + to) >>> 1;
+			
+			if (array[middle] <= key) {
+				from = middle + 1;
+			} else {
+				to = middle;
+			}
+		}
+		
+		return from;
+	}
+	
+	/**
+	 * Returns the first position in the sorted range whose value is greater
+	 * than or equal to the key; or {@code to} if no such position exists.
+	 * 
+	 * @param array the sorted array
+	 * @param from the first position to search, inclusive
+	 * @param to the last position to search, exclusive
+	 * @param key the key
+	 * @return the first position in the sorted range whose value is greater
+	 *         than or equal to the key; or {@code to} if no such position
+	 *         exists
+	 */
+	static int lowerBound(long[] array, int from, int to, long key) {
+		while (from < to) {
+			int middle = (from + to) >>> 1;
+			
+			if (array[middle] < key) {
+				from = middle + 1;
+			} else {
+				to = middle;
+			}
+		}
+		
+		return from;
+	}
+
+}
@@ -0,0 +1,180 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link GanttModel} where each task is placed on a separate row, maintaining
+ * an identity map from each task to its index.  Unlike 
+ * {@link BasicGanttModel}, {@link #indexOf(Object)} and 
+ * {@link #contains(Object)} run in constant time, so a {@link Translator} 
+ * can locate the row of a task by invoking {@code indexOf} rather than 
+ * searching the list of tasks.
+ * <p>
+ * Tasks are compared by identity, so each task may appear only once.  The
+ * underlying list must only be modified through this model; otherwise, 
+ * {@link #reindex()} must be invoked after modifying the list.
+ */
+public class IndexedGanttModel extends GanttModel {
+	
+	/**
+	 * The collection of tasks.
+	 */
+	private final List<?> tasks;
+	
+	/**
+	 * The index of each task in the collection of tasks.
+	 */
+	private final Map<Object, Integer> indices;
+	
+	/**
+	 * Class constructor for an indexed Gantt model containing the specified
+	 * tasks.
+	 * 
+	 * @param tasks the tasks contained within this Gantt model
+	 * @throws IllegalArgumentException if a task appears more than once
+	 */
+	public IndexedGanttModel(List<?> tasks) {
+		super();
+		this.tasks = tasks;
+		
+		indices = new IdentityHashMap<Object, Integer>(tasks.size());
+		index(0);
+	}
+	
+	/**
+	 * Updates the indices of the tasks starting at the specified index.
+	 * 
+	 * @param start the index of the first task to update
+	 * @throws IllegalArgumentException if a task appears more than once
+	 */
+	private void index(int start) {
+		for (int i = start; i < tasks.size(); i++) {
+			Integer previous = indices.put(tasks.get(i), i);
+			
+			if ((previous != null) && (previous < i) && (previous >= start)) {
+				throw new IllegalArgumentException(
+						"task appears more than once");
+			}
+		}
+	}
+
+	@Override
+	public int getRowCount() {
+		return tasks.size();
+	}
+
+	@Override
+	public int getTaskCount() {
+		return tasks.size();
+	}
+
+	@Override
+	public Object getTaskAt(int index) {
+		return tasks.get(index);
+	}
+	
+	/**
+	 * {@inheritDoc}  Tasks are compared by identity, and the index is found
+	 * in constant time.
+	 */
+	@Override
+	public int indexOf(Object task) {
+		Integer index = indices.get(task);
+		return (index == null) ? -1 : index;
+	}
+	
+	/**
+	 * {@inheritDoc}  Tasks are compared by identity, and the result is found
+	 * in constant time.
+	 */
+	@Override
+	public boolean contains(Object task) {
+		return indices.containsKey(task);
+	}
+	
+	/**
+	 * Returns {@code true}, since {@code indexOf} and {@code contains} run 
+	 * in constant time.
+	 * 
+	 * @return {@code true}
+	 */
+	@Override
+	public boolean isIndexed() {
+		return true;
+	}
+	
+	/**
+	 * Rebuilds the index after the underlying list was modified directly, and
+	 * notifies all registered listeners that this model has changed.
+	 * 
+	 * @throws IllegalArgumentException if a task appears more than once
+	 */
+	public void reindex() {
+		indices.clear();
+		index(0);
+		fireGanttModelChanged();
+	}
+	
+	/**
+	 * {@inheritDoc}  The task is appended to the underlying list, and 
+	 * therefore placed on the last row.
+	 * 
+	 * @throws IllegalArgumentException if the task is already contained in
+	 *         this model
+	 * @throws UnsupportedOperationException if the underlying list is not
+	 *         modifiable
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void addTask(Object task) {
+		if (indices.containsKey(task)) {
+			throw new IllegalArgumentException(
+					"task already contained in model");
+		}
+		
+		((List<Object>)tasks).add(task);
+		
+		int row = tasks.size() - 1;
+		indices.put(task, row);
+		fireTasksInserted(Collections.singleton(task), row, row);
+	}
+	
+	/**
+	 * {@inheritDoc}  The tasks on all following rows are shifted up by one
+	 * row, and their indices updated.
+	 * 
+	 * @throws UnsupportedOperationException if the underlying list is not
+	 *         modifiable
+	 */
+	@Override
+	public void removeTask(Object task) {
+		Integer row = indices.remove(task);
+		
+		if (row != null) {
+			tasks.remove((int)row);
+			index(row);
+			fireTasksRemoved(Collections.singleton(task), row, tasks.size());
+		}
+	}
+
+}
@@ -0,0 +1,502 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link LinkModel} maintaining the incoming and outgoing links of each task.
+ * Unlike {@link BasicLinkModel}, links are added and removed in constant 
+ * time, and the links connected to a task are found without scanning all 
+ * links.  Tasks and links are compared by identity, so the {@code equals} 
+ * methods of tasks are never invoked.
+ * <p>
+ * Links are removed by moving the last link into the position of the 
+ * removed link, so removing a link changes the index of the last link.  If
+ * this model is created with a {@link GanttModel}, links connected to tasks 
+ * removed from the Gantt model are removed automatically.
+ */
+public class IndexedLinkModel extends LinkModel 
+implements GanttModelListener {
+	
+	/**
+	 * A link stored in this model, along with its position in the list of 
+	 * links and in the adjacency lists of its tasks.
+	 */
+	private static class Entry {
+		
+		/**
+		 * The link.
+		 */
+		private final Link link;
+		
+		/**
+		 * The index of the link in the list of links.
+		 */
+		private int index;
+		
+		/**
+		 * The index of the link in the outgoing links of its first task.
+		 */
+		private int outgoingIndex;
+		
+		/**
+		 * The index of the link in the incoming links of its second task.
+		 */
+		private int incomingIndex;
+		
+		/**
+		 * Constructs an entry for the specified link.
+		 * 
+		 * @param link the link
+		 */
+		public Entry(Link link) {
+			super();
+			this.link = link;
+		}
+		
+	}
+	
+	/**
+	 * The Gantt model whose removed tasks have their links removed; or 
+	 * {@code null} if links are not removed automatically.
+	 */
+	private final GanttModel model;
+	
+	/**
+	 * The collection of links.
+	 */
+	private final List<Entry> links;
+	
+	/**
+	 * The entry of each link.
+	 */
+	private final Map<Link, Entry> entries;
+	
+	/**
+	 * The outgoing links of each task with at least one outgoing link.
+	 */
+	private final Map<Object, List<Entry>> outgoing;
+	
+	/**
+	 * The incoming links of each task with at least one incoming link.
+	 */
+	private final Map<Object, List<Entry>> incoming;
+	
+	/**
+	 * Class constructor for an empty indexed link model.
+	 */
+	public IndexedLinkModel() {
+		this(null);
+	}
+	
+	/**
+	 * Class constructor for an empty indexed link model whose links are 
+	 * removed when their tasks are removed from the specified Gantt model.
+	 * This link model registers itself as a listener of the Gantt model.
+	 * 
+	 * @param model the Gantt model containing the linked tasks; or 
+	 *        {@code null} if links are not removed automatically
+	 */
+	public IndexedLinkModel(GanttModel model) {
+		super();
+		this.model = model;
+		
+		links = new ArrayList<Entry>();
+		entries = new IdentityHashMap<Link, Entry>();
+		outgoing = new IdentityHashMap<Object, List<Entry>>();
+		incoming = new IdentityHashMap<Object, List<Entry>>();
+		
+		if (model != null) {
+			model.addGanttModelListener(this);
+		}
+	}
+	
+	@Override
+	public int getLinkCount() {
+		return links.size();
+	}
+	
+	@Override
+	public Link getLinkAt(int index) {
+		return links.get(index).link;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @throws IllegalArgumentException if the link is already contained in
+	 *         this model
+	 */
+	@Override
+	public void addLink(Link link) {
+		if (entries.containsKey(link)) {
+			throw new IllegalArgumentException(
+					"link already contained in model");
+		}
+		
+		Entry entry = new Entry(link);
+		entry.index = links.size();
+		links.add(entry);
+		entries.put(link, entry);
+		
+		entry.outgoingIndex = append(outgoing, link.getFirst(), entry);
+		entry.incomingIndex = append(incoming, link.getSecond(), entry);
+		fireLinkAdded(link);
+	}
+	
+	/**
+	 * Adds a new link to the Gantt chart.
+	 * 
+	 * @param from the source task
+	 * @param to the target task
+	 * @param type the link type
+	 */
+	public void addLink(Object from, Object to, LinkType type) {
+		addLink(new Link(from, to, type));
+	}
+	
+	/**
+	 * {@inheritDoc}  If the link is not contained in this model, a link 
+	 * between the same tasks with the same type is removed instead.
+	 */
+	@Override
+	public void removeLink(Link link) {
+		Entry entry = entries.get(link);
+		
+		if (entry == null) {
+			List<Entry> adjacent = outgoing.get(link.getFirst());
+			
+			if (adjacent != null) {
+				for (Entry candidate : adjacent) {
+					if ((candidate.link.getSecond() == link.getSecond()) &&
+							(candidate.link.getType() == link.getType())) {
+						entry = candidate;
+						break;
+					}
+				}
+			}
+		}
+		
+		if (entry != null) {
+			remove(entry);
+			fireLinkRemoved(entry.link);
+		}
+	}
+	
+	/**
+	 * Removes all links connected to the specified task.
+	 * 
+	 * @param task the task
+	 */
+	public void removeLinks(Object task) {
+		List<Link> removed = new ArrayList<Link>();
+		removeLinks(task, removed);
+		
+		if (!removed.isEmpty()) {
+			fireLinksRemoved(removed);
+		}
+	}
+	
+	/**
+	 * Removes all links connected to the specified task without notifying 
+	 * listeners.
+	 * 
+	 * @param task the task
+	 * @param removed the list receiving the removed links
+	 */
+	private void removeLinks(Object task, List<Link> removed) {
+		List<Entry> adjacent = outgoing.get(task);
+		
+		while (adjacent != null) {
+			Entry entry = adjacent.get(adjacent.size() - 1);
+			remove(entry);
+			removed.add(entry.link);
+			adjacent = outgoing.get(task);
+		}
+		
+		adjacent = incoming.get(task);
+		
+		while (adjacent != null) {
+			Entry entry = adjacent.get(adjacent.size() - 1);
+			remove(entry);
+			removed.add(entry.link);
+			adjacent = incoming.get(task);
+		}
+	}
+	
+	/**
+	 * Returns {@code true} if the specified link is contained in this model;
+	 * {@code false} otherwise.
+	 * 
+	 * @param link the link
+	 * @return {@code true} if the specified link is contained in this model;
+	 *         {@code false} otherwise
+	 */
+	public boolean containsLink(Link link) {
+		return entries.containsKey(link);
+	}
+	
+	/**
+	 * Returns the index of the specified link; or {@code -1} if the link is
+	 * not contained in this model.
+	 * 
+	 * @param link the link
+	 * @return the index of the specified link; or {@code -1} if the link is
+	 *         not contained in this model
+	 */
+	public int indexOfLink(Link link) {
+		Entry entry = entries.get(link);
+		return (entry == null) ? -1 : entry.index;
+	}
+	
+	/**
+	 * Returns the links whose first task is the specified task.
+	 * 
+	 * @param task the task
+	 * @return the links whose first task is the specified task
+	 */
+	public List<Link> getOutgoingLinks(Object task) {
+		List<Link> result = new ArrayList<Link>();
+		collect(outgoing.get(task), null, result);
+		return result;
+	}
+	
+	/**
+	 * Returns the links whose second task is the specified task.
+	 * 
+	 * @param task the task
+	 * @return the links whose second task is the specified task
+	 */
+	public List<Link> getIncomingLinks(Object task) {
+		List<Link> result = new ArrayList<Link>();
+		collect(incoming.get(task), null, result);
+		return result;
+	}
+	
+	/**
+	 * Returns the links connected to the specified task.  Links from the task
+	 * to itself are returned once.
+	 * 
+	 * @param task the task
+	 * @return the links connected to the specified task
+	 */
+	public List<Link> getLinks(Object task) {
+		List<Link> result = new ArrayList<Link>();
+		collect(outgoing.get(task), null, result);
+		collect(incoming.get(task), task, result);
+		return result;
+	}
+	
+	/**
+	 * Returns the number of links connected to the specified task.  Links 
+	 * from the task to itself are counted twice.
+	 * 
+	 * @param task the task
+	 * @return the number of links connected to the specified task
+	 */
+	public int getDegree(Object task) {
+		List<Entry> out = outgoing.get(task);
+		List<Entry> in = incoming.get(task);
+		
+		return ((out == null) ? 0 : out.size()) + 
+				((in == null) ? 0 : in.size());
+	}
+	
+	/**
+	 * Appends the links of the specified entries to the specified list, 
+	 * excluding links whose first task is {@code exclude}.
+	 * 
+	 * @param adjacent the entries; or {@code null}
+	 * @param exclude the first task of links to exclude; or {@code null}
+	 * @param result the list receiving the links
+	 */
+	private void collect(List<Entry> adjacent, Object exclude, 
+			List<Link> result) {
+		if (adjacent != null) {
+			for (Entry entry : adjacent) {
+				if ((exclude == null) || (entry.link.getFirst() != exclude)) {
+					result.add(entry.link);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Appends the specified entry to the adjacency list of the specified 
+	 * task.
+	 * 
+	 * @param adjacency the adjacency lists
+	 * @param task the task
+	 * @param entry the entry
+	 * @return the index of the entry in the adjacency list
+	 */
+	private static int append(Map<Object, List<Entry>> adjacency, 
+			Object task, Entry entry) {
+		List<Entry> adjacent = adjacency.get(task);
+		
+		if (adjacent == null) {
+			adjacent = new ArrayList<Entry>(2);
+			adjacency.put(task, adjacent);
+		}
+		
+		adjacent.add(entry);
+		return adjacent.size() - 1;
+	}
+	
+	/**
+	 * Removes the specified entry, moving the last entry of each list into 
+	 * its position.
+	 * 
+	 * @param entry the entry to remove
+	 */
+	private void remove(Entry entry) {
+		Entry last = links.remove(links.size() - 1);
+		
+		if (last != entry) {
+			last.index = entry.index;
+			links.set(entry.index, last);
+		}
+		
+		entries.remove(entry.link);
+		
+		//remove from the outgoing links of the first task
+		List<Entry> adjacent = outgoing.get(entry.link.getFirst());
+		last = adjacent.remove(adjacent.size() - 1);
+		
+		if (last != entry) {
+			last.outgoingIndex = entry.outgoingIndex;
+			adjacent.set(entry.outgoingIndex, last);
+		} else if (adjacent.isEmpty()) {
+			outgoing.remove(entry.link.getFirst());
+		}
+		
+		//remove from the incoming links of the second task
+		adjacent = incoming.get(entry.link.getSecond());
+		last = adjacent.remove(adjacent.size() - 1);
+		
+		if (last != entry) {
+			last.incomingIndex = entry.incomingIndex;
+			adjacent.set(entry.incomingIndex, last);
+		} else if (adjacent.isEmpty()) {
+			incoming.remove(entry.link.getSecond());
+		}
+	}
+	
+	/**
+	 * Removes all links.
+	 */
+	public void clear() {
+		List<Link> removed = new ArrayList<Link>(links.size());
+		
+		for (Entry entry : links) {
+			removed.add(entry.link);
+		}
+		
+		links.clear();
+		entries.clear();
+		outgoing.clear();
+		incoming.clear();
+		
+		if (!removed.isEmpty()) {
+			fireLinksRemoved(removed);
+		}
+	}
+	
+	/**
+	 * Removes the links connected to tasks removed from the Gantt model.  If
+	 * the event does not identify the removed tasks but covers every row, as
+	 * when the model is reloaded, the links connected to any task no longer 
+	 * contained in the Gantt model are removed.  Events identifying neither
+	 * the tasks nor every row, such as those fired when rows are repainted or
+	 * loaded, are assumed not to remove tasks.
+	 */
+	@Override
+	public void ganttModelChanged(GanttModelEvent event) {
+		Collection<?> tasks = event.getTasks();
+		
+		if (tasks == null) {
+			if ((event.getFirstRow() > 0) || 
+					(event.getLastRow() < model.getRowCount() - 1)) {
+				return;
+			}
+			
+			tasks = findRemovedTasks();
+		} else if (event.getType() != GanttModelEvent.DELETE) {
+			tasks = Collections.emptyList();
+		}
+		
+		List<Link> removed = new ArrayList<Link>();
+		
+		for (Object task : tasks) {
+			removeLinks(task, removed);
+		}
+		
+		if (!removed.isEmpty()) {
+			fireLinksRemoved(removed);
+		}
+	}
+	
+	/**
+	 * Returns the linked tasks no longer contained in the Gantt model.  
+	 * Unless the model is indexed, the tasks are found in a set built once 
+	 * from the model rather than by invoking 
+	 * {@link GanttModel#contains(Object)} for each linked task.
+	 * 
+	 * @return the linked tasks no longer contained in the Gantt model
+	 */
+	private Set<Object> findRemovedTasks() {
+		Set<Object> contained = null;
+		
+		if (!model.isIndexed()) {
+			int taskCount = model.getTaskCount();
+			contained = Collections.newSetFromMap(
+					new IdentityHashMap<Object, Boolean>(taskCount));
+			
+			for (int i = 0; i < taskCount; i++) {
+				contained.add(model.getTaskAt(i));
+			}
+		}
+		
+		Set<Object> removed = Collections.newSetFromMap(
+				new IdentityHashMap<Object, Boolean>());
+		
+		for (Object task : outgoing.keySet()) {
+			if ((contained == null) ? !model.contains(task) : 
+					!contained.contains(task)) {
+				removed.add(task);
+			}
+		}
+		
+		for (Object task : incoming.keySet()) {
+			if ((contained == null) ? !model.contains(task) : 
+					!contained.contains(task)) {
+				removed.add(task);
+			}
+		}
+		
+		return removed;
+	}
+
+}
@@ -0,0 +1,120 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive {@code int} values.  This avoids the boxing
+ * overhead of {@code List<Integer>} when collecting task indices during
+ * painting and hit-testing.  The backing array is retained when the list is
+ * cleared, so a single instance can be reused across repaints without further
+ * allocation.
+ */
+public class IntList {
+	
+	/**
+	 * The values stored in this list.
+	 */
+	private int[] values;
+	
+	/**
+	 * The number of values stored in this list.
+	 */
+	private int size;
+	
+	/**
+	 * Class constructor for an empty list.
+	 */
+	public IntList() {
+		this(16);
+	}
+	
+	/**
+	 * Class constructor for an empty list with the specified initial capacity.
+	 * 
+	 * @param capacity the initial capacity
+	 */
+	public IntList(int capacity) {
+		super();
+		
+		values = new int[Math.max(capacity, 1)];
+	}
+	
+	/**
+	 * Appends the specified value to the end of this list.
+	 * 
+	 * @param value the value to append
+	 */
+	public void add(int value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, 2*values.length);
+		}
+		
+		values[size++] = value;
+	}
+	
+	/**
+	 * Returns the value at the specified position in this list.
+	 * 
+	 * @param index the position
+	 * @return the value at the specified position in this list
+	 */
+	public int get(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		
+		return values[index];
+	}
+	
+	/**
+	 * Returns the number of values stored in this list.
+	 * 
+	 * @return the number of values stored in this list
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Returns {@code true} if this list contains no values; {@code false}
+	 * otherwise.
+	 * 
+	 * @return {@code true} if this list contains no values; {@code false}
+	 *         otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * Removes all values from this list.  The backing array is retained.
+	 */
+	public void clear() {
+		size = 0;
+	}
+	
+	/**
+	 * Sorts the values in this list into ascending order.
+	 */
+	public void sort() {
+		Arrays.sort(values, 0, size);
+	}
+
+}
@@ -0,0 +1,503 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.Arrays;
+
+/**
+ * Intervals grouped into segments, such as the tasks in each row, used by 
+ * {@link TaskIndex} and {@link LinkIndex}.  Each interval is identified by a
+ * value, typically an index into a model, and is stored exactly once.  The
+ * intervals of a segment are stored at consecutive positions in order of 
+ * their start value, alongside the running maximum of their end values, so
+ * both ends of a query within a segment are located by binary search.
+ * <p>
+ * Intervals can be added and removed in place, shifting the following 
+ * intervals of their segment.  A segment without spare capacity is relocated
+ * to the end of the arrays with twice its capacity, abandoning its previous
+ * positions; the arrays are compacted once more positions are abandoned than
+ * are in use.
+ */
+final class IntervalStore {
+	
+	/**
+	 * The position of the first interval in each segment.
+	 */
+	private int[] segmentOffsets;
+	
+	/**
+	 * The number of intervals in each segment.
+	 */
+	private int[] segmentSizes;
+	
+	/**
+	 * The number of positions reserved for each segment.
+	 */
+	private int[] segmentCapacities;
+	
+	/**
+	 * The value identifying each stored interval.
+	 */
+	private int[] values;
+	
+	/**
+	 * The start of each stored interval.
+	 */
+	private long[] starts;
+	
+	/**
+	 * The end of each stored interval.
+	 */
+	private long[] ends;
+	
+	/**
+	 * The maximum end of all preceding intervals in the same segment, 
+	 * inclusive.
+	 */
+	private long[] maxEnds;
+	
+	/**
+	 * The position of the interval identified by each value; or {@code -1} 
+	 * if the value is not stored.
+	 */
+	private int[] positions;
+	
+	/**
+	 * The segment of the interval identified by each value; or {@code -1} if
+	 * the value is not stored.
+	 */
+	private int[] valueSegments;
+	
+	/**
+	 * The number of stored intervals.
+	 */
+	private int size;
+	
+	/**
+	 * The number of positions reserved by segments, including abandoned 
+	 * positions.
+	 */
+	private int length;
+	
+	/**
+	 * The number of positions abandoned by relocated segments.
+	 */
+	private int abandoned;
+	
+	/**
+	 * Constructs a store containing an interval for each value from 
+	 * {@code 0} to {@code valueCount-1}, excluding values whose segment is
+	 * negative.  Intervals with identical start values retain the order of
+	 * their values.
+	 * 
+	 * @param segmentCount the number of segments
+	 * @param valueCount the number of values
+	 * @param valueSegments the segment of each value; or a negative number if
+	 *        the value is not stored
+	 * @param valueStarts the start of the interval identified by each value
+	 * @param valueEnds the end of the interval identified by each value
+	 */
+	public IntervalStore(int segmentCount, int valueCount, int[] valueSegments,
+			long[] valueStarts, long[] valueEnds) {
+		super();
+		segmentOffsets = new int[segmentCount];
+		segmentSizes = new int[segmentCount];
+		segmentCapacities = new int[segmentCount];
+		positions = new int[valueCount];
+		this.valueSegments = new int[valueCount];
+		
+		//count the intervals in each segment
+		for (int i = 0; i < valueCount; i++) {
+			int segment = valueSegments[i];
+			
+			if (segment >= 0) {
+				segmentSizes[segment]++;
+			}
+		}
+		
+		for (int segment = 0; segment < segmentCount; segment++) {
+			segmentOffsets[segment] = size;
+			segmentCapacities[segment] = segmentSizes[segment];
+			size += segmentSizes[segment];
+		}
+		
+		//distribute the values into their segments, preserving their order
+		length = size;
+		values = new int[size];
+		starts = new long[size];
+		ends = new long[size];
+		maxEnds = new long[size];
+		
+		int[] next = new int[segmentCount];
+		System.arraycopy(segmentOffsets, 0, next, 0, segmentCount);
+		
+		for (int i = 0; i < valueCount; i++) {
+			int segment = valueSegments[i];
+			
+			if (segment >= 0) {
+				values[next[segment]++] = i;
+				this.valueSegments[i] = segment;
+			} else {
+				positions[i] = -1;
+				this.valueSegments[i] = -1;
+			}
+		}
+		
+		//sort each segment by start value
+		int[] buffer = new int[size];
+		
+		for (int segment = 0; segment < segmentCount; segment++) {
+			int from = getFirst(segment);
+			int to = getLast(segment);
+			long maxEnd = Long.MIN_VALUE;
+			
+			IndexUtilities.sort(values, buffer, from, to, valueStarts);
+			
+			for (int i = from; i < to; i++) {
+				int value = values[i];
+				starts[i] = valueStarts[value];
+				ends[i] = valueEnds[value];
+				maxEnd = Math.max(maxEnd, ends[i]);
+				maxEnds[i] = maxEnd;
+				positions[value] = i;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the number of segments.
+	 * 
+	 * @return the number of segments
+	 */
+	public int getSegmentCount() {
+		return segmentSizes.length;
+	}
+	
+	/**
+	 * Returns the number of stored intervals.
+	 * 
+	 * @return the number of stored intervals
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Returns the position of the first interval in the specified segment.
+	 * 
+	 * @param segment the segment
+	 * @return the position of the first interval in the specified segment
+	 */
+	public int getFirst(int segment) {
+		return segmentOffsets[segment];
+	}
+	
+	/**
+	 * Returns the position following the last interval in the specified
+	 * segment.
+	 * 
+	 * @param segment the segment
+	 * @return the position following the last interval in the specified 
+	 *         segment
+	 */
+	public int getLast(int segment) {
+		return segmentOffsets[segment] + segmentSizes[segment];
+	}
+	
+	/**
+	 * Returns the position following the last interval in the specified 
+	 * segment starting at or before the specified value.
+	 * 
+	 * @param segment the segment
+	 * @param end the end of the range of interest
+	 * @return the position following the last interval in the specified
+	 *         segment starting at or before the specified value
+	 */
+	public int findLast(int segment, long end) {
+		return IndexUtilities.upperBound(starts, getFirst(segment), 
+				getLast(segment), end);
+	}
+	
+	/**
+	 * Returns the first position in the specified segment, prior to 
+	 * {@code last}, such that all preceding intervals end before the 
+	 * specified value.
+	 * 
+	 * @param segment the segment
+	 * @param last the position following the last interval of interest
+	 * @param start the start of the range of interest
+	 * @return the first position in the specified segment such that all
+	 *         preceding intervals end before the specified value
+	 */
+	public int findFirst(int segment, int last, long start) {
+		return IndexUtilities.lowerBound(maxEnds, getFirst(segment), last, 
+				start);
+	}
+	
+	/**
+	 * Returns the value identifying the interval at the specified position.
+	 * 
+	 * @param position the position
+	 * @return the value identifying the interval at the specified position
+	 */
+	public int getValue(int position) {
+		return values[position];
+	}
+	
+	/**
+	 * Returns the start of the interval at the specified position.
+	 * 
+	 * @param position the position
+	 * @return the start of the interval at the specified position
+	 */
+	public long getStart(int position) {
+		return starts[position];
+	}
+	
+	/**
+	 * Returns the end of the interval at the specified position.
+	 * 
+	 * @param position the position
+	 * @return the end of the interval at the specified position
+	 */
+	public long getEnd(int position) {
+		return ends[position];
+	}
+	
+	/**
+	 * Returns the position of the interval identified by the specified value;
+	 * or {@code -1} if the value is not stored.
+	 * 
+	 * @param value the value
+	 * @return the position of the interval identified by the specified 
+	 *         value; or {@code -1} if the value is not stored
+	 */
+	public int getPosition(int value) {
+		return ((value >= 0) && (value < positions.length)) ? 
+				positions[value] : -1;
+	}
+	
+	/**
+	 * Returns the segment of the interval identified by the specified value;
+	 * or {@code -1} if the value is not stored.
+	 * 
+	 * @param value the value
+	 * @return the segment of the interval identified by the specified value;
+	 *         or {@code -1} if the value is not stored
+	 */
+	public int getSegment(int value) {
+		return ((value >= 0) && (value < valueSegments.length)) ? 
+				valueSegments[value] : -1;
+	}
+	
+	/**
+	 * Increases the number of segments to the specified count.  The new 
+	 * segments are empty.
+	 * 
+	 * @param segmentCount the new number of segments
+	 */
+	public void setSegmentCount(int segmentCount) {
+		int previousCount = segmentSizes.length;
+		
+		if (segmentCount > previousCount) {
+			segmentOffsets = Arrays.copyOf(segmentOffsets, segmentCount);
+			segmentSizes = Arrays.copyOf(segmentSizes, segmentCount);
+			segmentCapacities = Arrays.copyOf(segmentCapacities, 
+					segmentCount);
+			Arrays.fill(segmentOffsets, previousCount, segmentCount, length);
+		}
+	}
+	
+	/**
+	 * Stores the interval identified by the specified value in the specified
+	 * segment, replacing any interval previously stored for the value.  The
+	 * interval is placed after all intervals in the segment with the same
+	 * start value.
+	 * 
+	 * @param value the value identifying the interval
+	 * @param segment the segment
+	 * @param start the start of the interval
+	 * @param end the end of the interval
+	 */
+	public void add(int value, int segment, long start, long end) {
+		remove(value);
+		
+		if (value >= positions.length) {
+			int capacity = Math.max(value + 1, 2*positions.length);
+			int previousLength = positions.length;
+			
+			positions = Arrays.copyOf(positions, capacity);
+			valueSegments = Arrays.copyOf(valueSegments, capacity);
+			Arrays.fill(positions, previousLength, capacity, -1);
+			Arrays.fill(valueSegments, previousLength, capacity, -1);
+		}
+		
+		if (segmentSizes[segment] == segmentCapacities[segment]) {
+			relocate(segment, Math.max(4, 2*segmentCapacities[segment]));
+		}
+		
+		int last = getLast(segment);
+		int position = IndexUtilities.upperBound(starts, getFirst(segment), 
+				last, start);
+		
+		System.arraycopy(values, position, values, position+1, last-position);
+		System.arraycopy(starts, position, starts, position+1, last-position);
+		System.arraycopy(ends, position, ends, position+1, last-position);
+		
+		for (int i = position+1; i <= last; i++) {
+			positions[values[i]] = i;
+		}
+		
+		values[position] = value;
+		starts[position] = start;
+		ends[position] = end;
+		positions[value] = position;
+		valueSegments[value] = segment;
+		segmentSizes[segment]++;
+		size++;
+		
+		updateMaxEnds(segment, position);
+	}
+	
+	/**
+	 * Removes the interval identified by the specified value, if stored.
+	 * 
+	 * @param value the value identifying the interval
+	 */
+	public void remove(int value) {
+		int position = getPosition(value);
+		
+		if (position < 0) {
+			return;
+		}
+		
+		int segment = valueSegments[value];
+		int last = getLast(segment) - 1;
+		
+		System.arraycopy(values, position+1, values, position, last-position);
+		System.arraycopy(starts, position+1, starts, position, last-position);
+		System.arraycopy(ends, position+1, ends, position, last-position);
+		
+		for (int i = position; i < last; i++) {
+			positions[values[i]] = i;
+		}
+		
+		positions[value] = -1;
+		valueSegments[value] = -1;
+		segmentSizes[segment]--;
+		size--;
+		
+		updateMaxEnds(segment, position);
+	}
+	
+	/**
+	 * Recomputes the running maximum of the end values in the specified
+	 * segment, starting at the specified position.
+	 * 
+	 * @param segment the segment
+	 * @param from the first position to update
+	 */
+	private void updateMaxEnds(int segment, int from) {
+		long maxEnd = (from > getFirst(segment)) ? maxEnds[from-1] : 
+				Long.MIN_VALUE;
+		
+		for (int i = from; i < getLast(segment); i++) {
+			maxEnd = Math.max(maxEnd, ends[i]);
+			maxEnds[i] = maxEnd;
+		}
+	}
+	
+	/**
+	 * Moves the specified segment to the end of the arrays, reserving the
+	 * specified number of positions.  The arrays are compacted first if more
+	 * positions are abandoned than are in use.
+	 * 
+	 * @param segment the segment
+	 * @param capacity the number of positions to reserve
+	 */
+	private void relocate(int segment, int capacity) {
+		if (abandoned > size) {
+			compact();
+		}
+		
+		if (length + capacity > values.length) {
+			int newLength = Math.max(length + capacity, 
+					values.length + values.length/2);
+			
+			values = Arrays.copyOf(values, newLength);
+			starts = Arrays.copyOf(starts, newLength);
+			ends = Arrays.copyOf(ends, newLength);
+			maxEnds = Arrays.copyOf(maxEnds, newLength);
+		}
+		
+		int from = segmentOffsets[segment];
+		int count = segmentSizes[segment];
+		
+		System.arraycopy(values, from, values, length, count);
+		System.arraycopy(starts, from, starts, length, count);
+		System.arraycopy(ends, from, ends, length, count);
+		System.arraycopy(maxEnds, from, maxEnds, length, count);
+		
+		for (int i = length; i < length + count; i++) {
+			positions[values[i]] = i;
+		}
+		
+		abandoned += segmentCapacities[segment];
+		segmentOffsets[segment] = length;
+		segmentCapacities[segment] = capacity;
+		length += capacity;
+	}
+	
+	/**
+	 * Moves all segments to consecutive positions without spare capacity,
+	 * discarding the abandoned positions.
+	 */
+	private void compact() {
+		int[] newValues = new int[size];
+		long[] newStarts = new long[size];
+		long[] newEnds = new long[size];
+		long[] newMaxEnds = new long[size];
+		int offset = 0;
+		
+		for (int segment = 0; segment < segmentSizes.length; segment++) {
+			int from = segmentOffsets[segment];
+			int count = segmentSizes[segment];
+			
+			System.arraycopy(values, from, newValues, offset, count);
+			System.arraycopy(starts, from, newStarts, offset, count);
+			System.arraycopy(ends, from, newEnds, offset, count);
+			System.arraycopy(maxEnds, from, newMaxEnds, offset, count);
+			
+			segmentOffsets[segment] = offset;
+			segmentCapacities[segment] = count;
+			offset += count;
+		}
+		
+		for (int i = 0; i < size; i++) {
+			positions[newValues[i]] = i;
+		}
+		
+		values = newValues;
+		starts = newStarts;
+		ends = newEnds;
+		maxEnds = newMaxEnds;
+		length = size;
+		abandoned = 0;
+	}
+
+}
@@ -0,0 +1,619 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Spatial index over the links in a {@link LinkModel}, allowing the links
+ * whose envelope intersects a range of rows and a range of canonical values
+ * to be found without scanning the entire link model.  The envelope of a link
+ * spans the rows and the canonical values of its two anchor points.
+ * <p>
+ * Links are stored in a hierarchy of row grids.  The finest level divides
+ * the rows into blocks of {@value #BLOCK} rows, and each coarser level 
+ * doubles the size of its blocks.  Each link is stored exactly once, in the 
+ * finest level where its envelope spans at most two blocks, under the block
+ * containing its first row.  A query therefore searches, on each level, the
+ * blocks overlapping the queried rows and the block preceding them.  Within
+ * each block the links are ordered by the start of their envelope along with
+ * the running maximum of the end of their envelope.
+ * <p>
+ * The index is built lazily on the first query following a call to
+ * {@link #invalidate()}.  The owner of the index is responsible for either
+ * invalidating the index or invoking {@link #addLinks(Collection)} and 
+ * {@link #removeLinks(Collection)} whenever links are added or removed, and
+ * for either invalidating the index or invoking {@link #update(int)} on the
+ * links found by {@link #findLinks(Object, IntList)} whenever the tasks they
+ * connect are changed.
+ */
+public class LinkIndex {
+	
+	/**
+	 * The number of rows in each block of the finest level.
+	 */
+	public static final int BLOCK = 64;
+	
+	/**
+	 * The base two logarithm of {@code BLOCK}.
+	 */
+	private static final int BLOCK_SHIFT = 6;
+	
+	/**
+	 * The {@code LinkModel} storing the indexed links.
+	 */
+	private final LinkModel linkModel;
+	
+	/**
+	 * The {@code Translator} used to extract the row, start and end values of
+	 * the tasks connected by the indexed links.
+	 */
+	private final Translator translator;
+	
+	/**
+	 * {@code true} if this index reflects the current contents of the link
+	 * model; {@code false} if the index must be rebuilt prior to the next 
+	 * query.
+	 */
+	private boolean valid;
+	
+	/**
+	 * The number of links in the link model when this index was built.
+	 */
+	private int linkCount;
+	
+	/**
+	 * The number of rows covered by the levels, which exceeds the last row 
+	 * of any link when the index was built.
+	 */
+	private int rowLimit;
+	
+	/**
+	 * The number of the first block of each level, with the blocks of all 
+	 * levels numbered consecutively from the finest level.
+	 */
+	private int[] levelOffsets;
+	
+	/**
+	 * The envelopes of the links, stored by block.
+	 */
+	private IntervalStore envelopes;
+	
+	/**
+	 * The first row of each link's envelope, indexed by link.
+	 */
+	private int[] minRows;
+	
+	/**
+	 * The last row of each link's envelope, indexed by link.
+	 */
+	private int[] maxRows;
+	
+	/**
+	 * Reusable storage for the first row, last row, start and end of the 
+	 * envelope of a link.
+	 */
+	private final long[] envelope;
+	
+	/**
+	 * Reusable storage for the envelope of a link moved into the position of
+	 * a removed link.
+	 */
+	private final long[] movedEnvelope;
+	
+	/**
+	 * Reusable storage for the links whose stored envelope matches that of a
+	 * removed link.
+	 */
+	private final IntList candidates;
+	
+	/**
+	 * Class constructor for an index over the links in the specified link 
+	 * model.
+	 * 
+	 * @param linkModel the {@code LinkModel} storing the indexed links
+	 * @param translator the {@code Translator} used to extract the row, start
+	 *        and end values of the tasks connected by the indexed links
+	 */
+	public LinkIndex(LinkModel linkModel, Translator translator) {
+		super();
+		this.linkModel = linkModel;
+		this.translator = translator;
+		
+		envelope = new long[4];
+		movedEnvelope = new long[4];
+		candidates = new IntList();
+	}
+	
+	/**
+	 * Marks this index as invalid, causing it to be rebuilt prior to the next
+	 * query.
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+	
+	/**
+	 * Returns {@code true} if this index reflects the current contents of the
+	 * link model; {@code false} if the index will be rebuilt prior to the next
+	 * query.  As a safeguard against links being added or removed without the
+	 * index being invalidated, the index is also considered invalid if the 
+	 * number of links has changed.
+	 * 
+	 * @return {@code true} if this index reflects the current contents of the
+	 *         link model; {@code false} otherwise
+	 */
+	public boolean isValid() {
+		return valid && (linkCount == linkModel.getLinkCount());
+	}
+	
+	/**
+	 * Returns the canonical value of the source anchor point of the specified
+	 * link.
+	 * 
+	 * @param link the link
+	 * @return the canonical value of the source anchor point of the link
+	 */
+	public long getSourceAnchor(Link link) {
+		switch (link.getType()) {
+		case START_TO_START:
+			return translator.getStart(link.getFirst());
+		case FINISH_TO_START:
+		case FINISH_TO_FINISH:
+			return translator.getEnd(link.getFirst());
+		default:
+			throw new IllegalStateException();
+		}
+	}
+	
+	/**
+	 * Returns the canonical value of the target anchor point of the specified
+	 * link.
+	 * 
+	 * @param link the link
+	 * @return the canonical value of the target anchor point of the link
+	 */
+	public long getTargetAnchor(Link link) {
+		switch (link.getType()) {
+		case START_TO_START:
+		case FINISH_TO_START:
+			return translator.getStart(link.getSecond());
+		case FINISH_TO_FINISH:
+			return translator.getEnd(link.getSecond());
+		default:
+			throw new IllegalStateException();
+		}
+	}
+	
+	/**
+	 * Returns the first row spanned by the envelope of the specified link.
+	 * 
+	 * @param link the index of the link
+	 * @return the first row spanned by the envelope of the specified link
+	 */
+	public int getMinRow(int link) {
+		if (!isValid()) {
+			build();
+		}
+		
+		return minRows[link];
+	}
+	
+	/**
+	 * Returns the last row spanned by the envelope of the specified link.
+	 * 
+	 * @param link the index of the link
+	 * @return the last row spanned by the envelope of the specified link
+	 */
+	public int getMaxRow(int link) {
+		if (!isValid()) {
+			build();
+		}
+		
+		return maxRows[link];
+	}
+	
+	/**
+	 * Returns the start of the envelope of the specified link in canonical
+	 * coordinates.
+	 * 
+	 * @param link the index of the link
+	 * @return the start of the envelope of the specified link
+	 */
+	public long getMinTime(int link) {
+		if (!isValid()) {
+			build();
+		}
+		
+		return envelopes.getStart(envelopes.getPosition(link));
+	}
+	
+	/**
+	 * Returns the end of the envelope of the specified link in canonical
+	 * coordinates.
+	 * 
+	 * @param link the index of the link
+	 * @return the end of the envelope of the specified link
+	 */
+	public long getMaxTime(int link) {
+		if (!isValid()) {
+			build();
+		}
+		
+		return envelopes.getEnd(envelopes.getPosition(link));
+	}
+	
+	/**
+	 * Appends to {@code result} the index of every link whose envelope 
+	 * intersects the rows {@code firstRow} through {@code lastRow}, inclusive,
+	 * and the range {@code start} through {@code end}, inclusive.  Each link
+	 * is appended at most once.
+	 * 
+	 * @param firstRow the first row
+	 * @param lastRow the last row
+	 * @param start the start of the range in canonical coordinates
+	 * @param end the end of the range in canonical coordinates
+	 * @param result the list receiving the index of each link
+	 */
+	public void query(int firstRow, int lastRow, long start, long end,
+			IntList result) {
+		if (!isValid()) {
+			build();
+		}
+		
+		if (lastRow < 0) {
+			return;
+		}
+		
+		firstRow = Math.max(firstRow, 0);
+		lastRow = Math.min(lastRow, rowLimit - 1);
+		
+		for (int level = 0; level < levelOffsets.length; level++) {
+			int shift = BLOCK_SHIFT + level;
+			
+			//links stored in the preceding block may extend into the rows
+			int firstBlock = Math.max((firstRow >> shift) - 1, 0);
+			int lastBlock = lastRow >> shift;
+			
+			for (int block = firstBlock; block <= lastBlock; block++) {
+				int segment = levelOffsets[level] + block;
+				int last = envelopes.findLast(segment, end);
+				int first = envelopes.findFirst(segment, last, start);
+				
+				for (int i = first; i < last; i++) {
+					int link = envelopes.getValue(i);
+					
+					if ((envelopes.getEnd(i) >= start) && 
+							(maxRows[link] >= firstRow) &&
+							(minRows[link] <= lastRow)) {
+						result.add(link);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Appends to {@code result} the index of every link connected to the 
+	 * specified task, returning {@code false} if the link model does not 
+	 * support finding the links of a task without scanning all links.  Links
+	 * from the task to itself may be appended twice.
+	 * 
+	 * @param task the task
+	 * @param result the list receiving the index of each link
+	 * @return {@code true} if the links of the task were appended; 
+	 *         {@code false} otherwise
+	 */
+	public boolean findLinks(Object task, IntList result) {
+		if (linkModel instanceof IndexedLinkModel) {
+			IndexedLinkModel indexedLinkModel = (IndexedLinkModel)linkModel;
+			
+			for (Link link : indexedLinkModel.getLinks(task)) {
+				result.add(indexedLinkModel.indexOfLink(link));
+			}
+			
+			return true;
+		} else if (linkModel instanceof CompactLinkModel) {
+			CompactLinkModel compactLinkModel = (CompactLinkModel)linkModel;
+			GanttModel ganttModel = compactLinkModel.getGanttModel();
+			
+			if (!ganttModel.isIndexed()) {
+				return false;
+			}
+			
+			int index = ganttModel.indexOf(task);
+			
+			if (index >= 0) {
+				compactLinkModel.getOutgoingLinks(index, result);
+				compactLinkModel.getIncomingLinks(index, result);
+			}
+			
+			return true;
+		} else {
+			return linkModel.getLinkCount() == 0;
+		}
+	}
+	
+	/**
+	 * Updates the envelope of the specified link after the tasks it connects
+	 * changed.  If the link now extends beyond the rows covered by the 
+	 * levels, the index is invalidated instead.  This method has no effect if
+	 * the index is invalid, since it will be rebuilt prior to the next query.
+	 * 
+	 * @param link the index of the link
+	 */
+	public void update(int link) {
+		if (!isValid()) {
+			return;
+		}
+		
+		computeEnvelope(linkModel.getLinkAt(link), envelope);
+		
+		if (!store(link, envelope)) {
+			invalidate();
+		}
+	}
+	
+	/**
+	 * Adds the specified links, which were appended to the end of the link 
+	 * model, to this index.  If the link model may have inserted the links 
+	 * elsewhere, or a link extends beyond the rows covered by the levels, the
+	 * index is invalidated instead.  This method has no effect if the index 
+	 * is invalid, since it will be rebuilt prior to the next query.
+	 * 
+	 * @param links the added links
+	 */
+	public void addLinks(Collection<Link> links) {
+		if (!valid) {
+			return;
+		}
+		
+		int newCount = linkModel.getLinkCount();
+		
+		if (!((linkModel instanceof IndexedLinkModel) || 
+				(linkModel instanceof CompactLinkModel) || 
+				(linkModel instanceof BasicLinkModel)) || 
+				(newCount != linkCount + links.size())) {
+			invalidate();
+			return;
+		}
+		
+		if (newCount > minRows.length) {
+			int capacity = Math.max(newCount, 2*minRows.length);
+			minRows = Arrays.copyOf(minRows, capacity);
+			maxRows = Arrays.copyOf(maxRows, capacity);
+		}
+		
+		for (int i = linkCount; i < newCount; i++) {
+			computeEnvelope(linkModel.getLinkAt(i), envelope);
+			
+			if (!store(i, envelope)) {
+				invalidate();
+				return;
+			}
+		}
+		
+		linkCount = newCount;
+	}
+	
+	/**
+	 * Removes the specified links, which were removed from the link model, 
+	 * from this index.  The link model must remove each link by moving its 
+	 * last link into the position of the removed link, as 
+	 * {@link IndexedLinkModel} and {@link CompactLinkModel} do; for other
+	 * link models, the index is invalidated instead.  Since the positions of
+	 * the removed links are not known, the links whose stored envelope 
+	 * matches that of a removed link are checked, and any now holding a 
+	 * moved link are updated.  This method has no effect if the index is 
+	 * invalid, since it will be rebuilt prior to the next query.
+	 * 
+	 * @param links the removed links
+	 */
+	public void removeLinks(Collection<Link> links) {
+		if (!valid) {
+			return;
+		}
+		
+		int newCount = linkModel.getLinkCount();
+		
+		if (!((linkModel instanceof IndexedLinkModel) || 
+				(linkModel instanceof CompactLinkModel)) || 
+				(newCount != linkCount - links.size())) {
+			invalidate();
+			return;
+		}
+		
+		for (Link link : links) {
+			computeEnvelope(link, envelope);
+			
+			if (envelope[1] >= rowLimit) {
+				invalidate();
+				return;
+			}
+			
+			//the links stored with the same envelope as the removed link
+			int segment = getSegment((int)envelope[0], (int)envelope[1]);
+			int first = envelopes.getFirst(segment);
+			candidates.clear();
+			
+			for (int i = envelopes.findLast(segment, envelope[2]) - 1; 
+					(i >= first) && (envelopes.getStart(i) == envelope[2]); 
+					i--) {
+				int value = envelopes.getValue(i);
+				
+				if ((value < newCount) && 
+						(envelopes.getEnd(i) == envelope[3]) &&
+						(minRows[value] == envelope[0]) && 
+						(maxRows[value] == envelope[1])) {
+					candidates.add(value);
+				}
+			}
+			
+			//update the positions now holding a link moved from the end
+			for (int i = 0; i < candidates.size(); i++) {
+				int value = candidates.get(i);
+				computeEnvelope(linkModel.getLinkAt(value), movedEnvelope);
+				
+				if (!Arrays.equals(envelope, movedEnvelope) && 
+						!store(value, movedEnvelope)) {
+					invalidate();
+					return;
+				}
+			}
+		}
+		
+		for (int i = newCount; i < linkCount; i++) {
+			envelopes.remove(i);
+		}
+		
+		linkCount = newCount;
+	}
+	
+	/**
+	 * Computes the envelope of the specified link, storing its first row, 
+	 * last row, start and end in {@code result}.
+	 * 
+	 * @param link the link
+	 * @param result the array receiving the envelope
+	 */
+	private void computeEnvelope(Link link, long[] result) {
+		int row1 = Math.max(translator.getRow(link.getFirst()), 0);
+		int row2 = Math.max(translator.getRow(link.getSecond()), 0);
+		long time1 = getSourceAnchor(link);
+		long time2 = getTargetAnchor(link);
+		
+		result[0] = Math.min(row1, row2);
+		result[1] = Math.max(row1, row2);
+		result[2] = Math.min(time1, time2);
+		result[3] = Math.max(time1, time2);
+	}
+	
+	/**
+	 * Stores the specified envelope for the link at the specified index, 
+	 * returning {@code false} without storing it if the envelope extends 
+	 * beyond the rows covered by the levels.
+	 * 
+	 * @param link the index of the link
+	 * @param envelope the first row, last row, start and end of the envelope
+	 * @return {@code true} if the envelope was stored; {@code false} if the
+	 *         index must be rebuilt
+	 */
+	private boolean store(int link, long[] envelope) {
+		int minRow = (int)envelope[0];
+		int maxRow = (int)envelope[1];
+		
+		if (maxRow >= rowLimit) {
+			return false;
+		}
+		
+		minRows[link] = minRow;
+		maxRows[link] = maxRow;
+		envelopes.add(link, getSegment(minRow, maxRow), envelope[2], 
+				envelope[3]);
+		return true;
+	}
+	
+	/**
+	 * Rebuilds this index from the current contents of the link model.
+	 */
+	private void build() {
+		linkCount = linkModel.getLinkCount();
+		minRows = new int[linkCount];
+		maxRows = new int[linkCount];
+		
+		long[] envelopeStarts = new long[linkCount];
+		long[] envelopeEnds = new long[linkCount];
+		int maxRow = 0;
+		
+		if (linkModel instanceof CompactLinkModel) {
+			//read the tasks in bulk rather than creating link objects
+			((CompactLinkModel)linkModel).getEnvelopes(translator, minRows, 
+					maxRows, envelopeStarts, envelopeEnds);
+			
+			for (int i = 0; i < linkCount; i++) {
+				maxRow = Math.max(maxRow, maxRows[i]);
+			}
+		} else {
+			for (int i = 0; i < linkCount; i++) {
+				Link link = linkModel.getLinkAt(i);
+				int row1 = Math.max(translator.getRow(link.getFirst()), 0);
+				int row2 = Math.max(translator.getRow(link.getSecond()), 0);
+				long time1 = getSourceAnchor(link);
+				long time2 = getTargetAnchor(link);
+				
+				minRows[i] = Math.min(row1, row2);
+				maxRows[i] = Math.max(row1, row2);
+				envelopeStarts[i] = Math.min(time1, time2);
+				envelopeEnds[i] = Math.max(time1, time2);
+				maxRow = Math.max(maxRow, maxRows[i]);
+			}
+		}
+		
+		//lay out the levels, the coarsest containing a single block
+		int levelCount = 1;
+		
+		rowLimit = maxRow + 1;
+		
+		while ((rowLimit - 1) >> (BLOCK_SHIFT + levelCount - 1) > 0) {
+			levelCount++;
+		}
+		
+		//leave room for links moving below the last row
+		rowLimit = BLOCK << (levelCount - 1);
+		levelOffsets = new int[levelCount];
+		
+		int blockCount = 0;
+		
+		for (int level = 0; level < levelCount; level++) {
+			levelOffsets[level] = blockCount;
+			blockCount += ((rowLimit - 1) >> (BLOCK_SHIFT + level)) + 1;
+		}
+		
+		int[] segments = new int[linkCount];
+		
+		for (int i = 0; i < linkCount; i++) {
+			segments[i] = getSegment(minRows[i], maxRows[i]);
+		}
+		
+		envelopes = new IntervalStore(blockCount, linkCount, segments, 
+				envelopeStarts, envelopeEnds);
+		valid = true;
+	}
+	
+	/**
+	 * Returns the block storing a link whose envelope spans the specified 
+	 * rows, which is the block containing the first row in the finest level
+	 * where the envelope spans at most two blocks.
+	 * 
+	 * @param minRow the first row of the envelope
+	 * @param maxRow the last row of the envelope
+	 * @return the block storing the link
+	 */
+	private int getSegment(int minRow, int maxRow) {
+		int level = 0;
+		
+		while ((maxRow >> (BLOCK_SHIFT + level)) - 
+				(minRow >> (BLOCK_SHIFT + level)) > 1) {
+			level++;
+		}
+		
+		return levelOffsets[level] + (minRow >> (BLOCK_SHIFT + level));
+	}
+
+}
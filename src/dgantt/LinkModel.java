@@ -17,16 +17,31 @@
  */
 package dgantt;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Vector;
+
 /**
- * Model storing the collection of links on a Gantt chart.
+ * Model storing the collection of links on a Gantt chart.  Implementations
+ * which add or remove links must notify the registered 
+ * {@link LinkModelListener}s, which allows a {@link GanttChart} to repaint 
+ * only the affected links.
  */
 public abstract class LinkModel {
 	
+	/**
+	 * The listeners registered to receive events from this link model.
+	 */
+	private final List<LinkModelListener> listeners;
+	
 	/**
 	 * Default constructor for a link model.
 	 */
 	public LinkModel() {
 		super();
+		
+		listeners = new Vector<LinkModelListener>();
 	}
 
 	/**
@@ -62,4 +77,88 @@ public abstract class LinkModel {
 		//do nothing, default mode is read-only
 	}
 	
+	/**
+	 * Registers the specified {@code LinkModelListener} to receive events
+	 * from this link model.
+	 * 
+	 * @param listener the {@code LinkModelListener} to receive events from
+	 *        this link model
+	 */
+	public void addLinkModelListener(LinkModelListener listener) {
+		listeners.add(listener);
+	}
+	
+	/**
+	 * Unregisters the specified {@code LinkModelListener} to no longer 
+	 * receive events from this link model.
+	 * 
+	 * @param listener the {@code LinkModelListener} to no longer receive 
+	 *        events from this link model
+	 */
+	public void removeLinkModelListener(LinkModelListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Notifies all registered {@code LinkModelListener}s that any link may 
+	 * have been added or removed.
+	 */
+	public void fireLinkModelChanged() {
+		fireLinkModelChanged(new LinkModelEvent(this));
+	}
+	
+	/**
+	 * Notifies all registered {@code LinkModelListener}s that the specified
+	 * link was added to this model.
+	 * 
+	 * @param link the added link
+	 */
+	public void fireLinkAdded(Link link) {
+		fireLinksAdded(Collections.singleton(link));
+	}
+	
+	/**
+	 * Notifies all registered {@code LinkModelListener}s that the specified
+	 * links were added to this model.
+	 * 
+	 * @param links the added links
+	 */
+	public void fireLinksAdded(Collection<? extends Link> links) {
+		fireLinkModelChanged(new LinkModelEvent(this, LinkModelEvent.INSERT,
+				links));
+	}
+	
+	/**
+	 * Notifies all registered {@code LinkModelListener}s that the specified
+	 * link was removed from this model.
+	 * 
+	 * @param link the removed link
+	 */
+	public void fireLinkRemoved(Link link) {
+		fireLinksRemoved(Collections.singleton(link));
+	}
+	
+	/**
+	 * Notifies all registered {@code LinkModelListener}s that the specified
+	 * links were removed from this model.
+	 * 
+	 * @param links the removed links
+	 */
+	public void fireLinksRemoved(Collection<? extends Link> links) {
+		fireLinkModelChanged(new LinkModelEvent(this, LinkModelEvent.DELETE,
+				links));
+	}
+	
+	/**
+	 * Invokes the {@link LinkModelListener#linkModelChanged(LinkModelEvent)}
+	 * method on all registered {@code LinkModelListener}s.
+	 * 
+	 * @param event the event
+	 */
+	public void fireLinkModelChanged(LinkModelEvent event) {
+		for (LinkModelListener listener : listeners) {
+			listener.linkModelChanged(event);
+		}
+	}
+	
 }
@@ -0,0 +1,130 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EventObject;
+
+/**
+ * Event object representing changes to a {@link LinkModel}.  Events 
+ * identify the added or removed links, allowing listeners to update their 
+ * state in time proportional to the number of changed links; if 
+ * {@link #getLinks()} returns {@code null}, any link may have been added or 
+ * removed.
+ */
+public class LinkModelEvent extends EventObject {
+
+	private static final long serialVersionUID = 2301583529163941768L;
+	
+	/**
+	 * Identifies links that were added to the model.
+	 */
+	public static final int INSERT = 1;
+	
+	/**
+	 * Identifies an unspecified change to the links of the model.
+	 */
+	public static final int UPDATE = 0;
+	
+	/**
+	 * Identifies links that were removed from the model.
+	 */
+	public static final int DELETE = -1;
+	
+	/**
+	 * The type of change; either {@code INSERT}, {@code UPDATE} or 
+	 * {@code DELETE}.
+	 */
+	private final int type;
+	
+	/**
+	 * The added or removed links; or {@code null} if the changed links are 
+	 * not known.
+	 */
+	private final Collection<Link> links;
+	
+	/**
+	 * Class constructor for a link model event indicating any link may have
+	 * been added or removed.
+	 * 
+	 * @param model the changed link model
+	 */
+	public LinkModelEvent(LinkModel model) {
+		this(model, UPDATE, null);
+	}
+	
+	/**
+	 * Class constructor for a link model event indicating the specified links
+	 * were added or removed.
+	 * 
+	 * @param model the changed link model
+	 * @param type the type of change; either {@code INSERT}, {@code UPDATE}
+	 *        or {@code DELETE}
+	 * @param links the added or removed links; or {@code null} if the changed
+	 *        links are not known
+	 * @throws IllegalArgumentException if {@code type} is not one of 
+	 *         {@code INSERT}, {@code UPDATE} or {@code DELETE}, or if 
+	 *         {@code links} is {@code null} for an {@code INSERT} or 
+	 *         {@code DELETE}
+	 */
+	public LinkModelEvent(LinkModel model, int type, 
+			Collection<? extends Link> links) {
+		super(model);
+		
+		if ((type != INSERT) && (type != UPDATE) && (type != DELETE)) {
+			throw new IllegalArgumentException("invalid type");
+		}
+		
+		if ((type != UPDATE) && (links == null)) {
+			throw new IllegalArgumentException("links required");
+		}
+		
+		this.type = type;
+		this.links = (links == null) ? null : 
+				Collections.<Link>unmodifiableCollection(links);
+	}
+
+	@Override
+	public LinkModel getSource() {
+		return (LinkModel)super.getSource();
+	}
+	
+	/**
+	 * Returns the type of change; either {@code INSERT}, {@code UPDATE} or
+	 * {@code DELETE}.
+	 * 
+	 * @return the type of change; either {@code INSERT}, {@code UPDATE} or
+	 *         {@code DELETE}
+	 */
+	public int getType() {
+		return type;
+	}
+	
+	/**
+	 * Returns the unmodifiable collection of added or removed links; or 
+	 * {@code null} if the changed links are not known.
+	 * 
+	 * @return the unmodifiable collection of added or removed links; or 
+	 *         {@code null} if the changed links are not known
+	 */
+	public Collection<Link> getLinks() {
+		return links;
+	}
+
+}
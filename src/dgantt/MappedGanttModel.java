@@ -0,0 +1,678 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only {@link GanttModel} backed by a memory-mapped archive file, 
+ * allowing very large collections of tasks to be displayed without storing
+ * the tasks on the heap.  Opening an archive only maps the file; the 
+ * operating system pages in the data as it is read, so the heap used by the
+ * model is independent of the number of tasks.
+ * <p>
+ * Archives are created using {@link #write(File, GanttModel, Translator)}.
+ * Each task is stored as a fixed-width record containing its start, end, 
+ * row and the offset of its text.  The records are sorted by row and start
+ * value, and the file also stores the offset of each row and the running
+ * maximum of the end values, so the archive doubles as the 
+ * {@link TaskIndex} used by the {@link GanttChart}.  Each task is 
+ * identified by the position of its record, and the task objects returned
+ * by {@link #getTaskAt(int)} are the boxed positions.
+ * <p>
+ * The minimum and maximum values of the tasks are stored in the archive, so
+ * a chart using this model computes its range without reading the records.
+ */
+public class MappedGanttModel extends GanttModel implements Closeable {
+	
+	/**
+	 * The value identifying archive files.
+	 */
+	private static final int MAGIC = 0x4447414E;
+	
+	/**
+	 * The version of the archive format.
+	 */
+	private static final int VERSION = 1;
+	
+	/**
+	 * The size of the archive header, in bytes.
+	 */
+	private static final int HEADER_SIZE = 64;
+	
+	/**
+	 * The size of each task record, in bytes.
+	 */
+	private static final int RECORD_SIZE = 24;
+	
+	/**
+	 * The base 2 logarithm of the number of records in each mapped segment.
+	 * Segments are required since a single mapping is limited to 2 GB.
+	 */
+	private static final int SEGMENT_SHIFT = 25;
+	
+	/**
+	 * The mask extracting the position of a record within its segment.
+	 */
+	private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+	
+	/**
+	 * The base 2 logarithm of the number of bytes of text in each mapped 
+	 * segment.
+	 */
+	private static final int TEXT_SHIFT = 30;
+	
+	/**
+	 * The mask extracting the position of text within its segment.
+	 */
+	private static final long TEXT_MASK = (1L << TEXT_SHIFT) - 1;
+	
+	/**
+	 * The maximum length of the encoded text of a task, in bytes.  Longer 
+	 * text is truncated when written.
+	 */
+	private static final int MAXIMUM_TEXT_LENGTH = 0xFFFF;
+	
+	/**
+	 * The character set used to encode text.
+	 */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	/**
+	 * The open archive file.
+	 */
+	private final RandomAccessFile file;
+	
+	/**
+	 * The number of tasks in the archive.
+	 */
+	private final int taskCount;
+	
+	/**
+	 * The number of rows in the archive.
+	 */
+	private final int rowCount;
+	
+	/**
+	 * The minimum start value of all tasks.
+	 */
+	private final long minimum;
+	
+	/**
+	 * The maximum end value of all tasks.
+	 */
+	private final long maximum;
+	
+	/**
+	 * The mapped offset of the first record in each row.
+	 */
+	private final MappedByteBuffer rowOffsets;
+	
+	/**
+	 * The mapped segments of task records.
+	 */
+	private final MappedByteBuffer[] records;
+	
+	/**
+	 * The mapped segments storing the maximum end value of all preceding 
+	 * tasks in the same row, inclusive.
+	 */
+	private final MappedByteBuffer[] maxEnds;
+	
+	/**
+	 * The mapped segments of text.  Each segment overlaps the next by the 
+	 * maximum length of an entry, so every entry is contained in the segment
+	 * where it begins.
+	 */
+	private final MappedByteBuffer[] texts;
+	
+	/**
+	 * The translator for reading the tasks in this model.
+	 */
+	private final MappedTranslator translator;
+	
+	/**
+	 * Class constructor for a model reading the tasks in the specified 
+	 * archive file.
+	 * 
+	 * @param archive the archive file
+	 * @throws IOException if an I/O error occurred or the file is not a 
+	 *         valid archive
+	 */
+	public MappedGanttModel(File archive) throws IOException {
+		super();
+		file = new RandomAccessFile(archive, "r");
+		
+		try {
+			FileChannel channel = file.getChannel();
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 
+					HEADER_SIZE);
+			
+			if ((header.getInt(0) != MAGIC) || 
+					(header.getInt(4) != VERSION)) {
+				throw new IOException("not a valid archive");
+			}
+			
+			taskCount = header.getInt(8);
+			rowCount = header.getInt(12);
+			minimum = header.getLong(16);
+			maximum = header.getLong(24);
+			
+			long rowOffsetsPosition = header.getLong(32);
+			long recordsPosition = header.getLong(40);
+			long maxEndsPosition = header.getLong(48);
+			long textPosition = header.getLong(56);
+			int segmentCount = (taskCount + SEGMENT_MASK) >>> SEGMENT_SHIFT;
+			
+			rowOffsets = channel.map(FileChannel.MapMode.READ_ONLY, 
+					rowOffsetsPosition, 4L*(rowCount + 1));
+			records = new MappedByteBuffer[segmentCount];
+			maxEnds = new MappedByteBuffer[segmentCount];
+			
+			for (int i = 0; i < segmentCount; i++) {
+				long first = (long)i << SEGMENT_SHIFT;
+				long count = Math.min(taskCount - first, SEGMENT_MASK + 1L);
+				
+				records[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+						recordsPosition + RECORD_SIZE*first, 
+						RECORD_SIZE*count);
+				maxEnds[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+						maxEndsPosition + 8*first, 8*count);
+			}
+			
+			long textLength = channel.size() - textPosition;
+			texts = new MappedByteBuffer[(int)((textLength + TEXT_MASK) >>> 
+					TEXT_SHIFT)];
+			
+			for (int i = 0; i < texts.length; i++) {
+				long first = (long)i << TEXT_SHIFT;
+				long length = Math.min(textLength - first, 
+						TEXT_MASK + 1 + MAXIMUM_TEXT_LENGTH + 2);
+				
+				texts[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+						textPosition + first, length);
+			}
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		} catch (RuntimeException e) {
+			file.close();
+			throw e;
+		}
+		
+		translator = new MappedTranslator(this);
+	}
+	
+	/**
+	 * Returns the translator for reading the tasks in this model.
+	 * 
+	 * @return the translator for reading the tasks in this model
+	 */
+	public MappedTranslator getTranslator() {
+		return translator;
+	}
+	
+	/**
+	 * Closes the archive file.  The mapped data remains readable until the
+	 * mappings are reclaimed by the garbage collector.
+	 * 
+	 * @throws IOException if an I/O error occurred
+	 */
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+	@Override
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	@Override
+	public int getTaskCount() {
+		return taskCount;
+	}
+
+	@Override
+	public Object getTaskAt(int index) {
+		return Integer.valueOf(index);
+	}
+	
+	/**
+	 * {@inheritDoc}  Since each task object is its boxed position, the index
+	 * is found in constant time.
+	 */
+	@Override
+	public int indexOf(Object task) {
+		if (task instanceof Integer) {
+			int id = ((Integer)task).intValue();
+			
+			if ((id >= 0) && (id < taskCount)) {
+				return id;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Returns {@code true}, since {@code indexOf} and {@code contains} run 
+	 * in constant time.
+	 * 
+	 * @return {@code true}
+	 */
+	@Override
+	public boolean isIndexed() {
+		return true;
+	}
+	
+	/**
+	 * Returns {@code true}, since the range of the tasks is stored in the
+	 * archive.
+	 * 
+	 * @return {@code true}
+	 */
+	@Override
+	public boolean isRangeKnown() {
+		return true;
+	}
+	
+	/**
+	 * Returns the minimum start value of all tasks; or {@code 0} if the 
+	 * archive contains no tasks.
+	 * 
+	 * @return the minimum start value of all tasks; or {@code 0} if the 
+	 *         archive contains no tasks
+	 */
+	@Override
+	public long getMinimum() {
+		return minimum;
+	}
+	
+	/**
+	 * Returns the maximum end value of all tasks; or {@code 0} if the archive
+	 * contains no tasks.
+	 * 
+	 * @return the maximum end value of all tasks; or {@code 0} if the archive
+	 *         contains no tasks
+	 */
+	@Override
+	public long getMaximum() {
+		return maximum;
+	}
+	
+	/**
+	 * Returns the id of the specified task object.
+	 * 
+	 * @param task the task object
+	 * @return the id of the specified task object
+	 */
+	public int getId(Object task) {
+		return ((Integer)task).intValue();
+	}
+	
+	/**
+	 * Returns the start value of the specified task.
+	 * 
+	 * @param id the id of the task
+	 * @return the start value of the specified task
+	 */
+	public long getStart(int id) {
+		return records[id >>> SEGMENT_SHIFT].getLong(
+				(id & SEGMENT_MASK)*RECORD_SIZE);
+	}
+	
+	/**
+	 * Returns the end value of the specified task.
+	 * 
+	 * @param id the id of the task
+	 * @return the end value of the specified task
+	 */
+	public long getEnd(int id) {
+		return records[id >>> SEGMENT_SHIFT].getLong(
+				(id & SEGMENT_MASK)*RECORD_SIZE + 8);
+	}
+	
+	/**
+	 * Returns the row of the specified task.
+	 * 
+	 * @param id the id of the task
+	 * @return the row of the specified task
+	 */
+	public int getRow(int id) {
+		return records[id >>> SEGMENT_SHIFT].getInt(
+				(id & SEGMENT_MASK)*RECORD_SIZE + 16);
+	}
+	
+	/**
+	 * Returns the display text of the specified task.
+	 * 
+	 * @param id the id of the task
+	 * @return the display text of the specified task
+	 */
+	public String getText(int id) {
+		long offset = records[id >>> SEGMENT_SHIFT].getInt(
+				(id & SEGMENT_MASK)*RECORD_SIZE + 20) & 0xFFFFFFFFL;
+		ByteBuffer segment = texts[(int)(offset >>> TEXT_SHIFT)];
+		int position = (int)(offset & TEXT_MASK);
+		byte[] bytes = new byte[segment.getShort(position) & 0xFFFF];
+		
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = segment.get(position + 2 + i);
+		}
+		
+		return new String(bytes, UTF8);
+	}
+	
+	/**
+	 * Returns the maximum end value of the specified task and all tasks
+	 * preceding it in the same row.
+	 * 
+	 * @param id the id of the task
+	 * @return the maximum end value of the specified task and all tasks 
+	 *         preceding it in the same row
+	 */
+	long getMaxEnd(int id) {
+		return maxEnds[id >>> SEGMENT_SHIFT].getLong((id & SEGMENT_MASK)*8);
+	}
+	
+	/**
+	 * Returns the id of the first task in the specified row; or, if 
+	 * {@code row} equals the number of rows, the number of tasks.
+	 * 
+	 * @param row the row
+	 * @return the id of the first task in the specified row
+	 */
+	int getRowOffset(int row) {
+		return rowOffsets.getInt(4*row);
+	}
+
+	@Override
+	public TaskIndex createTaskIndex(Translator translator) {
+		if (translator == this.translator) {
+			return new MappedTaskIndex(this);
+		} else {
+			return super.createTaskIndex(translator);
+		}
+	}
+	
+	/**
+	 * Writes the tasks in the specified model to an archive file.  Tasks 
+	 * located outside the rows of the model are not written, and text longer
+	 * than 65535 bytes when encoded is truncated at the last character which
+	 * fits.  Sorting the tasks requires
+	 * a {@link TaskIndex} over the model, so writing uses heap proportional 
+	 * to the number of tasks even though reading the archive does not.
+	 * 
+	 * @param archive the archive file
+	 * @param model the Gantt model storing the tasks
+	 * @param translator the translator used to read the tasks in the model
+	 * @throws IOException if an I/O error occurred
+	 */
+	public static void write(File archive, GanttModel model, 
+			Translator translator) throws IOException {
+		TaskIndex index = new TaskIndex(model, translator);
+		int rowCount = index.getRowCount();
+		int taskCount = (rowCount == 0) ? 0 : 
+				index.getLastPosition(rowCount - 1);
+		long rowOffsetsPosition = HEADER_SIZE;
+		long recordsPosition = rowOffsetsPosition + 4L*(rowCount + 1);
+		long maxEndsPosition = recordsPosition + (long)RECORD_SIZE*taskCount;
+		long textPosition = maxEndsPosition + 8L*taskCount;
+		long minimum = Long.MAX_VALUE;
+		long maximum = Long.MIN_VALUE;
+		
+		ByteArrayOutputStream text = new ByteArrayOutputStream();
+		Map<String, Integer> textOffsets = new HashMap<String, Integer>();
+		DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(archive)));
+		
+		try {
+			output.write(new byte[HEADER_SIZE]);
+			
+			for (int row = 0; row <= rowCount; row++) {
+				output.writeInt((row < rowCount) ? 
+						index.getFirstPosition(row) : taskCount);
+			}
+			
+			for (int row = 0; row < rowCount; row++) {
+				for (int i = index.getFirstPosition(row); 
+						i < index.getLastPosition(row); i++) {
+					Object task = model.getTaskAt(index.getIndexAt(i));
+					String string = translator.getText(task);
+					Integer offset = textOffsets.get(string);
+					
+					if (offset == null) {
+						offset = text.size();
+						textOffsets.put(string, offset);
+						writeText(text, string);
+					}
+					
+					output.writeLong(index.getStartAt(i));
+					output.writeLong(index.getEndAt(i));
+					output.writeInt(row);
+					output.writeInt(offset);
+					minimum = Math.min(minimum, index.getStartAt(i));
+					maximum = Math.max(maximum, index.getEndAt(i));
+				}
+			}
+			
+			for (int row = 0; row < rowCount; row++) {
+				long maxEnd = Long.MIN_VALUE;
+				
+				for (int i = index.getFirstPosition(row); 
+						i < index.getLastPosition(row); i++) {
+					maxEnd = Math.max(maxEnd, index.getEndAt(i));
+					output.writeLong(maxEnd);
+				}
+			}
+			
+			text.writeTo(output);
+		} finally {
+			output.close();
+		}
+		
+		if (taskCount == 0) {
+			minimum = 0;
+			maximum = 0;
+		}
+		
+		RandomAccessFile file = new RandomAccessFile(archive, "rw");
+		
+		try {
+			file.writeInt(MAGIC);
+			file.writeInt(VERSION);
+			file.writeInt(taskCount);
+			file.writeInt(rowCount);
+			file.writeLong(minimum);
+			file.writeLong(maximum);
+			file.writeLong(rowOffsetsPosition);
+			file.writeLong(recordsPosition);
+			file.writeLong(maxEndsPosition);
+			file.writeLong(textPosition);
+		} finally {
+			file.close();
+		}
+	}
+	
+	/**
+	 * Appends the encoded text, preceded by its length, to the text section.
+	 * Text exceeding the maximum length is truncated before the first byte 
+	 * of the character crossing the limit, so no partial character is 
+	 * written.
+	 * 
+	 * @param text the text section
+	 * @param string the text
+	 */
+	private static void writeText(ByteArrayOutputStream text, String string) {
+		byte[] bytes = (string == null) ? new byte[0] : string.getBytes(UTF8);
+		int length = Math.min(bytes.length, MAXIMUM_TEXT_LENGTH);
+		
+		//back up over the continuation bytes of a truncated character
+		while ((length < bytes.length) && (length > 0) && 
+				((bytes[length] & 0xC0) == 0x80)) {
+			length--;
+		}
+		
+		text.write(length >>> 8);
+		text.write(length);
+		text.write(bytes, 0, length);
+	}
+	
+	/**
+	 * {@link TaskIndex} reading the sorted records of an archive directly 
+	 * rather than building arrays on the heap.  Since the archive is 
+	 * read-only, the index is always valid.
+	 */
+	private static class MappedTaskIndex extends TaskIndex {
+		
+		/**
+		 * The model storing the indexed tasks.
+		 */
+		private final MappedGanttModel model;
+		
+		/**
+		 * Class constructor for an index over the records in the specified
+		 * model.
+		 * 
+		 * @param model the model storing the indexed tasks
+		 */
+		public MappedTaskIndex(MappedGanttModel model) {
+			super(model, model.getTranslator());
+			this.model = model;
+		}
+
+		@Override
+		public void invalidate() {
+			//do nothing, the archive is read-only
+		}
+
+		@Override
+		public boolean isValid() {
+			return true;
+		}
+
+		@Override
+		public int getRowCount() {
+			return model.getRowCount();
+		}
+
+		@Override
+		public int getFirstPosition(int row) {
+			return model.getRowOffset(row);
+		}
+
+		@Override
+		public int getLastPosition(int row) {
+			return model.getRowOffset(row + 1);
+		}
+
+		@Override
+		public int getTaskCount() {
+			return model.getTaskCount();
+		}
+
+		@Override
+		public int getIndexedRow(int index) {
+			return model.getRow(index);
+		}
+
+		@Override
+		public void update(int index) {
+			//do nothing, the archive is read-only
+		}
+
+		@Override
+		public int getIndexAt(int position) {
+			return position;
+		}
+
+		@Override
+		public long getStartAt(int position) {
+			return model.getStart(position);
+		}
+
+		@Override
+		public long getEndAt(int position) {
+			return model.getEnd(position);
+		}
+
+		@Override
+		public void query(int firstRow, int lastRow, long start, long end,
+				IntList result) {
+			firstRow = Math.max(firstRow, 0);
+			lastRow = Math.min(lastRow, model.getRowCount() - 1);
+			
+			for (int row = firstRow; row <= lastRow; row++) {
+				int from = model.getRowOffset(row);
+				int to = model.getRowOffset(row + 1);
+				
+				//skip tasks starting after the end of the range
+				int low = from;
+				int high = to;
+				
+				while (low < high) {
+					int mid = (low + high) >>> 1;
+					
+					if (model.getStart(mid) <= end) {
+						low = mid + 1;
+					} else {
+						high = mid;
+					}
+				}
+				
+				int last = low;
+				
+				//skip tasks where all preceding tasks end prior to the range
+				low = from;
+				high = last;
+				
+				while (low < high) {
+					int mid = (low + high) >>> 1;
+					
+					if (model.getMaxEnd(mid) < start) {
+						low = mid + 1;
+					} else {
+						high = mid;
+					}
+				}
+				
+				for (int i = low; i < last; i++) {
+					if (model.getEnd(i) >= start) {
+						result.add(i);
+					}
+				}
+			}
+		}
+		
+	}
+
+}
@@ -0,0 +1,119 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+/**
+ * Read-only {@link Translator} for the tasks stored in a 
+ * {@link MappedGanttModel}, where each task object is the boxed id of the 
+ * task.
+ */
+public class MappedTranslator extends Translator {
+	
+	/**
+	 * The model storing the tasks.
+	 */
+	private final MappedGanttModel model;
+	
+	/**
+	 * Class constructor for a translator for the tasks stored in the 
+	 * specified mapped Gantt model.
+	 * 
+	 * @param model the model storing the tasks
+	 */
+	public MappedTranslator(MappedGanttModel model) {
+		super();
+		this.model = model;
+	}
+	
+	/**
+	 * Returns the model storing the tasks.
+	 * 
+	 * @return the model storing the tasks
+	 */
+	public MappedGanttModel getModel() {
+		return model;
+	}
+
+	@Override
+	public int getRow(Object task) {
+		return model.getRow(model.getId(task));
+	}
+
+	@Override
+	public long getStart(Object task) {
+		return model.getStart(model.getId(task));
+	}
+
+	@Override
+	public long getEnd(Object task) {
+		return model.getEnd(model.getId(task));
+	}
+
+	@Override
+	public String getText(Object task) {
+		return model.getText(model.getId(task));
+	}
+	
+	/**
+	 * Returns {@code true} if the values of the tasks in the specified model
+	 * may be copied directly from the model storing the tasks; {@code false}
+	 * otherwise.  Subclasses may override how individual values are read, so
+	 * values are only copied directly by this class.
+	 * 
+	 * @param model the Gantt model containing the tasks
+	 * @return {@code true} if the values of the tasks in the specified model
+	 *         may be copied directly; {@code false} otherwise
+	 */
+	private boolean isDirect(GanttModel model) {
+		return (model == this.model) && (getClass() == MappedTranslator.class);
+	}
+	
+	@Override
+	public void getRows(GanttModel model, int from, int to, int[] rows) {
+		if (isDirect(model)) {
+			for (int i = from; i < to; i++) {
+				rows[i - from] = this.model.getRow(i);
+			}
+		} else {
+			super.getRows(model, from, to, rows);
+		}
+	}
+	
+	@Override
+	public void getStarts(GanttModel model, int from, int to, long[] starts) {
+		if (isDirect(model)) {
+			for (int i = from; i < to; i++) {
+				starts[i - from] = this.model.getStart(i);
+			}
+		} else {
+			super.getStarts(model, from, to, starts);
+		}
+	}
+	
+	@Override
+	public void getEnds(GanttModel model, int from, int to, long[] ends) {
+		if (isDirect(model)) {
+			for (int i = from; i < to; i++) {
+				ends[i - from] = this.model.getEnd(i);
+			}
+		} else {
+			super.getEnds(model, from, to, ends);
+		}
+	}
+
+}
@@ -0,0 +1,560 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * {@link GanttModel} which lazily fetches tasks from a {@link TaskSource} in
+ * pages of consecutive rows.  Only the pages containing rows near the area 
+ * painted by the {@link GanttChart} are fetched, and at most a fixed number
+ * of pages are held in memory, discarding the least recently used pages 
+ * first.  When the chart scrolls, the pages following the painted rows in 
+ * the direction of scrolling are prefetched.
+ * <p>
+ * Pages are fetched on a background thread and installed on the event 
+ * dispatch thread, firing a {@link GanttModelEvent} for the rows of the 
+ * page.  Until a row is loaded, {@link #isRowLoaded(int)} returns 
+ * {@code false} and {@link BasicRowRenderer} draws a placeholder.  This model
+ * must only be accessed from the event dispatch thread.
+ * <p>
+ * The tasks in this model are only those in the loaded pages, so the range 
+ * the chart computes from the tasks changes as pages are loaded.  Use
+ * {@link GanttChart#setFixedRange(long, long)} to keep a stable range.
+ */
+public class PagedGanttModel extends GanttModel {
+	
+	/**
+	 * The default number of rows in each page.
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 100;
+	
+	/**
+	 * The default maximum number of pages held in memory.
+	 */
+	public static final int DEFAULT_MAXIMUM_PAGES = 32;
+	
+	/**
+	 * The source of tasks.
+	 */
+	private final TaskSource source;
+	
+	/**
+	 * The executor used to fetch pages from the source.
+	 */
+	private final Executor executor;
+	
+	/**
+	 * The number of rows in each page.
+	 */
+	private final int pageSize;
+	
+	/**
+	 * The maximum number of pages held in memory.
+	 */
+	private int maximumPages;
+	
+	/**
+	 * The number of pages prefetched in the direction of scrolling.
+	 */
+	private int prefetchPages;
+	
+	/**
+	 * The number of rows provided by the source.
+	 */
+	private int rowCount;
+	
+	/**
+	 * The loaded pages, keyed by page number, in least recently used order.
+	 */
+	private final LinkedHashMap<Integer, List<?>> pages;
+	
+	/**
+	 * The page numbers of the pages currently being fetched.
+	 */
+	private final Set<Integer> pendingPages;
+	
+	/**
+	 * The tasks in all loaded pages, ordered by page number.
+	 */
+	private final List<Object> tasks;
+	
+	/**
+	 * Incremented whenever the loaded pages are discarded, so pages fetched 
+	 * prior to the discard are ignored.
+	 */
+	private int generation;
+	
+	/**
+	 * The first row of the most recent request, used to determine the 
+	 * direction of scrolling.
+	 */
+	private int lastFirstRow;
+	
+	/**
+	 * The number of requested pages that were loaded.
+	 */
+	private long hitCount;
+	
+	/**
+	 * The number of requested pages that were not loaded.
+	 */
+	private long missCount;
+	
+	/**
+	 * The number of pages fetched from the source.
+	 */
+	private long loadCount;
+	
+	/**
+	 * The total time, in nanoseconds, between requesting and installing the
+	 * fetched pages.
+	 */
+	private long totalLatency;
+	
+	/**
+	 * The maximum time, in nanoseconds, between requesting and installing a
+	 * fetched page.
+	 */
+	private long maximumLatency;
+	
+	/**
+	 * Class constructor for a paged Gantt model fetching tasks from the 
+	 * specified source using the default page size and cache size.  Pages are
+	 * fetched on a single background thread.
+	 * 
+	 * @param source the source of tasks
+	 */
+	public PagedGanttModel(TaskSource source) {
+		this(source, DEFAULT_PAGE_SIZE, DEFAULT_MAXIMUM_PAGES, 
+				Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, 
+								"PagedGanttModel loader");
+						thread.setDaemon(true);
+						return thread;
+					}
+					
+				}));
+	}
+	
+	/**
+	 * Class constructor for a paged Gantt model fetching tasks from the 
+	 * specified source.  The maximum number of pages should exceed the 
+	 * number of pages visible at once plus twice the number of prefetched
+	 * pages, otherwise visible pages may be discarded and fetched repeatedly.
+	 * 
+	 * @param source the source of tasks
+	 * @param pageSize the number of rows in each page
+	 * @param maximumPages the maximum number of pages held in memory
+	 * @param executor the executor used to fetch pages from the source
+	 * @throws IllegalArgumentException if {@code pageSize} or 
+	 *         {@code maximumPages} is not positive
+	 */
+	public PagedGanttModel(TaskSource source, int pageSize, int maximumPages,
+			Executor executor) {
+		super();
+		
+		if ((pageSize <= 0) || (maximumPages <= 0)) {
+			throw new IllegalArgumentException(
+					"page size and maximum pages must be positive");
+		}
+		
+		this.source = source;
+		this.pageSize = pageSize;
+		this.maximumPages = maximumPages;
+		this.executor = executor;
+		
+		prefetchPages = 1;
+		rowCount = source.getRowCount();
+		pages = new LinkedHashMap<Integer, List<?>>(16, 0.75f, true);
+		pendingPages = new HashSet<Integer>();
+		tasks = new ArrayList<Object>();
+	}
+
+	@Override
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	@Override
+	public int getTaskCount() {
+		return tasks.size();
+	}
+
+	@Override
+	public Object getTaskAt(int index) {
+		return tasks.get(index);
+	}
+	
+	/**
+	 * Returns {@code true} if the tasks in the specified row are loaded; 
+	 * {@code false} if the row is not loaded or is currently being fetched.
+	 * 
+	 * @param row the row
+	 * @return {@code true} if the tasks in the specified row are loaded; 
+	 *         {@code false} otherwise
+	 */
+	@Override
+	public boolean isRowLoaded(int row) {
+		return pages.containsKey(row / pageSize);
+	}
+	
+	/**
+	 * Returns the number of rows in each page.
+	 * 
+	 * @return the number of rows in each page
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+	
+	/**
+	 * Returns the maximum number of pages held in memory.
+	 * 
+	 * @return the maximum number of pages held in memory
+	 */
+	public int getMaximumPages() {
+		return maximumPages;
+	}
+	
+	/**
+	 * Sets the maximum number of pages held in memory, discarding the least
+	 * recently used pages if necessary.
+	 * 
+	 * @param maximumPages the maximum number of pages held in memory
+	 * @throws IllegalArgumentException if {@code maximumPages} is not 
+	 *         positive
+	 */
+	public void setMaximumPages(int maximumPages) {
+		if (maximumPages <= 0) {
+			throw new IllegalArgumentException(
+					"maximum pages must be positive");
+		}
+		
+		this.maximumPages = maximumPages;
+		evict();
+	}
+	
+	/**
+	 * Returns the number of pages prefetched in the direction of scrolling.
+	 * 
+	 * @return the number of pages prefetched in the direction of scrolling
+	 */
+	public int getPrefetchPages() {
+		return prefetchPages;
+	}
+	
+	/**
+	 * Sets the number of pages prefetched in the direction of scrolling.
+	 * 
+	 * @param prefetchPages the number of pages prefetched in the direction
+	 *        of scrolling
+	 */
+	public void setPrefetchPages(int prefetchPages) {
+		this.prefetchPages = Math.max(prefetchPages, 0);
+	}
+	
+	/**
+	 * Returns the number of requested pages that were already loaded.
+	 * 
+	 * @return the number of requested pages that were already loaded
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+	
+	/**
+	 * Returns the number of requested pages that were neither loaded nor 
+	 * already being fetched.
+	 * 
+	 * @return the number of requested pages that were neither loaded nor 
+	 *         already being fetched
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+	
+	/**
+	 * Returns the number of pages fetched from the source, including 
+	 * prefetched pages.
+	 * 
+	 * @return the number of pages fetched from the source
+	 */
+	public long getLoadCount() {
+		return loadCount;
+	}
+	
+	/**
+	 * Returns the average time, in milliseconds, between requesting a page and
+	 * installing the fetched page; or {@code 0} if no pages were fetched.
+	 * 
+	 * @return the average time, in milliseconds, between requesting a page and
+	 *         installing the fetched page
+	 */
+	public double getAverageLatency() {
+		return (loadCount == 0) ? 0.0 : totalLatency / (loadCount * 1e6);
+	}
+	
+	/**
+	 * Returns the maximum time, in milliseconds, between requesting a page and
+	 * installing the fetched page.
+	 * 
+	 * @return the maximum time, in milliseconds, between requesting a page and
+	 *         installing the fetched page
+	 */
+	public double getMaximumLatency() {
+		return maximumLatency / 1e6;
+	}
+	
+	/**
+	 * Resets the page hit, miss, load and latency counters.
+	 */
+	public void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+		loadCount = 0;
+		totalLatency = 0;
+		maximumLatency = 0;
+	}
+	
+	/**
+	 * Discards all loaded pages and rereads the number of rows from the 
+	 * source.  Pages are fetched again when next requested.
+	 */
+	public void reload() {
+		generation++;
+		pages.clear();
+		pendingPages.clear();
+		tasks.clear();
+		rowCount = source.getRowCount();
+		fireGanttModelChanged();
+	}
+	
+	/**
+	 * Requests the tasks in the rows {@code firstRow} through {@code lastRow},
+	 * inclusive.  Pages not already loaded are fetched in the background, 
+	 * followed by the pages adjacent to these rows in the direction of 
+	 * scrolling.  This method is invoked by the {@link TaskIndex} of the
+	 * chart whenever it is queried.
+	 * 
+	 * @param firstRow the first row
+	 * @param lastRow the last row
+	 */
+	public void requestRows(int firstRow, int lastRow) {
+		firstRow = Math.max(firstRow, 0);
+		lastRow = Math.min(lastRow, rowCount - 1);
+		
+		if (firstRow > lastRow) {
+			return;
+		}
+		
+		int firstPage = firstRow / pageSize;
+		int lastPage = lastRow / pageSize;
+		int pageCount = (rowCount + pageSize - 1) / pageSize;
+		
+		for (int page = firstPage; page <= lastPage; page++) {
+			if (pages.get(page) != null) {
+				hitCount++;
+			} else if (load(page)) {
+				missCount++;
+			}
+		}
+		
+		if (firstRow > lastFirstRow) {
+			for (int i = 1; i <= prefetchPages; i++) {
+				if ((lastPage + i < pageCount) && 
+						!pages.containsKey(lastPage + i)) {
+					load(lastPage + i);
+				}
+			}
+		} else if (firstRow < lastFirstRow) {
+			for (int i = 1; i <= prefetchPages; i++) {
+				if ((firstPage - i >= 0) && 
+						!pages.containsKey(firstPage - i)) {
+					load(firstPage - i);
+				}
+			}
+		}
+		
+		lastFirstRow = firstRow;
+	}
+	
+	/**
+	 * Fetches the specified page in the background, unless it is already
+	 * being fetched.
+	 * 
+	 * @param page the page number
+	 * @return {@code true} if the page is being fetched; {@code false} if the
+	 *         page was already being fetched
+	 */
+	private boolean load(final int page) {
+		if (!pendingPages.add(page)) {
+			return false;
+		}
+		
+		final int requestGeneration = generation;
+		final long requestTime = System.nanoTime();
+		final int firstRow = page * pageSize;
+		final int lastRow = Math.min(firstRow + pageSize, rowCount) - 1;
+		
+		executor.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				List<?> result = null;
+				
+				try {
+					result = source.getTasks(firstRow, lastRow);
+				} finally {
+					final List<?> pageTasks = result;
+					
+					SwingUtilities.invokeLater(new Runnable() {
+
+						@Override
+						public void run() {
+							install(page, requestGeneration, requestTime, 
+									pageTasks);
+						}
+						
+					});
+				}
+			}
+			
+		});
+		
+		return true;
+	}
+	
+	/**
+	 * Installs a fetched page, discarding the least recently used pages if 
+	 * necessary.  Pages fetched prior to a call to {@link #reload()} are
+	 * ignored.
+	 * 
+	 * @param page the page number
+	 * @param requestGeneration the generation when the page was requested
+	 * @param requestTime the time, in nanoseconds, when the page was 
+	 *        requested
+	 * @param pageTasks the tasks in the page; or {@code null} if fetching the 
+	 *        page failed
+	 */
+	private void install(int page, int requestGeneration, long requestTime,
+			List<?> pageTasks) {
+		if (requestGeneration != generation) {
+			return;
+		}
+		
+		pendingPages.remove(page);
+		
+		if (pageTasks == null) {
+			return;
+		}
+		
+		long latency = System.nanoTime() - requestTime;
+		loadCount++;
+		totalLatency += latency;
+		maximumLatency = Math.max(maximumLatency, latency);
+		
+		pages.put(page, pageTasks);
+		rebuildTasks();
+		fireTasksInserted(pageTasks, page * pageSize, 
+				Math.min((page + 1) * pageSize, rowCount) - 1);
+		evict();
+	}
+	
+	/**
+	 * Discards the least recently used pages until no more than the maximum
+	 * number of pages remain.
+	 */
+	private void evict() {
+		while (pages.size() > maximumPages) {
+			int page = pages.keySet().iterator().next();
+			List<?> pageTasks = pages.remove(page);
+			
+			rebuildTasks();
+			fireTasksRemoved(pageTasks, page * pageSize, 
+					Math.min((page + 1) * pageSize, rowCount) - 1);
+		}
+	}
+	
+	/**
+	 * Rebuilds the list of tasks in all loaded pages, ordered by page number.
+	 */
+	private void rebuildTasks() {
+		tasks.clear();
+		
+		//copying the entries avoids reordering the least recently used pages
+		Map<Integer, List<?>> sortedPages = new TreeMap<Integer, List<?>>(pages);
+		
+		for (List<?> pageTasks : sortedPages.values()) {
+			tasks.addAll(pageTasks);
+		}
+	}
+
+	@Override
+	public TaskIndex createTaskIndex(Translator translator) {
+		return new PagedTaskIndex(this, translator);
+	}
+	
+	/**
+	 * {@link TaskIndex} over the loaded tasks which requests the pages 
+	 * containing the queried rows.
+	 */
+	private static class PagedTaskIndex extends TaskIndex {
+		
+		/**
+		 * The model storing the indexed tasks.
+		 */
+		private final PagedGanttModel model;
+		
+		/**
+		 * Class constructor for an index over the loaded tasks in the 
+		 * specified model.
+		 * 
+		 * @param model the model storing the indexed tasks
+		 * @param translator the {@code Translator} used to extract the row, 
+		 *        start and end values of the indexed tasks
+		 */
+		public PagedTaskIndex(PagedGanttModel model, Translator translator) {
+			super(model, translator);
+			this.model = model;
+		}
+
+		@Override
+		public void query(int firstRow, int lastRow, long start, long end,
+				IntList result) {
+			model.requestRows(firstRow, lastRow);
+			super.query(firstRow, lastRow, start, end, result);
+		}
+		
+	}
+
+}
@@ -0,0 +1,179 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * {@link GanttModel} where each task is placed on a separate row, backed by a
+ * {@link PersistentTaskList}.  Taking a snapshot of this model with 
+ * {@link #getSnapshot()} takes constant time, and each edit takes 
+ * logarithmic time and space while sharing the remaining structure with 
+ * prior snapshots.  Snapshots may be retained to undo changes, analyzed on 
+ * background threads, or compared against alternative schedules, and 
+ * reinstated with {@link #restore(PersistentTaskList)}.
+ * <p>
+ * Tasks should be immutable, since a snapshot shares the task objects with 
+ * this model.  Use {@link #replaceTask(int, Object)} to change a task.
+ */
+public class PersistentGanttModel extends GanttModel {
+	
+	/**
+	 * The current tasks.
+	 */
+	private PersistentTaskList tasks;
+	
+	/**
+	 * Class constructor for an empty persistent Gantt model.
+	 */
+	public PersistentGanttModel() {
+		this(PersistentTaskList.empty());
+	}
+	
+	/**
+	 * Class constructor for a persistent Gantt model containing the specified
+	 * tasks.
+	 * 
+	 * @param tasks the tasks contained within this Gantt model
+	 */
+	public PersistentGanttModel(Collection<?> tasks) {
+		this(PersistentTaskList.of(tasks));
+	}
+	
+	/**
+	 * Class constructor for a persistent Gantt model containing the tasks in
+	 * the specified snapshot.
+	 * 
+	 * @param tasks the snapshot of the tasks contained within this Gantt 
+	 *        model
+	 */
+	public PersistentGanttModel(PersistentTaskList tasks) {
+		super();
+		this.tasks = tasks;
+	}
+
+	@Override
+	public int getRowCount() {
+		return tasks.size();
+	}
+
+	@Override
+	public int getTaskCount() {
+		return tasks.size();
+	}
+
+	@Override
+	public Object getTaskAt(int index) {
+		return tasks.get(index);
+	}
+	
+	/**
+	 * Returns an immutable snapshot of the current tasks in constant time.
+	 * 
+	 * @return an immutable snapshot of the current tasks
+	 */
+	public PersistentTaskList getSnapshot() {
+		return tasks;
+	}
+	
+	/**
+	 * Replaces the current tasks with those in the specified snapshot in 
+	 * constant time.
+	 * 
+	 * @param snapshot the snapshot
+	 */
+	public void restore(PersistentTaskList snapshot) {
+		if (snapshot == tasks) {
+			return;
+		}
+		
+		int oldSize = tasks.size();
+		tasks = snapshot;
+		fireGanttModelChanged(0, Math.max(oldSize, tasks.size()) - 1);
+	}
+	
+	/**
+	 * {@inheritDoc}  The task is placed on the last row.
+	 */
+	@Override
+	public void addTask(Object task) {
+		insertTask(tasks.size(), task);
+	}
+	
+	/**
+	 * Inserts a task at the specified row, shifting the tasks on that row and
+	 * all following rows down by one row.
+	 * 
+	 * @param row the row of the new task
+	 * @param task the new task
+	 * @throws IndexOutOfBoundsException if {@code row < 0} or 
+	 *         {@code row > getRowCount()}
+	 */
+	public void insertTask(int row, Object task) {
+		tasks = tasks.insert(row, task);
+		fireTasksInserted(Collections.singleton(task), row, tasks.size() - 1);
+	}
+	
+	/**
+	 * {@inheritDoc}  The tasks on all following rows are shifted up by one
+	 * row.  Locating the task takes linear time; use 
+	 * {@link #removeTask(int)} when the row is known.
+	 */
+	@Override
+	public void removeTask(Object task) {
+		int row = tasks.indexOf(task);
+		
+		if (row >= 0) {
+			removeTask(row);
+		}
+	}
+	
+	/**
+	 * Removes the task on the specified row, shifting the tasks on all 
+	 * following rows up by one row.
+	 * 
+	 * @param row the row of the task to remove
+	 * @throws IndexOutOfBoundsException if {@code row < 0} or 
+	 *         {@code row >= getRowCount()}
+	 */
+	public void removeTask(int row) {
+		Object task = tasks.get(row);
+		int oldSize = tasks.size();
+		
+		tasks = tasks.delete(row);
+		fireTasksRemoved(Collections.singleton(task), row, oldSize - 1);
+	}
+	
+	/**
+	 * Replaces the task on the specified row with a new task.
+	 * 
+	 * @param row the row of the task to replace
+	 * @param task the new task
+	 * @throws IndexOutOfBoundsException if {@code row < 0} or 
+	 *         {@code row >= getRowCount()}
+	 */
+	public void replaceTask(int row, Object task) {
+		Object oldTask = tasks.get(row);
+		
+		tasks = tasks.replace(row, task);
+		fireTasksRemoved(Collections.singleton(oldTask), row, row);
+		fireTasksInserted(Collections.singleton(task), row, row);
+	}
+
+}
@@ -0,0 +1,507 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of tasks supporting efficient modified copies.  Each 
+ * modification returns a new list sharing all but the path to the modified
+ * task with the original list, so modifications take logarithmic time and 
+ * space, and any number of versions may be retained cheaply.  This makes 
+ * these lists suitable for recording the history of a schedule or 
+ * comparing alternative schedules.
+ * <p>
+ * The tasks are stored in a balanced tree whose leaves hold up to 32 tasks
+ * and whose internal nodes record the number of tasks below each child, 
+ * allowing tasks to be inserted and deleted at any position as well as 
+ * replaced or appended.  Adjacent nodes are merged when sparse, so the tree
+ * remains shallow.
+ */
+public final class PersistentTaskList extends AbstractList<Object> 
+implements RandomAccess {
+	
+	/**
+	 * The maximum number of entries in each node.
+	 */
+	private static final int MAXIMUM_WIDTH = 32;
+	
+	/**
+	 * The number of entries below which a node is merged with an adjacent
+	 * node, if the merged node would not exceed the maximum width.
+	 */
+	private static final int MINIMUM_WIDTH = MAXIMUM_WIDTH / 4;
+	
+	/**
+	 * The empty list.
+	 */
+	private static final PersistentTaskList EMPTY = 
+			new PersistentTaskList(null);
+	
+	/**
+	 * The root of the tree storing the tasks; or {@code null} if this list is
+	 * empty.
+	 */
+	private final Node root;
+	
+	/**
+	 * Class constructor for a list of the tasks stored in the specified tree.
+	 * 
+	 * @param root the root of the tree storing the tasks; or {@code null} if
+	 *        the list is empty
+	 */
+	private PersistentTaskList(Node root) {
+		super();
+		this.root = root;
+	}
+	
+	/**
+	 * Returns the empty list.
+	 * 
+	 * @return the empty list
+	 */
+	public static PersistentTaskList empty() {
+		return EMPTY;
+	}
+	
+	/**
+	 * Returns a list containing the specified tasks.  The list is built in 
+	 * linear time.
+	 * 
+	 * @param tasks the tasks
+	 * @return a list containing the specified tasks
+	 */
+	public static PersistentTaskList of(Collection<?> tasks) {
+		if (tasks.isEmpty()) {
+			return EMPTY;
+		}
+		
+		Object[] entries = tasks.toArray();
+		Node[] level = new Node[(entries.length + MAXIMUM_WIDTH - 1) / 
+				MAXIMUM_WIDTH];
+		
+		for (int i = 0; i < level.length; i++) {
+			int from = i*MAXIMUM_WIDTH;
+			int to = Math.min(from + MAXIMUM_WIDTH, entries.length);
+			Object[] leafEntries = new Object[to - from];
+			System.arraycopy(entries, from, leafEntries, 0, to - from);
+			level[i] = new Node(leafEntries, null);
+		}
+		
+		while (level.length > 1) {
+			Node[] parents = new Node[(level.length + MAXIMUM_WIDTH - 1) / 
+					MAXIMUM_WIDTH];
+			
+			for (int i = 0; i < parents.length; i++) {
+				int from = i*MAXIMUM_WIDTH;
+				int to = Math.min(from + MAXIMUM_WIDTH, level.length);
+				Node[] children = new Node[to - from];
+				System.arraycopy(level, from, children, 0, to - from);
+				parents[i] = branch(children);
+			}
+			
+			level = parents;
+		}
+		
+		return new PersistentTaskList(level[0]);
+	}
+
+	@Override
+	public Object get(int index) {
+		checkIndex(index, size() - 1);
+		
+		Node node = root;
+		
+		while (!node.isLeaf()) {
+			int child = node.findChild(index);
+			index -= node.getOffset(child);
+			node = (Node)node.entries[child];
+		}
+		
+		return node.entries[index];
+	}
+
+	@Override
+	public int size() {
+		return (root == null) ? 0 : root.size();
+	}
+	
+	/**
+	 * Returns a list with the specified task appended.
+	 * 
+	 * @param task the task to append
+	 * @return a list with the specified task appended
+	 */
+	public PersistentTaskList append(Object task) {
+		return insert(size(), task);
+	}
+	
+	/**
+	 * Returns a list with the specified task inserted at the specified index,
+	 * shifting the task at that index and all following tasks by one.
+	 * 
+	 * @param index the index at which the task is inserted
+	 * @param task the task to insert
+	 * @return a list with the specified task inserted at the specified index
+	 * @throws IndexOutOfBoundsException if {@code index < 0} or 
+	 *         {@code index > size()}
+	 */
+	public PersistentTaskList insert(int index, Object task) {
+		checkIndex(index, size());
+		
+		if (root == null) {
+			return new PersistentTaskList(new Node(new Object[] { task }, 
+					null));
+		}
+		
+		Node[] result = insert(root, index, task);
+		
+		if (result.length == 1) {
+			return new PersistentTaskList(result[0]);
+		} else {
+			return new PersistentTaskList(branch(result));
+		}
+	}
+	
+	/**
+	 * Returns a list with the task at the specified index replaced.
+	 * 
+	 * @param index the index of the task to replace
+	 * @param task the new task
+	 * @return a list with the task at the specified index replaced
+	 * @throws IndexOutOfBoundsException if {@code index < 0} or 
+	 *         {@code index >= size()}
+	 */
+	public PersistentTaskList replace(int index, Object task) {
+		checkIndex(index, size() - 1);
+		return new PersistentTaskList(replace(root, index, task));
+	}
+	
+	/**
+	 * Returns a list with the task at the specified index deleted, shifting
+	 * all following tasks by one.
+	 * 
+	 * @param index the index of the task to delete
+	 * @return a list with the task at the specified index deleted
+	 * @throws IndexOutOfBoundsException if {@code index < 0} or 
+	 *         {@code index >= size()}
+	 */
+	public PersistentTaskList delete(int index) {
+		checkIndex(index, size() - 1);
+		
+		Node node = delete(root, index);
+		
+		//remove redundant levels from the top of the tree
+		while ((node != null) && !node.isLeaf() && 
+				(node.entries.length == 1)) {
+			node = (Node)node.entries[0];
+		}
+		
+		return (node == null) ? EMPTY : new PersistentTaskList(node);
+	}
+	
+	/**
+	 * Throws an exception if the specified index lies outside the range 
+	 * {@code 0} through {@code maximum}.
+	 * 
+	 * @param index the index
+	 * @param maximum the largest valid index
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	private void checkIndex(int index, int maximum) {
+		if ((index < 0) || (index > maximum)) {
+			throw new IndexOutOfBoundsException("index: " + index + 
+					", size: " + size());
+		}
+	}
+	
+	/**
+	 * Inserts a task below the specified node, returning the replacement 
+	 * node or, if the node overflowed, the two nodes replacing it.
+	 * 
+	 * @param node the node
+	 * @param index the index of the task relative to the node
+	 * @param task the task to insert
+	 * @return the replacement node or nodes
+	 */
+	private static Node[] insert(Node node, int index, Object task) {
+		if (node.isLeaf()) {
+			return split(insert(node.entries, index, task), true);
+		}
+		
+		int child = node.findChild(index);
+		Node[] result = insert((Node)node.entries[child], 
+				index - node.getOffset(child), task);
+		Object[] children = node.entries.clone();
+		children[child] = result[0];
+		
+		if (result.length > 1) {
+			children = insert(children, child + 1, result[1]);
+		}
+		
+		return split(children, false);
+	}
+	
+	/**
+	 * Replaces a task below the specified node, returning the replacement
+	 * node.
+	 * 
+	 * @param node the node
+	 * @param index the index of the task relative to the node
+	 * @param task the new task
+	 * @return the replacement node
+	 */
+	private static Node replace(Node node, int index, Object task) {
+		Object[] entries = node.entries.clone();
+		
+		if (node.isLeaf()) {
+			entries[index] = task;
+		} else {
+			int child = node.findChild(index);
+			entries[child] = replace((Node)entries[child], 
+					index - node.getOffset(child), task);
+		}
+		
+		//the sizes are unchanged and therefore shared
+		return new Node(entries, node.sizes);
+	}
+	
+	/**
+	 * Deletes a task below the specified node, returning the replacement 
+	 * node; or {@code null} if the node is now empty.
+	 * 
+	 * @param node the node
+	 * @param index the index of the task relative to the node
+	 * @return the replacement node; or {@code null} if the node is now empty
+	 */
+	private static Node delete(Node node, int index) {
+		if (node.isLeaf()) {
+			if (node.entries.length == 1) {
+				return null;
+			}
+			
+			return new Node(delete(node.entries, index), null);
+		}
+		
+		int child = node.findChild(index);
+		Node result = delete((Node)node.entries[child], 
+				index - node.getOffset(child));
+		Object[] children;
+		
+		if (result == null) {
+			if (node.entries.length == 1) {
+				return null;
+			}
+			
+			children = delete(node.entries, child);
+		} else {
+			children = node.entries.clone();
+			children[child] = result;
+			
+			if ((result.entries.length < MINIMUM_WIDTH) && 
+					(children.length > 1)) {
+				//merge with the preceding sibling, or the following one
+				int first = (child > 0) ? child - 1 : child;
+				Node left = (Node)children[first];
+				Node right = (Node)children[first + 1];
+				
+				if (left.entries.length + right.entries.length <= 
+						MAXIMUM_WIDTH) {
+					Object[] merged = new Object[left.entries.length + 
+							right.entries.length];
+					System.arraycopy(left.entries, 0, merged, 0, 
+							left.entries.length);
+					System.arraycopy(right.entries, 0, merged, 
+							left.entries.length, right.entries.length);
+					
+					children = delete(children, first + 1);
+					children[first] = left.isLeaf() ? 
+							new Node(merged, null) : branch(merged);
+				}
+			}
+		}
+		
+		return branch(children);
+	}
+	
+	/**
+	 * Returns a node holding the specified entries; or, if there are too many
+	 * entries, two nodes each holding half the entries.
+	 * 
+	 * @param entries the entries
+	 * @param leaf {@code true} if the entries are tasks; {@code false} if 
+	 *        they are child nodes
+	 * @return one or two nodes holding the specified entries
+	 */
+	private static Node[] split(Object[] entries, boolean leaf) {
+		if (entries.length <= MAXIMUM_WIDTH) {
+			return new Node[] { leaf ? new Node(entries, null) : 
+					branch(entries) };
+		}
+		
+		int half = entries.length / 2;
+		Object[] left = new Object[half];
+		Object[] right = new Object[entries.length - half];
+		System.arraycopy(entries, 0, left, 0, left.length);
+		System.arraycopy(entries, half, right, 0, right.length);
+		
+		if (leaf) {
+			return new Node[] { new Node(left, null), new Node(right, null) };
+		} else {
+			return new Node[] { branch(left), branch(right) };
+		}
+	}
+	
+	/**
+	 * Returns an internal node with the specified children.
+	 * 
+	 * @param children the child nodes
+	 * @return an internal node with the specified children
+	 */
+	private static Node branch(Object[] children) {
+		int[] sizes = new int[children.length];
+		int size = 0;
+		
+		for (int i = 0; i < children.length; i++) {
+			size += ((Node)children[i]).size();
+			sizes[i] = size;
+		}
+		
+		return new Node(children, sizes);
+	}
+	
+	/**
+	 * Returns a copy of the specified array with an entry inserted.
+	 * 
+	 * @param entries the array
+	 * @param index the index at which the entry is inserted
+	 * @param entry the entry to insert
+	 * @return a copy of the specified array with an entry inserted
+	 */
+	private static Object[] insert(Object[] entries, int index, Object entry) {
+		Object[] result = new Object[entries.length + 1];
+		System.arraycopy(entries, 0, result, 0, index);
+		result[index] = entry;
+		System.arraycopy(entries, index, result, index + 1, 
+				entries.length - index);
+		return result;
+	}
+	
+	/**
+	 * Returns a copy of the specified array with an entry deleted.
+	 * 
+	 * @param entries the array
+	 * @param index the index of the entry to delete
+	 * @return a copy of the specified array with an entry deleted
+	 */
+	private static Object[] delete(Object[] entries, int index) {
+		Object[] result = new Object[entries.length - 1];
+		System.arraycopy(entries, 0, result, 0, index);
+		System.arraycopy(entries, index + 1, result, index, 
+				entries.length - index - 1);
+		return result;
+	}
+	
+	/**
+	 * Immutable node in the tree storing the tasks.  All leaves are at the 
+	 * same depth.
+	 */
+	private static class Node {
+		
+		/**
+		 * The tasks stored in this leaf node, or the children of this internal
+		 * node.
+		 */
+		private final Object[] entries;
+		
+		/**
+		 * The cumulative number of tasks below each child of this internal 
+		 * node; or {@code null} if this node is a leaf.
+		 */
+		private final int[] sizes;
+		
+		/**
+		 * Class constructor for a node.
+		 * 
+		 * @param entries the tasks stored in this leaf node, or the children
+		 *        of this internal node
+		 * @param sizes the cumulative number of tasks below each child of 
+		 *        this internal node; or {@code null} if this node is a leaf
+		 */
+		public Node(Object[] entries, int[] sizes) {
+			super();
+			this.entries = entries;
+			this.sizes = sizes;
+		}
+		
+		/**
+		 * Returns {@code true} if this node is a leaf; {@code false} 
+		 * otherwise.
+		 * 
+		 * @return {@code true} if this node is a leaf; {@code false} 
+		 *         otherwise
+		 */
+		public boolean isLeaf() {
+			return sizes == null;
+		}
+		
+		/**
+		 * Returns the number of tasks below this node.
+		 * 
+		 * @return the number of tasks below this node
+		 */
+		public int size() {
+			return (sizes == null) ? entries.length : 
+					sizes[sizes.length - 1];
+		}
+		
+		/**
+		 * Returns the child of this internal node containing the task at the 
+		 * specified index, or the last child if the index equals the number 
+		 * of tasks below this node.
+		 * 
+		 * @param index the index of the task relative to this node
+		 * @return the child containing the task at the specified index
+		 */
+		public int findChild(int index) {
+			int child = 0;
+			
+			while ((child < sizes.length - 1) && (index >= sizes[child])) {
+				child++;
+			}
+			
+			return child;
+		}
+		
+		/**
+		 * Returns the number of tasks below the children of this internal 
+		 * node preceding the specified child.
+		 * 
+		 * @param child the child
+		 * @return the number of tasks below the children of this internal 
+		 *         node preceding the specified child
+		 */
+		public int getOffset(int child) {
+			return (child == 0) ? 0 : sizes[child - 1];
+		}
+		
+	}
+
+}
@@ -0,0 +1,777 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Date;
+
+/**
+ * {@link Translator} binding the row, start, end and text of each task to 
+ * properties of the task class, avoiding the need to write a translator for 
+ * each task class.  A property is either a getter method, with an optional 
+ * setter method, or a field.  Start and end properties may be of type 
+ * {@code long}, {@code int}, their wrapper types, or {@link Date}; row 
+ * properties may be of type {@code int}, {@code long} or their wrapper 
+ * types; and text properties may be of any type, with non-{@code String}
+ * values converted using {@link String#valueOf(Object)}.  Properties are 
+ * either named explicitly or marked with the {@link TaskProperty} 
+ * annotation.  If no row property is given, the row of each task is its
+ * index in the Gantt model, which must be indexed so the index is found in 
+ * constant time.
+ * <p>
+ * Properties are resolved once, when the translator is created, into method
+ * handles adapted to the exact signatures of the {@code Translator} methods.
+ * Reading a value therefore involves no reflective lookup, argument boxing 
+ * or access checks.  Properties without a setter, or whose type can not be constructed from 
+ * the value, are read-only.
+ */
+public class PropertyTranslator extends Translator {
+	
+	/**
+	 * Method handle for {@link Date#getTime()}.
+	 */
+	private static final MethodHandle DATE_GET_TIME;
+	
+	/**
+	 * Method handle for the {@link Date#Date(long)} constructor.
+	 */
+	private static final MethodHandle DATE_NEW;
+	
+	/**
+	 * Method handle for {@link String#valueOf(Object)}.
+	 */
+	private static final MethodHandle STRING_VALUE_OF;
+	
+	static {
+		MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+		
+		try {
+			DATE_GET_TIME = lookup.findVirtual(Date.class, "getTime", 
+					MethodType.methodType(long.class));
+			DATE_NEW = lookup.findConstructor(Date.class, 
+					MethodType.methodType(void.class, long.class));
+			STRING_VALUE_OF = lookup.findStatic(String.class, "valueOf", 
+					MethodType.methodType(String.class, Object.class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+	
+	/**
+	 * The Gantt model used to determine the row of each task if no row 
+	 * property is bound; or {@code null} if a row property is bound.
+	 */
+	private final GanttModel model;
+	
+	/**
+	 * Method handle of type {@code (Object)int} reading the row; or 
+	 * {@code null} if no row property is bound.
+	 */
+	private final MethodHandle rowGetter;
+	
+	/**
+	 * Method handle of type {@code (Object,int)void} writing the row; or 
+	 * {@code null} if the row is read-only.
+	 */
+	private final MethodHandle rowSetter;
+	
+	/**
+	 * Method handle of type {@code (Object)long} reading the start value.
+	 */
+	private final MethodHandle startGetter;
+	
+	/**
+	 * Method handle of type {@code (Object,long)void} writing the start 
+	 * value; or {@code null} if the start value is read-only.
+	 */
+	private final MethodHandle startSetter;
+	
+	/**
+	 * Method handle of type {@code (Object)long} reading the end value.
+	 */
+	private final MethodHandle endGetter;
+	
+	/**
+	 * Method handle of type {@code (Object,long)void} writing the end value;
+	 * or {@code null} if the end value is read-only.
+	 */
+	private final MethodHandle endSetter;
+	
+	/**
+	 * Method handle of type {@code (Object)String} reading the display text;
+	 * or {@code null} if no text property is bound.
+	 */
+	private final MethodHandle textGetter;
+	
+	/**
+	 * Method handle of type {@code (Object,String)void} writing the display 
+	 * text; or {@code null} if the display text is read-only.
+	 */
+	private final MethodHandle textSetter;
+	
+	/**
+	 * Returns a translator bound to the named properties of the specified 
+	 * task class, using the index of each task in the specified Gantt model
+	 * as its row.
+	 * 
+	 * @param type the task class
+	 * @param startProperty the name of the start property
+	 * @param endProperty the name of the end property
+	 * @param textProperty the name of the text property; or {@code null} if
+	 *        the display text is the string representation of the task
+	 * @param model the indexed Gantt model containing the tasks
+	 * @return a translator bound to the named properties of the specified 
+	 *         task class
+	 * @throws IllegalArgumentException if a property does not exist or is 
+	 *         of an unsupported type, or if the model is not indexed
+	 * @see GanttModel#isIndexed()
+	 */
+	public static PropertyTranslator forProperties(Class<?> type, 
+			String startProperty, String endProperty, String textProperty, 
+			GanttModel model) {
+		return new PropertyTranslator(model, null, findProperty(type, startProperty), 
+				findProperty(type, endProperty), 
+				findProperty(type, textProperty));
+	}
+	
+	/**
+	 * Returns a translator bound to the named properties of the specified 
+	 * task class.
+	 * 
+	 * @param type the task class
+	 * @param startProperty the name of the start property
+	 * @param endProperty the name of the end property
+	 * @param textProperty the name of the text property; or {@code null} if
+	 *        the display text is the string representation of the task
+	 * @param rowProperty the name of the row property
+	 * @return a translator bound to the named properties of the specified 
+	 *         task class
+	 * @throws IllegalArgumentException if a property does not exist or is 
+	 *         of an unsupported type
+	 */
+	public static PropertyTranslator forProperties(Class<?> type, 
+			String startProperty, String endProperty, String textProperty, 
+			String rowProperty) {
+		return new PropertyTranslator(null, findProperty(type, rowProperty), 
+				findProperty(type, startProperty), 
+				findProperty(type, endProperty), 
+				findProperty(type, textProperty));
+	}
+	
+	/**
+	 * Returns a translator bound to the properties of the specified task 
+	 * class marked with the {@link TaskProperty} annotation.  If no row 
+	 * property is marked, the index of each task in the specified Gantt 
+	 * model is used as its row.
+	 * 
+	 * @param type the task class
+	 * @param model the indexed Gantt model containing the tasks; or 
+	 *        {@code null} if a row property is marked
+	 * @return a translator bound to the marked properties of the specified
+	 *         task class
+	 * @throws IllegalArgumentException if a required property is not marked,
+	 *         a property is marked more than once, a property is of an 
+	 *         unsupported type, or no row property is marked and the model 
+	 *         is not indexed
+	 * @see GanttModel#isIndexed()
+	 */
+	public static PropertyTranslator forAnnotations(Class<?> type, 
+			GanttModel model) {
+		return new PropertyTranslator(model, findProperty(type, TaskProperty.Kind.ROW), 
+				findProperty(type, TaskProperty.Kind.START),
+				findProperty(type, TaskProperty.Kind.END),
+				findProperty(type, TaskProperty.Kind.TEXT));
+	}
+	
+	/**
+	 * Class constructor for a translator bound to the specified properties.
+	 * 
+	 * @param model the Gantt model containing the tasks; or {@code null} if
+	 *        a row property is given
+	 * @param row the row property; or {@code null} if the row of each task is
+	 *        its index in the model
+	 * @param start the start property
+	 * @param end the end property
+	 * @param text the text property; or {@code null} if the display text is 
+	 *        the string representation of the task
+	 * @throws IllegalArgumentException if a required property is missing, a
+	 *         property is of an unsupported type, or the row of each task is
+	 *         its index in a model which is not indexed
+	 */
+	private PropertyTranslator(GanttModel model, Property row, 
+			Property start, Property end, Property text) {
+		super();
+		
+		if ((start == null) || (end == null)) {
+			throw new IllegalArgumentException(
+					"start and end properties are required");
+		}
+		
+		if ((row == null) && (model == null)) {
+			throw new IllegalArgumentException(
+					"a row property or model is required");
+		}
+		
+		if ((row == null) && !model.isIndexed()) {
+			throw new IllegalArgumentException(
+					"a row property or indexed model is required");
+		}
+		
+		this.model = (row == null) ? model : null;
+		
+		if (row == null) {
+			rowGetter = null;
+			rowSetter = null;
+		} else {
+			rowGetter = adaptNumberGetter(row, int.class);
+			rowSetter = adaptNumberSetter(row, int.class);
+		}
+		
+		startGetter = adaptTimeGetter(start);
+		startSetter = adaptTimeSetter(start);
+		endGetter = adaptTimeGetter(end);
+		endSetter = adaptTimeSetter(end);
+		
+		if (text == null) {
+			textGetter = null;
+			textSetter = null;
+		} else {
+			textGetter = adaptTextGetter(text);
+			textSetter = adaptTextSetter(text);
+		}
+	}
+	
+	/**
+	 * A property of a task class, identified by the method handles reading
+	 * and writing its value.
+	 */
+	private static class Property {
+		
+		/**
+		 * The name of the property, used in error messages.
+		 */
+		final String name;
+		
+		/**
+		 * The type of the property.
+		 */
+		final Class<?> type;
+		
+		/**
+		 * Method handle of type {@code (Object)type} reading the property.
+		 */
+		final MethodHandle getter;
+		
+		/**
+		 * Method handle of type {@code (Object,type)void} writing the 
+		 * property; or {@code null} if the property is read-only.
+		 */
+		final MethodHandle setter;
+		
+		/**
+		 * Constructs a property read and written by the specified method 
+		 * handles, whose first parameter may be any reference type.
+		 * 
+		 * @param name the name of the property
+		 * @param getter the method handle reading the property
+		 * @param setter the method handle writing the property; or 
+		 *        {@code null} if the property is read-only
+		 */
+		public Property(String name, MethodHandle getter, 
+				MethodHandle setter) {
+			super();
+			this.name = name;
+			
+			type = getter.type().returnType();
+			this.getter = getter.asType(
+					MethodType.methodType(type, Object.class));
+			this.setter = (setter == null) ? null : setter.asType(
+					MethodType.methodType(void.class, Object.class, type));
+		}
+		
+	}
+	
+	/**
+	 * Returns the named property of the specified class.  The property is 
+	 * a getter method named {@code getName} or {@code isName}, paired with a
+	 * setter method named {@code setName} if one exists; or otherwise a 
+	 * field named {@code name}.
+	 * 
+	 * @param type the class
+	 * @param name the name of the property; or {@code null}
+	 * @return the named property of the specified class; or {@code null} if
+	 *         {@code name} is {@code null}
+	 * @throws IllegalArgumentException if the property does not exist
+	 */
+	private static Property findProperty(Class<?> type, String name) {
+		if (name == null) {
+			return null;
+		}
+		
+		String suffix = Character.toUpperCase(name.charAt(0)) + 
+				name.substring(1);
+		Method getter = findMethod(type, "get" + suffix);
+		
+		if (getter == null) {
+			getter = findMethod(type, "is" + suffix);
+		}
+		
+		if ((getter != null) && (getter.getReturnType() != void.class)) {
+			return toProperty(getter, 
+					findMethod(type, "set" + suffix, getter.getReturnType()));
+		}
+		
+		for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+			try {
+				Field field = c.getDeclaredField(name);
+				
+				if (!Modifier.isStatic(field.getModifiers())) {
+					return toProperty(field);
+				}
+			} catch (NoSuchFieldException e) {
+				// continue with the superclass
+			}
+		}
+		
+		throw new IllegalArgumentException("no property " + name + 
+				" in " + type.getName());
+	}
+	
+	/**
+	 * Returns the property of the specified class marked with a 
+	 * {@link TaskProperty} annotation of the specified kind.
+	 * 
+	 * @param type the class
+	 * @param kind the kind of property
+	 * @return the property of the specified class marked with a 
+	 *         {@code TaskProperty} annotation of the specified kind; or 
+	 *         {@code null} if no such property exists
+	 * @throws IllegalArgumentException if more than one property is marked,
+	 *         or a marked method is not a getter
+	 */
+	private static Property findProperty(Class<?> type, 
+			TaskProperty.Kind kind) {
+		Property result = null;
+		
+		for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				if (isMarked(field, kind)) {
+					if (result != null) {
+						throw new IllegalArgumentException(
+								"duplicate " + kind + " property");
+					}
+					
+					result = toProperty(field);
+				}
+			}
+			
+			for (Method method : c.getDeclaredMethods()) {
+				if (isMarked(method, kind)) {
+					if ((result != null) || 
+							(method.getParameterTypes().length != 0) ||
+							(method.getReturnType() == void.class)) {
+						throw new IllegalArgumentException(
+								"duplicate " + kind + " property or " + 
+								method.getName() + " is not a getter");
+					}
+					
+					String name = method.getName();
+					String suffix = null;
+					
+					if (name.startsWith("get")) {
+						suffix = name.substring(3);
+					} else if (name.startsWith("is")) {
+						suffix = name.substring(2);
+					}
+					
+					result = toProperty(method, (suffix == null) ? null : 
+						findMethod(type, "set" + suffix, 
+								method.getReturnType()));
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Returns {@code true} if the specified field or method is a non-static 
+	 * member marked with a {@link TaskProperty} annotation of the specified 
+	 * kind; {@code false} otherwise.
+	 * 
+	 * @param member the field or method
+	 * @param kind the kind of property
+	 * @return {@code true} if the specified field or method is a non-static
+	 *         member marked with a {@code TaskProperty} annotation of the 
+	 *         specified kind; {@code false} otherwise
+	 */
+	private static boolean isMarked(AccessibleObject member, 
+			TaskProperty.Kind kind) {
+		TaskProperty annotation = member.getAnnotation(TaskProperty.class);
+		int modifiers = (member instanceof Field) ? 
+				((Field)member).getModifiers() :
+				((Method)member).getModifiers();
+		
+		return (annotation != null) && (annotation.value() == kind) &&
+				!Modifier.isStatic(modifiers);
+	}
+	
+	/**
+	 * Returns the non-static method of the specified class or its 
+	 * superclasses with the specified name and parameter types.
+	 * 
+	 * @param type the class
+	 * @param name the name of the method
+	 * @param parameterTypes the parameter types of the method
+	 * @return the non-static method of the specified class or its 
+	 *         superclasses with the specified name and parameter types; or 
+	 *         {@code null} if no such method exists
+	 */
+	private static Method findMethod(Class<?> type, String name, 
+			Class<?>... parameterTypes) {
+		for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+			try {
+				Method method = c.getDeclaredMethod(name, parameterTypes);
+				
+				if (!Modifier.isStatic(method.getModifiers())) {
+					return method;
+				}
+			} catch (NoSuchMethodException e) {
+				// continue with the superclass
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Returns the property read and written by the specified field.  Final
+	 * fields are read-only.
+	 * 
+	 * @param field the field
+	 * @return the property read and written by the specified field
+	 */
+	private static Property toProperty(Field field) {
+		field.setAccessible(true);
+		
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			
+			boolean readOnly = Modifier.isFinal(field.getModifiers());
+			
+			return new Property(field.getName(), 
+					lookup.unreflectGetter(field),
+					readOnly ? null : lookup.unreflectSetter(field));
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+	
+	/**
+	 * Returns the property read and written by the specified getter and 
+	 * setter methods.
+	 * 
+	 * @param getter the getter method
+	 * @param setter the setter method; or {@code null} if the property is 
+	 *        read-only
+	 * @return the property read and written by the specified getter and 
+	 *         setter methods
+	 */
+	private static Property toProperty(Method getter, Method setter) {
+		getter.setAccessible(true);
+		
+		if (setter != null) {
+			setter.setAccessible(true);
+		}
+		
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			
+			return new Property(getter.getName(), 
+					lookup.unreflect(getter),
+					(setter == null) ? null : lookup.unreflect(setter));
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+	
+	/**
+	 * Returns the primitive type corresponding to the specified numeric type;
+	 * or {@code null} if the type is not {@code int}, {@code long} or their
+	 * wrapper types.
+	 * 
+	 * @param type the type
+	 * @return the primitive type corresponding to the specified numeric type;
+	 *         or {@code null} if the type is not {@code int}, {@code long} or
+	 *         their wrapper types
+	 */
+	private static Class<?> toPrimitive(Class<?> type) {
+		if ((type == int.class) || (type == Integer.class)) {
+			return int.class;
+		} else if ((type == long.class) || (type == Long.class)) {
+			return long.class;
+		} else {
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns a method handle of type {@code (Object)valueType} reading the
+	 * specified numeric property.
+	 * 
+	 * @param property the property
+	 * @param valueType the primitive value type, either {@code int} or 
+	 *        {@code long}
+	 * @return a method handle of type {@code (Object)valueType} reading the
+	 *         specified numeric property
+	 * @throws IllegalArgumentException if the property is not numeric
+	 */
+	private static MethodHandle adaptNumberGetter(Property property, 
+			Class<?> valueType) {
+		Class<?> primitive = toPrimitive(property.type);
+		
+		if (primitive == null) {
+			throw new IllegalArgumentException("property " + property.name +
+					" is not numeric");
+		}
+		
+		MethodHandle getter = property.getter.asType(
+				MethodType.methodType(primitive, Object.class));
+		return MethodHandles.explicitCastArguments(getter, 
+				MethodType.methodType(valueType, Object.class));
+	}
+	
+	/**
+	 * Returns a method handle of type {@code (Object,valueType)void} writing
+	 * the specified numeric property; or {@code null} if the property is 
+	 * read-only.
+	 * 
+	 * @param property the numeric property
+	 * @param valueType the primitive value type, either {@code int} or 
+	 *        {@code long}
+	 * @return a method handle of type {@code (Object,valueType)void} writing
+	 *         the specified numeric property; or {@code null} if the property
+	 *         is read-only
+	 */
+	private static MethodHandle adaptNumberSetter(Property property, 
+			Class<?> valueType) {
+		if (property.setter == null) {
+			return null;
+		}
+		
+		Class<?> primitive = toPrimitive(property.type);
+		MethodHandle setter = property.setter.asType(
+				MethodType.methodType(void.class, Object.class, primitive));
+		return MethodHandles.explicitCastArguments(setter, 
+				MethodType.methodType(void.class, Object.class, valueType));
+	}
+	
+	/**
+	 * Returns a method handle of type {@code (Object)long} reading the 
+	 * specified numeric or {@link Date} property.
+	 * 
+	 * @param property the property
+	 * @return a method handle of type {@code (Object)long} reading the 
+	 *         specified numeric or {@code Date} property
+	 * @throws IllegalArgumentException if the property is not numeric or a
+	 *         {@code Date}
+	 */
+	private static MethodHandle adaptTimeGetter(Property property) {
+		if (Date.class.isAssignableFrom(property.type)) {
+			MethodHandle getter = property.getter.asType(
+					MethodType.methodType(Date.class, Object.class));
+			return MethodHandles.filterReturnValue(getter, DATE_GET_TIME);
+		} else {
+			return adaptNumberGetter(property, long.class);
+		}
+	}
+	
+	/**
+	 * Returns a method handle of type {@code (Object,long)void} writing the
+	 * specified numeric or {@link Date} property; or {@code null} if the 
+	 * property is read-only.  Properties of a subclass of {@code Date} are 
+	 * read-only.
+	 * 
+	 * @param property the property
+	 * @return a method handle of type {@code (Object,long)void} writing the
+	 *         specified numeric or {@code Date} property; or {@code null} if
+	 *         the property is read-only
+	 */
+	private static MethodHandle adaptTimeSetter(Property property) {
+		if (property.setter == null) {
+			return null;
+		} else if (property.type == Date.class) {
+			return MethodHandles.filterArguments(property.setter, 1, DATE_NEW);
+		} else if (Date.class.isAssignableFrom(property.type)) {
+			return null;
+		} else {
+			return adaptNumberSetter(property, long.class);
+		}
+	}
+	
+	/**
+	 * Returns a method handle of type {@code (Object)String} reading the 
+	 * specified property.
+	 * 
+	 * @param property the property
+	 * @return a method handle of type {@code (Object)String} reading the 
+	 *         specified property
+	 */
+	private static MethodHandle adaptTextGetter(Property property) {
+		if (property.type == String.class) {
+			return property.getter;
+		} else {
+			MethodHandle getter = property.getter.asType(
+					MethodType.methodType(Object.class, Object.class));
+			return MethodHandles.filterReturnValue(getter, STRING_VALUE_OF);
+		}
+	}
+	
+	/**
+	 * Returns a method handle of type {@code (Object,String)void} writing 
+	 * the specified property; or {@code null} if the property is read-only.
+	 * Properties whose type is not a supertype of {@code String} are 
+	 * read-only.
+	 * 
+	 * @param property the property
+	 * @return a method handle of type {@code (Object,String)void} writing 
+	 *         the specified property; or {@code null} if the property is 
+	 *         read-only
+	 */
+	private static MethodHandle adaptTextSetter(Property property) {
+		if ((property.setter == null) || 
+				!property.type.isAssignableFrom(String.class)) {
+			return null;
+		} else {
+			return property.setter.asType(MethodType.methodType(
+					void.class, Object.class, String.class));
+		}
+	}
+	
+	/**
+	 * Returns the specified exception thrown by a property accessor as an 
+	 * unchecked exception.
+	 * 
+	 * @param t the exception thrown by a property accessor
+	 * @return the specified exception as an unchecked exception
+	 */
+	private static RuntimeException rethrow(Throwable t) {
+		if (t instanceof RuntimeException) {
+			return (RuntimeException)t;
+		} else if (t instanceof Error) {
+			throw (Error)t;
+		} else {
+			return new IllegalStateException(t);
+		}
+	}
+
+	@Override
+	public int getRow(Object task) {
+		if (rowGetter == null) {
+			return model.indexOf(task);
+		}
+		
+		try {
+			return (int)rowGetter.invokeExact(task);
+		} catch (Throwable t) {
+			throw rethrow(t);
+		}
+	}
+
+	@Override
+	public long getStart(Object task) {
+		try {
+			return (long)startGetter.invokeExact(task);
+		} catch (Throwable t) {
+			throw rethrow(t);
+		}
+	}
+
+	@Override
+	public long getEnd(Object task) {
+		try {
+			return (long)endGetter.invokeExact(task);
+		} catch (Throwable t) {
+			throw rethrow(t);
+		}
+	}
+
+	@Override
+	public String getText(Object task) {
+		if (textGetter == null) {
+			return String.valueOf(task);
+		}
+		
+		try {
+			return (String)textGetter.invokeExact(task);
+		} catch (Throwable t) {
+			throw rethrow(t);
+		}
+	}
+
+	@Override
+	public void setRow(Object task, int row) {
+		if (rowSetter != null) {
+			try {
+				rowSetter.invokeExact(task, row);
+			} catch (Throwable t) {
+				throw rethrow(t);
+			}
+		}
+	}
+
+	@Override
+	public void setStart(Object task, long start) {
+		if (startSetter != null) {
+			try {
+				startSetter.invokeExact(task, start);
+			} catch (Throwable t) {
+				throw rethrow(t);
+			}
+		}
+	}
+
+	@Override
+	public void setEnd(Object task, long end) {
+		if (endSetter != null) {
+			try {
+				endSetter.invokeExact(task, end);
+			} catch (Throwable t) {
+				throw rethrow(t);
+			}
+		}
+	}
+
+	@Override
+	public void setText(Object task, String text) {
+		if (textSetter != null) {
+			try {
+				textSetter.invokeExact(task, text);
+			} catch (Throwable t) {
+				throw rethrow(t);
+			}
+		}
+	}
+
+}
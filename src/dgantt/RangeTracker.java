@@ -0,0 +1,457 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tracks the minimum start value and maximum end value of the tasks in a 
+ * {@link GanttModel}.  The range is computed by scanning the model once 
+ * following a call to {@link #invalidate()}.  When individual tasks are 
+ * changed, {@link #update(Collection)} adjusts the range in time proportional
+ * to the number of changed tasks rather than the size of the model.
+ * <p>
+ * Rather than recording the values of every task, the tracker keeps two small
+ * candidate sets: all tasks whose start value is at most a low threshold, and
+ * all tasks whose end value is at least a high threshold.  The thresholds are 
+ * chosen when the model is scanned so that each set initially contains about
+ * {@value #CANDIDATES} tasks.  The minimum and maximum are always found in 
+ * these sets, so the model only needs to be scanned again once every task in
+ * a set has moved past its threshold.
+ * <p>
+ * If the model reports its own range through {@link GanttModel#isRangeKnown()},
+ * that range is used and the tasks are never scanned.
+ */
+public class RangeTracker {
+	
+	/**
+	 * The number of tasks initially selected as candidates for the minimum
+	 * and maximum values.
+	 */
+	private static final int CANDIDATES = 64;
+	
+	/**
+	 * The number of tasks whose values are read from the translator at once 
+	 * when scanning the model.
+	 */
+	private static final int CHUNK_SIZE = 4096;
+	
+	/**
+	 * The {@code GanttModel} storing the tracked tasks.
+	 */
+	private final GanttModel model;
+	
+	/**
+	 * The {@code Translator} used to extract the start and end values of the
+	 * tracked tasks.
+	 */
+	private final Translator translator;
+	
+	/**
+	 * {@code true} if the minimum and maximum values reflect the current 
+	 * contents of the model; {@code false} otherwise.
+	 */
+	private boolean valid;
+	
+	/**
+	 * The minimum start value of all tasks.
+	 */
+	private long minimum;
+	
+	/**
+	 * The maximum end value of all tasks.
+	 */
+	private long maximum;
+	
+	/**
+	 * The tasks whose start value is at most {@code lowThreshold}; or 
+	 * {@code null} if the candidates have not been selected since the last 
+	 * invalidation.
+	 */
+	private Set<Object> lowTasks;
+	
+	/**
+	 * The tasks whose end value is at least {@code highThreshold}; or 
+	 * {@code null} if the candidates have not been selected since the last
+	 * invalidation.
+	 */
+	private Set<Object> highTasks;
+	
+	/**
+	 * The largest start value of the tasks in {@code lowTasks}.
+	 */
+	private long lowThreshold;
+	
+	/**
+	 * The smallest end value of the tasks in {@code highTasks}.
+	 */
+	private long highThreshold;
+	
+	/**
+	 * The number of tasks in the model when the candidates were selected, 
+	 * used to detect tasks added or removed without invalidating this 
+	 * tracker.
+	 */
+	private int taskCount;
+	
+	/**
+	 * Class constructor for a range tracker over the tasks in the specified 
+	 * Gantt model.
+	 * 
+	 * @param model the {@code GanttModel} storing the tracked tasks
+	 * @param translator the {@code Translator} used to extract the start and
+	 *        end values of the tracked tasks
+	 */
+	public RangeTracker(GanttModel model, Translator translator) {
+		super();
+		this.model = model;
+		this.translator = translator;
+	}
+	
+	/**
+	 * Invalidates this range tracker, forcing the model to be scanned the 
+	 * next time the range is requested.  This method must be invoked 
+	 * whenever tasks are added, removed or changed without invoking
+	 * {@link #insert(Collection)}, {@link #remove(Collection)} or
+	 * {@link #update(Collection)}.
+	 */
+	public void invalidate() {
+		valid = false;
+		lowTasks = null;
+		highTasks = null;
+	}
+	
+	/**
+	 * Returns {@code true} if this range tracker reflects the current 
+	 * contents of the model; {@code false} if the model must be scanned.
+	 * 
+	 * @return {@code true} if this range tracker reflects the current 
+	 *         contents of the model; {@code false} if the model must be 
+	 *         scanned
+	 */
+	public boolean isValid() {
+		return valid;
+	}
+	
+	/**
+	 * Returns the minimum start value of all tasks; or {@code 0} if the model
+	 * contains no tasks.
+	 * 
+	 * @return the minimum start value of all tasks; or {@code 0} if the model
+	 *         contains no tasks
+	 */
+	public long getMinimum() {
+		if (!valid) {
+			scan();
+		}
+		
+		return minimum;
+	}
+	
+	/**
+	 * Returns the maximum end value of all tasks; or {@code 0} if the model
+	 * contains no tasks.
+	 * 
+	 * @return the maximum end value of all tasks; or {@code 0} if the model
+	 *         contains no tasks
+	 */
+	public long getMaximum() {
+		if (!valid) {
+			scan();
+		}
+		
+		return maximum;
+	}
+	
+	/**
+	 * Updates this range tracker after the start or end values of the 
+	 * specified tasks have changed.  If the number of tasks in the model has
+	 * changed, which indicates tasks were added or removed without notifying
+	 * this tracker, the model is scanned again.
+	 * 
+	 * @param tasks the changed tasks
+	 */
+	public void update(Collection<?> tasks) {
+		if (model.isRangeKnown()) {
+			scan();
+			return;
+		}
+		
+		if ((lowTasks == null) || (taskCount != model.getTaskCount())) {
+			select();
+			return;
+		}
+		
+		boolean lowChanged = false;
+		boolean highChanged = false;
+		
+		for (Object task : tasks) {
+			if (translator.getStart(task) <= lowThreshold) {
+				lowTasks.add(task);
+				lowChanged = true;
+			} else if (lowTasks.remove(task)) {
+				lowChanged = true;
+			}
+			
+			if (translator.getEnd(task) >= highThreshold) {
+				highTasks.add(task);
+				highChanged = true;
+			} else if (highTasks.remove(task)) {
+				highChanged = true;
+			}
+		}
+		
+		refresh(lowChanged, highChanged);
+	}
+	
+	/**
+	 * Updates this range tracker after the specified tasks were inserted into
+	 * the model.
+	 * 
+	 * @param tasks the inserted tasks
+	 */
+	public void insert(Collection<?> tasks) {
+		if (lowTasks != null) {
+			taskCount += tasks.size();
+		}
+		
+		update(tasks);
+	}
+	
+	/**
+	 * Updates this range tracker after the specified tasks were removed from
+	 * the model.
+	 * 
+	 * @param tasks the removed tasks
+	 */
+	public void remove(Collection<?> tasks) {
+		if (model.isRangeKnown()) {
+			scan();
+			return;
+		}
+		
+		if (lowTasks == null) {
+			invalidate();
+			return;
+		}
+		
+		boolean lowChanged = false;
+		boolean highChanged = false;
+		
+		for (Object task : tasks) {
+			lowChanged |= lowTasks.remove(task);
+			highChanged |= highTasks.remove(task);
+		}
+		
+		taskCount -= tasks.size();
+		refresh(lowChanged, highChanged);
+	}
+	
+	/**
+	 * Recomputes the minimum and maximum values from the candidate tasks
+	 * after the candidates changed, scanning the model if no candidates
+	 * remain or tasks were added or removed without notifying this tracker.
+	 * 
+	 * @param lowChanged {@code true} if the low candidates changed
+	 * @param highChanged {@code true} if the high candidates changed
+	 */
+	private void refresh(boolean lowChanged, boolean highChanged) {
+		if (lowTasks.isEmpty() || highTasks.isEmpty() || 
+				(taskCount != model.getTaskCount())) {
+			select();
+			return;
+		}
+		
+		if (lowChanged) {
+			minimum = Long.MAX_VALUE;
+			
+			for (Object task : lowTasks) {
+				minimum = Math.min(minimum, translator.getStart(task));
+			}
+		}
+		
+		if (highChanged) {
+			maximum = Long.MIN_VALUE;
+			
+			for (Object task : highTasks) {
+				maximum = Math.max(maximum, translator.getEnd(task));
+			}
+		}
+		
+		valid = true;
+	}
+	
+	/**
+	 * Computes the range by scanning the model, without selecting any 
+	 * candidates.
+	 */
+	private void scan() {
+		if (model.isRangeKnown()) {
+			minimum = model.getMinimum();
+			maximum = model.getMaximum();
+			valid = true;
+			return;
+		}
+		
+		int taskCount = model.getTaskCount();
+		long[] starts = new long[Math.min(CHUNK_SIZE, taskCount)];
+		long[] ends = new long[starts.length];
+		
+		minimum = Long.MAX_VALUE;
+		maximum = Long.MIN_VALUE;
+		
+		for (int from = 0; from < taskCount; from += CHUNK_SIZE) {
+			int count = Math.min(CHUNK_SIZE, taskCount - from);
+			translator.getStarts(model, from, from + count, starts);
+			translator.getEnds(model, from, from + count, ends);
+			
+			for (int i = 0; i < count; i++) {
+				minimum = Math.min(minimum, starts[i]);
+				maximum = Math.max(maximum, ends[i]);
+			}
+		}
+		
+		if ((minimum == Long.MAX_VALUE) || (maximum == Long.MIN_VALUE)) {
+			//model empty
+			minimum = 0;
+			maximum = 0;
+		}
+		
+		valid = true;
+	}
+	
+	/**
+	 * Computes the range and selects the candidate tasks by scanning the
+	 * model.  The first pass finds the thresholds using bounded heaps of the
+	 * {@value #CANDIDATES} smallest start and largest end values, and the 
+	 * second pass collects the tasks on the near side of each threshold.
+	 */
+	private void select() {
+		taskCount = model.getTaskCount();
+		lowTasks = new HashSet<Object>();
+		highTasks = new HashSet<Object>();
+		
+		//negating the end values turns the largest ends into the smallest
+		long[] lowHeap = new long[Math.min(CANDIDATES, taskCount)];
+		long[] highHeap = new long[lowHeap.length];
+		long[] starts = new long[Math.min(CHUNK_SIZE, taskCount)];
+		long[] ends = new long[starts.length];
+		
+		for (int from = 0; from < taskCount; from += CHUNK_SIZE) {
+			int count = Math.min(CHUNK_SIZE, taskCount - from);
+			translator.getStarts(model, from, from + count, starts);
+			translator.getEnds(model, from, from + count, ends);
+			
+			for (int i = 0; i < count; i++) {
+				offer(lowHeap, from + i, starts[i]);
+				offer(highHeap, from + i, -ends[i]);
+			}
+		}
+		
+		if (taskCount == 0) {
+			minimum = 0;
+			maximum = 0;
+			valid = true;
+			return;
+		}
+		
+		lowThreshold = lowHeap[0];
+		highThreshold = -highHeap[0];
+		minimum = Long.MAX_VALUE;
+		maximum = Long.MIN_VALUE;
+		
+		for (int from = 0; from < taskCount; from += CHUNK_SIZE) {
+			int count = Math.min(CHUNK_SIZE, taskCount - from);
+			translator.getStarts(model, from, from + count, starts);
+			translator.getEnds(model, from, from + count, ends);
+			
+			for (int i = 0; i < count; i++) {
+				if (starts[i] <= lowThreshold) {
+					lowTasks.add(model.getTaskAt(from + i));
+					minimum = Math.min(minimum, starts[i]);
+				}
+				
+				if (ends[i] >= highThreshold) {
+					highTasks.add(model.getTaskAt(from + i));
+					maximum = Math.max(maximum, ends[i]);
+				}
+			}
+		}
+		
+		valid = true;
+	}
+	
+	/**
+	 * Offers a value to a bounded max-heap retaining the smallest values 
+	 * seen.  The heap is filled by the first {@code heap.length} offers; 
+	 * afterwards, a value smaller than the root replaces the root.
+	 * 
+	 * @param heap the heap
+	 * @param count the number of values previously offered to the heap
+	 * @param value the offered value
+	 */
+	private static void offer(long[] heap, int count, long value) {
+		int i;
+		
+		if (count < heap.length) {
+			//sift up
+			i = count;
+			
+			while (i > 0) {
+				int parent = (i - 1) / 2;
+				
+				if (heap[parent] >= value) {
+					break;
+				}
+				
+				heap[i] = heap[parent];
+				i = parent;
+			}
+		} else if (value < heap[0]) {
+			//sift down from the root
+			i = 0;
+			
+			while (true) {
+				int child = 2*i + 1;
+				
+				if (child >= heap.length) {
+					break;
+				}
+				
+				if ((child + 1 < heap.length) && 
+						(heap[child + 1] > heap[child])) {
+					child++;
+				}
+				
+				if (heap[child] <= value) {
+					break;
+				}
+				
+				heap[i] = heap[child];
+				i = child;
+			}
+		} else {
+			return;
+		}
+		
+		heap[i] = value;
+	}
+
+}
@@ -37,7 +37,9 @@ public interface RowRenderer {
 	public void paintBackground(Graphics g, GanttChart chart);
 	
 	/**
-	 * Renders the background of a single row in the Gantt chart.
+	 * Renders the background of a single row in the Gantt chart.  The bounds
+	 * are reused by the chart once this method returns, so they must not be
+	 * retained.
 	 * 
 	 * @param g the graphics object used for rendering
 	 * @param chart the Gantt chart
@@ -0,0 +1,212 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Automatically schedules tasks according to the links between them, 
+ * shifting tasks so that no link constraint is violated.  After some tasks 
+ * are moved or resized, {@link #schedule(Collection, GanttChartUndoableEdit)}
+ * moves each affected task to its early start as computed by a 
+ * {@link CriticalPath}, preserving its duration.  This shifts successors 
+ * later when a task is moved or extended into them, and moves an edited 
+ * task back to the earliest time permitted by its predecessors.  Since the 
+ * start value of each task is the earliest time the task may start, tasks 
+ * are pushed later but never pulled earlier.
+ * <p>
+ * The early starts are recomputed in topological order only for the tasks
+ * downstream of the changed tasks, stopping at tasks which are not 
+ * affected, so the cost of scheduling is proportional to the affected part
+ * of the schedule rather than the number of tasks.  Even when the schedule
+ * was recomputed, only displaced tasks downstream of the changed tasks are
+ * shifted, so tasks displaced elsewhere are never moved as a side effect of
+ * an unrelated edit.  All shifted tasks are
+ * written to the {@link Translator} in a single batch.  The critical path 
+ * must be kept up to date with changes to tasks made elsewhere, which is 
+ * done by setting it as the critical path of the {@link GanttChart} 
+ * through {@link GanttChart#setCriticalPath(CriticalPath)}.
+ * <p>
+ * {@link AdvancedTaskEditorHandler} schedules tasks after each drag step, 
+ * or only when the mouse is released, recording the shifted tasks in the 
+ * same {@link GanttChartUndoableEdit} as the edited tasks.  Links do not
+ * shift tasks until {@link #scheduleLinks(Collection, GanttChartUndoableEdit)}
+ * is invoked, which {@link BasicLinkEditorHandler} does after adding a link,
+ * recording the shifted tasks in an edit of their own.
+ */
+public class Scheduler {
+	
+	/**
+	 * The critical path computing the early start of each task.
+	 */
+	private final CriticalPath criticalPath;
+	
+	/**
+	 * The tasks which became critical or ceased to be critical while 
+	 * scheduling most recently; or {@code null} if the critical path was 
+	 * recomputed, in which case any task may have done so.
+	 */
+	private List<Object> changedCriticalTasks;
+	
+	/**
+	 * Class constructor for a scheduler using the specified critical path.
+	 * The start and end values of tasks are written through the translator 
+	 * of the critical path.
+	 * 
+	 * @param criticalPath the critical path computing the early start of 
+	 *        each task
+	 */
+	public Scheduler(CriticalPath criticalPath) {
+		super();
+		this.criticalPath = criticalPath;
+	}
+	
+	/**
+	 * Returns the critical path computing the early start of each task.
+	 * 
+	 * @return the critical path computing the early start of each task
+	 */
+	public CriticalPath getCriticalPath() {
+		return criticalPath;
+	}
+	
+	/**
+	 * Returns the tasks which became critical or ceased to be critical while
+	 * scheduling most recently; or {@code null} if the critical path was 
+	 * recomputed, in which case any task may have done so.  Since the 
+	 * scheduler updates the critical path itself, the chart finds no change
+	 * when it is resized afterwards, so these tasks must be passed to
+	 * {@link GanttChart#repaintCriticalTasks(Collection)} to repaint their
+	 * highlight.
+	 * 
+	 * @return the tasks which became critical or ceased to be critical while
+	 *         scheduling most recently; or {@code null} if any task may have
+	 *         done so
+	 */
+	public List<Object> getChangedCriticalTasks() {
+		return changedCriticalTasks;
+	}
+	
+	/**
+	 * Shifts the tasks affected by changes to the start or end values of the
+	 * specified tasks to their early starts, preserving their durations, and
+	 * returns the shifted tasks.  The shifted tasks may include the specified
+	 * tasks if they violate the constraints of their predecessors.  If an 
+	 * undoable edit is specified, the shifted tasks are added to the edit 
+	 * before they are shifted.  The caller is responsible for updating the
+	 * chart, typically by invoking {@link GanttChart#resize(Collection)} with
+	 * the changed and shifted tasks, passing the tasks returned by
+	 * {@link #getChangedCriticalTasks()} to 
+	 * {@link GanttChart#repaintCriticalTasks(Collection)}, and repainting the
+	 * chart.
+	 * 
+	 * @param tasks the tasks whose start or end values changed
+	 * @param edit the undoable edit recording the changes; or {@code null}
+	 * @return the shifted tasks
+	 */
+	public List<Object> schedule(Collection<?> tasks, 
+			GanttChartUndoableEdit edit) {
+		changedCriticalTasks = null;
+		
+		//an invalid schedule is recomputed from the current values instead
+		if (criticalPath.isValid()) {
+			changedCriticalTasks = new ArrayList<Object>(
+					criticalPath.update(tasks));
+		}
+		
+		return shift(criticalPath.getDisplacedTasks(tasks), edit);
+	}
+	
+	/**
+	 * Shifts the tasks constrained by the specified newly added links, and 
+	 * the tasks downstream of them, to their early starts, preserving their
+	 * durations, and returns the shifted tasks.  The links must already be 
+	 * known to the critical path, which is the case once they are added to
+	 * the {@link LinkModel} of a chart using the critical path.  Since adding
+	 * a link is not an edit of any task, the shifted tasks are typically
+	 * recorded in an undoable edit of their own rather than in the edit of
+	 * a task being dragged.  If an undoable edit is specified, the shifted 
+	 * tasks are added to the edit before they are shifted.  The caller is 
+	 * responsible for updating the chart, typically by invoking 
+	 * {@link GanttChart#resize(Collection)} with the shifted tasks, passing
+	 * the tasks returned by {@link #getChangedCriticalTasks()} to 
+	 * {@link GanttChart#repaintCriticalTasks(Collection)}, and repainting the
+	 * chart.
+	 * 
+	 * @param links the added links
+	 * @param edit the undoable edit recording the changes; or {@code null}
+	 * @return the shifted tasks
+	 */
+	public List<Object> scheduleLinks(Collection<Link> links, 
+			GanttChartUndoableEdit edit) {
+		changedCriticalTasks = criticalPath.isValid() ? 
+				new ArrayList<Object>() : null;
+		
+		List<Object> tasks = new ArrayList<Object>(links.size());
+		
+		for (Link link : links) {
+			tasks.add(link.getSecond());
+		}
+		
+		return shift(criticalPath.getDownstreamDisplacedTasks(tasks), edit);
+	}
+	
+	/**
+	 * Shifts the specified displaced tasks to their early starts, preserving
+	 * their durations, and updates the critical path, recording the tasks 
+	 * whose criticality changed.
+	 * 
+	 * @param shiftedTasks the displaced tasks
+	 * @param edit the undoable edit recording the changes; or {@code null}
+	 * @return the shifted tasks
+	 */
+	private List<Object> shift(List<Object> shiftedTasks, 
+			GanttChartUndoableEdit edit) {
+		if (shiftedTasks.isEmpty()) {
+			return shiftedTasks;
+		}
+		
+		if (edit != null) {
+			edit.addEditedTasks(shiftedTasks);
+		}
+		
+		long[] starts = new long[shiftedTasks.size()];
+		long[] ends = new long[shiftedTasks.size()];
+		
+		for (int i = 0; i < shiftedTasks.size(); i++) {
+			Object task = shiftedTasks.get(i);
+			starts[i] = criticalPath.getEarlyStart(task);
+			ends[i] = criticalPath.getEarlyFinish(task);
+		}
+		
+		criticalPath.getTranslator().applyUpdates(shiftedTasks, null, starts, ends);
+		
+		//the shifted tasks now start at their early starts, so only their 
+		//start values change in the schedule
+		List<Object> changedTasks = criticalPath.update(shiftedTasks);
+		
+		if (changedCriticalTasks != null) {
+			changedCriticalTasks.addAll(changedTasks);
+		}
+		
+		return shiftedTasks;
+	}
+
+}
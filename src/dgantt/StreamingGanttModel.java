@@ -0,0 +1,414 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * {@link GanttModel} for live telemetry, storing tasks in a ring buffer in the
+ * order they are added.  Tasks which ended more than a configurable horizon
+ * before the current time are evicted.  Tasks still running may be updated
+ * in place, typically by extending their end value as time advances.
+ * <p>
+ * Changes are not announced individually.  Instead, the tasks added, updated
+ * and evicted since the last flush are announced together with at most one
+ * {@link GanttModelEvent} of each type, fired on the event dispatch thread
+ * after any pending events are processed.  This keeps the cost of painting
+ * independent of the rate at which tasks arrive.
+ * <p>
+ * Tasks should be added in order of increasing start value.  Eviction only
+ * examines the oldest tasks that started before the horizon, so a task 
+ * added out of order is retained until the tasks added before it have 
+ * started before the horizon.  The row of a task must not change once added.
+ * This model must only be accessed from the event dispatch thread.
+ */
+public class StreamingGanttModel extends GanttModel {
+	
+	/**
+	 * The initial capacity of the ring buffer.
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+	
+	/**
+	 * The {@code Translator} used to extract the row, start and end values of
+	 * the tasks.
+	 */
+	private final Translator translator;
+	
+	/**
+	 * The duration, in canonical units, for which tasks are retained after 
+	 * they end.
+	 */
+	private long horizon;
+	
+	/**
+	 * The current time, in canonical units; or {@code Long.MIN_VALUE} if the
+	 * time has not been set.
+	 */
+	private long time;
+	
+	/**
+	 * The ring buffer storing the tasks; its length is always a power of two.
+	 */
+	private Object[] buffer;
+	
+	/**
+	 * The position in the ring buffer of the oldest task.
+	 */
+	private int head;
+	
+	/**
+	 * The number of tasks stored in the ring buffer.
+	 */
+	private int size;
+	
+	/**
+	 * The number of rows, one more than the largest row of any task added.
+	 */
+	private int rowCount;
+	
+	/**
+	 * The number of tasks added since the last flush.  These tasks are always
+	 * the newest tasks in the ring buffer.
+	 */
+	private int pendingCount;
+	
+	/**
+	 * The tasks updated since the last flush.
+	 */
+	private final Set<Object> pendingUpdates;
+	
+	/**
+	 * {@code true} if a flush has been scheduled; {@code false} otherwise.
+	 */
+	private boolean flushScheduled;
+	
+	/**
+	 * The total number of tasks evicted.
+	 */
+	private long evictedCount;
+	
+	/**
+	 * Class constructor for an empty streaming Gantt model.
+	 * 
+	 * @param translator the {@code Translator} used to extract the row, start
+	 *        and end values of the tasks
+	 * @param horizon the duration, in canonical units, for which tasks are 
+	 *        retained after they end
+	 * @throws IllegalArgumentException if {@code horizon} is negative
+	 */
+	public StreamingGanttModel(Translator translator, long horizon) {
+		super();
+		this.translator = translator;
+		
+		buffer = new Object[INITIAL_CAPACITY];
+		pendingUpdates = new LinkedHashSet<Object>();
+		time = Long.MIN_VALUE;
+		
+		setHorizon(horizon);
+	}
+
+	@Override
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	@Override
+	public int getTaskCount() {
+		return size;
+	}
+
+	@Override
+	public Object getTaskAt(int index) {
+		if ((index < 0) || (index >= size)) {
+			throw new IndexOutOfBoundsException("index: " + index + 
+					", size: " + size);
+		}
+		
+		return buffer[(head + index) & (buffer.length - 1)];
+	}
+	
+	/**
+	 * Stores the task at the specified index, counted from the oldest task.
+	 * 
+	 * @param index the index of the task
+	 * @param task the task
+	 */
+	private void setTaskAt(int index, Object task) {
+		buffer[(head + index) & (buffer.length - 1)] = task;
+	}
+	
+	/**
+	 * Returns the duration, in canonical units, for which tasks are retained
+	 * after they end.
+	 * 
+	 * @return the duration, in canonical units, for which tasks are retained
+	 *         after they end
+	 */
+	public long getHorizon() {
+		return horizon;
+	}
+	
+	/**
+	 * Sets the duration, in canonical units, for which tasks are retained 
+	 * after they end.  Use {@code Long.MAX_VALUE} to retain all tasks.
+	 * 
+	 * @param horizon the duration, in canonical units, for which tasks are 
+	 *        retained after they end
+	 * @throws IllegalArgumentException if {@code horizon} is negative
+	 */
+	public void setHorizon(long horizon) {
+		if (horizon < 0) {
+			throw new IllegalArgumentException("horizon must not be negative");
+		}
+		
+		this.horizon = horizon;
+		scheduleFlush();
+	}
+	
+	/**
+	 * Returns the current time, in canonical units; or {@code Long.MIN_VALUE}
+	 * if the time has not been set.
+	 * 
+	 * @return the current time, in canonical units
+	 */
+	public long getTime() {
+		return time;
+	}
+	
+	/**
+	 * Sets the current time, in canonical units.  Tasks which ended more than
+	 * the horizon before this time are evicted at the next flush.
+	 * 
+	 * @param time the current time, in canonical units
+	 */
+	public void setTime(long time) {
+		this.time = time;
+		scheduleFlush();
+	}
+	
+	/**
+	 * Returns the total number of tasks evicted from this model.
+	 * 
+	 * @return the total number of tasks evicted from this model
+	 */
+	public long getEvictedCount() {
+		return evictedCount;
+	}
+	
+	/**
+	 * {@inheritDoc}  The task is appended to the ring buffer in amortized 
+	 * constant time and announced at the next flush.
+	 */
+	@Override
+	public void addTask(Object task) {
+		if (size == buffer.length) {
+			Object[] newBuffer = new Object[2*buffer.length];
+			
+			for (int i = 0; i < size; i++) {
+				newBuffer[i] = getTaskAt(i);
+			}
+			
+			buffer = newBuffer;
+			head = 0;
+		}
+		
+		size++;
+		pendingCount++;
+		setTaskAt(size - 1, task);
+		rowCount = Math.max(rowCount, translator.getRow(task) + 1);
+		scheduleFlush();
+	}
+	
+	/**
+	 * Notifies this model that the start, end or text values of the specified
+	 * task changed, such as when a running task is extended to the current 
+	 * time.  The change is announced at the next flush.
+	 * 
+	 * @param task the updated task
+	 */
+	public void updateTask(Object task) {
+		pendingUpdates.add(task);
+		scheduleFlush();
+	}
+	
+	/**
+	 * Schedules a flush on the event dispatch thread, unless one is already
+	 * scheduled.
+	 */
+	private void scheduleFlush() {
+		if (flushScheduled) {
+			return;
+		}
+		
+		flushScheduled = true;
+		
+		SwingUtilities.invokeLater(new Runnable() {
+
+			@Override
+			public void run() {
+				flush();
+			}
+			
+		});
+	}
+	
+	/**
+	 * Evicts expired tasks and announces all changes since the last flush.
+	 * The evicted, added and updated tasks are each announced by a single 
+	 * {@link GanttModelEvent}, in that order.  Tasks both added and evicted 
+	 * since the last flush are not announced.  This method is invoked 
+	 * automatically, but may be invoked directly to announce changes 
+	 * immediately.
+	 */
+	public void flush() {
+		flushScheduled = false;
+		
+		List<Object> removed = evict();
+		List<Object> inserted = new ArrayList<Object>(pendingCount);
+		
+		for (int i = size - pendingCount; i < size; i++) {
+			inserted.add(getTaskAt(i));
+		}
+		
+		pendingCount = 0;
+		
+		if (!pendingUpdates.isEmpty()) {
+			for (Object task : removed) {
+				pendingUpdates.remove(task);
+			}
+			
+			for (Object task : inserted) {
+				pendingUpdates.remove(task);
+			}
+		}
+		
+		List<Object> updated = new ArrayList<Object>(pendingUpdates);
+		pendingUpdates.clear();
+		
+		if (!removed.isEmpty()) {
+			fireTasksRemoved(removed, getFirstRow(removed), 
+					getLastRow(removed));
+		}
+		
+		if (!inserted.isEmpty()) {
+			fireTasksInserted(inserted, getFirstRow(inserted), 
+					getLastRow(inserted));
+		}
+		
+		if (!updated.isEmpty()) {
+			fireTasksUpdated(updated, GanttModelEvent.START | 
+					GanttModelEvent.END | GanttModelEvent.TEXT, 
+					getFirstRow(updated), getLastRow(updated));
+		}
+	}
+	
+	/**
+	 * Removes the tasks which ended more than the horizon before the current
+	 * time.  Only the oldest tasks which started before the horizon are 
+	 * examined.  Those still running are retained in their original order,
+	 * so eviction takes time proportional to the number of evicted and 
+	 * long-running tasks rather than the number of stored tasks.
+	 * 
+	 * @return the evicted tasks which were announced by a previous flush
+	 */
+	private List<Object> evict() {
+		List<Object> removed = new ArrayList<Object>();
+		
+		if (time < Long.MIN_VALUE + horizon) {
+			return removed;
+		}
+		
+		long cutoff = time - horizon;
+		int count = 0;
+		
+		while ((count < size) && (translator.getStart(getTaskAt(count)) < 
+				cutoff)) {
+			count++;
+		}
+		
+		//compact the retained tasks towards the newest end of the prefix
+		int firstPending = size - pendingCount;
+		int evictedPending = 0;
+		int position = count - 1;
+		
+		for (int i = count - 1; i >= 0; i--) {
+			Object task = getTaskAt(i);
+			
+			if (translator.getEnd(task) >= cutoff) {
+				setTaskAt(position--, task);
+			} else if (i >= firstPending) {
+				evictedPending++;
+			} else {
+				removed.add(task);
+			}
+		}
+		
+		int evicted = position + 1;
+		
+		for (int i = 0; i < evicted; i++) {
+			setTaskAt(i, null);
+		}
+		
+		head = (head + evicted) & (buffer.length - 1);
+		size -= evicted;
+		pendingCount -= evictedPending;
+		evictedCount += evicted;
+		
+		return removed;
+	}
+	
+	/**
+	 * Returns the smallest row of the specified tasks.
+	 * 
+	 * @param tasks the tasks
+	 * @return the smallest row of the specified tasks
+	 */
+	private int getFirstRow(Collection<Object> tasks) {
+		int row = Integer.MAX_VALUE;
+		
+		for (Object task : tasks) {
+			row = Math.min(row, translator.getRow(task));
+		}
+		
+		return row;
+	}
+	
+	/**
+	 * Returns the largest row of the specified tasks.
+	 * 
+	 * @param tasks the tasks
+	 * @return the largest row of the specified tasks
+	 */
+	private int getLastRow(Collection<Object> tasks) {
+		int row = 0;
+		
+		for (Object task : tasks) {
+			row = Math.max(row, translator.getRow(task));
+		}
+		
+		return row;
+	}
+
+}
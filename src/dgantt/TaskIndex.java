@@ -0,0 +1,306 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+/**
+ * Interval index over the tasks in a {@link GanttModel}, allowing the tasks
+ * overlapping a range of rows and a range of canonical values to be found
+ * without scanning the entire model.  Tasks are bucketed by row and, within
+ * each row, ordered by their start value.  Alongside the start values, each
+ * row stores the running maximum of the end values, which allows both ends of
+ * a query to be located by binary search.
+ * <p>
+ * The index is built lazily on the first query following a call to
+ * {@link #invalidate()}.  The owner of the index is responsible for 
+ * invalidating the index whenever tasks are added to or removed from the 
+ * model other than at its end, or for invoking {@link #update(int)} when the
+ * row, start or end value of a task changes.
+ */
+public class TaskIndex {
+	
+	/**
+	 * The {@code GanttModel} storing the indexed tasks.
+	 */
+	private final GanttModel model;
+	
+	/**
+	 * The {@code Translator} used to extract the row, start and end values of
+	 * the indexed tasks.
+	 */
+	private final Translator translator;
+	
+	/**
+	 * {@code true} if this index reflects the current contents of the model;
+	 * {@code false} if the index must be rebuilt prior to the next query.
+	 */
+	private boolean valid;
+	
+	/**
+	 * The start and end values of the indexed tasks, identified by their 
+	 * model index and grouped by row.
+	 */
+	private IntervalStore store;
+	
+	/**
+	 * Class constructor for an index over the tasks in the specified model.
+	 * 
+	 * @param model the {@code GanttModel} storing the indexed tasks
+	 * @param translator the {@code Translator} used to extract the row, start
+	 *        and end values of the indexed tasks
+	 */
+	public TaskIndex(GanttModel model, Translator translator) {
+		super();
+		this.model = model;
+		this.translator = translator;
+	}
+	
+	/**
+	 * Marks this index as invalid, causing it to be rebuilt prior to the next
+	 * query.
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+	
+	/**
+	 * Returns {@code true} if this index reflects the current contents of the
+	 * model; {@code false} if the index will be rebuilt prior to the next 
+	 * query.
+	 * 
+	 * @return {@code true} if this index reflects the current contents of the
+	 *         model; {@code false} otherwise
+	 */
+	public boolean isValid() {
+		return valid;
+	}
+	
+	/**
+	 * Returns the number of rows in this index.
+	 * 
+	 * @return the number of rows in this index
+	 */
+	public int getRowCount() {
+		if (!valid) {
+			build();
+		}
+		
+		return store.getSegmentCount();
+	}
+	
+	/**
+	 * Returns the first position in this index storing a task in the 
+	 * specified row.  The tasks in a row are stored at consecutive positions
+	 * in order of their start value.
+	 * 
+	 * @param row the row
+	 * @return the first position in this index storing a task in the row
+	 */
+	public int getFirstPosition(int row) {
+		if (!valid) {
+			build();
+		}
+		
+		return store.getFirst(row);
+	}
+	
+	/**
+	 * Returns the position following the last position in this index storing
+	 * a task in the specified row.
+	 * 
+	 * @param row the row
+	 * @return the position following the last position in this index storing
+	 *         a task in the row
+	 */
+	public int getLastPosition(int row) {
+		if (!valid) {
+			build();
+		}
+		
+		return store.getLast(row);
+	}
+	
+	/**
+	 * Returns the model index of the task stored at the specified position.
+	 * 
+	 * @param position the position
+	 * @return the model index of the task stored at the specified position
+	 */
+	public int getIndexAt(int position) {
+		if (!valid) {
+			build();
+		}
+		
+		return store.getValue(position);
+	}
+	
+	/**
+	 * Returns the start value of the task stored at the specified position.
+	 * 
+	 * @param position the position
+	 * @return the start value of the task stored at the specified position
+	 */
+	public long getStartAt(int position) {
+		if (!valid) {
+			build();
+		}
+		
+		return store.getStart(position);
+	}
+	
+	/**
+	 * Returns the end value of the task stored at the specified position.
+	 * 
+	 * @param position the position
+	 * @return the end value of the task stored at the specified position
+	 */
+	public long getEndAt(int position) {
+		if (!valid) {
+			build();
+		}
+		
+		return store.getEnd(position);
+	}
+	
+	/**
+	 * Appends to {@code result} the model index of every task located in the
+	 * rows {@code firstRow} through {@code lastRow}, inclusive, whose start
+	 * and end values overlap the range {@code start} through {@code end},
+	 * inclusive.  The tasks are appended row-by-row, and within each row in
+	 * order of their start value.
+	 * 
+	 * @param firstRow the first row
+	 * @param lastRow the last row
+	 * @param start the start of the range in canonical coordinates
+	 * @param end the end of the range in canonical coordinates
+	 * @param result the list receiving the model index of each task
+	 */
+	public void query(int firstRow, int lastRow, long start, long end,
+			IntList result) {
+		if (!valid) {
+			build();
+		}
+		
+		firstRow = Math.max(firstRow, 0);
+		lastRow = Math.min(lastRow, store.getSegmentCount() - 1);
+		
+		for (int row = firstRow; row <= lastRow; row++) {
+			if (store.getFirst(row) == store.getLast(row)) {
+				continue;
+			}
+			
+			//skip tasks starting after the end of the range
+			int last = store.findLast(row, end);
+			
+			//skip tasks where all preceding tasks end prior to the range
+			int first = store.findFirst(row, last, start);
+			
+			for (int i = first; i < last; i++) {
+				if (store.getEnd(i) >= start) {
+					result.add(store.getValue(i));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the number of tasks in this index.  Tasks whose row lies 
+	 * outside the model are not indexed.
+	 * 
+	 * @return the number of tasks in this index
+	 */
+	public int getTaskCount() {
+		if (!valid) {
+			build();
+		}
+		
+		return store.size();
+	}
+	
+	/**
+	 * Returns the row in which the task with the specified model index is 
+	 * currently indexed; or {@code -1} if the task is not indexed.  After 
+	 * the task changes, and until {@link #update(int)} is invoked, this is 
+	 * the row the task was previously located in.
+	 * 
+	 * @param index the model index of the task
+	 * @return the row in which the task is currently indexed; or {@code -1}
+	 *         if the task is not indexed
+	 */
+	public int getIndexedRow(int index) {
+		if (!valid) {
+			build();
+		}
+		
+		return store.getSegment(index);
+	}
+	
+	/**
+	 * Updates the entry of the task with the specified model index after its
+	 * row, start or end value changed, or after the task was appended to the
+	 * model.  This method has no effect if the index is invalid, since it 
+	 * will be rebuilt prior to the next query.
+	 * 
+	 * @param index the model index of the task
+	 */
+	public void update(int index) {
+		if (!valid) {
+			return;
+		}
+		
+		Object task = model.getTaskAt(index);
+		int row = translator.getRow(task);
+		
+		if (row >= store.getSegmentCount()) {
+			store.setSegmentCount(Math.max(model.getRowCount(), 0));
+		}
+		
+		if ((row >= 0) && (row < store.getSegmentCount())) {
+			store.add(index, row, translator.getStart(task), 
+					translator.getEnd(task));
+		} else {
+			store.remove(index);
+		}
+	}
+	
+	/**
+	 * Rebuilds this index from the current contents of the model.
+	 */
+	private void build() {
+		int rowCount = Math.max(model.getRowCount(), 0);
+		int taskCount = model.getTaskCount();
+		int[] taskRows = new int[taskCount];
+		long[] taskStarts = new long[taskCount];
+		long[] taskEnds = new long[taskCount];
+		
+		translator.getRows(model, 0, taskCount, taskRows);
+		translator.getStarts(model, 0, taskCount, taskStarts);
+		translator.getEnds(model, 0, taskCount, taskEnds);
+		
+		//ignore the tasks outside the model
+		for (int i = 0; i < taskCount; i++) {
+			if (taskRows[i] >= rowCount) {
+				taskRows[i] = -1;
+			}
+		}
+		
+		store = new IntervalStore(rowCount, taskCount, taskRows, taskStarts,
+				taskEnds);
+		valid = true;
+	}
+
+}
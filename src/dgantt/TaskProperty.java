@@ -0,0 +1,69 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field or getter method of a task class as providing one of the
+ * values read by a {@link PropertyTranslator}.  Fields are read and written
+ * directly; getter methods are paired with the setter method of the same 
+ * property, if one exists.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface TaskProperty {
+	
+	/**
+	 * Enumeration of the task values which can be bound to a property.
+	 */
+	public enum Kind {
+		
+		/**
+		 * The row of the task.
+		 */
+		ROW,
+		
+		/**
+		 * The start value of the task.
+		 */
+		START,
+		
+		/**
+		 * The end value of the task.
+		 */
+		END,
+		
+		/**
+		 * The display text of the task.
+		 */
+		TEXT
+		
+	}
+	
+	/**
+	 * Returns the task value provided by the annotated field or method.
+	 * 
+	 * @return the task value provided by the annotated field or method
+	 */
+	Kind value();
+
+}
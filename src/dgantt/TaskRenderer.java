@@ -26,7 +26,8 @@ import java.awt.geom.Rectangle2D;
 public interface TaskRenderer {
 	
 	/**
-	 * Renders the specified task on the Gantt chart.
+	 * Renders the specified task on the Gantt chart.  The bounds are reused
+	 * by the chart once this method returns, so they must not be retained.
 	 * 
 	 * @param g the graphics object used for rendering
 	 * @param chart the Gantt chart containing the task
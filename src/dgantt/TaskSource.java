@@ -0,0 +1,47 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.List;
+
+/**
+ * Source of tasks for a {@link PagedGanttModel}, such as a database or remote
+ * service.  Tasks are fetched in pages of consecutive rows.  The methods of 
+ * this interface may be invoked from a background thread.
+ */
+public interface TaskSource {
+	
+	/**
+	 * Returns the number of rows provided by this source.
+	 * 
+	 * @return the number of rows provided by this source
+	 */
+	public int getRowCount();
+	
+	/**
+	 * Returns the tasks located in the rows {@code firstRow} through 
+	 * {@code lastRow}, inclusive.  This method may block while the tasks are
+	 * fetched.
+	 * 
+	 * @param firstRow the first row
+	 * @param lastRow the last row
+	 * @return the tasks located in the specified rows
+	 */
+	public List<?> getTasks(int firstRow, int lastRow);
+
+}
@@ -146,7 +146,9 @@ public class TextUtilities {
 			throw new IllegalStateException();
 		}
 
-		paintString(g, text, new Point(bounds.x+hoffset, bounds.y+voffset));
+		//draw directly rather than through a Point to avoid an allocation
+		g.drawString(text, bounds.x + hoffset, bounds.y + voffset + 
+				fm.getAscent());
 	}
 
 	/**
@@ -0,0 +1,353 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of rendered tiles for a {@link GanttChart}.  The chart is divided into
+ * square tiles of a fixed size, and each tile is rendered once into an
+ * offscreen image.  Subsequent repaints copy the cached image rather than
+ * rendering the rows, tasks and links again.  Tiles are only discarded when
+ * the region they cover is invalidated, when the geometry of the chart (its
+ * width, row height or range) changes, or when memory is needed.
+ * <p>
+ * Tiles are held by {@link SoftReference}s and evicted in least-recently-used
+ * order once the memory used by the cached tiles exceeds the configured 
+ * limit.  The number of cache hits and misses is recorded to assist with 
+ * tuning the tile size and memory limit.
+ */
+public class TileCache {
+	
+	/**
+	 * The default width and height of each tile, in pixels.
+	 */
+	public static final int DEFAULT_TILE_SIZE = 256;
+	
+	/**
+	 * The default limit on the memory used by cached tiles, in bytes.
+	 */
+	public static final long DEFAULT_MAXIMUM_MEMORY = 64L * 1024 * 1024;
+	
+	/**
+	 * The width and height of each tile, in pixels.
+	 */
+	private final int tileSize;
+	
+	/**
+	 * The limit on the memory used by cached tiles, in bytes.
+	 */
+	private long maximumMemory;
+	
+	/**
+	 * The cached tiles in least-recently-used order, keyed by their packed 
+	 * column and row.
+	 */
+	private final LinkedHashMap<Long, SoftReference<BufferedImage>> tiles;
+	
+	/**
+	 * The width of the chart when the cached tiles were rendered.
+	 */
+	private int width;
+	
+	/**
+	 * The row height of the chart when the cached tiles were rendered.
+	 */
+	private int rowHeight;
+	
+	/**
+	 * The minimum value of the chart when the cached tiles were rendered.
+	 */
+	private long rangeMinimum;
+	
+	/**
+	 * The maximum value of the chart when the cached tiles were rendered.
+	 */
+	private long rangeMaximum;
+	
+	/**
+	 * The number of tile requests satisfied by the cache.
+	 */
+	private long hitCount;
+	
+	/**
+	 * The number of tile requests not satisfied by the cache.
+	 */
+	private long missCount;
+	
+	/**
+	 * Class constructor for a tile cache with the default tile size and memory
+	 * limit.
+	 */
+	public TileCache() {
+		this(DEFAULT_TILE_SIZE, DEFAULT_MAXIMUM_MEMORY);
+	}
+	
+	/**
+	 * Class constructor for a tile cache with the specified tile size and
+	 * memory limit.
+	 * 
+	 * @param tileSize the width and height of each tile, in pixels
+	 * @param maximumMemory the limit on the memory used by cached tiles, in 
+	 *        bytes
+	 */
+	public TileCache(int tileSize, long maximumMemory) {
+		super();
+		
+		if (tileSize <= 0) {
+			throw new IllegalArgumentException("tile size must be positive");
+		}
+		
+		this.tileSize = tileSize;
+		this.maximumMemory = maximumMemory;
+		
+		tiles = new LinkedHashMap<Long, SoftReference<BufferedImage>>(16, 0.75f,
+				true) {
+
+			private static final long serialVersionUID = -3604925735342640476L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<Long, SoftReference<BufferedImage>> eldest) {
+				return size() > getMaximumTileCount();
+			}
+			
+		};
+	}
+	
+	/**
+	 * Returns the width and height of each tile, in pixels.
+	 * 
+	 * @return the width and height of each tile, in pixels
+	 */
+	public int getTileSize() {
+		return tileSize;
+	}
+	
+	/**
+	 * Returns the limit on the memory used by cached tiles, in bytes.
+	 * 
+	 * @return the limit on the memory used by cached tiles, in bytes
+	 */
+	public long getMaximumMemory() {
+		return maximumMemory;
+	}
+	
+	/**
+	 * Sets the limit on the memory used by cached tiles, in bytes.  Tiles are
+	 * evicted immediately if the cache exceeds the new limit.
+	 * 
+	 * @param maximumMemory the limit on the memory used by cached tiles, in
+	 *        bytes
+	 */
+	public void setMaximumMemory(long maximumMemory) {
+		this.maximumMemory = maximumMemory;
+		
+		Iterator<Long> iterator = tiles.keySet().iterator();
+		
+		while ((tiles.size() > getMaximumTileCount()) && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+	
+	/**
+	 * Returns the maximum number of tiles held by this cache.  At least one
+	 * tile is always permitted.
+	 * 
+	 * @return the maximum number of tiles held by this cache
+	 */
+	public int getMaximumTileCount() {
+		long tileMemory = 4L * tileSize * tileSize;
+		return (int)Math.max(1, Math.min(Integer.MAX_VALUE, 
+				maximumMemory / tileMemory));
+	}
+	
+	/**
+	 * Returns the number of tiles currently held by this cache, including any
+	 * tiles whose images have been reclaimed by the garbage collector.
+	 * 
+	 * @return the number of tiles currently held by this cache
+	 */
+	public int getTileCount() {
+		return tiles.size();
+	}
+	
+	/**
+	 * Returns the number of tile requests satisfied by this cache.
+	 * 
+	 * @return the number of tile requests satisfied by this cache
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+	
+	/**
+	 * Returns the number of tile requests not satisfied by this cache.
+	 * 
+	 * @return the number of tile requests not satisfied by this cache
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+	
+	/**
+	 * Resets the hit and miss counts to zero.
+	 */
+	public void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+	}
+	
+	/**
+	 * Updates the geometry of the chart whose tiles are cached.  If the 
+	 * geometry differs from that of the cached tiles, all tiles are discarded.
+	 * 
+	 * @param width the width of the chart
+	 * @param rowHeight the height of each row in the chart
+	 * @param rangeMinimum the minimum value displayed in the chart
+	 * @param rangeMaximum the maximum value displayed in the chart
+	 */
+	public void setGeometry(int width, int rowHeight, long rangeMinimum, 
+			long rangeMaximum) {
+		if ((this.width != width) || (this.rowHeight != rowHeight) ||
+				(this.rangeMinimum != rangeMinimum) ||
+				(this.rangeMaximum != rangeMaximum)) {
+			invalidateAll();
+			
+			this.width = width;
+			this.rowHeight = rowHeight;
+			this.rangeMinimum = rangeMinimum;
+			this.rangeMaximum = rangeMaximum;
+		}
+	}
+	
+	/**
+	 * Returns the cached image of the tile at the specified column and row;
+	 * or {@code null} if the tile is not cached.
+	 * 
+	 * @param column the column of the tile
+	 * @param row the row of the tile
+	 * @return the cached image of the tile at the specified column and row;
+	 *         or {@code null} if the tile is not cached
+	 */
+	public BufferedImage getTile(int column, int row) {
+		Long key = getKey(column, row);
+		SoftReference<BufferedImage> reference = tiles.get(key);
+		BufferedImage image = (reference == null) ? null : reference.get();
+		
+		if (image == null) {
+			if (reference != null) {
+				tiles.remove(key);
+			}
+			
+			missCount++;
+		} else {
+			hitCount++;
+		}
+		
+		return image;
+	}
+	
+	/**
+	 * Stores the rendered image of the tile at the specified column and row.
+	 * 
+	 * @param column the column of the tile
+	 * @param row the row of the tile
+	 * @param image the rendered image of the tile
+	 */
+	public void putTile(int column, int row, BufferedImage image) {
+		tiles.put(getKey(column, row), new SoftReference<BufferedImage>(image));
+	}
+	
+	/**
+	 * Returns a new image suitable for rendering a tile.
+	 * 
+	 * @return a new image suitable for rendering a tile
+	 */
+	public BufferedImage createTile() {
+		return new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_RGB);
+	}
+	
+	/**
+	 * Discards all cached tiles intersecting the specified region in screen
+	 * coordinates.
+	 * 
+	 * @param region the invalidated region in screen coordinates
+	 */
+	public void invalidate(Rectangle2D region) {
+		if (tiles.isEmpty() || region.isEmpty()) {
+			return;
+		}
+		
+		int firstColumn = Math.max(0, (int)Math.floor(region.getMinX() / 
+				tileSize));
+		int lastColumn = (int)Math.floor(region.getMaxX() / tileSize);
+		int firstRow = Math.max(0, (int)Math.floor(region.getMinY() / 
+				tileSize));
+		int lastRow = (int)Math.floor(region.getMaxY() / tileSize);
+		long area = (long)(lastColumn - firstColumn + 1) * 
+				(lastRow - firstRow + 1);
+		
+		if (area > tiles.size()) {
+			//cheaper to scan the cached tiles than the invalidated region
+			Iterator<Long> iterator = tiles.keySet().iterator();
+			
+			while (iterator.hasNext()) {
+				long key = iterator.next();
+				int column = (int)key;
+				int row = (int)(key >>> 32);
+				
+				if ((column >= firstColumn) && (column <= lastColumn) &&
+						(row >= firstRow) && (row <= lastRow)) {
+					iterator.remove();
+				}
+			}
+		} else {
+			for (int row = firstRow; row <= lastRow; row++) {
+				for (int column = firstColumn; column <= lastColumn; column++) {
+					tiles.remove(getKey(column, row));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Discards all cached tiles.
+	 */
+	public void invalidateAll() {
+		tiles.clear();
+	}
+	
+	/**
+	 * Returns the key identifying the tile at the specified column and row.
+	 * 
+	 * @param column the column of the tile
+	 * @param row the row of the tile
+	 * @return the key identifying the tile at the specified column and row
+	 */
+	private static Long getKey(int column, int row) {
+		return ((long)row << 32) | (column & 0xFFFFFFFFL);
+	}
+
+}
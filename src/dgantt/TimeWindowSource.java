@@ -0,0 +1,65 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.List;
+
+/**
+ * Source of tasks for a {@link WindowedGanttModel}, such as a database or
+ * remote service, queried by windows of time.  Besides the tasks, the source
+ * provides a cheap summary of the full range of its tasks, allowing a 
+ * {@link GanttChart} to size itself without loading every task.  The methods
+ * of this interface may be invoked from a background thread.
+ */
+public interface TimeWindowSource {
+	
+	/**
+	 * Returns the number of rows provided by this source.
+	 * 
+	 * @return the number of rows provided by this source
+	 */
+	public int getRowCount();
+	
+	/**
+	 * Returns the minimum start value of all tasks provided by this source.
+	 * 
+	 * @return the minimum start value of all tasks provided by this source
+	 */
+	public long getMinimum();
+	
+	/**
+	 * Returns the maximum end value of all tasks provided by this source.
+	 * 
+	 * @return the maximum end value of all tasks provided by this source
+	 */
+	public long getMaximum();
+	
+	/**
+	 * Returns the tasks whose start and end values overlap the range 
+	 * {@code start} through {@code end}, inclusive.  This method may block 
+	 * while the tasks are fetched.  Tasks overlapping several windows are
+	 * returned for each window, and must either be the same instance or be
+	 * equal according to {@link Object#equals(Object)}.
+	 * 
+	 * @param start the start of the window
+	 * @param end the end of the window
+	 * @return the tasks overlapping the specified window
+	 */
+	public List<?> getTasks(long start, long end);
+
+}
@@ -18,6 +18,7 @@
 package dgantt;
 
 import java.util.Date;
+import java.util.List;
 
 /**
  * Translator to extract the necessary Gantt chart details from a user-defined
@@ -27,6 +28,12 @@ import java.util.Date;
  * <p>
  * The default implementations of the {@code set} methods are read-only; the
  * underlying task is never modified unless such methods are overridden.
+ * <p>
+ * The bulk methods, such as {@link #getStarts(GanttModel, int, int, long[])}
+ * and {@link #applyUpdates(List, int[], long[], long[])}, read or write the
+ * values of many tasks using primitive arrays.  Their default implementations
+ * invoke the per-task methods, but translators storing the values in arrays
+ * may override them to copy the values directly.
  */
 public abstract class Translator {
 	
@@ -126,5 +133,132 @@ public abstract class Translator {
 	public void setText(Object task, String text) {
 		//do nothing, default mode is read-only
 	}
+	
+	/**
+	 * Stores the rows of the tasks in the specified model with indices 
+	 * {@code from} (inclusive) through {@code to} (exclusive) in the 
+	 * specified array, starting at position {@code 0}.  The default 
+	 * implementation invokes {@link #getRow(Object)} on each task; 
+	 * translators with direct access to the values may override this method
+	 * to copy them in bulk.
+	 * 
+	 * @param model the Gantt model containing the tasks
+	 * @param from the index of the first task
+	 * @param to the index following the last task
+	 * @param rows the array receiving the rows
+	 */
+	public void getRows(GanttModel model, int from, int to, int[] rows) {
+		for (int i = from; i < to; i++) {
+			rows[i - from] = getRow(model.getTaskAt(i));
+		}
+	}
+	
+	/**
+	 * Stores the start values of the tasks in the specified model with 
+	 * indices {@code from} (inclusive) through {@code to} (exclusive) in the
+	 * specified array, starting at position {@code 0}.  The default 
+	 * implementation invokes {@link #getStart(Object)} on each task.
+	 * 
+	 * @param model the Gantt model containing the tasks
+	 * @param from the index of the first task
+	 * @param to the index following the last task
+	 * @param starts the array receiving the start values
+	 */
+	public void getStarts(GanttModel model, int from, int to, long[] starts) {
+		for (int i = from; i < to; i++) {
+			starts[i - from] = getStart(model.getTaskAt(i));
+		}
+	}
+	
+	/**
+	 * Stores the end values of the tasks in the specified model with indices
+	 * {@code from} (inclusive) through {@code to} (exclusive) in the 
+	 * specified array, starting at position {@code 0}.  The default 
+	 * implementation invokes {@link #getEnd(Object)} on each task.
+	 * 
+	 * @param model the Gantt model containing the tasks
+	 * @param from the index of the first task
+	 * @param to the index following the last task
+	 * @param ends the array receiving the end values
+	 */
+	public void getEnds(GanttModel model, int from, int to, long[] ends) {
+		for (int i = from; i < to; i++) {
+			ends[i - from] = getEnd(model.getTaskAt(i));
+		}
+	}
+	
+	/**
+	 * Stores the rows of the specified tasks in the specified array.  The 
+	 * default implementation invokes {@link #getRow(Object)} on each task.
+	 * 
+	 * @param tasks the tasks
+	 * @param rows the array receiving the rows
+	 */
+	public void getRows(List<?> tasks, int[] rows) {
+		for (int i = 0; i < tasks.size(); i++) {
+			rows[i] = getRow(tasks.get(i));
+		}
+	}
+	
+	/**
+	 * Stores the start values of the specified tasks in the specified array.
+	 * The default implementation invokes {@link #getStart(Object)} on each 
+	 * task.
+	 * 
+	 * @param tasks the tasks
+	 * @param starts the array receiving the start values
+	 */
+	public void getStarts(List<?> tasks, long[] starts) {
+		for (int i = 0; i < tasks.size(); i++) {
+			starts[i] = getStart(tasks.get(i));
+		}
+	}
+	
+	/**
+	 * Stores the end values of the specified tasks in the specified array.
+	 * The default implementation invokes {@link #getEnd(Object)} on each 
+	 * task.
+	 * 
+	 * @param tasks the tasks
+	 * @param ends the array receiving the end values
+	 */
+	public void getEnds(List<?> tasks, long[] ends) {
+		for (int i = 0; i < tasks.size(); i++) {
+			ends[i] = getEnd(tasks.get(i));
+		}
+	}
+	
+	/**
+	 * Sets the rows, start values and end values of the specified tasks from
+	 * the specified arrays.  Any array may be {@code null}, in which case the
+	 * corresponding values are not changed.  The start and end values are 
+	 * set before the rows.  The default implementation invokes the 
+	 * {@code set} methods on each task.
+	 * 
+	 * @param tasks the tasks
+	 * @param rows the new rows; or {@code null} if the rows are unchanged
+	 * @param starts the new start values; or {@code null} if the start values
+	 *        are unchanged
+	 * @param ends the new end values; or {@code null} if the end values are
+	 *        unchanged
+	 */
+	public void applyUpdates(List<?> tasks, int[] rows, long[] starts, 
+			long[] ends) {
+		for (int i = 0; i < tasks.size(); i++) {
+			Object task = tasks.get(i);
+			
+			if (starts != null) {
+				setStart(task, starts[i]);
+			}
+			
+			if (ends != null) {
+				setEnd(task, ends[i]);
+			}
+			
+			if (rows != null) {
+				setRow(task, rows[i]);
+			}
+		}
+	}
 
 }
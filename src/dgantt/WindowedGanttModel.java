@@ -0,0 +1,709 @@
+/* Copyright 2011 David Hadka
+ * 
+ * This file is part of DGantt.
+ * 
+ * DGantt is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free 
+ * Software Foundation, either version 3 of the License, or (at your option) 
+ * any later version.
+ * 
+ * DGantt is distributed in the hope that it will be useful, but WITHOUT ANY 
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS 
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for 
+ * more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License 
+ * along with the DGantt.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package dgantt;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * {@link GanttModel} which lazily fetches tasks from a 
+ * {@link TimeWindowSource} in fixed-width windows of time, for timelines too
+ * long to hold in memory.  Only the windows overlapping the canonical range
+ * visible in the {@link GanttChart}, plus a margin of windows on either side,
+ * are fetched.  Windows further than a retention distance from the visible
+ * range are discarded.
+ * <p>
+ * The range of this model is taken from the summary provided by the source,
+ * so the chart and its scroll bars are sized for the full timeline without 
+ * fetching every task.  Windows are fetched on a background thread and 
+ * installed on the event dispatch thread, firing a {@link GanttModelEvent}.
+ * This model must only be accessed from the event dispatch thread.
+ */
+public class WindowedGanttModel extends GanttModel {
+	
+	/**
+	 * The source of tasks.
+	 */
+	private final TimeWindowSource source;
+	
+	/**
+	 * The executor used to fetch windows from the source.
+	 */
+	private final Executor executor;
+	
+	/**
+	 * The width of each window, in canonical units.
+	 */
+	private final long windowSize;
+	
+	/**
+	 * The number of windows fetched on either side of the visible range.
+	 */
+	private int margin;
+	
+	/**
+	 * The number of windows beyond the margin retained on either side of the
+	 * visible range.
+	 */
+	private int retention;
+	
+	/**
+	 * The number of rows provided by the source.
+	 */
+	private int rowCount;
+	
+	/**
+	 * The minimum start value of all tasks provided by the source.
+	 */
+	private long minimum;
+	
+	/**
+	 * The maximum end value of all tasks provided by the source.
+	 */
+	private long maximum;
+	
+	/**
+	 * The loaded windows, keyed by window number.
+	 */
+	private final TreeMap<Long, List<?>> windows;
+	
+	/**
+	 * The window numbers of the windows currently being fetched.
+	 */
+	private final Set<Long> pendingWindows;
+	
+	/**
+	 * The number of loaded windows containing each loaded task.
+	 */
+	private final Map<Object, Integer> references;
+	
+	/**
+	 * The distinct tasks in all loaded windows.
+	 */
+	private final List<Object> tasks;
+	
+	/**
+	 * Incremented whenever the loaded windows are discarded, so windows 
+	 * fetched prior to the discard are ignored.
+	 */
+	private int generation;
+	
+	/**
+	 * The first window in the range visible in the chart.
+	 */
+	private long firstWindow;
+	
+	/**
+	 * The last window in the range visible in the chart.
+	 */
+	private long lastWindow;
+	
+	/**
+	 * {@code true} if discarding distant windows has been scheduled; 
+	 * {@code false} otherwise.
+	 */
+	private boolean evictionScheduled;
+	
+	/**
+	 * The number of visible windows that were already loaded when requested.
+	 */
+	private long hitCount;
+	
+	/**
+	 * The number of visible windows that were not loaded when requested.
+	 */
+	private long missCount;
+	
+	/**
+	 * The number of windows fetched from the source.
+	 */
+	private long loadCount;
+	
+	/**
+	 * The total time, in nanoseconds, between requesting and installing the
+	 * fetched windows.
+	 */
+	private long totalLatency;
+	
+	/**
+	 * Class constructor for a windowed Gantt model fetching tasks from the
+	 * specified source on a single background thread.
+	 * 
+	 * @param source the source of tasks
+	 * @param windowSize the width of each window, in canonical units
+	 */
+	public WindowedGanttModel(TimeWindowSource source, long windowSize) {
+		this(source, windowSize, 
+				Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, 
+								"WindowedGanttModel loader");
+						thread.setDaemon(true);
+						return thread;
+					}
+					
+				}));
+	}
+	
+	/**
+	 * Class constructor for a windowed Gantt model fetching tasks from the
+	 * specified source.
+	 * 
+	 * @param source the source of tasks
+	 * @param windowSize the width of each window, in canonical units
+	 * @param executor the executor used to fetch windows from the source
+	 * @throws IllegalArgumentException if {@code windowSize} is not positive
+	 */
+	public WindowedGanttModel(TimeWindowSource source, long windowSize,
+			Executor executor) {
+		super();
+		
+		if (windowSize <= 0) {
+			throw new IllegalArgumentException(
+					"window size must be positive");
+		}
+		
+		this.source = source;
+		this.windowSize = windowSize;
+		this.executor = executor;
+		
+		margin = 1;
+		retention = 4;
+		windows = new TreeMap<Long, List<?>>();
+		pendingWindows = new HashSet<Long>();
+		references = new LinkedHashMap<Object, Integer>();
+		tasks = new ArrayList<Object>();
+		firstWindow = Long.MIN_VALUE;
+		lastWindow = Long.MIN_VALUE;
+		
+		readSummary();
+	}
+	
+	/**
+	 * Reads the number of rows and the range of the tasks from the source.
+	 */
+	private void readSummary() {
+		rowCount = source.getRowCount();
+		minimum = source.getMinimum();
+		maximum = Math.max(minimum, source.getMaximum());
+	}
+
+	@Override
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	@Override
+	public int getTaskCount() {
+		return tasks.size();
+	}
+
+	@Override
+	public Object getTaskAt(int index) {
+		return tasks.get(index);
+	}
+
+	/**
+	 * Returns {@code true}, since the range is provided by the source.
+	 * 
+	 * @return {@code true}
+	 */
+	@Override
+	public boolean isRangeKnown() {
+		return true;
+	}
+
+	@Override
+	public long getMinimum() {
+		return minimum;
+	}
+
+	@Override
+	public long getMaximum() {
+		return maximum;
+	}
+	
+	/**
+	 * Returns {@code true} if every window in the range visible in the chart
+	 * is loaded; {@code false} otherwise.  Since windows span all rows, the 
+	 * result is the same for every row.  Windows fetched for hit tests or 
+	 * for tiles partially outside the visible range are not considered.
+	 * 
+	 * @param row the row
+	 * @return {@code true} if every window in the visible range is loaded;
+	 *         {@code false} otherwise
+	 */
+	@Override
+	public boolean isRowLoaded(int row) {
+		if (firstWindow == Long.MIN_VALUE) {
+			return true;
+		}
+		
+		for (long window = firstWindow; window <= lastWindow; window++) {
+			if (!windows.containsKey(window)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Returns the width of each window, in canonical units.
+	 * 
+	 * @return the width of each window, in canonical units
+	 */
+	public long getWindowSize() {
+		return windowSize;
+	}
+	
+	/**
+	 * Returns the number of windows fetched on either side of the visible 
+	 * range.
+	 * 
+	 * @return the number of windows fetched on either side of the visible 
+	 *         range
+	 */
+	public int getMargin() {
+		return margin;
+	}
+	
+	/**
+	 * Sets the number of windows fetched on either side of the visible range.
+	 * 
+	 * @param margin the number of windows fetched on either side of the 
+	 *        visible range
+	 */
+	public void setMargin(int margin) {
+		this.margin = Math.max(margin, 0);
+	}
+	
+	/**
+	 * Returns the number of windows beyond the margin retained on either side
+	 * of the visible range.
+	 * 
+	 * @return the number of windows beyond the margin retained on either side
+	 *         of the visible range
+	 */
+	public int getRetention() {
+		return retention;
+	}
+	
+	/**
+	 * Sets the number of windows beyond the margin retained on either side of
+	 * the visible range.  Windows further from the visible range are 
+	 * discarded.
+	 * 
+	 * @param retention the number of windows beyond the margin retained on 
+	 *        either side of the visible range
+	 */
+	public void setRetention(int retention) {
+		this.retention = Math.max(retention, 0);
+	}
+	
+	/**
+	 * Returns the number of loaded windows.
+	 * 
+	 * @return the number of loaded windows
+	 */
+	public int getWindowCount() {
+		return windows.size();
+	}
+	
+	/**
+	 * Returns the number of visible windows that were already loaded when
+	 * requested.
+	 * 
+	 * @return the number of visible windows that were already loaded when
+	 *         requested
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+	
+	/**
+	 * Returns the number of visible windows that were not loaded when 
+	 * requested.
+	 * 
+	 * @return the number of visible windows that were not loaded when 
+	 *         requested
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+	
+	/**
+	 * Returns the number of windows fetched from the source, including 
+	 * windows in the margin.
+	 * 
+	 * @return the number of windows fetched from the source
+	 */
+	public long getLoadCount() {
+		return loadCount;
+	}
+	
+	/**
+	 * Returns the average time, in milliseconds, between requesting a window
+	 * and installing the fetched window; or {@code 0} if no windows were 
+	 * fetched.
+	 * 
+	 * @return the average time, in milliseconds, between requesting a window
+	 *         and installing the fetched window
+	 */
+	public double getAverageLatency() {
+		return (loadCount == 0) ? 0.0 : totalLatency / (loadCount * 1e6);
+	}
+	
+	/**
+	 * Resets the window hit, miss, load and latency counters.
+	 */
+	public void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+		loadCount = 0;
+		totalLatency = 0;
+	}
+	
+	/**
+	 * Discards all loaded windows and rereads the number of rows and range 
+	 * from the source.  Windows are fetched again when next requested.
+	 */
+	public void reload() {
+		generation++;
+		windows.clear();
+		pendingWindows.clear();
+		references.clear();
+		tasks.clear();
+		readSummary();
+		fireGanttModelChanged();
+	}
+	
+	/**
+	 * Sets the canonical range visible in the chart.  The windows overlapping
+	 * the visible range, along with the windows in the margin on either side,
+	 * are fetched in the background if not already loaded.  Windows outside
+	 * the retention distance of the visible range are discarded once the 
+	 * current event has been processed.  The rows are ignored, since windows
+	 * span all rows.
+	 * 
+	 * @param firstRow the first visible row
+	 * @param lastRow the last visible row
+	 * @param start the start of the visible range in canonical coordinates
+	 * @param end the end of the visible range in canonical coordinates
+	 */
+	@Override
+	public void setVisibleRange(int firstRow, int lastRow, long start, 
+			long end) {
+		start = Math.max(start, minimum);
+		end = Math.min(end, maximum);
+		
+		if (start > end) {
+			return;
+		}
+		
+		firstWindow = getWindow(start);
+		lastWindow = getWindow(end);
+		
+		long lastAvailable = getWindow(maximum);
+		
+		for (long window = firstWindow - margin; 
+				window <= lastWindow + margin; window++) {
+			if ((window < 0) || (window > lastAvailable)) {
+				continue;
+			}
+			
+			boolean visible = (window >= firstWindow) && 
+					(window <= lastWindow);
+			
+			if (windows.containsKey(window)) {
+				if (visible) {
+					hitCount++;
+				}
+			} else if (load(window) && visible) {
+				missCount++;
+			}
+		}
+		
+		if (!evictionScheduled && !windows.isEmpty() && 
+				(isDistant(windows.firstKey()) || 
+						isDistant(windows.lastKey()))) {
+			evictionScheduled = true;
+			
+			SwingUtilities.invokeLater(new Runnable() {
+
+				@Override
+				public void run() {
+					evictionScheduled = false;
+					evict();
+				}
+				
+			});
+		}
+	}
+	
+	/**
+	 * Requests the tasks overlapping the canonical range {@code start} through
+	 * {@code end}.  Windows not already loaded are fetched in the background,
+	 * provided they lie within the retention distance of the visible range.
+	 * Unlike {@link #setVisibleRange(int, int, long, long)}, this method 
+	 * never changes the visible range or discards windows, so the partial 
+	 * queries made while hit testing or painting individual tiles do not 
+	 * evict the windows being viewed.  If no visible range has been set, the
+	 * requested range becomes the visible range.  This method is invoked by
+	 * the {@link TaskIndex} of the chart whenever it is queried.
+	 * 
+	 * @param start the start of the range
+	 * @param end the end of the range
+	 */
+	public void requestRange(long start, long end) {
+		if (firstWindow == Long.MIN_VALUE) {
+			setVisibleRange(0, rowCount - 1, start, end);
+			return;
+		}
+		
+		start = Math.max(start, minimum);
+		end = Math.min(end, maximum);
+		
+		if (start > end) {
+			return;
+		}
+		
+		for (long window = getWindow(start); window <= getWindow(end); 
+				window++) {
+			if (!windows.containsKey(window) && !isDistant(window)) {
+				load(window);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the window containing the specified canonical value.
+	 * 
+	 * @param value the canonical value, which must not be less than the 
+	 *        minimum
+	 * @return the window containing the specified canonical value
+	 */
+	private long getWindow(long value) {
+		return (value - minimum) / windowSize;
+	}
+	
+	/**
+	 * Returns {@code true} if the specified window lies outside the retention
+	 * distance of the visible range; {@code false} otherwise.
+	 * 
+	 * @param window the window number
+	 * @return {@code true} if the specified window lies outside the retention
+	 *         distance of the visible range; {@code false} 
+	 *         otherwise
+	 */
+	private boolean isDistant(long window) {
+		return (window < firstWindow - margin - retention) || 
+				(window > lastWindow + margin + retention);
+	}
+	
+	/**
+	 * Fetches the specified window in the background, unless it is already
+	 * being fetched.
+	 * 
+	 * @param window the window number
+	 * @return {@code true} if a new fetch was started; {@code false} if the 
+	 *         window was already being fetched
+	 */
+	private boolean load(final long window) {
+		if (!pendingWindows.add(window)) {
+			return false;
+		}
+		
+		final int requestGeneration = generation;
+		final long requestTime = System.nanoTime();
+		final long start = minimum + window*windowSize;
+		final long end = start + windowSize - 1;
+		
+		executor.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				List<?> result = null;
+				
+				try {
+					result = source.getTasks(start, end);
+				} finally {
+					final List<?> windowTasks = result;
+					
+					SwingUtilities.invokeLater(new Runnable() {
+
+						@Override
+						public void run() {
+							install(window, requestGeneration, requestTime, 
+									windowTasks);
+						}
+						
+					});
+				}
+			}
+			
+		});
+		
+		return true;
+	}
+	
+	/**
+	 * Installs a fetched window, firing an event identifying the tasks not
+	 * already loaded from other windows.  Windows fetched prior to a call to
+	 * {@link #reload()}, or which are now outside the retention distance, are
+	 * ignored.
+	 * 
+	 * @param window the window number
+	 * @param requestGeneration the generation when the window was requested
+	 * @param requestTime the time, in nanoseconds, when the window was 
+	 *        requested
+	 * @param windowTasks the tasks in the window; or {@code null} if fetching
+	 *        the window failed
+	 */
+	private void install(long window, int requestGeneration, long requestTime,
+			List<?> windowTasks) {
+		if (requestGeneration != generation) {
+			return;
+		}
+		
+		pendingWindows.remove(window);
+		
+		if ((windowTasks == null) || isDistant(window)) {
+			return;
+		}
+		
+		loadCount++;
+		totalLatency += System.nanoTime() - requestTime;
+		
+		List<Object> inserted = new ArrayList<Object>();
+		windows.put(window, windowTasks);
+		
+		for (Object task : windowTasks) {
+			Integer count = references.get(task);
+			
+			if (count == null) {
+				references.put(task, 1);
+				inserted.add(task);
+			} else {
+				references.put(task, count + 1);
+			}
+		}
+		
+		tasks.addAll(inserted);
+		
+		if (!inserted.isEmpty()) {
+			fireTasksInserted(inserted, 0, rowCount - 1);
+		} else if (isRowLoaded(0)) {
+			//remove the placeholders even though no tasks were added
+			fireGanttModelChanged(0, rowCount - 1);
+		}
+	}
+	
+	/**
+	 * Discards the windows outside the retention distance of the visible 
+	 * range, firing an event identifying the tasks no longer contained in 
+	 * any loaded window.
+	 */
+	private void evict() {
+		List<Object> removed = new ArrayList<Object>();
+		Iterator<Map.Entry<Long, List<?>>> iterator = 
+				windows.entrySet().iterator();
+		
+		while (iterator.hasNext()) {
+			Map.Entry<Long, List<?>> entry = iterator.next();
+			
+			if (!isDistant(entry.getKey())) {
+				continue;
+			}
+			
+			iterator.remove();
+			
+			for (Object task : entry.getValue()) {
+				Integer count = references.get(task);
+				
+				if (count == null) {
+					continue;
+				} else if (count == 1) {
+					references.remove(task);
+					removed.add(task);
+				} else {
+					references.put(task, count - 1);
+				}
+			}
+		}
+		
+		if (!removed.isEmpty()) {
+			tasks.clear();
+			tasks.addAll(references.keySet());
+			fireTasksRemoved(removed, 0, rowCount - 1);
+		}
+	}
+
+	@Override
+	public TaskIndex createTaskIndex(Translator translator) {
+		return new WindowedTaskIndex(this, translator);
+	}
+	
+	/**
+	 * {@link TaskIndex} over the loaded tasks which requests the windows
+	 * overlapping the queried range.
+	 */
+	private static class WindowedTaskIndex extends TaskIndex {
+		
+		/**
+		 * The model storing the indexed tasks.
+		 */
+		private final WindowedGanttModel model;
+		
+		/**
+		 * Class constructor for an index over the loaded tasks in the 
+		 * specified model.
+		 * 
+		 * @param model the model storing the indexed tasks
+		 * @param translator the {@code Translator} used to extract the row, 
+		 *        start and end values of the indexed tasks
+		 */
+		public WindowedTaskIndex(WindowedGanttModel model, 
+				Translator translator) {
+			super(model, translator);
+			this.model = model;
+		}
+
+		@Override
+		public void query(int firstRow, int lastRow, long start, long end,
+				IntList result) {
+			model.requestRange(start, end);
+			super.query(firstRow, lastRow, start, end, result);
+		}
+		
+	}
+
+}